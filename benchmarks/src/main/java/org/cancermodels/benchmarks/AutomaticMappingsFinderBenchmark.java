@@ -0,0 +1,127 @@
+package org.cancermodels.benchmarks;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.cancermodels.mappings.automatic_mappings.AutomaticMappingsFinder;
+import org.cancermodels.mappings.suggestions.SimilarityConfigurationReader;
+import org.cancermodels.mappings.suggestions.SuggestionService;
+import org.cancermodels.pdcm_admin.persistance.MappingEntity;
+import org.cancermodels.pdcm_admin.persistance.Suggestion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Selection of the best suggestion when calculating automatic mappings. The suggestions are returned
+ * by a stub instead of Entity2Ontology, so only the selection is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AutomaticMappingsFinderBenchmark {
+
+  /**
+   * Which criterion decides the result: a suggestion above the threshold, a consensus among the
+   * acceptable suggestions, or none of them.
+   */
+  @Param({"perfect", "consensus", "none"})
+  public String scenario;
+
+  @Param({"10"})
+  public int suggestionsPerEntity;
+
+  private AutomaticMappingsFinder automaticMappingsFinder;
+  private MappingEntity mappingEntity;
+  private List<MappingEntity> mappingEntities;
+
+  @Setup
+  public void setup() {
+    SimilarityConfigurationReader configuration = new SimilarityConfigurationReader();
+    // Defaults in application.properties
+    ReflectionTestUtils.setField(configuration, "candidateThreshold", 75);
+    ReflectionTestUtils.setField(configuration, "automaticWithRevisionThreshold", 90);
+    ReflectionTestUtils.setField(configuration, "automaticDirectThreshold", 95);
+    ReflectionTestUtils.setField(configuration, "requiredConsensusNumber", 3);
+
+    Random random = new Random(42);
+    mappingEntities = BenchmarkData.entities(100);
+    mappingEntity = mappingEntities.getFirst();
+    Map<Integer, List<Suggestion>> suggestions = new LinkedHashMap<>();
+    mappingEntities.forEach(x -> suggestions.put(x.getId(), buildSuggestions(random)));
+    automaticMappingsFinder =
+        new AutomaticMappingsFinder(configuration, new StubSuggestionService(suggestions));
+  }
+
+  @Benchmark
+  public Optional<Suggestion> findBestSuggestion() throws Exception {
+    return automaticMappingsFinder.findBestSuggestion(mappingEntity);
+  }
+
+  @Benchmark
+  public Map<Integer, Optional<Suggestion>> findBestSuggestions() throws Exception {
+    return automaticMappingsFinder.findBestSuggestions(mappingEntities);
+  }
+
+  private List<Suggestion> buildSuggestions(Random random) {
+    List<Suggestion> suggestions = new ArrayList<>(suggestionsPerEntity);
+    for (int i = 0; i < suggestionsPerEntity; i++) {
+      Suggestion suggestion = new Suggestion();
+      suggestion.setSourceType(i % 2 == 0 ? "Rule" : "Ontology");
+      suggestion.setSuggestedTermLabel("Term " + i);
+      double relativeScore = switch (scenario) {
+        case "perfect" -> i == suggestionsPerEntity - 1 ? 95 : 50 + random.nextInt(40);
+        case "consensus" -> 76 + random.nextInt(13);
+        default -> 40 + random.nextInt(30);
+      };
+      String url = "consensus".equals(scenario)
+          ? "http://purl.obolibrary.org/obo/NCIT_C1"
+          : "http://purl.obolibrary.org/obo/NCIT_C" + i;
+      suggestion.setSuggestedTermUrl(url);
+      suggestion.setRelativeScore(relativeScore);
+      suggestion.setScore(relativeScore / 10);
+      suggestions.add(suggestion);
+    }
+    return suggestions;
+  }
+
+  /**
+   * Returns precalculated suggestions. None of the dependencies of the real service are used.
+   */
+  private static class StubSuggestionService extends SuggestionService {
+    private final Map<Integer, List<Suggestion>> suggestions;
+
+    StubSuggestionService(Map<Integer, List<Suggestion>> suggestions) {
+      super(null, null, null, null, null, null);
+      this.suggestions = suggestions;
+    }
+
+    @Override
+    public List<Suggestion> findSuggestions(MappingEntity mappingEntity) {
+      return suggestions.get(mappingEntity.getId());
+    }
+
+    @Override
+    public Map<Integer, List<Suggestion>> findSuggestions(List<MappingEntity> mappingEntities) {
+      Map<Integer, List<Suggestion>> result = new LinkedHashMap<>();
+      mappingEntities.forEach(x -> result.put(x.getId(), suggestions.get(x.getId())));
+      return result;
+    }
+  }
+}
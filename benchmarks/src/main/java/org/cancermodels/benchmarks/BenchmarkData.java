@@ -0,0 +1,125 @@
+package org.cancermodels.benchmarks;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.cancermodels.pdcm_admin.EntityTypeName;
+import org.cancermodels.pdcm_admin.persistance.EntityType;
+import org.cancermodels.pdcm_admin.persistance.MappingEntity;
+import org.cancermodels.pdcm_admin.persistance.MappingKey;
+import org.cancermodels.pdcm_admin.persistance.MappingValue;
+import org.cancermodels.pdcm_admin.types.MappingType;
+import org.cancermodels.pdcm_admin.types.Status;
+
+/**
+ * Builds synthetic mapping entities, similar in shape to the ones created from the providers data.
+ * The data is generated with a fixed seed, so every run measures the same input.
+ */
+final class BenchmarkData {
+
+  static final String[] DATA_SOURCES = {"TRACE", "JAX", "CRL", "CURIE-LC", "PMLB", "UOC-BC", "WUSTL"};
+  private static final String[] DIAGNOSES = {
+      "Lung Adenocarcinoma", "Breast Invasive Ductal Carcinoma", "Colorectal Carcinoma",
+      "Melanoma", "Glioblastoma", "Pancreatic Ductal Adenocarcinoma", "Ovarian Serous Carcinoma"};
+  private static final String[] TREATMENTS = {
+      "Cisplatin", "Paclitaxel", "Doxorubicin", "Gemcitabine", "Carboplatin", "Trastuzumab", "Erlotinib"};
+  private static final String[] TUMOR_TYPES = {"Primary", "Metastatic", "Recurrent"};
+  private static final String[] TISSUES = {"Lung", "Breast", "Colon", "Skin", "Brain", "Pancreas", "Ovary"};
+
+  private static final EntityType DIAGNOSIS = entityType(1, EntityTypeName.Diagnosis.getLabel());
+  private static final EntityType TREATMENT = entityType(2, EntityTypeName.Treatment.getLabel());
+
+  private BenchmarkData() {
+  }
+
+  /**
+   * Creates entities alternating diagnosis and treatment, with ids starting at 1.
+   * @param count Number of entities.
+   */
+  static List<MappingEntity> entities(int count) {
+    Random random = new Random(42);
+    List<MappingEntity> entities = new ArrayList<>(count);
+    for (int i = 1; i <= count; i++) {
+      entities.add(i % 2 == 0 ? treatment(i, random) : diagnosis(i, random));
+    }
+    return entities;
+  }
+
+  static MappingEntity diagnosis(int id, Random random) {
+    Map<String, String> values = new LinkedHashMap<>();
+    values.put("SampleDiagnosis", pick(DIAGNOSES, random) + " " + random.nextInt(1000));
+    values.put("TumorType", pick(TUMOR_TYPES, random));
+    values.put("OriginTissue", pick(TISSUES, random));
+    values.put("DataSource", pick(DATA_SOURCES, random));
+    return entity(id, DIAGNOSIS, values, random);
+  }
+
+  static MappingEntity treatment(int id, Random random) {
+    Map<String, String> values = new LinkedHashMap<>();
+    values.put("TreatmentName", pick(TREATMENTS, random) + " " + random.nextInt(1000));
+    values.put("DataSource", pick(DATA_SOURCES, random));
+    return entity(id, TREATMENT, values, random);
+  }
+
+  /**
+   * Rows of {@code MappingEntityRepository#findAllSearchRows()} for some entities: one row per value,
+   * sorted by id.
+   */
+  static List<Object[]> searchRows(List<MappingEntity> entities) {
+    List<Object[]> rows = new ArrayList<>();
+    for (MappingEntity entity : entities) {
+      for (MappingValue value : entity.getMappingValues()) {
+        rows.add(new Object[] {
+            entity.getId(), entity.getMappingKey(), entity.getStatus(), entity.getMappingType(),
+            entity.getEntityType().getName(), entity.getMappedTermLabel(), entity.getDateCreated(),
+            entity.getDateUpdated(), value.getMappingKey().getKey(), value.getValue()});
+      }
+    }
+    return rows;
+  }
+
+  private static MappingEntity entity(
+      int id, EntityType entityType, Map<String, String> values, Random random) {
+    MappingEntity entity = new MappingEntity();
+    entity.setId(id);
+    entity.setEntityType(entityType);
+    entity.setMappingKey("key-" + id);
+    List<MappingValue> mappingValues = new ArrayList<>();
+    values.forEach((key, value) -> {
+      MappingKey mappingKey = new MappingKey();
+      mappingKey.setKey(key);
+      mappingKey.setEntityType(entityType);
+      MappingValue mappingValue = new MappingValue();
+      mappingValue.setMappingEntity(entity);
+      mappingValue.setMappingKey(mappingKey);
+      mappingValue.setValue(value);
+      mappingValues.add(mappingValue);
+    });
+    entity.setMappingValues(mappingValues);
+    Status status = Status.values()[random.nextInt(Status.values().length)];
+    entity.setStatus(status.getLabel());
+    if (status == Status.MAPPED) {
+      entity.setMappingType(MappingType.values()[random.nextInt(MappingType.values().length)].getLabel());
+      entity.setMappedTermLabel(values.values().iterator().next());
+      entity.setMappedTermUrl("http://purl.obolibrary.org/obo/NCIT_C" + random.nextInt(100000));
+    }
+    LocalDateTime created = LocalDateTime.of(2020, 1, 1, 0, 0).plusMinutes(random.nextInt(2_000_000));
+    entity.setDateCreated(created);
+    entity.setDateUpdated(created.plusDays(random.nextInt(100)));
+    return entity;
+  }
+
+  private static EntityType entityType(int id, String name) {
+    EntityType entityType = new EntityType();
+    entityType.setId(id);
+    entityType.setName(name);
+    return entityType;
+  }
+
+  private static String pick(String[] values, Random random) {
+    return values[random.nextInt(values.length)];
+  }
+}
@@ -0,0 +1,235 @@
+package org.cancermodels.benchmarks;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.cancermodels.pdcm_admin.persistance.EntityType;
+import org.cancermodels.pdcm_admin.persistance.MappingEntity;
+import org.cancermodels.pdcm_admin.persistance.MappingValue;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * PostgreSQL started in a local process for the benchmarks that need the database. The schema is
+ * created with {@code schema.sql} and the migrations are applied on top of it, as in an existing
+ * database. The repositories of the admin persistence unit are created with the same naming settings
+ * as the application.
+ */
+final class BenchmarkDatabase implements AutoCloseable {
+
+  private static final String SCHEMA = "admin_app";
+  private static final String[] SCRIPTS = {
+      "schema.sql",
+      "migrations/001_pooled_sequence_allocation.sql",
+      "migrations/002_suggestions_index_generation.sql",
+      "migrations/003_keyset_pagination_indexes.sql",
+      "migrations/004_label_trigram_index.sql",
+      "migrations/005_compact_mapping_key.sql"};
+  private static final int BATCH_SIZE = 1000;
+
+  private final EmbeddedPostgres embeddedPostgres;
+  private final HikariDataSource dataSource;
+  private final AnnotationConfigApplicationContext context;
+
+  private BenchmarkDatabase(
+      EmbeddedPostgres embeddedPostgres,
+      HikariDataSource dataSource,
+      AnnotationConfigApplicationContext context) {
+    this.embeddedPostgres = embeddedPostgres;
+    this.dataSource = dataSource;
+    this.context = context;
+  }
+
+  /**
+   * Starts the database and stores some entities in it.
+   * @param mappingEntities Entities to store, with their ids (see {@link BenchmarkData}).
+   */
+  static BenchmarkDatabase start(List<MappingEntity> mappingEntities) throws IOException, SQLException {
+    EmbeddedPostgres embeddedPostgres = EmbeddedPostgres.builder().start();
+    HikariDataSource dataSource = new HikariDataSource();
+    try {
+      dataSource.setJdbcUrl(
+          embeddedPostgres.getJdbcUrl("postgres", "postgres") + "&currentSchema=" + SCHEMA);
+      try (Connection connection = dataSource.getConnection()) {
+        createSchema(connection);
+        insert(connection, mappingEntities);
+      }
+      AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+      context.registerBean("pdcmAdminDataSource", DataSource.class, () -> dataSource);
+      context.register(JpaConfiguration.class);
+      context.refresh();
+      return new BenchmarkDatabase(embeddedPostgres, dataSource, context);
+    } catch (SQLException | RuntimeException e) {
+      dataSource.close();
+      embeddedPostgres.close();
+      throw e;
+    }
+  }
+
+  <T> T getRepository(Class<T> repositoryClass) {
+    return context.getBean(repositoryClass);
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      context.close();
+      dataSource.close();
+    } finally {
+      embeddedPostgres.close();
+    }
+  }
+
+  private static void createSchema(Connection connection) throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("CREATE SCHEMA " + SCHEMA);
+      // Granted all the permissions at the end of schema.sql
+      statement.execute("CREATE ROLE k8spdcmapiro");
+      for (String script : SCRIPTS) {
+        statement.execute(readScript(script));
+      }
+    }
+  }
+
+  private static String readScript(String name) {
+    try (InputStream inputStream = BenchmarkDatabase.class.getClassLoader().getResourceAsStream(name)) {
+      if (inputStream == null) {
+        throw new IllegalStateException("Script " + name + " not found in the classpath");
+      }
+      return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // The mapping keys don't have ids in the benchmark data: they are numbered by entity type and key
+  private static void insert(Connection connection, List<MappingEntity> mappingEntities) throws SQLException {
+    Map<Integer, EntityType> entityTypes = new LinkedHashMap<>();
+    Map<String, Integer> keyIds = new LinkedHashMap<>();
+    for (MappingEntity mappingEntity : mappingEntities) {
+      EntityType entityType = mappingEntity.getEntityType();
+      entityTypes.putIfAbsent(entityType.getId(), entityType);
+      for (MappingValue mappingValue : mappingEntity.getMappingValues()) {
+        keyIds.putIfAbsent(keyName(entityType, mappingValue), keyIds.size() + 1);
+      }
+    }
+
+    try (PreparedStatement statement = connection.prepareStatement(
+        "INSERT INTO entity_type (id, name) VALUES (?, ?)")) {
+      for (EntityType entityType : entityTypes.values()) {
+        statement.setInt(1, entityType.getId());
+        statement.setString(2, entityType.getName());
+        statement.addBatch();
+      }
+      statement.executeBatch();
+    }
+
+    try (PreparedStatement statement = connection.prepareStatement(
+        "INSERT INTO mapping_key (id, entity_type_id, key) VALUES (?, ?, ?)")) {
+      for (Map.Entry<String, Integer> keyId : keyIds.entrySet()) {
+        String[] typeAndKey = keyId.getKey().split(":", 2);
+        statement.setInt(1, keyId.getValue());
+        statement.setInt(2, Integer.parseInt(typeAndKey[0]));
+        statement.setString(3, typeAndKey[1]);
+        statement.addBatch();
+      }
+      statement.executeBatch();
+    }
+
+    try (PreparedStatement entityStatement = connection.prepareStatement(
+        "INSERT INTO mapping_entity (id, mapping_key, entity_type_id, mapped_term_label, mapped_term_url, "
+            + "status, date_created, date_updated, mapping_type) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        PreparedStatement valueStatement = connection.prepareStatement(
+            "INSERT INTO mapping_value (id, mapping_entity_id, key_id, value) VALUES (?, ?, ?, ?)")) {
+      int valueId = 0;
+      int pending = 0;
+      for (MappingEntity mappingEntity : mappingEntities) {
+        entityStatement.setInt(1, mappingEntity.getId());
+        entityStatement.setString(2, mappingEntity.getMappingKey());
+        entityStatement.setInt(3, mappingEntity.getEntityType().getId());
+        entityStatement.setString(4, mappingEntity.getMappedTermLabel());
+        entityStatement.setString(5, mappingEntity.getMappedTermUrl());
+        entityStatement.setString(6, mappingEntity.getStatus());
+        entityStatement.setTimestamp(7, Timestamp.valueOf(mappingEntity.getDateCreated()));
+        entityStatement.setTimestamp(8, Timestamp.valueOf(mappingEntity.getDateUpdated()));
+        entityStatement.setString(9, mappingEntity.getMappingType());
+        entityStatement.addBatch();
+        for (MappingValue mappingValue : mappingEntity.getMappingValues()) {
+          valueStatement.setInt(1, ++valueId);
+          valueStatement.setInt(2, mappingEntity.getId());
+          valueStatement.setInt(3, keyIds.get(keyName(mappingEntity.getEntityType(), mappingValue)));
+          valueStatement.setString(4, mappingValue.getValue());
+          valueStatement.addBatch();
+        }
+        if (++pending == BATCH_SIZE) {
+          entityStatement.executeBatch();
+          valueStatement.executeBatch();
+          pending = 0;
+        }
+      }
+      entityStatement.executeBatch();
+      valueStatement.executeBatch();
+    }
+
+    // Statistics for the planner, as in a database that has been in use
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("ANALYZE");
+    }
+  }
+
+  private static String keyName(EntityType entityType, MappingValue mappingValue) {
+    return entityType.getId() + ":" + mappingValue.getMappingKey().getKey();
+  }
+
+  /**
+   * Repositories of the admin persistence unit, as configured by {@code PdcmAdminDataSourceConf}.
+   */
+  @Configuration
+  @EnableJpaRepositories(
+      basePackages = "org.cancermodels.pdcm_admin",
+      entityManagerFactoryRef = "pdcmAdminEntityManagerFactory",
+      transactionManagerRef = "pdcmAdminTransactionManager")
+  static class JpaConfiguration {
+
+    @Bean(name = "pdcmAdminEntityManagerFactory")
+    LocalContainerEntityManagerFactoryBean pdcmAdminEntityManagerFactory(DataSource dataSource) {
+      LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+      factory.setDataSource(dataSource);
+      factory.setPackagesToScan("org.cancermodels.pdcm_admin");
+      factory.setPersistenceUnitName("pdcmAdmin");
+      factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+      Map<String, Object> properties = new HashMap<>();
+      properties.put("hibernate.physical_naming_strategy",
+          "org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy");
+      properties.put("hibernate.implicit_naming_strategy",
+          "org.hibernate.boot.model.naming.ImplicitNamingStrategyLegacyJpaImpl");
+      factory.setJpaPropertyMap(properties);
+      return factory;
+    }
+
+    @Bean(name = "pdcmAdminTransactionManager")
+    PlatformTransactionManager pdcmAdminTransactionManager(EntityManagerFactory entityManagerFactory) {
+      return new JpaTransactionManager(entityManagerFactory);
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package org.cancermodels.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, so the results include the allocation rate
+ * ({@code gc.alloc.rate.norm}, bytes per operation) next to the throughput, and writes them as JSON
+ * to {@code jmh-result.json}.
+ * <p>
+ * Usage: {@code java -jar benchmarks/target/benchmarks.jar [JMH options] [benchmark regexp]}. The
+ * JMH command line options can change the result file and format ({@code -rff}, {@code -rf}) and the
+ * rest of the settings, e.g. {@code -f 3}. Profilers given with {@code -prof} are added to the GC one.
+ * </p>
+ */
+public class BenchmarkRunner {
+
+  public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+    CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+    OptionsBuilder options = new OptionsBuilder();
+    options.addProfiler(GCProfiler.class);
+    if (!commandLineOptions.getResultFormat().hasValue()) {
+      options.resultFormat(ResultFormatType.JSON);
+    }
+    if (!commandLineOptions.getResult().hasValue()) {
+      options.result("jmh-result.json");
+    }
+    new Runner(options.parent(commandLineOptions).build()).run();
+  }
+}
@@ -0,0 +1,97 @@
+package org.cancermodels.benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.cancermodels.reader.DataReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.tablesaw.api.Table;
+
+/**
+ * Reading the TSV files of a provider, as done when detecting unmapped terms. The files are
+ * generated in a temporary folder with the layout of the data repository.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataReaderBenchmark {
+
+  private static final List<String> KEYWORDS = List.of("metadata-patient_sample", "drug", "treatment");
+  private static final String PROVIDER = "BENCH";
+
+  @Param({"1000", "10000"})
+  public int rowsPerFile;
+
+  private Path providerDir;
+
+  @Setup
+  public void setup() throws IOException {
+    providerDir = Files.createTempDirectory("data-reader-benchmark").resolve(PROVIDER);
+    Random random = new Random(42);
+    writeTsv(providerDir.resolve(PROVIDER + "_metadata-patient_sample.tsv"),
+        List.of("patient_id", "sample_id", "diagnosis", "tumour_type", "primary_site"), random);
+    writeTsv(providerDir.resolve("treatment/" + PROVIDER + "_patienttreatment-treatment.tsv"),
+        List.of("patient_id", "treatment_name", "treatment_dose", "treatment_response"), random);
+    writeTsv(providerDir.resolve("drug/" + PROVIDER + "_drugdosing-drug.tsv"),
+        List.of("model_id", "treatment_name", "treatment_dose", "treatment_response"), random);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    try (Stream<Path> paths = Files.walk(providerDir.getParent())) {
+      paths.sorted(Comparator.reverseOrder()).forEach(x -> {
+        try {
+          Files.delete(x);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    }
+  }
+
+  @Benchmark
+  public Map<String, Table> getTableByFile() {
+    return DataReader.getTableByFile(providerDir, KEYWORDS);
+  }
+
+  // Same layout as the provider files: a description column and 4 header rows before the data
+  private void writeTsv(Path file, List<String> columns, Random random) throws IOException {
+    Files.createDirectories(file.getParent());
+    try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      writer.write("Field\t" + String.join("\t", columns) + "\n");
+      for (String header : List.of("#Description", "#Example", "#Format Requirements", "#Essential")) {
+        writer.write(header + "\t" + String.join("\t", columns.stream().map(x -> "-").toList()) + "\n");
+      }
+      for (int row = 0; row < rowsPerFile; row++) {
+        StringBuilder line = new StringBuilder();
+        for (String column : columns) {
+          line.append('\t').append(column).append('-').append(random.nextInt(rowsPerFile / 10 + 1));
+        }
+        writer.write(line.append('\n').toString());
+      }
+    }
+  }
+}
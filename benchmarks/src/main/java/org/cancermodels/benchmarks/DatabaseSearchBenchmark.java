@@ -0,0 +1,114 @@
+package org.cancermodels.benchmarks;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.cancermodels.mappings.search.FilterTypes;
+import org.cancermodels.mappings.search.KeysetPage;
+import org.cancermodels.mappings.search.KeysetSort;
+import org.cancermodels.mappings.search.MappingSearchIndex;
+import org.cancermodels.mappings.search.MappingsFilter;
+import org.cancermodels.mappings.search.SearchService;
+import org.cancermodels.mappings.search.TrigramLabelSearch;
+import org.cancermodels.pdcm_admin.persistance.MappingEntity;
+import org.cancermodels.pdcm_admin.persistance.MappingEntityRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Searches of mapping entities with the {@code database} and {@code trigram} search backends, against
+ * a PostgreSQL started for the benchmark ({@link BenchmarkDatabase}) with the same entities as
+ * {@link SearchServiceBenchmark}. The time includes the queries, so the results can be compared with
+ * the {@code memory} backend.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatabaseSearchBenchmark {
+
+  @Param({"10000", "100000"})
+  public int entities;
+
+  @Param({"database", "trigram"})
+  public String searchBackend;
+
+  private BenchmarkDatabase database;
+  private SearchService searchService;
+  private MappingsFilter statusFilter;
+  private MappingsFilter labelFilter;
+  private MappingsFilter dataSourceFilter;
+  private String deepCursor;
+
+  @Setup
+  public void setup() throws IOException, SQLException {
+    database = BenchmarkDatabase.start(BenchmarkData.entities(entities));
+    MappingEntityRepository repository = database.getRepository(MappingEntityRepository.class);
+    searchService = new SearchService(
+        repository,
+        new MappingSearchIndex(repository, searchBackend),
+        new TrigramLabelSearch(repository, searchBackend, 10000));
+
+    statusFilter = MappingsFilter.getInstance();
+    statusFilter.getFilters().put(FilterTypes.STATUS, List.of("Unmapped", "Review"));
+    labelFilter = MappingsFilter.getInstance();
+    labelFilter.getFilters().put(FilterTypes.LABEL, List.of("%carcinoma%"));
+    dataSourceFilter = MappingsFilter.getInstance();
+    dataSourceFilter.getFilters().put(FilterTypes.MAPPING_QUERY, List.of("DataSource:trace"));
+
+    // Position after the first 1000 results, as the deep page of the offset search
+    deepCursor = searchService.searchWithCursor(
+        dataSourceFilter, KeysetSort.MAPPING_KEY, null, 1000, false).nextCursor();
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    database.close();
+  }
+
+  @Benchmark
+  public Page<MappingEntity> searchFirstPage() {
+    return searchService.search(PageRequest.of(0, 20), statusFilter);
+  }
+
+  @Benchmark
+  public Page<MappingEntity> searchLabel() {
+    return searchService.search(PageRequest.of(0, 20), labelFilter);
+  }
+
+  @Benchmark
+  public Page<MappingEntity> searchDeepPage() {
+    return searchService.search(PageRequest.of(50, 20, Sort.by("mappingKey")), dataSourceFilter);
+  }
+
+  @Benchmark
+  public KeysetPage<MappingEntity> searchWithCursorFirstPage() {
+    return searchService.searchWithCursor(statusFilter, KeysetSort.MAPPING_KEY, null, 20, true);
+  }
+
+  @Benchmark
+  public KeysetPage<MappingEntity> searchWithCursorLabel() {
+    return searchService.searchWithCursor(labelFilter, KeysetSort.DATE_UPDATED, null, 20, false);
+  }
+
+  @Benchmark
+  public KeysetPage<MappingEntity> searchWithCursorDeepPage() {
+    return searchService.searchWithCursor(dataSourceFilter, KeysetSort.MAPPING_KEY, deepCursor, 20, false);
+  }
+}
@@ -0,0 +1,77 @@
+package org.cancermodels.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.cancermodels.pdcm_admin.MappingEntityKeyBuilder;
+import org.cancermodels.pdcm_admin.persistance.MappingEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Key building and value access of a single mapping entity. They run for every row read when
+ * detecting unmapped terms and for every entity restored, exported or searched.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingEntityKeyBenchmark {
+
+  private MappingEntity diagnosis;
+  private MappingEntity treatment;
+  private List<String> diagnosisValues;
+  private List<List<String>> treatmentValues;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(42);
+    diagnosis = BenchmarkData.diagnosis(1, random);
+    treatment = BenchmarkData.treatment(2, random);
+    Map<String, String> values = diagnosis.getValuesAsMap();
+    diagnosisValues = List.of("Diagnosis", values.get("SampleDiagnosis"), values.get("TumorType"),
+        values.get("OriginTissue"), values.get("DataSource"));
+    treatmentValues = BenchmarkData.entities(200).stream()
+        .filter(x -> x.getEntityType().getName().equals("Treatment"))
+        .map(x -> List.of("Treatment", x.getValuesAsMap().get("TreatmentName"), x.getValuesAsMap().get("DataSource")))
+        .toList();
+  }
+
+  @Benchmark
+  public String generateHashForValues() {
+    return MappingEntityKeyBuilder.generateHashForValues(diagnosisValues);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(100)
+  public List<String> generateHashesForValues() {
+    return MappingEntityKeyBuilder.generateHashesForValues(treatmentValues);
+  }
+
+  @Benchmark
+  public String buildKeyDiagnosis() {
+    return MappingEntityKeyBuilder.buildKey(diagnosis);
+  }
+
+  @Benchmark
+  public String buildKeyTreatment() {
+    return MappingEntityKeyBuilder.buildKey(treatment);
+  }
+
+  @Benchmark
+  public Map<String, String> getValuesAsMap() {
+    return diagnosis.getValuesAsMap();
+  }
+}
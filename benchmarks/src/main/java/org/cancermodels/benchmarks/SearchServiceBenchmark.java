@@ -0,0 +1,116 @@
+package org.cancermodels.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.cancermodels.mappings.search.FilterTypes;
+import org.cancermodels.mappings.search.MappingSearchIndex;
+import org.cancermodels.mappings.search.MappingsFilter;
+import org.cancermodels.mappings.search.SearchService;
+import org.cancermodels.mappings.search.TrigramLabelSearch;
+import org.cancermodels.pdcm_admin.persistance.MappingEntity;
+import org.cancermodels.pdcm_admin.persistance.MappingEntityRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Searches of mapping entities with the {@code memory} search backend. The repository is replaced
+ * by an in-memory stand-in that returns the rows to build the index and the entities of each page,
+ * so the filtering, sorting and paging are measured without the database. The database backends are
+ * measured by {@link DatabaseSearchBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchServiceBenchmark {
+
+  @Param({"10000", "100000"})
+  public int entities;
+
+  private MappingSearchIndex mappingSearchIndex;
+  private SearchService searchService;
+  private MappingsFilter statusFilter;
+  private MappingsFilter labelFilter;
+  private MappingsFilter dataSourceFilter;
+
+  @Setup
+  public void setup() {
+    List<MappingEntity> mappingEntities = BenchmarkData.entities(entities);
+    MappingEntityRepository repository = inMemoryRepository(mappingEntities);
+    mappingSearchIndex = new MappingSearchIndex(repository, "memory");
+    mappingSearchIndex.rebuild();
+    searchService = new SearchService(
+        repository, mappingSearchIndex, new TrigramLabelSearch(repository, "memory", 10000));
+
+    statusFilter = MappingsFilter.getInstance();
+    statusFilter.getFilters().put(FilterTypes.STATUS, List.of("Unmapped", "Review"));
+    labelFilter = MappingsFilter.getInstance();
+    labelFilter.getFilters().put(FilterTypes.LABEL, List.of("%carcinoma%"));
+    dataSourceFilter = MappingsFilter.getInstance();
+    dataSourceFilter.getFilters().put(FilterTypes.MAPPING_QUERY, List.of("DataSource:trace"));
+  }
+
+  @Benchmark
+  public Optional<MappingSearchIndex.SearchIds> indexStatusFilter() {
+    return mappingSearchIndex.search(statusFilter, Sort.unsorted(), 0, 20);
+  }
+
+  @Benchmark
+  public Optional<MappingSearchIndex.SearchIds> indexLabelFilterSortedByDate() {
+    return mappingSearchIndex.search(labelFilter, Sort.by(Sort.Direction.DESC, "dateUpdated"), 0, 20);
+  }
+
+  @Benchmark
+  public Page<MappingEntity> searchDeepPage() {
+    return searchService.search(PageRequest.of(50, 20, Sort.by("mappingKey")), dataSourceFilter);
+  }
+
+  @Benchmark
+  public Page<MappingEntity> searchFirstPage() {
+    return searchService.search(PageRequest.of(0, 20), statusFilter);
+  }
+
+  // Answers only the queries used by the search index and the search service
+  private MappingEntityRepository inMemoryRepository(List<MappingEntity> mappingEntities) {
+    List<Object[]> searchRows = BenchmarkData.searchRows(mappingEntities);
+    Map<Integer, MappingEntity> entitiesById = new HashMap<>();
+    mappingEntities.forEach(x -> entitiesById.put(x.getId(), x));
+    return (MappingEntityRepository) Proxy.newProxyInstance(
+        MappingEntityRepository.class.getClassLoader(),
+        new Class<?>[] {MappingEntityRepository.class},
+        (proxy, method, args) -> switch (method.getName()) {
+          case "findAllSearchRows" -> searchRows;
+          case "findAllWithValuesByIdIn" -> {
+            List<MappingEntity> found = new ArrayList<>();
+            for (Object id : (Collection<?>) args[0]) {
+              found.add(entitiesById.get((Integer) id));
+            }
+            yield found;
+          }
+          case "toString" -> "InMemoryMappingEntityRepository";
+          case "hashCode" -> System.identityHashCode(proxy);
+          case "equals" -> proxy == args[0];
+          default -> throw new UnsupportedOperationException(method.getName());
+        });
+  }
+}
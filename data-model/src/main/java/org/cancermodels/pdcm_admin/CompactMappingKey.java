@@ -0,0 +1,139 @@
+package org.cancermodels.pdcm_admin;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binary form of a mapping key: the 32 bytes of the SHA-256 hash instead of its 64 hex characters.
+ * <p>
+ * The bytes are kept as four longs, so a key takes a single small object and comparing or hashing
+ * it doesn't go through the characters. The hex form ({@link #toHex()}) is what the API and the
+ * mapping rules files use.
+ * </p>
+ */
+public final class CompactMappingKey {
+
+  public static final int BYTES = 32;
+
+  private static final int HEX_LENGTH = BYTES * 2;
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private final long part1;
+  private final long part2;
+  private final long part3;
+  private final long part4;
+
+  private CompactMappingKey(long part1, long part2, long part3, long part4) {
+    this.part1 = part1;
+    this.part2 = part2;
+    this.part3 = part3;
+    this.part4 = part4;
+  }
+
+  /**
+   * Checks if a text is a key in hex form, as created by {@link MappingEntityKeyBuilder}.
+   * @param hex Text to check.
+   * @return True if it has 64 hex characters in lower case.
+   */
+  public static boolean isHex(String hex) {
+    if (hex == null || hex.length() != HEX_LENGTH) {
+      return false;
+    }
+    for (int i = 0; i < HEX_LENGTH; i++) {
+      if (digit(hex.charAt(i)) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Creates a key from its hex form.
+   * @param hex The 64 hex characters (lower case) of the key.
+   * @return The key.
+   * @throws IllegalArgumentException if the text is not a key in hex form.
+   */
+  public static CompactMappingKey fromHex(String hex) {
+    if (!isHex(hex)) {
+      throw new IllegalArgumentException("Not a mapping key: " + hex);
+    }
+    return new CompactMappingKey(
+        parseLong(hex, 0), parseLong(hex, 16), parseLong(hex, 32), parseLong(hex, 48));
+  }
+
+  /**
+   * Creates a key from its bytes, as stored in the database.
+   * @param bytes The 32 bytes of the key.
+   * @return The key.
+   * @throws IllegalArgumentException if there are not 32 bytes.
+   */
+  public static CompactMappingKey fromBytes(byte[] bytes) {
+    if (bytes == null || bytes.length != BYTES) {
+      throw new IllegalArgumentException("A mapping key must have " + BYTES + " bytes");
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    return new CompactMappingKey(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+  }
+
+  public byte[] toBytes() {
+    return ByteBuffer.allocate(BYTES)
+        .putLong(part1).putLong(part2).putLong(part3).putLong(part4)
+        .array();
+  }
+
+  public String toHex() {
+    char[] hex = new char[HEX_LENGTH];
+    writeHex(hex, 0, part1);
+    writeHex(hex, 16, part2);
+    writeHex(hex, 32, part3);
+    writeHex(hex, 48, part4);
+    return new String(hex);
+  }
+
+  private static long parseLong(String hex, int start) {
+    long value = 0;
+    for (int i = start; i < start + 16; i++) {
+      value = (value << 4) | digit(hex.charAt(i));
+    }
+    return value;
+  }
+
+  private static void writeHex(char[] hex, int start, long value) {
+    for (int i = start + 15; i >= start; i--) {
+      hex[i] = HEX[(int) (value & 0xf)];
+      value >>>= 4;
+    }
+  }
+
+  // Keys are always created in lower case, so upper case letters are not valid
+  private static int digit(char c) {
+    if (c >= '0' && c <= '9') {
+      return c - '0';
+    }
+    if (c >= 'a' && c <= 'f') {
+      return c - 'a' + 10;
+    }
+    return -1;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof CompactMappingKey other)) {
+      return false;
+    }
+    return part1 == other.part1 && part2 == other.part2 && part3 == other.part3 && part4 == other.part4;
+  }
+
+  @Override
+  public int hashCode() {
+    // The bytes are a hash already, so any part is well distributed
+    return (int) (part1 ^ (part1 >>> 32));
+  }
+
+  @Override
+  public String toString() {
+    return toHex();
+  }
+}
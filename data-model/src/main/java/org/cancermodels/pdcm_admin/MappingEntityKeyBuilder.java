@@ -1,70 +1,168 @@
 package org.cancermodels.pdcm_admin;
 
-import java.util.Arrays;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
-import org.apache.commons.codec.digest.DigestUtils;
+import java.util.Locale;
+import java.util.Set;
 import org.cancermodels.pdcm_admin.persistance.MappingEntity;
+import org.cancermodels.pdcm_admin.types.MappingKeyName;
 
 /**
  * A class that creates the key for a mapping entity.
+ * <p>
+ * The key is the hex SHA-256 of the values, lower case and joined with {@code |} (null values as
+ * empty text). The values are fed to a {@link MessageDigest} kept per thread, without building the
+ * joined text, and ASCII values are lower cased and encoded byte by byte into a reusable buffer, so
+ * hashing a key only allocates the resulting string. Other values are lower cased with
+ * {@link String#toLowerCase()}, so the keys don't change.
+ * </p>
  */
 public class MappingEntityKeyBuilder {
 
-  private static final String SEPARATOR = "|";
+  private static final byte SEPARATOR = '|';
+
+  // Languages where String.toLowerCase() doesn't lower case ASCII letters as a byte per byte
+  // conversion would (e.g. 'I' is 'ı' in Turkish)
+  private static final Set<String> SPECIAL_CASING_LANGUAGES = Set.of("tr", "az", "lt");
+
+  private static final ThreadLocal<KeyHasher> HASHERS = ThreadLocal.withInitial(KeyHasher::new);
 
   public static String buildKeyDiagnosisMapping(
       String sampleDiagnosis, String tumorType, String originTissue, String dataSource) {
-    List<String> elementsAsList =
-        Arrays.asList(
-            EntityTypeName.Diagnosis.getLabel(), sampleDiagnosis, tumorType, originTissue, dataSource);
-
-    return generateHashForValues(elementsAsList);
+    return HASHERS.get().hash(
+        EntityTypeName.Diagnosis.getLabel(), sampleDiagnosis, tumorType, originTissue, dataSource);
   }
 
   public static String buildKeyTreatmentMapping(String treatmentName, String dataSource) {
-    List<String> elementsAsList =
-        Arrays.asList(
-            EntityTypeName.Treatment.getLabel(), treatmentName, dataSource);
-    return generateHashForValues(elementsAsList);
+    return HASHERS.get().hash(EntityTypeName.Treatment.getLabel(), treatmentName, dataSource);
   }
 
   public static String buildKey(MappingEntity mappingEntity) {
     String key = "";
     if (mappingEntity.getEntityType() != null) {
       String entityTypeName = mappingEntity.getEntityType().getName();
-      Map<String, String> valuesAsMap = mappingEntity.getValuesAsMap();
+      MappingEntityValues values = mappingEntity.getValues();
 
       if (entityTypeName.equalsIgnoreCase(EntityTypeName.Diagnosis.getLabel())) {
         key = buildKeyDiagnosisMapping(
-            valuesAsMap.get("SampleDiagnosis"),
-            valuesAsMap.get("TumorType"),
-            valuesAsMap.get("OriginTissue"),
-            valuesAsMap.get("DataSource"));
+            values.get(MappingKeyName.SAMPLE_DIAGNOSIS),
+            values.get(MappingKeyName.TUMOR_TYPE),
+            values.get(MappingKeyName.ORIGIN_TISSUE),
+            values.get(MappingKeyName.DATASOURCE));
       }
       else if (entityTypeName.equalsIgnoreCase(EntityTypeName.Treatment.getLabel())) {
         key = buildKeyTreatmentMapping(
-            valuesAsMap.get("TreatmentName"),
-            valuesAsMap.get("DataSource"));
+            values.get(MappingKeyName.TREATMENT_NAME),
+            values.get(MappingKeyName.DATASOURCE));
       }
     }
     return key;
   }
 
   public static String generateHashForValues(List<String> values) {
-    return convertToHash(concatenateValues(values));
+    return HASHERS.get().hash(values);
   }
 
-  private static String concatenateValues(List<String> values) {
-    return values.stream()
-        .map(x -> x == null ? "" : x)
-        .map(String::toLowerCase)
-        .collect(Collectors.joining(SEPARATOR));
+  /**
+   * Same as {@link #generateHashForValues(List)} for several lists of values, reusing the same
+   * digest and buffers for all of them.
+   * @param valuesList Lists of values to hash.
+   * @return The hash of each list, in the same order.
+   */
+  public static List<String> generateHashesForValues(Collection<? extends List<String>> valuesList) {
+    KeyHasher hasher = HASHERS.get();
+    List<String> hashes = new ArrayList<>(valuesList.size());
+    for (List<String> values : valuesList) {
+      hashes.add(hasher.hash(values));
+    }
+    return hashes;
   }
 
-  private static String convertToHash(String text) {
-    return DigestUtils.sha256Hex(text);
+  /**
+   * Digest and buffers used by a thread to hash keys.
+   */
+  private static final class KeyHasher {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final MessageDigest digest;
+    private final byte[] hash = new byte[32];
+    private final char[] hex = new char[64];
+    private byte[] buffer = new byte[256];
+
+    KeyHasher() {
+      try {
+        digest = MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException e) {
+        // Every Java platform supports SHA-256
+        throw new IllegalStateException(e);
+      }
+    }
+
+    String hash(String... values) {
+      // Discards anything left by a previous key that failed
+      digest.reset();
+      boolean asciiLowerCase = !SPECIAL_CASING_LANGUAGES.contains(Locale.getDefault().getLanguage());
+      for (int i = 0; i < values.length; i++) {
+        update(i, values[i], asciiLowerCase);
+      }
+      return digestToHex();
+    }
+
+    String hash(List<String> values) {
+      digest.reset();
+      boolean asciiLowerCase = !SPECIAL_CASING_LANGUAGES.contains(Locale.getDefault().getLanguage());
+      for (int i = 0; i < values.size(); i++) {
+        update(i, values.get(i), asciiLowerCase);
+      }
+      return digestToHex();
+    }
+
+    private void update(int position, String value, boolean asciiLowerCase) {
+      if (position > 0) {
+        digest.update(SEPARATOR);
+      }
+      if (value == null || value.isEmpty()) {
+        return;
+      }
+      if (!asciiLowerCase) {
+        digest.update(value.toLowerCase().getBytes(StandardCharsets.UTF_8));
+        return;
+      }
+      int length = value.length();
+      if (length > buffer.length) {
+        buffer = new byte[Math.max(length, buffer.length * 2)];
+      }
+      for (int i = 0; i < length; i++) {
+        char c = value.charAt(i);
+        if (c >= 0x80) {
+          // Not ASCII: same conversion as String.toLowerCase(). Nothing was sent to the digest yet
+          digest.update(value.toLowerCase().getBytes(StandardCharsets.UTF_8));
+          return;
+        }
+        buffer[i] = (byte) (c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c);
+      }
+      digest.update(buffer, 0, length);
+    }
+
+    // Also resets the digest for the next key
+    private String digestToHex() {
+      try {
+        digest.digest(hash, 0, hash.length);
+      } catch (DigestException e) {
+        // The buffer has the size of a SHA-256 hash
+        throw new IllegalStateException(e);
+      }
+      for (int i = 0; i < hash.length; i++) {
+        hex[i * 2] = HEX[(hash[i] >> 4) & 0xf];
+        hex[i * 2 + 1] = HEX[hash[i] & 0xf];
+      }
+      return new String(hex);
+    }
   }
 
 }
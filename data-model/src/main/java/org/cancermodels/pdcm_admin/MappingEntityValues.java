@@ -0,0 +1,112 @@
+package org.cancermodels.pdcm_admin;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.cancermodels.pdcm_admin.persistance.MappingKey;
+import org.cancermodels.pdcm_admin.persistance.MappingValue;
+import org.cancermodels.pdcm_admin.types.MappingKeyName;
+
+/**
+ * Immutable view of the values of a mapping entity, by key.
+ * <p>
+ * The known keys ({@link MappingKeyName}) are read from a slot per key, and all of them are
+ * available as an unmodifiable map. The view is a snapshot of the values it was built from:
+ * {@link #isViewOf(List)} tells if they changed since, so the entity can build a new one.
+ * </p>
+ */
+public final class MappingEntityValues {
+
+  private static final MappingKeyName[] KEY_NAMES = MappingKeyName.values();
+
+  private final String[] slots = new String[KEY_NAMES.length];
+  private final Map<String, String> valuesByKey;
+
+  // What the view was built from, compared by reference to detect changes
+  private final List<MappingValue> source;
+  private final MappingValue[] sourceValues;
+  private final MappingKey[] sourceKeys;
+  private final String[] sourceTexts;
+
+  private MappingEntityValues(List<MappingValue> mappingValues) {
+    source = mappingValues;
+    int size = mappingValues == null ? 0 : mappingValues.size();
+    sourceValues = new MappingValue[size];
+    sourceKeys = new MappingKey[size];
+    sourceTexts = new String[size];
+    Map<String, String> map = new HashMap<>();
+    for (int i = 0; i < size; i++) {
+      MappingValue mappingValue = mappingValues.get(i);
+      sourceValues[i] = mappingValue;
+      sourceKeys[i] = mappingValue.getMappingKey();
+      sourceTexts[i] = mappingValue.getValue();
+      String key = mappingValue.getMappingKey().getKey();
+      map.put(key, mappingValue.getValue());
+      MappingKeyName keyName = MappingKeyName.fromLabel(key);
+      if (keyName != null) {
+        slots[keyName.ordinal()] = mappingValue.getValue();
+      }
+    }
+    valuesByKey = Collections.unmodifiableMap(map);
+  }
+
+  /**
+   * Builds the view of some values.
+   * @param mappingValues Values of a mapping entity. Can be null.
+   * @return The view.
+   */
+  public static MappingEntityValues of(List<MappingValue> mappingValues) {
+    return new MappingEntityValues(mappingValues);
+  }
+
+  /**
+   * Value of a known key.
+   * @param keyName Name of the key.
+   * @return The value, or null if the entity has no value for the key.
+   */
+  public String get(MappingKeyName keyName) {
+    return slots[keyName.ordinal()];
+  }
+
+  /**
+   * Value of any key.
+   * @param key Name of the key, as stored in the mapping keys (e.g. {@code DataSource}).
+   * @return The value, or null if the entity has no value for the key.
+   */
+  public String get(String key) {
+    return valuesByKey.get(key);
+  }
+
+  /**
+   * All the values as an unmodifiable map with the name of the key as key.
+   */
+  public Map<String, String> asMap() {
+    return valuesByKey;
+  }
+
+  /**
+   * Checks if this view still reflects some values: same list, with the same elements, keys and
+   * values. It doesn't allocate, so it can be called on every access.
+   * @param mappingValues Current values of the entity.
+   * @return True if the view is up to date.
+   */
+  public boolean isViewOf(List<MappingValue> mappingValues) {
+    if (mappingValues != source) {
+      return false;
+    }
+    int size = mappingValues == null ? 0 : mappingValues.size();
+    if (size != sourceValues.length) {
+      return false;
+    }
+    for (int i = 0; i < size; i++) {
+      MappingValue mappingValue = mappingValues.get(i);
+      if (mappingValue != sourceValues[i]
+          || mappingValue.getMappingKey() != sourceKeys[i]
+          || mappingValue.getValue() != sourceTexts[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -3,14 +3,18 @@ package org.cancermodels.pdcm_admin.persistance;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import jakarta.persistence.*;
 
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import org.cancermodels.pdcm_admin.CompactMappingKey;
 import org.cancermodels.pdcm_admin.MappingEntityKeyBuilder;
+import org.cancermodels.pdcm_admin.MappingEntityValues;
 
 @Entity
 @Data
@@ -19,7 +23,7 @@ public class MappingEntity {
 
   @Id
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "hibernate_seq_gen")
-  @SequenceGenerator(name = "hibernate_seq_gen", sequenceName = "hibernate_sequence", allocationSize = 1)
+  @SequenceGenerator(name = "hibernate_seq_gen", sequenceName = "hibernate_sequence", allocationSize = 50)
   private Integer id;
 
   /**
@@ -30,6 +34,15 @@ public class MappingEntity {
   @EqualsAndHashCode.Include
   private String mappingKey;
 
+  /**
+   * Binary form of {@link #mappingKey} (see {@link CompactMappingKey}), used to look up entities by
+   * key. Kept in sync with the key when the entity is saved. Null if the key is not a hash.
+   */
+  @JsonIgnore
+  @Column(unique = true)
+  @Setter(AccessLevel.NONE)
+  private byte[] mappingKeyBytes;
+
   @OneToOne
   @JoinColumn(name = "entity_type_id", nullable = false)
   private EntityType entityType;
@@ -81,12 +94,41 @@ public class MappingEntity {
   @JoinColumn(name = "mapping_entity_id", nullable = false)
   private List<Suggestion> suggestions = new ArrayList<>();
 
-  public Map<String, String> getValuesAsMap() {
-    Map<String, String> map = new HashMap<>();
-    for (MappingValue mappingValue : mappingValues) {
-      map.put(mappingValue.getMappingKey().getKey(), mappingValue.getValue());
+  /**
+   * Generation of the index the suggestions were calculated with. Null if they were calculated before
+   * index generations were tracked.
+   */
+  @JsonIgnore
+  private String suggestionsIndexGeneration;
+
+  // Cached view of mappingValues, see getValues()
+  @Transient
+  @JsonIgnore
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  private MappingEntityValues valuesView;
+
+  /**
+   * View of the values of the entity by key. It is built on the first call and reused until
+   * {@link #mappingValues} changes.
+   * @return The values of the entity.
+   */
+  @JsonIgnore
+  public MappingEntityValues getValues() {
+    MappingEntityValues view = valuesView;
+    if (view == null || !view.isViewOf(mappingValues)) {
+      view = MappingEntityValues.of(mappingValues);
+      valuesView = view;
     }
-    return map;
+    return view;
+  }
+
+  /**
+   * Values of the entity as an unmodifiable map with the name of the key as key. See
+   * {@link #getValues()}.
+   */
+  public Map<String, String> getValuesAsMap() {
+    return getValues().asMap();
   }
 
   private String getValuesAsMapString() {
@@ -115,6 +157,14 @@ public class MappingEntity {
     return sb.toString();
   }
 
+  @PrePersist
+  @PreUpdate
+  void updateMappingKeyBytes() {
+    mappingKeyBytes = CompactMappingKey.isHex(mappingKey)
+        ? CompactMappingKey.fromHex(mappingKey).toBytes()
+        : null;
+  }
+
   public String buildMappingKey(){
     return MappingEntityKeyBuilder.buildKey(this);
   }
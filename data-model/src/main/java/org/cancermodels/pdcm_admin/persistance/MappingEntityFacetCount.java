@@ -0,0 +1,13 @@
+package org.cancermodels.pdcm_admin.persistance;
+
+/**
+ * Number of mapping entities that share the same status, entity type, mapping type and data source.
+ * @param status Status of the entities.
+ * @param entityType Name of the entity type.
+ * @param mappingType Mapping type. Null for entities that are not mapped.
+ * @param dataSource Value of the DataSource key. Null if the entities don't have it.
+ * @param count Number of entities.
+ */
+public record MappingEntityFacetCount(
+    String status, String entityType, String mappingType, String dataSource, long count) {
+}
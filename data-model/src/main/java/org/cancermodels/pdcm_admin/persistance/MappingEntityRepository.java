@@ -1,42 +1,125 @@
 package org.cancermodels.pdcm_admin.persistance;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface MappingEntityRepository extends
-    JpaRepository<MappingEntity, Integer>, JpaSpecificationExecutor<MappingEntity> {
+    JpaRepository<MappingEntity, Integer>, JpaSpecificationExecutor<MappingEntity>,
+    MappingEntityRepositoryCustom {
 
-  @Query(
-      value =
-          "select  lower(mv.value), status, count(1)\n"
-              + "from \n"
-              + "ENTITY_TYPE t, MAPPING_ENTITY me, MAPPING_VALUE mv, MAPPING_KEY mk\n"
-              + "where lower(t.NAME) = lower(:entityTypeName)\n"
-              + "and me.ENTITY_TYPE_ID = t.id\n"
-              + "and mv.MAPPING_ENTITY_ID = me.ID\n"
-              + "and mv.KEY_ID = mk.ID  \n"
-              + "and lower(mk.KEY) = lower('DataSource')\n"
-              + "group by lower(mv.value), status order by  lower(mv.value)",
-      nativeQuery = true)
-  List<Object[]> countEntityTypeStatusByProvider(@Param("entityTypeName") String entityTypeName);
+  /**
+   * Reads the fields used in the mapping summary reports: id, entity type name, data source and
+   * status. Entities without a data source are not included.
+   */
+  @Query("select me.id, et.name, mv.value, me.status from MappingEntity me join me.entityType et "
+      + "join me.mappingValues mv join mv.mappingKey mk where lower(mk.key) = 'datasource'")
+  List<Object[]> findSummaryRows();
+
+  /**
+   * Same as {@link #findSummaryRows()}, only for some entities.
+   * @param ids Ids of the entities.
+   */
+  @Query("select me.id, et.name, mv.value, me.status from MappingEntity me join me.entityType et "
+      + "join me.mappingValues mv join mv.mappingKey mk where lower(mk.key) = 'datasource' "
+      + "and me.id in :ids")
+  List<Object[]> findSummaryRowsByIdIn(@Param("ids") Collection<Integer> ids);
 
   List<MappingEntity> findAllByEntityTypeNameIgnoreCase(String entityTypeName);
 
   List<MappingEntity> findAllByEntityTypeNameIgnoreCaseAndStatusOrderByMappingKeyAsc(
       String entityTypeName, String status);
 
+  /**
+   * Same as {@link #findAllByEntityTypeNameIgnoreCaseAndStatusOrderByMappingKeyAsc}, but the
+   * entities (with their type, values and keys) are read as a stream, fetching the rows in batches.
+   * Must be called inside a transaction, and the stream must be closed.
+   */
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+  @Query("select me from MappingEntity me join fetch me.entityType et "
+      + "left join fetch me.mappingValues mv left join fetch mv.mappingKey "
+      + "where lower(et.name) = lower(:entityTypeName) and me.status = :status "
+      + "order by me.mappingKey, me.id")
+  Stream<MappingEntity> streamAllByEntityTypeNameAndStatus(
+      @Param("entityTypeName") String entityTypeName, @Param("status") String status);
+
   List<MappingEntity> findAllByStatusIgnoreCase(String status);
 
   void deleteAllByStatus(String status);
 
   Optional<MappingEntity> findByMappingKey(String key);
 
+  /**
+   * Finds an entity by the binary form of its key, which is indexed with fixed size values.
+   * @param keyBytes Bytes of the key (see {@link org.cancermodels.pdcm_admin.CompactMappingKey}).
+   * @return The entity, if any.
+   */
+  Optional<MappingEntity> findByMappingKeyBytes(byte[] keyBytes);
+
+  List<MappingEntity> findAllByMappingKeyIn(Collection<String> keys);
+
+  /**
+   * Loads entities together with their type, values and keys, in a single query.
+   * @param ids Ids of the entities.
+   * @return The entities, in no particular order.
+   */
+  @EntityGraph(attributePaths = {"entityType", "mappingValues", "mappingValues.mappingKey"})
+  List<MappingEntity> findAllWithValuesByIdIn(Collection<Integer> ids);
+
+  /**
+   * Reads the fields used to filter and sort entities in a search, with one row per mapping value:
+   * id, mappingKey, status, mappingType, entity type name, mappedTermLabel, dateCreated, dateUpdated,
+   * key and value. Rows are sorted by id, so the rows of an entity are consecutive.
+   */
+  @Query("select me.id, me.mappingKey, me.status, me.mappingType, et.name, me.mappedTermLabel, "
+      + "me.dateCreated, me.dateUpdated, mk.key, mv.value from MappingEntity me "
+      + "left join me.entityType et left join me.mappingValues mv left join mv.mappingKey mk "
+      + "order by me.id")
+  List<Object[]> findAllSearchRows();
+
+  /**
+   * Reads the fields of the entities that are part of a mapping rule, with one row per mapping value:
+   * id, mappingKey, entity type name, mappedTermLabel, mappedTermUrl, status, mappingType, source,
+   * dateCreated, dateUpdated, key and value. Rows are sorted by id, so the rows of an entity are
+   * consecutive.
+   */
+  @Query("select me.id, me.mappingKey, et.name, me.mappedTermLabel, me.mappedTermUrl, me.status, "
+      + "me.mappingType, me.source, me.dateCreated, me.dateUpdated, mk.key, mv.value "
+      + "from MappingEntity me left join me.entityType et left join me.mappingValues mv "
+      + "left join mv.mappingKey mk order by me.id")
+  List<Object[]> findAllRuleRows();
+
+  @Query("select me.mappingKey from MappingEntity me")
+  List<String> findAllMappingKeys();
+
+  @Query("select me.id from MappingEntity me where me.status in :statuses and me.suggestions is empty order by me.id")
+  List<Integer> findIdsWithoutSuggestions(@Param("statuses") Collection<String> statuses);
+
+  @Query("select me.id from MappingEntity me where me.status in :statuses and "
+      + "(me.suggestionsIndexGeneration is null or me.suggestionsIndexGeneration <> :generation) order by me.id")
+  List<Integer> findIdsWithOutdatedSuggestions(
+      @Param("statuses") Collection<String> statuses, @Param("generation") String generation);
+
+  @Query(
+      "select distinct me from MappingEntity me join me.mappingValues mv "
+          + "where me.status = :status and mv.mappingKey.key = 'DataSource' "
+          + "and lower(mv.value) = lower(:dataSource)")
+  List<MappingEntity> findAllByStatusAndDataSource(
+      @Param("status") String status, @Param("dataSource") String dataSource);
+
   @Query(
       value =
           "SELECT DISTINCT value\n" +
@@ -45,4 +128,42 @@ public interface MappingEntityRepository extends
               "AND mv.key_id = mk.id;",
       nativeQuery = true)
   List<String> getAllTreatmentsAndDiagnosis();
+
+  /**
+   * Finds the entities with a diagnosis or treatment value that matches a {@code like} pattern or is
+   * similar to a text, using the {@code pg_trgm} index on {@code lower(value)}.
+   * @param pattern Lower case {@code like} pattern.
+   * @param text Lower case text to compare with the values.
+   * @return Rows with the entity id and the highest similarity of its values with the text.
+   */
+  @Query(
+      value =
+          "SELECT mv.mapping_entity_id, max(similarity(lower(mv.value), :text))\n" +
+              "FROM mapping_value mv JOIN mapping_key mk ON mv.key_id = mk.id\n" +
+              "WHERE mk.key IN ('SampleDiagnosis', 'TreatmentName')\n" +
+              "AND (lower(mv.value) LIKE :pattern OR lower(mv.value) % :text)\n" +
+              "GROUP BY mv.mapping_entity_id",
+      nativeQuery = true)
+  List<Object[]> findIdsByLabelSimilarity(@Param("pattern") String pattern, @Param("text") String text);
+
+  /**
+   * Finds the distinct diagnosis and treatment values that contain a text or are similar to it, the
+   * most similar first.
+   * @param pattern Lower case {@code like} pattern.
+   * @param text Lower case text to compare with the values.
+   * @param limit Maximum number of values.
+   * @return The values.
+   */
+  @Query(
+      value =
+          "SELECT mv.value\n" +
+              "FROM mapping_value mv JOIN mapping_key mk ON mv.key_id = mk.id\n" +
+              "WHERE mk.key IN ('SampleDiagnosis', 'TreatmentName')\n" +
+              "AND (lower(mv.value) LIKE :pattern OR lower(mv.value) % :text)\n" +
+              "GROUP BY mv.value\n" +
+              "ORDER BY max(similarity(lower(mv.value), :text)) DESC, mv.value\n" +
+              "LIMIT :limit",
+      nativeQuery = true)
+  List<String> findLabelsBySimilarity(
+      @Param("pattern") String pattern, @Param("text") String text, @Param("limit") int limit);
 }
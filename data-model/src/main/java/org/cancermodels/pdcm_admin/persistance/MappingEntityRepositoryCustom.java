@@ -0,0 +1,31 @@
+package org.cancermodels.pdcm_admin.persistance;
+
+import java.util.List;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Queries of {@link MappingEntityRepository} that cannot be derived or written as a single
+ * {@code @Query}.
+ */
+public interface MappingEntityRepositoryCustom {
+
+  /**
+   * Counts the entities that match a specification, grouped by status, entity type, mapping type
+   * and data source, in a single query.
+   * @param specification Filter to apply. Can be null to count all the entities.
+   * @return One {@link MappingEntityFacetCount} for each combination of values that has entities.
+   */
+  List<MappingEntityFacetCount> countFacets(Specification<MappingEntity> specification);
+
+  /**
+   * Finds the ids of the entities that match a specification, in the given order. Only the ids are
+   * read, so the values of the entities are not loaded one entity at a time.
+   * @param specification Filter to apply. Can be null to get all the entities.
+   * @param sort Order of the results.
+   * @param offset Number of results to skip.
+   * @param limit Maximum number of results, or a negative number for no limit.
+   * @return The ids of the matching entities.
+   */
+  List<Integer> findIds(Specification<MappingEntity> specification, Sort sort, long offset, int limit);
+}
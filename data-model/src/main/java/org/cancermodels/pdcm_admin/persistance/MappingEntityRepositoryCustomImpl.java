@@ -0,0 +1,99 @@
+package org.cancermodels.pdcm_admin.persistance;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.ListJoin;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.criteria.Subquery;
+import java.util.ArrayList;
+import java.util.List;
+import org.cancermodels.pdcm_admin.types.MappingKeyName;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+class MappingEntityRepositoryCustomImpl implements MappingEntityRepositoryCustom {
+
+  @PersistenceContext(unitName = "pdcmAdmin")
+  private EntityManager entityManager;
+
+  @Override
+  public List<MappingEntityFacetCount> countFacets(Specification<MappingEntity> specification) {
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+    Root<MappingEntity> root = query.from(MappingEntity.class);
+
+    Join<MappingEntity, EntityType> entityType = root.join(MappingEntity_.entityType, JoinType.LEFT);
+
+    // Only the DataSource value of each entity is joined, so every entity is still a single row
+    Subquery<Integer> dataSourceKeys = query.subquery(Integer.class);
+    Root<MappingKey> mappingKey = dataSourceKeys.from(MappingKey.class);
+    dataSourceKeys
+        .select(mappingKey.get(MappingKey_.id))
+        .where(criteriaBuilder.equal(mappingKey.get(MappingKey_.key), MappingKeyName.DATASOURCE.getLabel()));
+    ListJoin<MappingEntity, MappingValue> dataSource = root.join(MappingEntity_.mappingValues, JoinType.LEFT);
+    dataSource.on(dataSource.get(MappingValue_.mappingKey).get(MappingKey_.id).in(dataSourceKeys));
+
+    Expression<String> status = root.get(MappingEntity_.status);
+    Expression<String> entityTypeName = entityType.get(EntityType_.name);
+    Expression<String> mappingType = root.get(MappingEntity_.mappingType);
+    Expression<String> dataSourceValue = dataSource.get(MappingValue_.value);
+
+    query.multiselect(
+        status, entityTypeName, mappingType, dataSourceValue, criteriaBuilder.countDistinct(root));
+    if (specification != null) {
+      Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+      if (predicate != null) {
+        query.where(predicate);
+      }
+    }
+    query.groupBy(status, entityTypeName, mappingType, dataSourceValue);
+
+    return entityManager.createQuery(query).getResultList().stream()
+        .map(x -> new MappingEntityFacetCount(
+            x.get(0, String.class),
+            x.get(1, String.class),
+            x.get(2, String.class),
+            x.get(3, String.class),
+            x.get(4, Long.class)))
+        .toList();
+  }
+
+  @Override
+  public List<Integer> findIds(
+      Specification<MappingEntity> specification, Sort sort, long offset, int limit) {
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+    Root<MappingEntity> root = query.from(MappingEntity.class);
+
+    if (specification != null) {
+      Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+      if (predicate != null) {
+        query.where(predicate);
+      }
+    }
+    // The filters use "select distinct", which needs the columns of the order in the select
+    List<Order> orders = QueryUtils.toOrders(sort, root, criteriaBuilder);
+    List<Selection<?>> selections = new ArrayList<>();
+    selections.add(root.get(MappingEntity_.id));
+    orders.forEach(x -> selections.add(x.getExpression()));
+    query.multiselect(selections).orderBy(orders);
+
+    TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+    typedQuery.setFirstResult((int) offset);
+    if (limit >= 0) {
+      typedQuery.setMaxResults(limit);
+    }
+    return typedQuery.getResultList().stream().map(x -> x.get(0, Integer.class)).toList();
+  }
+}
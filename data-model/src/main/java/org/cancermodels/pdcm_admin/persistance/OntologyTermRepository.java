@@ -2,8 +2,12 @@ package org.cancermodels.pdcm_admin.persistance;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface OntologyTermRepository extends JpaRepository<OntologyTerm, Integer> {
     Optional<OntologyTerm> findByKey(String key);
+
+    List<OntologyTerm> findAllByKeyIn(Collection<String> keys);
 }
@@ -16,4 +16,8 @@ public interface ProcessReportRepository extends JpaRepository<ProcessReport, Lo
               + "from PROCESS_REPORT where module=:module group by module, attribute)",
       nativeQuery = true)
   List<ProcessReport> findLatestReportsByModule(String module);
+
+  void deleteAllByModule(String module);
+
+  void deleteAllByModuleAndAttribute(String module, String attribute);
 }
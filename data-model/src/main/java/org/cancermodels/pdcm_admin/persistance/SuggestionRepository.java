@@ -1,10 +1,23 @@
 package org.cancermodels.pdcm_admin.persistance;
 
+import java.util.Collection;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface SuggestionRepository extends JpaRepository<Suggestion, Long>,
     JpaSpecificationExecutor<MappingEntity> {
 
   void deleteAllBySourceType(String sourceType);
+
+  /**
+   * Deletes the suggestions (of any entity) that point to some mapping entities, so those entities
+   * can be deleted.
+   * @param ids Ids of the suggested mapping entities.
+   */
+  @Modifying
+  @Query("delete from Suggestion s where s.mappingEntity.id in :ids")
+  void deleteAllBySuggestedMappingEntityIdIn(@Param("ids") Collection<Integer> ids);
 }
@@ -16,4 +16,18 @@ public enum MappingKeyName {
     this.label = label;
   }
 
+  /**
+   * Finds the key with a label.
+   * @param label Label of the key, case sensitive.
+   * @return The key, or null if no key has that label.
+   */
+  public static MappingKeyName fromLabel(String label) {
+    for (MappingKeyName keyName : values()) {
+      if (keyName.label.equals(label)) {
+        return keyName;
+      }
+    }
+    return null;
+  }
+
 }
@@ -6,7 +6,9 @@ import lombok.Getter;
 public enum ProcessReportModules {
   INPUT_DATA("Input data"),
   ONTOLOGIES("Ontologies"),
-  INDEXER("Indexer");
+  INDEXER("Indexer"),
+  JOBS("Jobs"),
+  DISCOVERY("Discovery");
 
   private final String label;
 
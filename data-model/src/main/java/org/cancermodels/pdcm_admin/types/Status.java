@@ -24,4 +24,19 @@ public enum Status {
     throw new IllegalArgumentException("Status " + name + " does not exist");
   }
 
+  /**
+   * Gets the label of a status ignoring case, as statuses are compared in the rest of the
+   * application, so values stored with a different case are counted under the same status.
+   * @param name Name of the status, as stored in the database.
+   * @return The label of the status, or {@code name} itself (or "null") if it is not a status.
+   */
+  public static String normalise(String name) {
+    for (Status status : Status.values()) {
+      if (status.getLabel().equalsIgnoreCase(name)) {
+        return status.getLabel();
+      }
+    }
+    return String.valueOf(name);
+  }
+
 }
@@ -0,0 +1,18 @@
+-- Hibernate now takes ids from hibernate_sequence in blocks of 50 (pooled-lo optimizer) instead of
+-- one at a time. Run this once on an existing database before deploying that version.
+--
+-- The sequence value becomes the first id of the next block, so it is moved past the highest id in
+-- use to make sure no block overlaps existing rows.
+
+ALTER SEQUENCE admin_app.hibernate_sequence INCREMENT BY 50;
+
+SELECT setval('admin_app.hibernate_sequence', GREATEST(
+    (SELECT last_value FROM admin_app.hibernate_sequence),
+    (SELECT COALESCE(MAX(id), 0) FROM admin_app.entity_type),
+    (SELECT COALESCE(MAX(id), 0) FROM admin_app.mapping_key),
+    (SELECT COALESCE(MAX(id), 0) FROM admin_app.mapping_entity),
+    (SELECT COALESCE(MAX(id), 0) FROM admin_app.mapping_value),
+    (SELECT COALESCE(MAX(id), 0) FROM admin_app.ontology_term),
+    (SELECT COALESCE(MAX(id), 0) FROM admin_app.suggestion),
+    (SELECT COALESCE(MAX(id), 0) FROM admin_app.process_report)
+));
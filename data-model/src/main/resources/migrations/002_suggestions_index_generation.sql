@@ -0,0 +1,4 @@
+-- Stored suggestions are now stamped with the generation of the index they were calculated with.
+-- Existing suggestions have no generation, so they are recalculated after the next index build.
+
+ALTER TABLE admin_app.mapping_entity ADD COLUMN IF NOT EXISTS suggestions_index_generation TEXT;
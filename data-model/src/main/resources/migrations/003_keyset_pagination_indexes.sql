@@ -0,0 +1,7 @@
+-- Indexes for the orders used to page through search results with a cursor (see KeysetSort), so
+-- every page is read with an index range scan instead of sorting the whole result set.
+
+CREATE INDEX IF NOT EXISTS idx_mapping_entity_mapping_key_id
+    ON admin_app.mapping_entity (mapping_key, id);
+CREATE INDEX IF NOT EXISTS idx_mapping_entity_date_updated_id
+    ON admin_app.mapping_entity (date_updated DESC, id DESC);
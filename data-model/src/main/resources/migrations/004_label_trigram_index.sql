@@ -0,0 +1,8 @@
+-- Trigram index on the mapping values, used by the label filter of the searches. It makes the
+-- lower(value) LIKE '%text%' conditions use an index, and allows fuzzy matches with the % operator
+-- (search_backend=trigram).
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_mapping_value_value_trgm
+    ON admin_app.mapping_value USING gin (lower(value) gin_trgm_ops);
@@ -0,0 +1,13 @@
+-- Binary form of the mapping keys (the 32 bytes of the SHA-256 hash instead of its 64 hex
+-- characters), used to find entities by key. The application fills it when an entity is saved, so
+-- only the existing rows need to be filled here. Keys that are not a hash are left as null.
+
+ALTER TABLE admin_app.mapping_entity ADD COLUMN IF NOT EXISTS mapping_key_bytes BYTEA;
+
+UPDATE admin_app.mapping_entity
+   SET mapping_key_bytes = decode(mapping_key, 'hex')
+ WHERE mapping_key ~ '^[0-9a-f]{64}$'
+   AND mapping_key_bytes IS NULL;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uc_mapping_entity_mapping_key_bytes
+    ON admin_app.mapping_entity (mapping_key_bytes);
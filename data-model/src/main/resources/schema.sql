@@ -25,6 +25,7 @@ ADD CONSTRAINT uc_mapping_key UNIQUE (entity_type_id, key);
 CREATE TABLE admin_app.mapping_entity (
     id INTEGER NOT NULL,
     mapping_key TEXT NOT NULL,
+    mapping_key_bytes BYTEA,
     entity_type_id INTEGER,
     mapped_term_label TEXT,
     mapped_term_url TEXT,
@@ -32,11 +33,19 @@ CREATE TABLE admin_app.mapping_entity (
     date_created TIMESTAMP,
     date_updated TIMESTAMP,
     mapping_type TEXT,
-    source TEXT
+    source TEXT,
+    suggestions_index_generation TEXT
 );
 
 ALTER TABLE admin_app.mapping_entity ADD CONSTRAINT pk_mapping_entity PRIMARY KEY (id);
 
+-- Binary form of the key, used to find entities by key
+CREATE UNIQUE INDEX uc_mapping_entity_mapping_key_bytes ON admin_app.mapping_entity (mapping_key_bytes);
+
+-- Orders used to page through search results with a cursor
+CREATE INDEX idx_mapping_entity_mapping_key_id ON admin_app.mapping_entity (mapping_key, id);
+CREATE INDEX idx_mapping_entity_date_updated_id ON admin_app.mapping_entity (date_updated DESC, id DESC);
+
 CREATE TABLE admin_app.mapping_value (
     id INTEGER NOT NULL,
     mapping_entity_id INTEGER,
@@ -55,6 +64,10 @@ ALTER TABLE admin_app.mapping_value
 ALTER TABLE admin_app.mapping_value
 ADD CONSTRAINT uc_mapping_value UNIQUE (mapping_entity_id, key_id);
 
+-- Substring and fuzzy matches of the label filter
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX idx_mapping_value_value_trgm ON admin_app.mapping_value USING gin (lower(value) gin_trgm_ops);
+
 CREATE TABLE admin_app.ontology_term (
     id INTEGER NOT NULL,
     key TEXT,
@@ -115,6 +128,10 @@ CREATE TABLE admin_app.process_report (
 
 ALTER TABLE admin_app.process_report ADD CONSTRAINT pk_process_report PRIMARY KEY (id);
 
+-- Ids of all the tables. Hibernate takes them in blocks of 50 (pooled-lo), so the increment must
+-- match the allocationSize of the entities
+CREATE SEQUENCE admin_app.hibernate_sequence START WITH 100 INCREMENT BY 50;
+
 -- Views
 CREATE VIEW admin_app.diagnosis_data_vw AS (
     SELECT
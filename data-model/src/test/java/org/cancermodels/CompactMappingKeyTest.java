@@ -0,0 +1,51 @@
+package org.cancermodels;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.apache.commons.codec.binary.Hex;
+import org.cancermodels.pdcm_admin.CompactMappingKey;
+import org.cancermodels.pdcm_admin.MappingEntityKeyBuilder;
+import org.junit.jupiter.api.Test;
+
+class CompactMappingKeyTest {
+
+  private static final String KEY
+      = "7b935ec404bd587ed59fd8eec3ecb82321b5eedbe2f52e813ec148254c5333b2";
+
+  @Test
+  void hexRoundTrip() {
+    CompactMappingKey compactKey = CompactMappingKey.fromHex(KEY);
+    assertEquals(KEY, compactKey.toHex());
+  }
+
+  @Test
+  void bytesAreTheBytesOfTheHash() throws Exception {
+    String key = MappingEntityKeyBuilder.buildKeyTreatmentMapping("Treatment", "Provider");
+    byte[] bytes = CompactMappingKey.fromHex(key).toBytes();
+
+    assertArrayEquals(Hex.decodeHex(key), bytes);
+    assertEquals(CompactMappingKey.fromHex(key), CompactMappingKey.fromBytes(bytes));
+  }
+
+  @Test
+  void equalsAndHashCode() {
+    CompactMappingKey key1 = CompactMappingKey.fromHex(KEY);
+    CompactMappingKey key2 = CompactMappingKey.fromHex(KEY);
+    CompactMappingKey other = CompactMappingKey.fromHex(KEY.replace('b', 'c'));
+
+    assertEquals(key1, key2);
+    assertEquals(key1.hashCode(), key2.hashCode());
+    assertNotEquals(key1, other);
+  }
+
+  @Test
+  void onlyLowerCaseHashesAreKeys() {
+    assertTrue(CompactMappingKey.isHex(KEY));
+    assertFalse(CompactMappingKey.isHex(KEY.toUpperCase()));
+    assertFalse(CompactMappingKey.isHex(KEY.substring(1)));
+    assertFalse(CompactMappingKey.isHex("legacy key"));
+    assertFalse(CompactMappingKey.isHex(null));
+    assertThrows(IllegalArgumentException.class, () -> CompactMappingKey.fromHex("legacy key"));
+    assertThrows(IllegalArgumentException.class, () -> CompactMappingKey.fromBytes(new byte[16]));
+  }
+}
@@ -2,6 +2,11 @@ package org.cancermodels;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.cancermodels.pdcm_admin.MappingEntityKeyBuilder;
 import org.junit.jupiter.api.Test;
 
@@ -54,4 +59,45 @@ class MappingEntityKeyBuilderTest {
         "originTissueTest", "dataSourceTest");
     assertNotEquals(key1, key2);
   }
-}
\ No newline at end of file
+
+  @Test
+  void generateHashForValues_NonAsciiAndLongValues_SameAsHashOfJoinedText() {
+    List<String> values = Arrays.asList(
+        "Diagnosis", "Carcinoma Ç ÉPITHÉLIAL", "ΟΔΥΣΣΕΥΣ", null, "", "x".repeat(300) + "Y", "İstanbul");
+
+    assertEquals(referenceHash(values), MappingEntityKeyBuilder.generateHashForValues(values));
+  }
+
+  @Test
+  void generateHashForValues_TurkishLocale_SameAsHashOfJoinedText() {
+    Locale defaultLocale = Locale.getDefault();
+    try {
+      Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+      List<String> values = List.of("Treatment", "CISPLATIN", "TRACE");
+
+      assertEquals(referenceHash(values), MappingEntityKeyBuilder.generateHashForValues(values));
+    } finally {
+      Locale.setDefault(defaultLocale);
+    }
+  }
+
+  @Test
+  void generateHashesForValues_SeveralLists_SameAsHashingEachOne() {
+    List<List<String>> valuesList = List.of(
+        List.of("Treatment", "Cisplatin", "TRACE"),
+        List.of("Treatment", "Cisplatin Ü", "JAX"),
+        List.of());
+
+    assertEquals(
+        valuesList.stream().map(this::referenceHash).toList(),
+        MappingEntityKeyBuilder.generateHashesForValues(valuesList));
+  }
+
+  // How the keys were calculated before hashing the values incrementally
+  private String referenceHash(List<String> values) {
+    return DigestUtils.sha256Hex(values.stream()
+        .map(x -> x == null ? "" : x)
+        .map(String::toLowerCase)
+        .collect(Collectors.joining("|")));
+  }
+}
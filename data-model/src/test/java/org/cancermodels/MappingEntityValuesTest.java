@@ -0,0 +1,63 @@
+package org.cancermodels;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.cancermodels.pdcm_admin.MappingEntityValues;
+import org.cancermodels.pdcm_admin.persistance.MappingEntity;
+import org.cancermodels.pdcm_admin.persistance.MappingKey;
+import org.cancermodels.pdcm_admin.persistance.MappingValue;
+import org.cancermodels.pdcm_admin.types.MappingKeyName;
+import org.junit.jupiter.api.Test;
+
+class MappingEntityValuesTest {
+
+  @Test
+  void valuesByKeyName() {
+    MappingEntity mappingEntity = entity(
+        value("TreatmentName", "Aspirin"), value("DataSource", "jax"), value("Other", "x"));
+
+    MappingEntityValues values = mappingEntity.getValues();
+
+    assertEquals("Aspirin", values.get(MappingKeyName.TREATMENT_NAME));
+    assertEquals("jax", values.get(MappingKeyName.DATASOURCE));
+    assertNull(values.get(MappingKeyName.TUMOR_TYPE));
+    assertEquals(Map.of("TreatmentName", "Aspirin", "DataSource", "jax", "Other", "x"), values.asMap());
+    assertThrows(UnsupportedOperationException.class, () -> values.asMap().put("Other", "y"));
+  }
+
+  @Test
+  void viewIsReusedUntilTheValuesChange() {
+    MappingValue treatmentName = value("TreatmentName", "Aspirin");
+    MappingEntity mappingEntity = entity(treatmentName);
+    MappingEntityValues values = mappingEntity.getValues();
+
+    assertSame(values, mappingEntity.getValues());
+
+    treatmentName.setValue("Ibuprofen");
+    assertEquals("Ibuprofen", mappingEntity.getValues().get(MappingKeyName.TREATMENT_NAME));
+
+    mappingEntity.getMappingValues().add(value("DataSource", "jax"));
+    assertEquals("jax", mappingEntity.getValues().get(MappingKeyName.DATASOURCE));
+
+    mappingEntity.setMappingValues(new ArrayList<>(List.of(value("DataSource", "trace"))));
+    assertEquals(Map.of("DataSource", "trace"), mappingEntity.getValuesAsMap());
+  }
+
+  private MappingEntity entity(MappingValue... mappingValues) {
+    MappingEntity mappingEntity = new MappingEntity();
+    mappingEntity.setMappingValues(new ArrayList<>(List.of(mappingValues)));
+    return mappingEntity;
+  }
+
+  private MappingValue value(String key, String value) {
+    MappingKey mappingKey = new MappingKey();
+    mappingKey.setKey(key);
+    MappingValue mappingValue = new MappingValue();
+    mappingValue.setMappingKey(mappingKey);
+    mappingValue.setValue(value);
+    return mappingValue;
+  }
+}
@@ -0,0 +1,21 @@
+package org.cancermodels;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.cancermodels.pdcm_admin.types.Status;
+import org.junit.jupiter.api.Test;
+
+class StatusTest {
+
+  @Test
+  void normalise_DifferentCase_ReturnsLabel() {
+    assertEquals("Unmapped", Status.normalise("UNMAPPED"));
+    assertEquals("Review", Status.normalise("review"));
+  }
+
+  @Test
+  void normalise_NotAStatus_ReturnsName() {
+    assertEquals("Other", Status.normalise("Other"));
+    assertEquals("null", Status.normalise(null));
+  }
+}
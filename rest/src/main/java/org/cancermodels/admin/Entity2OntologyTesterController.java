@@ -3,16 +3,13 @@ package org.cancermodels.admin;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.cancer_models.entity2ontology.exceptions.MalformedMappingConfigurationException;
 import org.cancer_models.entity2ontology.exceptions.MappingException;
-import org.cancer_models.entity2ontology.map.model.MappingRequest;
-import org.cancer_models.entity2ontology.map.model.MappingResponse;
 import org.cancer_models.entity2ontology.map.model.SourceEntity;
 import org.cancer_models.entity2ontology.map.model.Suggestion;
-import org.cancer_models.entity2ontology.map.service.MappingRequestService;
-import org.cancermodels.util.FileManager;
+import org.cancer_models.entity2ontology.map.service.MappingService;
+import org.cancermodels.mappings.suggestions.MappingConfigurationRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.*;
 
-import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -30,12 +27,13 @@ public class Entity2OntologyTesterController {
 
     private static final int numberOfSuggestedMappings = 10;
 
-    private static final String MAPPING_CONFIG_FILE = "pdcmMappingConfiguration.json";
+    private final MappingService mappingService;
+    private final MappingConfigurationRegistry mappingConfigurationRegistry;
 
-    private final MappingRequestService mappingRequestService;
-
-    public Entity2OntologyTesterController(MappingRequestService mappingRequestService) {
-        this.mappingRequestService = mappingRequestService;
+    public Entity2OntologyTesterController(
+        MappingService mappingService, MappingConfigurationRegistry mappingConfigurationRegistry) {
+        this.mappingService = mappingService;
+        this.mappingConfigurationRegistry = mappingConfigurationRegistry;
     }
 
     /**
@@ -47,7 +45,7 @@ public class Entity2OntologyTesterController {
      */
     @GetMapping("test-treatment")
     List<Suggestion> getSuggestionsForTreatment(@RequestBody Map<String, String> data)
-        throws MalformedMappingConfigurationException, MappingException, IOException {
+        throws MalformedMappingConfigurationException, MappingException {
         SourceEntity sourceEntity = new SourceEntity();
         sourceEntity.setId("treatment-entry");
         sourceEntity.setType("treatment");
@@ -64,7 +62,7 @@ public class Entity2OntologyTesterController {
      */
     @GetMapping("test-diagnosis")
     List<Suggestion> getSuggestionsForDiagnosis(@RequestBody Map<String, String> data)
-        throws MalformedMappingConfigurationException, MappingException, IOException {
+        throws MalformedMappingConfigurationException, MappingException {
         SourceEntity sourceEntity = new SourceEntity();
         sourceEntity.setId("diagnosis-entry");
         sourceEntity.setType("diagnosis");
@@ -73,17 +71,8 @@ public class Entity2OntologyTesterController {
     }
 
     private List<Suggestion> searchForSuggestions(SourceEntity sourceEntity)
-        throws MalformedMappingConfigurationException, MappingException, IOException {
-        // This assures we have the correct path even in environments like kubernetes
-        String mappingConfFilePath = FileManager.getTmpPathForResource(MAPPING_CONFIG_FILE);
-        MappingRequest mappingRequest = new MappingRequest(
-            numberOfSuggestedMappings,
-            luceneIndexDir,
-            mappingConfFilePath,
-            List.of(sourceEntity)
-        );
-        MappingResponse response = mappingRequestService.processMappingRequest(mappingRequest);
-
-        return response.getMappingsResults().getFirst().getSuggestions();
+        throws MalformedMappingConfigurationException, MappingException {
+        return mappingService.mapEntity(
+            sourceEntity, luceneIndexDir, numberOfSuggestedMappings, mappingConfigurationRegistry.getConfiguration());
     }
 }
@@ -0,0 +1,88 @@
+package org.cancermodels.admin;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
+import org.cancermodels.exception_handling.ResourceNotFoundException;
+import org.cancermodels.jobs.Job;
+import org.cancermodels.jobs.JobLauncher;
+import org.cancermodels.jobs.JobService;
+import org.cancermodels.jobs.JobType;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller to run the long-running processes (automatic mappings, detection of new mappings,
+ * indexing and repository sync) in the background and follow their execution.
+ */
+@Tag(name = "Jobs", description = "Background execution of long-running processes")
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/jobs")
+public class JobController {
+
+    private final JobLauncher jobLauncher;
+    private final JobService jobService;
+
+    public JobController(JobLauncher jobLauncher, JobService jobService) {
+        this.jobLauncher = jobLauncher;
+        this.jobService = jobService;
+    }
+
+    /**
+     * Starts a process in the background.
+     *
+     * @param type Type of the process: auto-assign-mappings, detect-new-mappings, index or
+     *             repository-sync.
+     * @return The {@link Job} created for the process. Its id can be used to follow the execution.
+     */
+    @Operation(
+        summary = "Start a background job",
+        description = "Starts one of the long-running processes (auto-assign-mappings, "
+            + "detect-new-mappings, index, repository-sync) in the background and returns the job "
+            + "immediately. Only one job of each type can be in progress at a time."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "202", description = "Job submitted"),
+        @ApiResponse(responseCode = "400", description = "Unknown job type"),
+        @ApiResponse(responseCode = "409", description = "A job of the same type is already in progress")
+    })
+    @PostMapping("/{type}")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public Job submit(@PathVariable String type) {
+        return jobLauncher.launch(JobType.getByName(type));
+    }
+
+    @Operation(summary = "List the most recent jobs")
+    @GetMapping
+    public List<Job> getJobs() {
+        return jobService.getJobs();
+    }
+
+    @Operation(
+        summary = "Get a job",
+        description = "Returns the status, progress and (once finished) the result of a job."
+    )
+    @GetMapping("/{id}")
+    public Job getJob(@PathVariable String id) {
+        return jobService.getJob(id).orElseThrow(ResourceNotFoundException::new);
+    }
+
+    @Operation(
+        summary = "Cancel a job",
+        description = "Requests the cancellation of a job. A running job stops at the next safe point."
+    )
+    @DeleteMapping("/{id}")
+    public Job cancel(@PathVariable String id) {
+        return jobService.cancel(id).orElseThrow(ResourceNotFoundException::new);
+    }
+}
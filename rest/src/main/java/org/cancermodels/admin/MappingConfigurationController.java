@@ -0,0 +1,62 @@
+package org.cancermodels.admin;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.cancer_models.entity2ontology.exceptions.MappingException;
+import org.cancermodels.mappings.suggestions.MappingConfigurationRegistry;
+import org.cancermodels.mappings.suggestions.MappingConfigurationRegistry.LoadedConfiguration;
+import org.cancermodels.process_report.ProcessResponse;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller to manage the mapping configuration used to calculate suggestions.
+ */
+@Tag(name = "Mapping configuration", description = "Operations on the mapping configuration")
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/mapping-configuration")
+public class MappingConfigurationController {
+
+    private final MappingConfigurationRegistry mappingConfigurationRegistry;
+
+    public MappingConfigurationController(MappingConfigurationRegistry mappingConfigurationRegistry) {
+        this.mappingConfigurationRegistry = mappingConfigurationRegistry;
+    }
+
+    /**
+     * Reads the mapping configuration file again.
+     *
+     * @return a {@link ProcessResponse} object with the file that was read and when
+     * @throws MappingException if the configuration could not be read
+     */
+    @Operation(
+        summary = "Reloads the mapping configuration",
+        description = "Reads the mapping configuration file again, even if it has not changed. "
+            + "If the file cannot be read, the previous configuration is kept."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Configuration reloaded",
+            content = @Content(mediaType = "application/json",
+                schema = @Schema(implementation = ProcessResponse.class))),
+        @ApiResponse(responseCode = "500", description = "Internal Server Error - The configuration could not be read")
+    })
+    @PostMapping("/reload")
+    public ProcessResponse reload() throws MappingException {
+        LoadedConfiguration loaded = mappingConfigurationRegistry.reload();
+        Map<String, String> response = new LinkedHashMap<>();
+        response.put("File", loaded.filePath());
+        response.put("Watched for changes", String.valueOf(loaded.watched()));
+        response.put("Loaded at", loaded.loadedAt().toString());
+        return new ProcessResponse(response);
+    }
+}
@@ -1,11 +1,13 @@
 package org.cancermodels.admin;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import org.cancermodels.admin.dtos.MappingEntityDTO;
 import org.cancermodels.admin.mappers.MappingEntityMapper;
 import org.cancermodels.exception_handling.ResourceNotFoundException;
+import org.cancermodels.jobs.JobProgress;
 import org.cancermodels.mappings.MappingEntityService;
 import org.cancermodels.mappings.discovery.UnmappedTermsDiscoverService;
 import org.cancermodels.pdcm_admin.persistance.MappingEntity;
@@ -96,8 +98,10 @@ public class MappingController {
      * This method scans through existing treatment and diagnosis data to find terms
      * that have not been previously mapped to an ontology term.
      * When such terms are found, it creates placeholder mapping entities
-     * to facilitate later curation (manual or automatic).
+     * to facilitate later curation (manual or automatic). Only providers whose data
+     * changed since the last detection are read, unless {@code full} is true.
      *
+     * @param full If true, all the providers are read.
      * @return A map where the keys are the type of entity (treatment/diagnosis)
      * and the values represent the count of occurrences for each term.
      */
@@ -115,8 +119,10 @@ public class MappingController {
         description = "Internal server error during term detection"
     )
     @PutMapping("/detect-new-mappings")
-    public Map<String, Integer> detectNewMappings() {
-        return unmappedTermsDiscoverService.detectNewUnmappedTerms();
+    public Map<String, Integer> detectNewMappings(
+        @Parameter(description = "Read all the providers, even the ones whose data did not change")
+        @RequestParam(value = "full", defaultValue = "false") boolean full) {
+        return unmappedTermsDiscoverService.detectNewUnmappedTerms(full, JobProgress.NONE);
     }
 
 }
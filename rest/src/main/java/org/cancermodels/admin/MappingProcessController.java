@@ -10,15 +10,22 @@ import org.cancermodels.admin.dtos.SuggestionDTO;
 import org.cancermodels.admin.mappers.SuggestionMapper;
 import org.cancermodels.exception_handling.ResourceNotFoundException;
 import org.cancermodels.mappings.MappingEntityService;
+import org.cancermodels.mappings.automatic_mappings.AutomaticMappingsEvaluator;
 import org.cancermodels.mappings.automatic_mappings.AutomaticMappingsService;
+import org.cancermodels.mappings.automatic_mappings.EvaluationFilter;
+import org.cancermodels.mappings.automatic_mappings.EvaluationFormat;
 import org.cancermodels.mappings.suggestions.SuggestionService;
 import org.cancermodels.pdcm_admin.persistance.MappingEntity;
 import org.cancermodels.pdcm_admin.persistance.Suggestion;
 import org.cancermodels.process_report.ProcessResponse;
 import org.springframework.web.bind.annotation.*;
 
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -31,16 +38,19 @@ import java.util.List;
 public class MappingProcessController {
 
     private final AutomaticMappingsService automaticMappingsService;
+    private final AutomaticMappingsEvaluator automaticMappingsEvaluator;
     private final MappingEntityService mappingEntityService;
     private final SuggestionService suggestionService;
     private final SuggestionMapper suggestionMapper;
 
     public MappingProcessController(
         AutomaticMappingsService automaticMappingsService,
+        AutomaticMappingsEvaluator automaticMappingsEvaluator,
         MappingEntityService mappingEntityService,
         SuggestionService suggestionService,
         SuggestionMapper suggestionMapper) {
         this.automaticMappingsService = automaticMappingsService;
+        this.automaticMappingsEvaluator = automaticMappingsEvaluator;
         this.mappingEntityService = mappingEntityService;
         this.suggestionService = suggestionService;
         this.suggestionMapper = suggestionMapper;
@@ -67,6 +77,60 @@ public class MappingProcessController {
         return automaticMappingsService.assignAutomaticMappings();
     }
 
+    /**
+     * Evaluates the automatic mapping process against the current mappings.
+     * <p>
+     * The best suggestion of each mapped entity is calculated and compared with its mapping. The
+     * entities whose best suggestion has another term ({@code not_matching}) or that have no
+     * suggestion good enough ({@code not_suggestion}) are written as they are found. Nothing is
+     * written to the db: the ontology terms of the suggestions are not saved.
+     * </p>
+     *
+     * @param response the HTTP response the rows are written to
+     * @param format csv or ndjson. The ndjson output ends with an object with the counts.
+     * @param entityType Treatment or Diagnosis. All the types if not set.
+     * @param dataSource Only the entities of this provider. All of them if not set.
+     * @param sample Fraction of the entities to evaluate, greater than 0 and up to 1.
+     * @param seed Seed of the sample. The same seed selects the same entities.
+     * @param limit Maximum number of entities to evaluate. 0 for no limit.
+     * @throws IOException if the rows could not be written
+     * @throws MalformedMappingConfigurationException if there is an error in the mapping configuration file
+     * @throws MappingException if there is an error when mapping the entities
+     */
+    @Operation(
+        summary = "Evaluate the automatic mappings",
+        description = "Calculates the best suggestion of the mapped entities and streams, as CSV or "
+            + "NDJSON, the ones where it has another term or there is no suggestion. The entities "
+            + "can be filtered by type and provider, and sampled."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Evaluation rows streamed"),
+        @ApiResponse(responseCode = "400", description = "Invalid format, entity type, sample or limit")
+    })
+    @GetMapping("/automatic-mappings/evaluation")
+    public void evaluateAutomaticMappings(
+        HttpServletResponse response,
+        @RequestParam(value = "format", defaultValue = "csv") String format,
+        @RequestParam(value = "entityType", required = false) String entityType,
+        @RequestParam(value = "dataSource", required = false) String dataSource,
+        @RequestParam(value = "sample", defaultValue = "1") double sample,
+        @RequestParam(value = "seed", defaultValue = "0") long seed,
+        @RequestParam(value = "limit", defaultValue = "0") int limit)
+        throws IOException, MalformedMappingConfigurationException, MappingException {
+        // Validated before anything is written, so an invalid parameter is still a 400
+        EvaluationFormat evaluationFormat = EvaluationFormat.fromName(format);
+        EvaluationFilter filter = new EvaluationFilter(entityType, dataSource, sample, seed, limit);
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(evaluationFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        String fileName = "automatic_mappings_evaluation_"
+            + new SimpleDateFormat("yyyyMMddHHmm").format(new Date()) + "." + evaluationFormat.getExtension();
+        response.addHeader("Content-Disposition", "attachment; filename=\"" + fileName + "\"");
+
+        automaticMappingsEvaluator.evaluate(filter, evaluationFormat.createWriter(response.getOutputStream()));
+    }
+
     /**
      * Retrieves a list of mapping suggestions for a given mapping entity.
      * <p>
@@ -84,7 +148,7 @@ public class MappingProcessController {
     @Operation(
         summary = "Get mapping suggestions for an entity",
         description = "Retrieves a list of mapping suggestions for a specified mapping entity. "
-            + "If the entity already has precomputed suggestions, they are returned. "
+            + "If the entity already has suggestions precomputed with the current index, they are returned. "
             + "Otherwise, new suggestions are calculated and returned. The results "
             + "are sorted in descending order by relative score."
     )
@@ -1,8 +1,6 @@
 package org.cancermodels.admin;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.zip.ZipEntry;
@@ -13,9 +11,9 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletResponse;
-import org.apache.tomcat.util.http.fileupload.IOUtils;
 import org.cancermodels.pdcm_admin.EntityTypeName;
 import org.cancermodels.mapping_rules.MappingRulesService;
+import org.cancermodels.process_report.ProcessResponse;
 import org.springframework.web.bind.annotation.*;
 
 /**
@@ -58,31 +56,32 @@ public class MappingRulesController {
     String fileName = "mappingRules_" + new SimpleDateFormat("yyyyMMddHHmm'.zip'").format(new Date());
     response.addHeader("Content-Disposition", "attachment; filename=\""+fileName+"\"");
 
-    ZipOutputStream zipOutputStream = new ZipOutputStream(response.getOutputStream());
-
-    for (EntityTypeName entityType : EntityTypeName.values()) {
-      String entityTypeName = entityType.getLabel().toLowerCase();
-      String mappingsFileName = entityTypeName + "_mappings.json";
-      String json = mappingRulesService.buildMappingRulesJson(entityTypeName);
-      zipOutputStream.putNextEntry(new ZipEntry(mappingsFileName));
-      InputStream contentStream = new ByteArrayInputStream(json.getBytes());
-      IOUtils.copy(contentStream, zipOutputStream);
-      zipOutputStream.closeEntry();
+    // The rules are written straight into the zip, so the download starts before all of them are read
+    try (ZipOutputStream zipOutputStream = new ZipOutputStream(response.getOutputStream())) {
+      for (EntityTypeName entityType : EntityTypeName.values()) {
+        String entityTypeName = entityType.getLabel().toLowerCase();
+        String mappingsFileName = entityTypeName + "_mappings.json";
+        zipOutputStream.putNextEntry(new ZipEntry(mappingsFileName));
+        mappingRulesService.writeMappingRulesJson(entityTypeName, zipOutputStream);
+        zipOutputStream.closeEntry();
+        zipOutputStream.flush();
+      }
     }
-
-    zipOutputStream.close();
   }
 
   /**
-   * Deletes all current mapping entities and reloads only mapped data
-   * from predefined JSON files. Any mappings in other statuses
-   * (Review, Unmapped, Request) will be lost permanently.
+   * Makes the mapping entities match the mapped data in predefined JSON files, inserting, updating
+   * and deleting only the entities that changed. Any mappings in other statuses
+   * (Review, Unmapped, Request) will be lost permanently. Rules that cannot be read are skipped.
+   * To follow the progress, run it as the {@code restore-mapping-rules} job instead.
    *
+   * @return The number of rules inserted, updated, unchanged and skipped, and of entities deleted,
+   * by entity type.
    * @throws IOException if an error occurs while reading the JSON files
    */
   @Operation(
       summary = "Restore mapping data from JSON files",
-      description = "Deletes all mapping entities and restores only mapped data from JSON files. "
+      description = "Restores the mapped data from JSON files, writing only the entities that changed. "
           + "Mappings in 'Review', 'Unmapped', or 'Request' states will be lost.",
       tags = { "Mapping Rules" }
   )
@@ -91,8 +90,8 @@ public class MappingRulesController {
       @ApiResponse(responseCode = "500", description = "Error while restoring data from JSON")
   })
   @PutMapping("/restore-from-jsons")
-  public void restoreMappedMappingEntitiesFromJsons() throws IOException {
-    mappingRulesService.restoreMappedMappingEntitiesFromJsons();
+  public ProcessResponse restoreMappedMappingEntitiesFromJsons() throws IOException {
+    return mappingRulesService.restoreMappedMappingEntitiesFromJsons();
   }
 
 }
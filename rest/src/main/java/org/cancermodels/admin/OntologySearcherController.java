@@ -1,6 +1,5 @@
 package org.cancermodels.admin;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -39,7 +38,7 @@ public class OntologySearcherController {
   public List<SuggestionDTO> searchWithDefaultParameters(
       @RequestParam(value = "input") String input,
       @RequestParam(value = "entityTypeName") String entityTypeName)
-      throws MappingException, IOException {
+      throws MappingException {
     List<SuggestionDTO> suggestionDTOS = new ArrayList<>();
     List<Suggestion> results = ontologySuggestionsService.findOntologySuggestions(input, entityTypeName);
     results.forEach(x -> suggestionDTOS.add(suggestionMapper.convertToDto(x)));
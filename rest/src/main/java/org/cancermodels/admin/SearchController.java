@@ -8,6 +8,8 @@ import java.util.List;
 import java.util.Map;
 import org.cancermodels.admin.dtos.MappingEntityDTO;
 import org.cancermodels.admin.mappers.MappingEntityMapper;
+import org.cancermodels.mappings.search.KeysetPage;
+import org.cancermodels.mappings.search.KeysetSort;
 import org.cancermodels.mappings.search.MappingsFilter;
 import org.cancermodels.mappings.search.MappingsFilterBuilder;
 import org.cancermodels.mappings.search.SearchService;
@@ -92,6 +94,39 @@ public class SearchController {
     return new ResponseEntity(pr, responseHeaders, HttpStatus.OK);
   }
 
+  /**
+   * Same search as {@link #search}, but the results are paged with a cursor instead of a page number,
+   * so deep pages are as fast as the first one.
+   * @param sort Order of the results: mappingKey (default) or dateUpdated (most recent first).
+   * @param cursor The {@code nextCursor} returned with the previous page. Empty for the first page.
+   * @param size Number of elements per page.
+   * @param withTotal Whether to include the total number of results (needs an extra count query).
+   * @return A page of mappings and the cursor to get the next one (null in the last page).
+   */
+  @GetMapping("/search/cursor")
+  public KeysetPage<MappingEntityDTO> searchWithCursor(
+      @RequestParam(value = "mq", required = false) List<String> mappingQuery,
+      @RequestParam(value = "entityType", required = false) List<String> entityTypeNames,
+      @RequestParam(value = "status", required = false) List<String> status,
+      @RequestParam(value = "mappingType", required = false) List<String> mappingTypes,
+      @RequestParam(value = "label", required = false) String label,
+      @RequestParam(value = "sort", defaultValue = "mappingKey") String sort,
+      @RequestParam(value = "cursor", required = false) String cursor,
+      @RequestParam(value = "size", defaultValue = "20") int size,
+      @RequestParam(value = "withTotal", defaultValue = "false") boolean withTotal) {
+
+    MappingsFilter filter = MappingsFilterBuilder.getInstance()
+        .withEntityTypeNames(entityTypeNames)
+        .withMappingQuery(mappingQuery)
+        .withStatus(status)
+        .withMappingType(mappingTypes)
+        .withLabel(Collections.singletonList(label))
+        .build();
+
+    return searchService.searchWithCursor(filter, KeysetSort.getByName(sort), cursor, size, withTotal)
+        .map(mappingEntityMapper::convertToDto);
+  }
+
   @GetMapping("/statusCounts")
   public Map<String, Long> getCountsByStatus(
       @RequestParam(value = "mq", required = false) List<String> mappingQuery,
@@ -109,9 +144,47 @@ public class SearchController {
     return searchService.countStatusWithFilter(filter);
   }
 
+  /**
+   * Counts the mappings that match the search criteria, grouped by status, entity type, mapping type
+   * and data source. The parameters are the same as in {@link #search}.
+   * @return Map with the name of the facet as key and the count of each one of its values as value.
+   */
+  @GetMapping("/facetCounts")
+  public Map<String, Map<String, Long>> getFacetCounts(
+      @RequestParam(value = "mq", required = false) List<String> mappingQuery,
+      @RequestParam(value = "entityType", required = false) List<String> entityTypeNames,
+      @RequestParam(value = "status", required = false) List<String> status,
+      @RequestParam(value = "mappingType", required = false) List<String> mappingTypes,
+      @RequestParam(value = "label", required = false) String label) {
+
+    MappingsFilter filter = MappingsFilterBuilder.getInstance()
+        .withEntityTypeNames(entityTypeNames)
+        .withMappingQuery(mappingQuery)
+        .withStatus(status)
+        .withMappingType(mappingTypes)
+        .withLabel(Collections.singletonList(label))
+        .build();
+
+    return searchService.countFacets(filter);
+  }
+
   @GetMapping("/treatmentsAndDiagnosis")
   public List<String> getAllTreatmentsAndDiagnosis() {
     return searchService.getAllTreatmentsAndDiagnosis();
   }
 
+  /**
+   * Finds the treatment and diagnosis values that contain a text or are similar to it, for example to
+   * suggest labels while the user types. Needs {@code search_backend=trigram}.
+   * @param text Text to search.
+   * @param limit Maximum number of values.
+   * @return The values, the most similar first.
+   */
+  @GetMapping("/labelSuggestions")
+  public List<String> getLabelSuggestions(
+      @RequestParam(value = "text") String text,
+      @RequestParam(value = "limit", defaultValue = "10") int limit) {
+    return searchService.suggestLabels(text, limit);
+  }
+
 }
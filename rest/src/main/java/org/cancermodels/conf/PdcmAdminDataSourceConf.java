@@ -1,7 +1,10 @@
 package org.cancermodels.conf;
 
 import jakarta.persistence.EntityManagerFactory;
+import java.util.HashMap;
+import java.util.Map;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
@@ -22,6 +25,11 @@ import javax.sql.DataSource;
     transactionManagerRef = "pdcmAdminTransactionManager"
 )
 public class PdcmAdminDataSourceConf {
+
+    // Number of statements sent to the database in a single JDBC batch
+    @Value("${hibernate_jdbc_batch_size:50}")
+    private int jdbcBatchSize;
+
     @Primary
     @Bean
     @ConfigurationProperties("spring.datasource")
@@ -42,10 +50,26 @@ public class PdcmAdminDataSourceConf {
             .dataSource(pdcmAdminDataSource())
             .packages("org.cancermodels.pdcm_admin")
             .persistenceUnit("pdcmAdmin")
-
+            .properties(bulkWriteProperties())
             .build();
     }
 
+    /**
+     * Hibernate properties so bulk writes (saveAll of thousands of rules, suggestions, etc.) are sent
+     * in JDBC batches. Ids are taken from hibernate_sequence in blocks (see the allocationSize of the
+     * entities), using the pooled-lo optimizer: the value returned by the sequence is the first id of
+     * the block.
+     */
+    private Map<String, Object> bulkWriteProperties() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("hibernate.jdbc.batch_size", jdbcBatchSize);
+        properties.put("hibernate.order_inserts", true);
+        properties.put("hibernate.order_updates", true);
+        properties.put("hibernate.jdbc.batch_versioned_data", true);
+        properties.put("hibernate.id.optimizer.pooled.preferred", "pooled-lo");
+        return properties;
+    }
+
     @Bean(name = "pdcmAdminTransactionManager")
     public PlatformTransactionManager pdcmAdminTransactionManager(
         @Qualifier("pdcmAdminEntityManagerFactory") EntityManagerFactory entityManagerFactory) {
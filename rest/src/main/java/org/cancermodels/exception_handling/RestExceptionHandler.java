@@ -2,6 +2,7 @@ package org.cancermodels.exception_handling;
 
 import lombok.extern.slf4j.Slf4j;
 import org.cancermodels.input_data.exceptions.InputFileDownloadException;
+import org.cancermodels.jobs.exceptions.JobAlreadyRunningException;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpHeaders;
@@ -30,6 +31,13 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
     return buildResponseEntity(new ApiError(HttpStatus.BAD_REQUEST, error, ex));
   }
 
+  @ExceptionHandler(JobAlreadyRunningException.class)
+  protected ResponseEntity<Object> handleJobAlreadyRunningException(
+      JobAlreadyRunningException ex, WebRequest request) {
+    String error = "Job already in progress";
+    return buildResponseEntity(new ApiError(HttpStatus.CONFLICT, error, ex));
+  }
+
   @ExceptionHandler(InputFileDownloadException.class)
   protected ResponseEntity<Object> handleIllegalArgumentException(
       InputFileDownloadException ex, WebRequest request) {
@@ -0,0 +1,41 @@
+package org.cancermodels.input_data;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Reads the data repository (pdxfinder-data). The implementation used by the application is
+ * {@link GitLabDataRepositoryClient}.
+ * <p>
+ * Implementations must be thread safe, as folders and files are read concurrently.
+ * </p>
+ */
+public interface DataRepositoryClient {
+
+  /**
+   * Entry of a folder of the repository.
+   * @param path Path of the entry, relative to the root of the repository.
+   * @param sha Id of the object in the repository. For files, the SHA of the blob, which changes
+   *            when the content of the file changes.
+   * @param folder True if the entry is a folder, false if it is a file.
+   */
+  record Entry(String path, String sha, boolean folder) {
+  }
+
+  /**
+   * Lists the files and folders directly under a folder.
+   * @param path Path of the folder, relative to the root of the repository.
+   * @return The entries of the folder, or an empty list if the folder does not exist.
+   * @throws IOException if the repository could not be read.
+   */
+  List<Entry> listFolder(String path) throws IOException;
+
+  /**
+   * Opens the content of a file.
+   * @param path Path of the file, relative to the root of the repository.
+   * @return Stream with the content of the file. The caller must close it.
+   * @throws IOException if the file does not exist or could not be read.
+   */
+  InputStream openFile(String path) throws IOException;
+}
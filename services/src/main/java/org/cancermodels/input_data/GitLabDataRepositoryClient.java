@@ -0,0 +1,55 @@
+package org.cancermodels.input_data;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import org.gitlab4j.api.GitLabApiException;
+import org.gitlab4j.api.models.TreeItem;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link DataRepositoryClient} that reads the branch {@code data_repo_gitlab_branch} of the
+ * pdxfinder-data repository using the GitLab API.
+ */
+@Component
+public class GitLabDataRepositoryClient implements DataRepositoryClient {
+
+  private static final int NOT_FOUND = 404;
+
+  private final GitLabApiInstantiator gitLabApiInstantiator;
+  private final String branch;
+
+  public GitLabDataRepositoryClient(
+      GitLabApiInstantiator gitLabApiInstantiator,
+      @Value("${data_repo_gitlab_branch}") String branch) {
+    this.gitLabApiInstantiator = gitLabApiInstantiator;
+    this.branch = branch;
+  }
+
+  @Override
+  public List<Entry> listFolder(String path) throws IOException {
+    try {
+      return gitLabApiInstantiator.getGitLabApiInstance().getRepositoryApi()
+          .getTree(GitLabApiConstants.PROJECT_ID, path, branch)
+          .stream()
+          .map(x -> new Entry(x.getPath(), x.getId(), x.getType() == TreeItem.Type.TREE))
+          .toList();
+    } catch (GitLabApiException e) {
+      if (e.getHttpStatus() == NOT_FOUND) {
+        return List.of();
+      }
+      throw new IOException("Could not list folder " + path + ": " + e.getMessage(), e);
+    }
+  }
+
+  @Override
+  public InputStream openFile(String path) throws IOException {
+    try {
+      return gitLabApiInstantiator.getGitLabApiInstance().getRepositoryFileApi()
+          .getRawFile(GitLabApiConstants.PROJECT_ID, branch, path);
+    } catch (GitLabApiException e) {
+      throw new IOException("Could not download file " + path + ": " + e.getMessage(), e);
+    }
+  }
+}
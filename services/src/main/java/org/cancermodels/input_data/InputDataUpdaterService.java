@@ -1,24 +1,41 @@
 package org.cancermodels.input_data;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.FileUtils;
+import org.cancermodels.input_data.DataRepositoryClient.Entry;
 import org.cancermodels.input_data.exceptions.InputFileDownloadException;
+import org.cancermodels.jobs.JobProgress;
 import org.cancermodels.process_report.ProcessReportService;
 import org.cancermodels.process_report.ProcessResponse;
 import org.cancermodels.pdcm_admin.types.ProcessReportModules;
-import org.gitlab4j.api.GitLabApiException;
-import org.gitlab4j.api.models.RepositoryFile;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 /**
  * This service gets from the data repository in GitLab the files that PDCM needs to work
  * (json files and treatment/diagnosis data).
+ * <p>
+ * The SHA of the blob each file was downloaded from is kept in a local manifest
+ * ({@link RepositoryManifest}). Only the files whose SHA changed, or that are missing locally, are
+ * downloaded, concurrently, with up to {@code repository_sync_workers} downloads at the same time.
+ * Local files that are not in the repository anymore are deleted.
+ * </p>
  */
 @Service
 @Slf4j
@@ -26,6 +43,8 @@ public class InputDataUpdaterService {
 
   private final InputFilesFinder inputFilesFinder;
 
+  private final DataRepositoryClient dataRepositoryClient;
+
   @Value("${data-dir}")
   private String dataDir;
 
@@ -37,30 +56,67 @@ public class InputDataUpdaterService {
 
   private final ProcessReportService processReportService;
 
+  private final int workers;
+
   public InputDataUpdaterService(InputFilesFinder inputFilesFinder,
-      ProcessReportService processReportService) {
+      DataRepositoryClient dataRepositoryClient,
+      ProcessReportService processReportService,
+      @Value("${repository_sync_workers:4}") int workers) {
+    if (workers < 1) {
+      throw new IllegalArgumentException("repository_sync_workers must be greater than 0");
+    }
     this.inputFilesFinder = inputFilesFinder;
+    this.dataRepositoryClient = dataRepositoryClient;
     this.processReportService = processReportService;
+    this.workers = workers;
   }
 
   /**
    * Downloads the files that PDCM Admin needs to work: mapping rules and treatment and sample
    * data.
+   * @return The number of files downloaded, unchanged and deleted.
    */
   public ProcessResponse updateInputData() {
+    return updateInputData(JobProgress.NONE);
+  }
+
+  /**
+   * Same as {@link #updateInputData()} but reporting the progress (number of files downloaded).
+   * @param progress {@link JobProgress} to report the progress and check for cancellation.
+   */
+  public ProcessResponse updateInputData(JobProgress progress) {
     log.info("Downloading input data");
+    Map<String, String> response = new LinkedHashMap<>();
     try {
-      deleteData();
-      List<RepositoryFile> files = inputFilesFinder.getListFilesToDownload();
-      writeFiles(files);
+      List<Entry> files = inputFilesFinder.getListFilesToDownload();
+      progress.checkCancelled();
+      Path root = Paths.get(dataDir);
+      RepositoryManifest manifest = RepositoryManifest.load(root);
+      List<Entry> changed = files.stream().filter(x -> isOutdated(root, manifest, x)).toList();
+      log.info("{} of {} files changed", changed.size(), files.size());
+      try {
+        downloadFiles(root, changed, manifest, progress);
+        // Existing data is only deleted once the new files are available
+        int deleted = deleteRemovedFiles(root, files, manifest);
+        response.put("Files downloaded", String.valueOf(changed.size()));
+        response.put("Files unchanged", String.valueOf(files.size() - changed.size()));
+        response.put("Files deleted", String.valueOf(deleted));
+      } finally {
+        // Keeps the files downloaded before a failure, so they are not downloaded again
+        manifest.save();
+      }
       registerProcess();
       log.info("End download input data.");
 
-    } catch (GitLabApiException | IOException e) {
+    } catch (IOException e) {
       log.error(e.getMessage());
       throw new InputFileDownloadException("Could not update input data. Exception: " + e.getMessage());
     }
-    return new ProcessResponse("Input data updated.");
+    return new ProcessResponse(response);
+  }
+
+  private boolean isOutdated(Path root, RepositoryManifest manifest, Entry file) {
+    return !file.sha().equals(manifest.getSha(file.path())) || !Files.exists(root.resolve(file.path()));
   }
 
   private void registerProcess() {
@@ -69,27 +125,64 @@ public class InputDataUpdaterService {
     processReportService.register(ProcessReportModules.INPUT_DATA, "Update date", formatDateTime);
   }
 
-  private void deleteData() throws IOException {
-    String providersDataDirectory = dataDir + "/" + providersRootFolderPath;
-    String mappingRulesDirectory = dataDir + "/" + mappingPath;
-    cleanDirectoryIfExists(providersDataDirectory);
-    cleanDirectoryIfExists(mappingRulesDirectory);
+  private void downloadFiles(
+      Path root, List<Entry> files, RepositoryManifest manifest, JobProgress progress)
+      throws IOException {
+    AtomicInteger downloaded = new AtomicInteger();
+    List<Callable<Void>> tasks = new ArrayList<>(files.size());
+    for (Entry file : files) {
+      tasks.add(() -> {
+        progress.checkCancelled();
+        downloadFile(root, file);
+        synchronized (manifest) {
+          manifest.put(file.path(), file.sha());
+        }
+        progress.update(downloaded.incrementAndGet(), files.size());
+        return null;
+      });
+    }
+    RepositoryTasks.runAll(tasks, workers);
   }
 
-  private void cleanDirectoryIfExists(String directoryPath) throws IOException {
-    File directory = new File(directoryPath);
-    if (directory.exists()) {
-      log.warn("Deleting all data in {}", directoryPath);
-      FileUtils.cleanDirectory(directory);
+  // The file is written to a temporary file first, so a failed download doesn't leave it half written
+  private void downloadFile(Path root, Entry file) throws IOException {
+    log.info("Writing file {}", file.path());
+    Path target = root.resolve(file.path());
+    Files.createDirectories(target.getParent());
+    Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+    try (InputStream inputStream = dataRepositoryClient.openFile(file.path())) {
+      Files.copy(inputStream, temp, StandardCopyOption.REPLACE_EXISTING);
+      Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
     }
   }
 
-  private void writeFiles(List<RepositoryFile> files) throws IOException {
-    for (RepositoryFile file : files) {
-        log.info("Writing file {}", file.getFilePath());
-      String path = dataDir + "/" + file.getFilePath();
-      FileUtils.writeByteArrayToFile(new File(path), file.getDecodedContentAsBytes());
+  // Deletes the files in the synced directories that are not in the repository anymore
+  private int deleteRemovedFiles(Path root, List<Entry> files, RepositoryManifest manifest)
+      throws IOException {
+    Set<Path> expected = new HashSet<>();
+    files.forEach(x -> expected.add(root.resolve(x.path()).normalize()));
+    int deleted = 0;
+    for (String directory : List.of(providersRootFolderPath, mappingPath)) {
+      Path directoryPath = root.resolve(directory);
+      if (!Files.isDirectory(directoryPath)) {
+        continue;
+      }
+      List<Path> removed;
+      try (Stream<Path> paths = Files.walk(directoryPath)) {
+        removed = paths.filter(Files::isRegularFile)
+            .filter(x -> !expected.contains(x.normalize()))
+            .toList();
+      }
+      for (Path path : removed) {
+        log.warn("Deleting {}, not in the data repository anymore", path);
+        Files.delete(path);
+        manifest.remove(root.relativize(path).toString().replace('\\', '/'));
+        deleted++;
+      }
     }
+    return deleted;
   }
 
 }
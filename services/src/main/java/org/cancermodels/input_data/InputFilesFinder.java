@@ -6,19 +6,22 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import lombok.extern.slf4j.Slf4j;
+import org.cancermodels.input_data.DataRepositoryClient.Entry;
 import org.cancermodels.input_data.exceptions.InputFileDownloadException;
 import org.cancermodels.mappings.EntityTypeService;
 import org.cancermodels.pdcm_admin.persistance.EntityType;
-import org.gitlab4j.api.GitLabApi;
-import org.gitlab4j.api.GitLabApiException;
-import org.gitlab4j.api.models.RepositoryFile;
-import org.gitlab4j.api.models.TreeItem;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
  * This class detects the files that PDCM Admin needs from the data repository.
+ * <p>
+ * Only the folders are listed, so the content of the files is not read. The folders of the
+ * providers are listed concurrently, with up to {@code repository_sync_workers} requests at the same
+ * time.
+ * </p>
  */
 @Component
 @Slf4j
@@ -39,19 +42,21 @@ public class InputFilesFinder {
   @Value("${mapping_path}")
   private String mappingPath;
 
-  @Value("${data_repo_gitlab_branch}")
-  private String dataRepoGitlabBranch;
-
-  //private final GitLabApi gitLabApi=null;
-
-  private final GitLabApiInstantiator gitLabApiInstantiator;
+  private final DataRepositoryClient dataRepositoryClient;
 
   private final EntityTypeService entityTypeService;
 
-  public InputFilesFinder(GitLabApiInstantiator gitLabApiInstantiator,
-      EntityTypeService entityTypeService) {
+  private final int workers;
+
+  public InputFilesFinder(DataRepositoryClient dataRepositoryClient,
+      EntityTypeService entityTypeService,
+      @Value("${repository_sync_workers:4}") int workers) {
+    if (workers < 1) {
+      throw new IllegalArgumentException("repository_sync_workers must be greater than 0");
+    }
     this.entityTypeService = entityTypeService;
-    this.gitLabApiInstantiator = gitLabApiInstantiator;
+    this.dataRepositoryClient = dataRepositoryClient;
+    this.workers = workers;
     initFilesFinderMap();
   }
 
@@ -70,86 +75,56 @@ public class InputFilesFinder {
   }
 
   /**
-   * Find the paths of the files that need to be downloaded from the GitLab repo.
-   * @return List of paths
+   * Find the files that need to be downloaded from the data repository.
+   * @return List of files, with their path and the SHA of their content.
    */
-  public List<RepositoryFile> getListFilesToDownload() throws GitLabApiException, IOException {
+  public List<Entry> getListFilesToDownload() throws IOException {
     log.info("Finding input files...");
-    GitLabApi gitLabApi = gitLabApiInstantiator.getGitLabApiInstance();
-    List<RepositoryFile> files = new ArrayList<>();
-    List<RepositoryFile> filesFromProviders = getListFilesToDownloadFromProviders(gitLabApi);
-    List<RepositoryFile> filesFromMappingsFolder = getFilesFromMappingFolder(gitLabApi);
+    List<Entry> files = new ArrayList<>();
+    List<Entry> filesFromProviders = getListFilesToDownloadFromProviders();
+    List<Entry> filesFromMappingsFolder = getFilesFromMappingFolder();
     files.addAll(filesFromProviders);
     files.addAll(filesFromMappingsFolder);
     return files;
-
   }
 
-  private List<RepositoryFile> getFilesFromMappingFolder(GitLabApi gitLabApi) {
+  private List<Entry> getFilesFromMappingFolder() throws IOException {
     log.info("Finding mapping files...");
-    List<RepositoryFile> mappingFiles = new ArrayList<>();
+    Map<String, Entry> filesByPath = new HashMap<>();
+    dataRepositoryClient.listFolder(mappingPath).forEach(x -> filesByPath.put(x.path(), x));
+    List<Entry> mappingFiles = new ArrayList<>();
     for (EntityType entityType : entityTypeService.getAll()) {
       String path = mappingPath + "/" + entityType.getMappingRulesFileName();
-      RepositoryFile file = null;
-      try {
-        file = gitLabApi.getRepositoryFileApi().getFile(
-            GitLabApiConstants.PROJECT_ID, path, dataRepoGitlabBranch);
-      } catch (GitLabApiException e) {
-        String error = String.format(
-            "File %s not found in the data repository. Error: %s", path, e.getMessage());
-        throw new InputFileDownloadException(error);
+      Entry file = filesByPath.get(path);
+      if (file == null || file.folder()) {
+        throw new InputFileDownloadException(
+            String.format("File %s not found in the data repository.", path));
       }
       mappingFiles.add(file);
     }
     return mappingFiles;
-
-  }
-
-  private List<RepositoryFile> getListFilesToDownloadFromProviders(GitLabApi gitLabApi)
-      throws GitLabApiException, IOException {
-    log.info("Calling api to get folders for project {} in path {} ref {}",
-        GitLabApiConstants.PROJECT_ID, providersRootFolderPath, dataRepoGitlabBranch);
-
-    List<TreeItem> providerFolders = gitLabApi.getRepositoryApi().getTree(
-        GitLabApiConstants.PROJECT_ID, providersRootFolderPath, dataRepoGitlabBranch);
-
-    return processProviderFolders(providerFolders, gitLabApi);
-  }
-
-  private List<RepositoryFile> processProviderFolders(List<TreeItem> providerFolders, GitLabApi gitLabApi)
-      throws GitLabApiException {
-    List<RepositoryFile> files = new ArrayList<>();
-    for (TreeItem item : providerFolders) {
-
-      files.addAll(processProviderFolder(item, gitLabApi));
-    }
-
-    return files;
   }
 
-  private List<RepositoryFile> processProviderFolder(TreeItem item, GitLabApi gitLabApi)
-      throws GitLabApiException {
-    log.info("Processing {}", item.getPath());
-    List<RepositoryFile> paths = new ArrayList<>();
-
-    for (String folder : filesFinderMap.keySet()) {
-      // Bring the files from the respective subfolder
-      List<TreeItem> files = gitLabApi.getRepositoryApi()
-          .getTree(GitLabApiConstants.PROJECT_ID, item.getPath() + folder, dataRepoGitlabBranch);
-
-      // Get the ones that match with the expected patterns
-      String regex = String.join("|", filesFinderMap.get(folder));
-
-      for (TreeItem treeItem : files) {
-        if (treeItem.getPath().matches(regex)) {
-
-          RepositoryFile file = gitLabApi.getRepositoryFileApi().getFile(
-              GitLabApiConstants.PROJECT_ID, treeItem.getPath(), dataRepoGitlabBranch);
-          paths.add(file);
-        }
+  private List<Entry> getListFilesToDownloadFromProviders() throws IOException {
+    log.info("Listing provider folders in {}", providersRootFolderPath);
+    List<Callable<List<Entry>>> tasks = new ArrayList<>();
+    for (Entry providerFolder : dataRepositoryClient.listFolder(providersRootFolderPath)) {
+      if (!providerFolder.folder()) {
+        continue;
+      }
+      for (String folder : filesFinderMap.keySet()) {
+        // Get the ones that match with the expected patterns
+        String regex = String.join("|", filesFinderMap.get(folder));
+        tasks.add(() -> dataRepositoryClient.listFolder(providerFolder.path() + folder)
+            .stream()
+            .filter(x -> !x.folder() && x.path().matches(regex))
+            .toList());
       }
     }
-    return paths;
+    List<Entry> files = new ArrayList<>();
+    RepositoryTasks.runAll(tasks, workers).forEach(files::addAll);
+    log.info("Found {} provider files", files.size());
+    return files;
   }
 
 }
@@ -0,0 +1,73 @@
+package org.cancermodels.input_data;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+import lombok.extern.slf4j.Slf4j;
+import org.cancermodels.util.JSONHelper;
+
+/**
+ * Local record of the files downloaded from the data repository, with the SHA of the blob each one
+ * was downloaded from. It is stored as a JSON file next to the data, so it can't get out of sync
+ * with the files if the data directory is replaced.
+ */
+@Slf4j
+class RepositoryManifest {
+
+  static final String FILE_NAME = ".repository_manifest.json";
+
+  private final Path file;
+  // Path relative to the data directory -> SHA of the blob
+  private final Map<String, String> shas;
+
+  private RepositoryManifest(Path file, Map<String, String> shas) {
+    this.file = file;
+    this.shas = shas;
+  }
+
+  /**
+   * Reads the manifest of a data directory. A missing or unreadable manifest is read as empty, so
+   * all the files are downloaded again.
+   * @param dataDir Data directory.
+   */
+  static RepositoryManifest load(Path dataDir) {
+    Path file = dataDir.resolve(FILE_NAME);
+    Map<String, String> shas = new TreeMap<>();
+    if (Files.exists(file)) {
+      try {
+        shas.putAll(JSONHelper.fromJson(
+            Files.readString(file, StandardCharsets.UTF_8), new TypeReference<Map<String, String>>() {}));
+      } catch (IOException e) {
+        log.warn("Could not read {}. All the files will be downloaded again", file, e);
+      }
+    }
+    return new RepositoryManifest(file, shas);
+  }
+
+  String getSha(String path) {
+    return shas.get(path);
+  }
+
+  void put(String path, String sha) {
+    shas.put(path, sha);
+  }
+
+  void remove(String path) {
+    shas.remove(path);
+  }
+
+  /**
+   * Writes the manifest. The previous one is replaced at once, so it is never left half written.
+   */
+  void save() throws IOException {
+    Path temp = file.resolveSibling(FILE_NAME + ".tmp");
+    Files.createDirectories(file.getParent());
+    Files.writeString(temp, JSONHelper.toJson(shas), StandardCharsets.UTF_8);
+    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+}
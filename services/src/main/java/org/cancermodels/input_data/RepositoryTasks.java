@@ -0,0 +1,41 @@
+package org.cancermodels.input_data;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.cancermodels.jobs.JobFutures;
+
+/**
+ * Runs calls to the data repository concurrently, with a bounded number of threads.
+ */
+final class RepositoryTasks {
+
+  private RepositoryTasks() {
+  }
+
+  /**
+   * Runs the tasks and waits for all of them. If a task fails, the rest are cancelled.
+   * @param tasks Tasks to run.
+   * @param workers Maximum number of tasks running at the same time.
+   * @return The results of the tasks, in the same order as the tasks.
+   * @throws IOException if a task failed with an {@link IOException}.
+   */
+  static <T> List<T> runAll(List<Callable<T>> tasks, int workers) throws IOException {
+    if (tasks.isEmpty()) {
+      return List.of();
+    }
+    try (ExecutorService executor = Executors.newFixedThreadPool(Math.min(workers, tasks.size()))) {
+      List<Future<T>> futures = new ArrayList<>(tasks.size());
+      tasks.forEach(x -> futures.add(executor.submit(x)));
+      List<T> results = new ArrayList<>(tasks.size());
+      for (Future<T> future : futures) {
+        results.add(JobFutures.await(future, futures, "Repository sync cancelled", IOException.class));
+      }
+      return results;
+    }
+  }
+}
@@ -0,0 +1,106 @@
+package org.cancermodels.jobs;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.Future;
+import lombok.Getter;
+import org.cancermodels.process_report.ProcessResponse;
+
+/**
+ * A long-running process executed in the background by {@link JobService}. It keeps the state of the
+ * execution (status, progress and final result) so clients can poll it.
+ */
+@Getter
+public class Job implements JobProgress {
+
+  private String id;
+  private JobType type;
+  private volatile JobStatus status;
+  private volatile long processed;
+  private volatile long total;
+
+  @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy HH:mm:ss")
+  private LocalDateTime submittedAt;
+  @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy HH:mm:ss")
+  private volatile LocalDateTime startedAt;
+  @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy HH:mm:ss")
+  private volatile LocalDateTime finishedAt;
+
+  private volatile ProcessResponse result;
+  private volatile String error;
+
+  @JsonIgnore
+  private volatile boolean cancelRequested;
+  @JsonIgnore
+  private volatile Future<?> future;
+
+  // Used when reading a persisted job
+  private Job() {
+  }
+
+  Job(JobType type) {
+    this.id = UUID.randomUUID().toString();
+    this.type = type;
+    this.status = JobStatus.QUEUED;
+    this.submittedAt = LocalDateTime.now();
+  }
+
+  /**
+   * @return Percentage of the work done, or null if the process didn't report its progress.
+   */
+  public Integer getProgress() {
+    if (status == JobStatus.COMPLETED) {
+      return 100;
+    }
+    if (total <= 0) {
+      return null;
+    }
+    return (int) (processed * 100 / total);
+  }
+
+  @Override
+  public void update(long processed, long total) {
+    this.processed = processed;
+    this.total = total;
+  }
+
+  @Override
+  @JsonIgnore
+  public boolean isCancelled() {
+    return cancelRequested;
+  }
+
+  void setFuture(Future<?> future) {
+    this.future = future;
+  }
+
+  void requestCancel() {
+    cancelRequested = true;
+  }
+
+  void markRunning() {
+    status = JobStatus.RUNNING;
+    startedAt = LocalDateTime.now();
+  }
+
+  void markCompleted(ProcessResponse result) {
+    this.result = result;
+    finish(JobStatus.COMPLETED);
+  }
+
+  void markFailed(String error) {
+    this.error = error;
+    finish(JobStatus.FAILED);
+  }
+
+  void markCancelled() {
+    finish(JobStatus.CANCELLED);
+  }
+
+  private void finish(JobStatus status) {
+    this.finishedAt = LocalDateTime.now();
+    this.status = status;
+  }
+}
@@ -0,0 +1,78 @@
+package org.cancermodels.jobs;
+
+import java.util.Collection;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import org.cancermodels.jobs.exceptions.JobCancelledException;
+
+/**
+ * Waits for the tasks a process runs in parallel. If the wait is interrupted or the task was
+ * cancelled, the process stops with a {@link JobCancelledException}. If the task failed, its
+ * exception is thrown as it is. In both cases the rest of the tasks are cancelled, as there is no
+ * point in finishing them.
+ */
+public final class JobFutures {
+
+  private JobFutures() { throw new IllegalStateException("Utility class"); }
+
+  /**
+   * Waits for a task whose exceptions are all unchecked.
+   * @param future Task to wait for.
+   * @param futures Tasks to cancel if it doesn't finish successfully. Can include {@code future}.
+   * @param cancelledMessage Message of the {@link JobCancelledException}.
+   * @return The result of the task.
+   * @throws JobCancelledException if the thread was interrupted (its interrupt flag is restored) or
+   * the task was cancelled.
+   */
+  public static <T> T await(
+      Future<T> future, Collection<? extends Future<?>> futures, String cancelledMessage) {
+    return await(future, futures, cancelledMessage, RuntimeException.class, RuntimeException.class);
+  }
+
+  /**
+   * Same as {@link #await(Future, Collection, String)} for a task that can fail with a checked
+   * exception.
+   * @param exceptionType Checked exception of the task, thrown as it is.
+   */
+  public static <T, E extends Exception> T await(
+      Future<T> future, Collection<? extends Future<?>> futures, String cancelledMessage,
+      Class<E> exceptionType) throws E {
+    return await(future, futures, cancelledMessage, exceptionType, exceptionType);
+  }
+
+  /**
+   * Same as {@link #await(Future, Collection, String)} for a task that can fail with two checked
+   * exceptions.
+   * @param exceptionType1 Checked exception of the task, thrown as it is.
+   * @param exceptionType2 Other checked exception of the task, thrown as it is.
+   */
+  public static <T, E1 extends Exception, E2 extends Exception> T await(
+      Future<T> future, Collection<? extends Future<?>> futures, String cancelledMessage,
+      Class<E1> exceptionType1, Class<E2> exceptionType2) throws E1, E2 {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      // Whoever handles the cancellation can still see that the thread was interrupted
+      Thread.currentThread().interrupt();
+      futures.forEach(x -> x.cancel(true));
+      throw new JobCancelledException(cancelledMessage);
+    } catch (CancellationException e) {
+      futures.forEach(x -> x.cancel(true));
+      throw new JobCancelledException(cancelledMessage);
+    } catch (ExecutionException e) {
+      futures.forEach(x -> x.cancel(true));
+      Throwable cause = e.getCause();
+      if (exceptionType1.isInstance(cause)) {
+        throw exceptionType1.cast(cause);
+      }
+      if (exceptionType2.isInstance(cause)) {
+        throw exceptionType2.cast(cause);
+      }
+      if (cause instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package org.cancermodels.jobs;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.cancermodels.input_data.InputDataUpdaterService;
+import org.cancermodels.mapping_rules.MappingRulesService;
+import org.cancermodels.mappings.IndexRequestHandler;
+import org.cancermodels.mappings.automatic_mappings.AutomaticMappingsService;
+import org.cancermodels.mappings.discovery.UnmappedTermsDiscoverService;
+import org.cancermodels.mappings.suggestions.SuggestionsWarmUpService;
+import org.cancermodels.process_report.ProcessResponse;
+import org.springframework.stereotype.Component;
+
+/**
+ * Starts the processes that can be executed as jobs.
+ */
+@Component
+public class JobLauncher {
+
+  private final JobService jobService;
+  private final AutomaticMappingsService automaticMappingsService;
+  private final UnmappedTermsDiscoverService unmappedTermsDiscoverService;
+  private final IndexRequestHandler indexRequestHandler;
+  private final InputDataUpdaterService inputDataUpdaterService;
+  private final SuggestionsWarmUpService suggestionsWarmUpService;
+  private final MappingRulesService mappingRulesService;
+
+  public JobLauncher(
+      JobService jobService,
+      AutomaticMappingsService automaticMappingsService,
+      UnmappedTermsDiscoverService unmappedTermsDiscoverService,
+      IndexRequestHandler indexRequestHandler,
+      InputDataUpdaterService inputDataUpdaterService,
+      SuggestionsWarmUpService suggestionsWarmUpService,
+      MappingRulesService mappingRulesService) {
+    this.jobService = jobService;
+    this.automaticMappingsService = automaticMappingsService;
+    this.unmappedTermsDiscoverService = unmappedTermsDiscoverService;
+    this.indexRequestHandler = indexRequestHandler;
+    this.inputDataUpdaterService = inputDataUpdaterService;
+    this.suggestionsWarmUpService = suggestionsWarmUpService;
+    this.mappingRulesService = mappingRulesService;
+  }
+
+  /**
+   * Submits the process of the given type as a background job.
+   * @param type Type of the process to start.
+   * @return The {@link Job} created for the process.
+   */
+  public Job launch(JobType type) {
+    JobTask task = switch (type) {
+      case AUTO_ASSIGN_MAPPINGS -> automaticMappingsService::assignAutomaticMappings;
+      case DETECT_NEW_MAPPINGS -> progress ->
+          toProcessResponse(unmappedTermsDiscoverService.detectNewUnmappedTerms(progress));
+      case INDEX -> progress -> indexRequestHandler.index();
+      case REPOSITORY_SYNC -> inputDataUpdaterService::updateInputData;
+      case SUGGESTIONS_WARM_UP -> suggestionsWarmUpService::warmUp;
+      case RESTORE_MAPPING_RULES -> mappingRulesService::restoreMappedMappingEntitiesFromJsons;
+    };
+    return jobService.submit(type, task);
+  }
+
+  private ProcessResponse toProcessResponse(Map<String, Integer> counts) {
+    Map<String, String> response = new LinkedHashMap<>();
+    counts.forEach((k, v) -> response.put(k, String.valueOf(v)));
+    return new ProcessResponse(response);
+  }
+}
@@ -0,0 +1,64 @@
+package org.cancermodels.jobs;
+
+import org.cancermodels.jobs.exceptions.JobCancelledException;
+
+/**
+ * Handle that a long-running process uses to report how much work it has done and to find out if
+ * it should stop. Processes that are not executed as a {@link Job} receive {@link #NONE}.
+ */
+public interface JobProgress {
+
+  JobProgress NONE = new JobProgress() {
+    @Override
+    public void update(long processed, long total) {
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return false;
+    }
+  };
+
+  /**
+   * Updates the progress of the process.
+   * @param processed Number of elements processed so far.
+   * @param total Total number of elements to process.
+   */
+  void update(long processed, long total);
+
+  /**
+   * @return true if a cancellation was requested for the process.
+   */
+  boolean isCancelled();
+
+  /**
+   * Stops the process if a cancellation was requested.
+   * @throws JobCancelledException if the process was cancelled or its thread interrupted.
+   */
+  default void checkCancelled() {
+    if (isCancelled() || Thread.currentThread().isInterrupted()) {
+      throw new JobCancelledException();
+    }
+  }
+
+  /**
+   * Returns a view of this progress for a step of a bigger process, so the step can report its own
+   * counts while the overall progress is kept.
+   * @param offset Elements already processed before the step starts.
+   * @param overallTotal Total number of elements in the whole process.
+   */
+  default JobProgress withOffset(long offset, long overallTotal) {
+    JobProgress parent = this;
+    return new JobProgress() {
+      @Override
+      public void update(long processed, long total) {
+        parent.update(offset + processed, overallTotal);
+      }
+
+      @Override
+      public boolean isCancelled() {
+        return parent.isCancelled();
+      }
+    };
+  }
+}
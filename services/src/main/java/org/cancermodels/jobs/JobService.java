@@ -0,0 +1,186 @@
+package org.cancermodels.jobs;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import lombok.extern.slf4j.Slf4j;
+import org.cancermodels.jobs.exceptions.JobAlreadyRunningException;
+import org.cancermodels.jobs.exceptions.JobCancelledException;
+import org.cancermodels.pdcm_admin.types.ProcessReportModules;
+import org.cancermodels.process_report.ProcessReportService;
+import org.cancermodels.util.JSONHelper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Executes long-running processes in the background so the request that starts them can return
+ * immediately.
+ * <p>
+ * Each submitted process becomes a {@link Job} that clients can poll or cancel by its id. Only one job
+ * of each {@link JobType} can be queued or running at a given time. When a job finishes, its final
+ * state is stored as a {@link ProcessReportModules#JOBS} process report, so it can still be queried
+ * after it has been evicted from memory or the application has been restarted.
+ * </p>
+ */
+@Service
+@Slf4j
+public class JobService {
+
+  private final ProcessReportService processReportService;
+  private final ExecutorService executor;
+  private final int historySize;
+
+  private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+  public JobService(
+      ProcessReportService processReportService,
+      @Value("${jobs_workers:2}") int workers,
+      @Value("${jobs_history_size:100}") int historySize) {
+    this.processReportService = processReportService;
+    this.executor = Executors.newFixedThreadPool(workers);
+    this.historySize = historySize;
+  }
+
+  /**
+   * Submits a process to be executed in the background.
+   * @param type Type of the process.
+   * @param task The work to execute.
+   * @return The {@link Job} created for the process.
+   * @throws JobAlreadyRunningException if there is already a job of the same type queued or running.
+   */
+  public synchronized Job submit(JobType type, JobTask task) {
+    Optional<Job> active = jobs.values().stream()
+        .filter(x -> x.getType() == type && !x.getStatus().isFinished())
+        .findFirst();
+    if (active.isPresent()) {
+      throw new JobAlreadyRunningException(
+          "A job of type " + type.getLabel() + " is already in progress: " + active.get().getId());
+    }
+    evictFinishedJobs();
+
+    Job job = new Job(type);
+    jobs.put(job.getId(), job);
+    job.setFuture(executor.submit(() -> execute(job, task)));
+    log.info("Submitted job {} ({})", job.getId(), type.getLabel());
+    return job;
+  }
+
+  /**
+   * Finds a job by its id. Jobs no longer in memory are read from the process reports.
+   * @param id Id of the job.
+   * @return Optional with the job if found.
+   */
+  public Optional<Job> getJob(String id) {
+    Job job = jobs.get(id);
+    if (job != null) {
+      return Optional.of(job);
+    }
+    return processReportService.getLatestValue(ProcessReportModules.JOBS, id).map(this::readJob);
+  }
+
+  /**
+   * @return The jobs in memory, most recent first.
+   */
+  public List<Job> getJobs() {
+    List<Job> result = new ArrayList<>(jobs.values());
+    result.sort(Comparator.comparing(Job::getSubmittedAt).reversed());
+    return result;
+  }
+
+  /**
+   * Requests the cancellation of a job. A queued job is cancelled right away. A running job stops
+   * at the next point where it checks its {@link JobProgress}.
+   * @param id Id of the job.
+   * @return Optional with the job if found.
+   */
+  public Optional<Job> cancel(String id) {
+    Job job = jobs.get(id);
+    if (job == null) {
+      return Optional.empty();
+    }
+    synchronized (job) {
+      if (!job.getStatus().isFinished()) {
+        job.requestCancel();
+        if (job.getStatus() == JobStatus.QUEUED) {
+          job.markCancelled();
+          persist(job);
+        }
+        if (job.getFuture() != null) {
+          job.getFuture().cancel(true);
+        }
+        log.info("Cancellation requested for job {}", id);
+      }
+    }
+    return Optional.of(job);
+  }
+
+  private void execute(Job job, JobTask task) {
+    synchronized (job) {
+      if (job.getStatus() != JobStatus.QUEUED) {
+        return;
+      }
+      job.markRunning();
+    }
+    log.info("Starting job {} ({})", job.getId(), job.getType().getLabel());
+    try {
+      job.checkCancelled();
+      job.markCompleted(task.run(job));
+      log.info("Job {} completed", job.getId());
+    } catch (JobCancelledException | InterruptedException e) {
+      job.markCancelled();
+      log.info("Job {} cancelled", job.getId());
+    } catch (Exception e) {
+      if (job.isCancelled()) {
+        job.markCancelled();
+        log.info("Job {} cancelled", job.getId());
+      } else {
+        job.markFailed(e.getMessage() == null ? e.getClass().getName() : e.getMessage());
+        log.error("Job {} failed", job.getId(), e);
+      }
+    } finally {
+      // The interrupted status must not leak into the next job executed by this thread
+      Thread.interrupted();
+      persist(job);
+    }
+  }
+
+  private void persist(Job job) {
+    try {
+      processReportService.register(ProcessReportModules.JOBS, job.getId(), JSONHelper.toJson(job));
+    } catch (JsonProcessingException e) {
+      log.error("Could not store the result of job {}", job.getId(), e);
+    }
+  }
+
+  private Job readJob(String json) {
+    try {
+      return JSONHelper.fromJson(json, Job.class);
+    } catch (IOException e) {
+      throw new IllegalStateException("Invalid job report: " + json, e);
+    }
+  }
+
+  // Finished jobs are already persisted, so only the most recent ones are kept in memory
+  private void evictFinishedJobs() {
+    List<Job> finished = jobs.values().stream()
+        .filter(x -> x.getStatus().isFinished())
+        .sorted(Comparator.comparing(Job::getSubmittedAt))
+        .toList();
+    for (int i = 0; i < finished.size() - historySize + 1; i++) {
+      jobs.remove(finished.get(i).getId());
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+}
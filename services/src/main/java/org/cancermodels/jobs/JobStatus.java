@@ -0,0 +1,13 @@
+package org.cancermodels.jobs;
+
+public enum JobStatus {
+  QUEUED,
+  RUNNING,
+  COMPLETED,
+  FAILED,
+  CANCELLED;
+
+  public boolean isFinished() {
+    return this == COMPLETED || this == FAILED || this == CANCELLED;
+  }
+}
@@ -0,0 +1,13 @@
+package org.cancermodels.jobs;
+
+import org.cancermodels.process_report.ProcessResponse;
+
+/**
+ * The work executed by a {@link Job}.
+ */
+@FunctionalInterface
+public interface JobTask {
+
+  ProcessResponse run(JobProgress progress) throws Exception;
+
+}
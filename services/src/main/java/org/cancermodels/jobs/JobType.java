@@ -0,0 +1,32 @@
+package org.cancermodels.jobs;
+
+import lombok.Getter;
+
+/**
+ * Long-running processes that can be executed as a {@link Job}.
+ */
+@Getter
+public enum JobType {
+  AUTO_ASSIGN_MAPPINGS("auto-assign-mappings"),
+  DETECT_NEW_MAPPINGS("detect-new-mappings"),
+  INDEX("index"),
+  REPOSITORY_SYNC("repository-sync"),
+  SUGGESTIONS_WARM_UP("suggestions-warm-up"),
+  RESTORE_MAPPING_RULES("restore-mapping-rules");
+
+  private final String label;
+
+  JobType(String label) {
+    this.label = label;
+  }
+
+  public static JobType getByName(String name) {
+    for (JobType element : JobType.values()) {
+      if (element.getLabel().equalsIgnoreCase(name)) {
+        return element;
+      }
+    }
+    throw new IllegalArgumentException("Job type " + name + " does not exist");
+  }
+
+}
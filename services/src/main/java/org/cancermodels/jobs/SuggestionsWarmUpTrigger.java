@@ -0,0 +1,52 @@
+package org.cancermodels.jobs;
+
+import lombok.extern.slf4j.Slf4j;
+import org.cancermodels.jobs.exceptions.JobAlreadyRunningException;
+import org.cancermodels.mappings.IndexCreatedEvent;
+import org.cancermodels.mappings.discovery.UnmappedTermsDetectedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Starts a {@link JobType#SUGGESTIONS_WARM_UP} job when a new index is created or new unmapped terms
+ * are detected, so the suggestions of the entities are ready before a curator opens them. It can be
+ * disabled with {@code suggestions_warm_up_enabled}.
+ */
+@Component
+@Slf4j
+public class SuggestionsWarmUpTrigger {
+
+  private final JobLauncher jobLauncher;
+  private final boolean enabled;
+
+  public SuggestionsWarmUpTrigger(
+      JobLauncher jobLauncher, @Value("${suggestions_warm_up_enabled:true}") boolean enabled) {
+    this.jobLauncher = jobLauncher;
+    this.enabled = enabled;
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onIndexCreated(IndexCreatedEvent event) {
+    startWarmUp("new index at " + event.indexPath());
+  }
+
+  // Only after the new terms are committed, so the job can see them
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onUnmappedTermsDetected(UnmappedTermsDetectedEvent event) {
+    startWarmUp("unmapped terms detected " + event.counts());
+  }
+
+  private void startWarmUp(String reason) {
+    if (!enabled) {
+      return;
+    }
+    try {
+      Job job = jobLauncher.launch(JobType.SUGGESTIONS_WARM_UP);
+      log.info("Suggestions warm-up started ({}): job {}", reason, job.getId());
+    } catch (JobAlreadyRunningException e) {
+      // The running job will pick up the new entities only if it has not read the list yet
+      log.info("Suggestions warm-up not started ({}): {}", reason, e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,12 @@
+package org.cancermodels.jobs.exceptions;
+
+/**
+ * Thrown when a job is submitted while another job of the same type is still in progress.
+ */
+public class JobAlreadyRunningException extends RuntimeException {
+
+  public JobAlreadyRunningException(String message) {
+    super(message);
+  }
+
+}
@@ -0,0 +1,17 @@
+package org.cancermodels.jobs.exceptions;
+
+/**
+ * Thrown from inside a running job when a cancellation was requested, so the job stops at the next
+ * safe point.
+ */
+public class JobCancelledException extends RuntimeException {
+
+  public JobCancelledException() {
+    super("Job cancelled");
+  }
+
+  public JobCancelledException(String message) {
+    super(message);
+  }
+
+}
@@ -0,0 +1,62 @@
+package org.cancermodels.mapping_rules;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Calculates a hash of the content of a mapping rule, to know if a rule in the JSON files is
+ * different from the entity in the database with the same mapping key.
+ * <p>
+ * The hash covers every field of the rule except the mapping key. The entity type and the keys of
+ * the values are compared ignoring case, and the dates with the precision of the JSON files
+ * (seconds).
+ * </p>
+ */
+final class MappingRuleDigest {
+
+  // Separates the fields, so values can't be confused with the next field
+  private static final char SEPARATOR = '\u001f';
+
+  private MappingRuleDigest() {
+  }
+
+  static byte[] of(MappingRule mappingRule) {
+    StringBuilder content = new StringBuilder();
+    append(content, mappingRule.getEntityType() == null ? null : mappingRule.getEntityType().toLowerCase());
+    Map<String, String> values = new TreeMap<>();
+    if (mappingRule.getMappingValues() != null) {
+      mappingRule.getMappingValues().forEach((k, v) -> values.put(k.toLowerCase(), v));
+    }
+    values.forEach((k, v) -> {
+      append(content, k);
+      append(content, v);
+    });
+    append(content, mappingRule.getMappedTermLabel());
+    append(content, mappingRule.getMappedTermUrl());
+    append(content, mappingRule.getStatus());
+    append(content, mappingRule.getMappingType());
+    append(content, mappingRule.getSource());
+    append(content, truncate(mappingRule.getDateCreated()));
+    append(content, truncate(mappingRule.getDateUpdated()));
+    try {
+      return MessageDigest.getInstance("SHA-256").digest(content.toString().getBytes(StandardCharsets.UTF_8));
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform supports SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static void append(StringBuilder content, Object value) {
+    // Null is distinguished from the text "null"
+    content.append(value == null ? "\u0000" : value.toString()).append(SEPARATOR);
+  }
+
+  private static LocalDateTime truncate(LocalDateTime date) {
+    return date == null ? null : date.truncatedTo(ChronoUnit.SECONDS);
+  }
+}
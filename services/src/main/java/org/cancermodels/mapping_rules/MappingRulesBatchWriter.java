@@ -0,0 +1,120 @@
+package org.cancermodels.mapping_rules;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.cancermodels.pdcm_admin.persistance.MappingEntity;
+import org.cancermodels.pdcm_admin.persistance.MappingEntityRepository;
+import org.cancermodels.pdcm_admin.persistance.MappingValue;
+import org.cancermodels.pdcm_admin.persistance.SuggestionRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Writes the changes of a mapping rules restore, a batch per transaction. The persistence context is
+ * cleared after each batch, so the entities don't accumulate in memory.
+ */
+@Component
+public class MappingRulesBatchWriter {
+
+  @PersistenceContext(unitName = "pdcmAdmin")
+  private EntityManager entityManager;
+
+  private final MappingEntityRepository mappingEntityRepository;
+  private final SuggestionRepository suggestionRepository;
+
+  public MappingRulesBatchWriter(
+      MappingEntityRepository mappingEntityRepository, SuggestionRepository suggestionRepository) {
+    this.mappingEntityRepository = mappingEntityRepository;
+    this.suggestionRepository = suggestionRepository;
+  }
+
+  /**
+   * Saves a batch of new entities in its own transaction.
+   * @param mappingEntities Entities to save.
+   * @return The ids of the saved entities.
+   */
+  @Transactional("pdcmAdminTransactionManager")
+  public List<Integer> save(List<MappingEntity> mappingEntities) {
+    List<Integer> ids = mappingEntityRepository.saveAll(mappingEntities).stream()
+        .map(MappingEntity::getId).toList();
+    entityManager.flush();
+    entityManager.clear();
+    return ids;
+  }
+
+  /**
+   * Copies the content of some rules into the existing entities, in its own transaction. The
+   * suggestions of an entity are kept, unless its values changed, as they were calculated with them.
+   * @param changes Map with the id of the existing entity as key and an entity with the content of
+   * the rule as value.
+   */
+  @Transactional("pdcmAdminTransactionManager")
+  public void update(Map<Integer, MappingEntity> changes) {
+    for (MappingEntity original : mappingEntityRepository.findAllWithValuesByIdIn(changes.keySet())) {
+      copy(changes.get(original.getId()), original);
+    }
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  /**
+   * Deletes some entities, with their values and suggestions, in its own transaction. The suggestions
+   * of other entities that point to them are deleted too.
+   * @param ids Ids of the entities to delete.
+   */
+  @Transactional("pdcmAdminTransactionManager")
+  public void delete(Collection<Integer> ids) {
+    suggestionRepository.deleteAllBySuggestedMappingEntityIdIn(ids);
+    mappingEntityRepository.deleteAll(mappingEntityRepository.findAllWithValuesByIdIn(ids));
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  private void copy(MappingEntity source, MappingEntity target) {
+    target.setMappingKey(source.getMappingKey());
+    target.setEntityType(source.getEntityType());
+    target.setMappedTermLabel(source.getMappedTermLabel());
+    target.setMappedTermUrl(source.getMappedTermUrl());
+    target.setStatus(source.getStatus());
+    target.setMappingType(source.getMappingType());
+    target.setSource(source.getSource());
+    target.setDateCreated(source.getDateCreated());
+    target.setDateUpdated(source.getDateUpdated());
+    if (copyValues(source, target)) {
+      target.getSuggestions().clear();
+      target.setSuggestionsIndexGeneration(null);
+    }
+  }
+
+  // Returns true if any value changed. Values are matched by key, so the existing rows are reused.
+  private boolean copyValues(MappingEntity source, MappingEntity target) {
+    boolean changed = false;
+    Map<Integer, MappingValue> sourceValues = new HashMap<>();
+    source.getMappingValues().forEach(x -> sourceValues.put(x.getMappingKey().getId(), x));
+    Iterator<MappingValue> iterator = target.getMappingValues().iterator();
+    while (iterator.hasNext()) {
+      MappingValue targetValue = iterator.next();
+      MappingValue sourceValue = sourceValues.remove(targetValue.getMappingKey().getId());
+      if (sourceValue == null) {
+        iterator.remove();
+        entityManager.remove(targetValue);
+        changed = true;
+      } else if (!Objects.equals(sourceValue.getValue(), targetValue.getValue())) {
+        targetValue.setValue(sourceValue.getValue());
+        changed = true;
+      }
+    }
+    for (MappingValue newValue : sourceValues.values()) {
+      newValue.setMappingEntity(target);
+      target.getMappingValues().add(newValue);
+      changed = true;
+    }
+    return changed;
+  }
+}
@@ -1,65 +1,119 @@
 package org.cancermodels.mapping_rules;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.cancermodels.jobs.JobProgress;
 import org.cancermodels.pdcm_admin.EntityTypeName;
 import org.cancermodels.mappings.EntityTypeService;
+import org.cancermodels.mappings.MappingEntitiesChangedEvent;
 import org.cancermodels.mappings.MappingEntityService;
+import org.cancermodels.mappings.MappingKeyService;
+import org.cancermodels.mappings.discovery.ProviderDataHashes;
 import org.cancermodels.pdcm_admin.persistance.EntityType;
 import org.cancermodels.pdcm_admin.persistance.MappingEntity;
 import org.cancermodels.pdcm_admin.persistance.MappingKey;
 import org.cancermodels.pdcm_admin.persistance.MappingValue;
 import org.cancermodels.pdcm_admin.types.Status;
-import org.cancermodels.util.FileManager;
+import org.cancermodels.process_report.ProcessResponse;
 import org.cancermodels.util.JSONHelper;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Provides logic to handle the JSON mapping rules
  */
 @Service
+@Slf4j
 public class MappingRulesService {
 
+  // Never a valid mapping key, so entities with a repeated key are not matched with any rule
+  private static final String DUPLICATE_KEY_PREFIX = "\u0000duplicate:";
+
   @Value("${data-dir}")
   private String rootDir;
 
+  @PersistenceContext(unitName = "pdcmAdmin")
+  private EntityManager entityManager;
+
   private final MappingEntityService mappingEntityService;
   private final EntityTypeService entityTypeService;
+  private final MappingKeyService mappingKeyService;
+  private final ProviderDataHashes providerDataHashes;
+  private final MappingRulesBatchWriter batchWriter;
+  private final ApplicationEventPublisher eventPublisher;
+  private final int batchSize;
 
   public MappingRulesService(MappingEntityService mappingEntityService,
-      EntityTypeService entityTypeService) {
+      EntityTypeService entityTypeService,
+      MappingKeyService mappingKeyService,
+      ProviderDataHashes providerDataHashes,
+      MappingRulesBatchWriter batchWriter,
+      ApplicationEventPublisher eventPublisher,
+      @Value("${mapping_rules_restore_batch_size:500}") int batchSize) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("mapping_rules_restore_batch_size must be greater than 0");
+    }
     this.mappingEntityService = mappingEntityService;
     this.entityTypeService = entityTypeService;
+    this.mappingKeyService = mappingKeyService;
+    this.providerDataHashes = providerDataHashes;
+    this.batchWriter = batchWriter;
+    this.eventPublisher = eventPublisher;
+    this.batchSize = batchSize;
   }
 
   /**
-   * Convert the mapped entities in the db into a JSON file
+   * Writes the mapped entities in the db as a JSON array of mapping rules. The entities are read as a
+   * stream and each one is written and detached before the next one is read, so the memory used
+   * doesn't depend on the number of rules.
    * @param entityTypeName Treatment or Diagnosis
-   * @return A string with a json array where each object is the json representation of a
-   * mapping entity.
-   * @throws JsonProcessingException
+   * @param outputStream Where to write the JSON. It is not closed.
+   * @throws IOException if the JSON could not be written.
    */
-  public String buildMappingRulesJson(String entityTypeName)
-      throws JsonProcessingException {
+  @Transactional(value = "pdcmAdminTransactionManager", readOnly = true)
+  public void writeMappingRulesJson(String entityTypeName, OutputStream outputStream)
+      throws IOException {
     validateEntityType(entityTypeName);
 
     // We are only interested in mapped terms
-    List<MappingEntity> mappingEntities =
-        mappingEntityService.getAllByTypeNameAndStatus(
+    try (Stream<MappingEntity> mappingEntities = mappingEntityService.streamAllByTypeNameAndStatus(
             entityTypeName, Status.MAPPED.getLabel());
-
-    // Convert the mapping entities to the expected format
-    List<MappingRule> mappingRules = mappingEntities.stream()
-        .map(this::mappingEntityToMappingRule)
-        .collect(Collectors.toList());
-
-    return JSONHelper.toJson(mappingRules);
+        JsonGenerator generator = JSONHelper.createGenerator(outputStream)) {
+      generator.writeStartArray();
+      Iterator<MappingEntity> iterator = mappingEntities.iterator();
+      while (iterator.hasNext()) {
+        MappingEntity mappingEntity = iterator.next();
+        generator.writeObject(mappingEntityToMappingRule(mappingEntity));
+        entityManager.detach(mappingEntity);
+      }
+      generator.writeEndArray();
+    }
   }
 
   private void validateEntityType(String entityType) {
@@ -84,72 +138,296 @@ public class MappingRulesService {
     return mappingRule;
   }
 
-  private MappingEntity mappingRuleToMappingEntity(MappingRule mappingRule) {
-    MappingEntity mappingEntity = new MappingEntity();
-    mappingEntity.setMappingKey(mappingRule.getMappingKey());
-    EntityType entityType = getEntityType(mappingRule.getEntityType());
-    mappingEntity.setEntityType(entityType);
-    mappingEntity.setMappingValues(
-        getMappingValuesFromMap(mappingRule.getMappingValues(), mappingEntity, entityType));
-    mappingEntity.setMappedTermLabel(mappingRule.getMappedTermLabel());
-    mappingEntity.setMappedTermUrl(mappingRule.getMappedTermUrl());
-    mappingEntity.setStatus(mappingRule.getStatus());
-    mappingEntity.setMappingType(mappingRule.getMappingType());
-    mappingEntity.setSource(mappingRule.getSource());
-    mappingEntity.setDateCreated(mappingRule.getDateCreated());
-    mappingEntity.setDateUpdated(mappingRule.getDateUpdated());
-    return mappingEntity;
+  /**
+   * Makes the mapping entities in the db match the json files with the mapping rules. Because the
+   * json files contain only Mapped data, any mappings in other status (Review, Unmapped, Request)
+   * will be lost. If entities are deleted, the next detection of unmapped terms will read the data
+   * of all the providers again.
+   * @return The number of rules inserted, updated, unchanged and skipped, and of entities deleted, by
+   * entity type.
+   */
+  public ProcessResponse restoreMappedMappingEntitiesFromJsons() throws IOException {
+    return restoreMappedMappingEntitiesFromJsons(JobProgress.NONE);
   }
 
   /**
-   * Deletes all the mapping entities and reload the data from the json files with the mapping rules.
-   * Because the json files contain only Mapped data, any mappings in other status
-   * (Review, Unmapped, Request) will be lost.
+   * Same as {@link #restoreMappedMappingEntitiesFromJsons()}, reporting the progress.
+   * <p>
+   * Each rule is compared with the entity in the db with the same mapping key, using a hash of their
+   * content (see {@link MappingRuleDigest}). Only the rules that are new or changed are written, so
+   * the entities that didn't change keep their ids and suggestions. The entities whose key is not in
+   * the files are deleted once all the files are read, so a file that cannot be read doesn't delete
+   * anything.
+   * </p>
+   * <p>
+   * The files are parsed incrementally and the changes are written in batches of
+   * {@code mapping_rules_restore_batch_size} entities, each one in its own transaction. A rule that
+   * cannot be converted into an entity (unknown entity type or key, missing fields or wrong types)
+   * or whose key was already restored is skipped and logged. A file that is not valid JSON stops the
+   * restore, as the rest of the file cannot be read.
+   * </p>
+   * @param progress {@link JobProgress} to report the bytes read and check for cancellation.
+   * @return The number of rules inserted, updated, unchanged and skipped, and of entities deleted, by
+   * entity type.
    */
-  public void restoreMappedMappingEntitiesFromJsons() throws IOException {
-    mappingEntityService.deleteAll();
-    for (EntityType entityType : entityTypeService.getAll()) {
-      List<MappingRule> mappingRules = readRulesFromJsonByType(entityType);
-      List<MappingEntity> mappingEntities = mappingRules.stream().map(
-          this::mappingRuleToMappingEntity).collect(
-          Collectors.toList());
-      mappingEntityService.savAll(mappingEntities);
+  public ProcessResponse restoreMappedMappingEntitiesFromJsons(JobProgress progress) throws IOException {
+    List<EntityType> entityTypes = entityTypeService.getAll();
+    List<Path> files = new ArrayList<>();
+    long totalBytes = 0;
+    for (EntityType entityType : entityTypes) {
+      Path file = Paths.get(rootDir, "mapping", entityType.getMappingRulesFileName());
+      files.add(file);
+      totalBytes += Files.size(file);
     }
+    RuleConverter converter = new RuleConverter(entityTypes, mappingKeyService.getAll());
+    RestoreState state = new RestoreState(readExistingRules());
 
+    Map<String, String> response = new LinkedHashMap<>();
+    long offset = 0;
+    try {
+      for (int i = 0; i < entityTypes.size(); i++) {
+        RestoreCounts counts = restoreFromJson(
+            files.get(i), converter, state, progress.withOffset(offset, totalBytes));
+        offset += Files.size(files.get(i));
+        String name = entityTypes.get(i).getName();
+        response.put(name + " inserted", String.valueOf(counts.inserted));
+        response.put(name + " updated", String.valueOf(counts.updated));
+        response.put(name + " unchanged", String.valueOf(counts.unchanged));
+        response.put(name + " skipped", String.valueOf(counts.skipped));
+      }
+      deleteMissing(state, entityTypes, response);
+    } finally {
+      if (!state.changedIds.isEmpty()) {
+        eventPublisher.publishEvent(MappingEntitiesChangedEvent.of(state.changedIds));
+      }
+    }
+    return new ProcessResponse(response);
   }
 
-  private List<MappingValue> getMappingValuesFromMap(
-      Map<String, String> map, MappingEntity mappingEntity, EntityType entityType) {
-    List<MappingValue> mappingValues = new ArrayList<>();
-    for (String key : map.keySet()) {
-      MappingValue mappingValue = new MappingValue();
-      mappingValue.setMappingEntity(mappingEntity);
-      mappingValue.setMappingKey(getMappingKeyByName(key, entityType));
-      mappingValue.setValue(map.get(key));
-      mappingValues.add(mappingValue);
+  // Reads the existing entities by mapping key. Entities with a repeated key are deleted.
+  private Map<String, ExistingRule> readExistingRules() {
+    Map<String, ExistingRule> existing = new HashMap<>();
+    List<Object[]> rows = mappingEntityService.getAllRuleRows();
+    int i = 0;
+    while (i < rows.size()) {
+      Object[] first = rows.get(i);
+      Integer id = (Integer) first[0];
+      MappingRule mappingRule = new MappingRule();
+      mappingRule.setMappingKey((String) first[1]);
+      mappingRule.setEntityType((String) first[2]);
+      mappingRule.setMappedTermLabel((String) first[3]);
+      mappingRule.setMappedTermUrl((String) first[4]);
+      mappingRule.setStatus((String) first[5]);
+      mappingRule.setMappingType((String) first[6]);
+      mappingRule.setSource((String) first[7]);
+      mappingRule.setDateCreated((LocalDateTime) first[8]);
+      mappingRule.setDateUpdated((LocalDateTime) first[9]);
+      Map<String, String> values = new HashMap<>();
+      for (; i < rows.size() && id.equals(rows.get(i)[0]); i++) {
+        if (rows.get(i)[10] != null) {
+          values.put((String) rows.get(i)[10], (String) rows.get(i)[11]);
+        }
+      }
+      mappingRule.setMappingValues(values);
+      ExistingRule rule = new ExistingRule(id, mappingRule.getEntityType(), MappingRuleDigest.of(mappingRule));
+      ExistingRule previous = existing.putIfAbsent(mappingRule.getMappingKey(), rule);
+      if (previous != null) {
+        existing.put(DUPLICATE_KEY_PREFIX + id, rule);
+      }
     }
-    return mappingValues;
+    return existing;
   }
 
-  private MappingKey getMappingKeyByName(String name, EntityType entityType) {
-    List<MappingKey> mappingKeys = entityType.getMappingKeys();
-    for (MappingKey mappingKey : mappingKeys) {
-      if (mappingKey.getKey().equalsIgnoreCase(name)) {
-        return mappingKey;
+  private RestoreCounts restoreFromJson(
+      Path file, RuleConverter converter, RestoreState state, JobProgress progress) throws IOException {
+    RestoreCounts counts = new RestoreCounts();
+    long size = Files.size(file);
+    try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(file));
+        JsonParser parser = JSONHelper.createParser(inputStream)) {
+      if (parser.nextToken() != JsonToken.START_ARRAY) {
+        throw new IOException("The mapping rules file " + file + " is not a JSON array");
+      }
+      List<MappingEntity> inserts = new ArrayList<>(batchSize);
+      Map<Integer, MappingEntity> updates = new HashMap<>();
+      int position = 0;
+      JsonToken token;
+      while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+        if (token == null) {
+          throw new IOException("Unexpected end of the mapping rules file " + file);
+        }
+        progress.checkCancelled();
+        JsonNode node = parser.readValueAsTree();
+        // Read before the conversion, so the existing entity with the key of a malformed rule is kept
+        JsonNode mappingKey = node.get("mappingKey");
+        try {
+          MappingRule mappingRule = parser.getCodec().treeToValue(node, MappingRule.class);
+          MappingEntity mappingEntity = converter.toMappingEntity(mappingRule);
+          if (!state.restoredKeys.add(mappingRule.getMappingKey())) {
+            throw new IllegalArgumentException("Repeated mapping key " + mappingRule.getMappingKey());
+          }
+          ExistingRule existing = state.existing.remove(mappingRule.getMappingKey());
+          if (existing == null) {
+            inserts.add(mappingEntity);
+          } else if (!Arrays.equals(existing.digest(), MappingRuleDigest.of(mappingRule))) {
+            updates.put(existing.id(), mappingEntity);
+          } else {
+            counts.unchanged++;
+          }
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+          counts.skipped++;
+          log.warn("Skipping mapping rule {} of {}: {}", position, file, e.getMessage());
+          if (mappingKey != null && mappingKey.isTextual()
+              && state.existing.remove(mappingKey.asText()) != null) {
+            log.warn("Keeping the existing mapping entity with key {}", mappingKey.asText());
+          }
+        }
+        position++;
+        if (inserts.size() == batchSize) {
+          counts.inserted += insert(inserts, state);
+          inserts = new ArrayList<>(batchSize);
+          progress.update(parser.currentLocation().getByteOffset(), size);
+        }
+        if (updates.size() == batchSize) {
+          counts.updated += update(updates, state);
+          updates = new HashMap<>();
+          progress.update(parser.currentLocation().getByteOffset(), size);
+        }
       }
+      if (!inserts.isEmpty()) {
+        counts.inserted += insert(inserts, state);
+      }
+      if (!updates.isEmpty()) {
+        counts.updated += update(updates, state);
+      }
+      progress.update(size, size);
     }
-    return null;
+    log.info("Restored mapping rules from {}. Inserted: {}, updated: {}, unchanged: {}, skipped: {}",
+        file, counts.inserted, counts.updated, counts.unchanged, counts.skipped);
+    return counts;
+  }
+
+  private int insert(List<MappingEntity> mappingEntities, RestoreState state) {
+    state.changedIds.addAll(batchWriter.save(mappingEntities));
+    return mappingEntities.size();
   }
 
-  private EntityType getEntityType(String name) {
-    return entityTypeService.getEntityTypeByName(name);
+  private int update(Map<Integer, MappingEntity> changes, RestoreState state) {
+    batchWriter.update(changes);
+    state.changedIds.addAll(changes.keySet());
+    return changes.size();
   }
 
-  private List<MappingRule> readRulesFromJsonByType(EntityType entityType) throws IOException {
-    String mappingJsonFilePath = rootDir + "/mapping/" + entityType.getMappingRulesFileName();
-    String json = FileManager.getStringFromFile(mappingJsonFilePath);
-    return JSONHelper.fromJson(json, new TypeReference<>() {
-    });
+  // Deletes the entities that were not in any file
+  private void deleteMissing(
+      RestoreState state, List<EntityType> entityTypes, Map<String, String> response) {
+    Map<String, Integer> deletedByType = new HashMap<>();
+    List<Integer> ids = new ArrayList<>();
+    for (ExistingRule existing : state.existing.values()) {
+      ids.add(existing.id());
+      deletedByType.merge(String.valueOf(existing.entityType()).toLowerCase(), 1, Integer::sum);
+    }
+    for (int i = 0; i < ids.size(); i += batchSize) {
+      List<Integer> batch = ids.subList(i, Math.min(i + batchSize, ids.size()));
+      batchWriter.delete(batch);
+      state.changedIds.addAll(batch);
+    }
+    for (EntityType entityType : entityTypes) {
+      response.put(entityType.getName() + " deleted",
+          String.valueOf(deletedByType.getOrDefault(entityType.getName().toLowerCase(), 0)));
+    }
+    if (!ids.isEmpty()) {
+      // Deleted unmapped terms must be detected again
+      providerDataHashes.removeAll();
+    }
+    log.info("Deleted {} mapping entities not present in the mapping rules", ids.size());
+  }
+
+  private record ExistingRule(Integer id, String entityType, byte[] digest) {
+  }
+
+  private static class RestoreCounts {
+    int inserted;
+    int updated;
+    int unchanged;
+    int skipped;
+  }
+
+  /**
+   * State of a restore shared by all the files.
+   */
+  private static class RestoreState {
+    // Existing entities not found yet in the files, by mapping key
+    private final Map<String, ExistingRule> existing;
+    private final Set<String> restoredKeys = new HashSet<>();
+    private final Set<Integer> changedIds = new HashSet<>();
+
+    RestoreState(Map<String, ExistingRule> existing) {
+      this.existing = existing;
+    }
+  }
+
+  /**
+   * Converts mapping rules into entities, looking up the entity types and keys in maps built once
+   * for the whole restore.
+   */
+  private static class RuleConverter {
+    // Lower case name -> entity type
+    private final Map<String, EntityType> entityTypesByName = new HashMap<>();
+    // Entity type id -> lower case key -> mapping key
+    private final Map<Integer, Map<String, MappingKey>> keysByEntityType = new HashMap<>();
+
+    RuleConverter(List<EntityType> entityTypes, List<MappingKey> mappingKeys) {
+      entityTypes.forEach(x -> entityTypesByName.put(x.getName().toLowerCase(), x));
+      for (MappingKey mappingKey : mappingKeys) {
+        keysByEntityType
+            .computeIfAbsent(mappingKey.getEntityType().getId(), k -> new HashMap<>())
+            .put(mappingKey.getKey().toLowerCase(), mappingKey);
+      }
+    }
+
+    MappingEntity toMappingEntity(MappingRule mappingRule) {
+      if (mappingRule.getMappingKey() == null || mappingRule.getMappingValues() == null) {
+        throw new IllegalArgumentException("The mapping key and the mapping values are required");
+      }
+      EntityType entityType = mappingRule.getEntityType() == null
+          ? null
+          : entityTypesByName.get(mappingRule.getEntityType().toLowerCase());
+      if (entityType == null) {
+        throw new IllegalArgumentException("Unknown entity type " + mappingRule.getEntityType());
+      }
+      MappingEntity mappingEntity = new MappingEntity();
+      mappingEntity.setMappingKey(mappingRule.getMappingKey());
+      mappingEntity.setEntityType(entityType);
+      mappingEntity.setMappingValues(
+          getMappingValuesFromMap(mappingRule.getMappingValues(), mappingEntity, entityType));
+      mappingEntity.setMappedTermLabel(mappingRule.getMappedTermLabel());
+      mappingEntity.setMappedTermUrl(mappingRule.getMappedTermUrl());
+      mappingEntity.setStatus(mappingRule.getStatus());
+      mappingEntity.setMappingType(mappingRule.getMappingType());
+      mappingEntity.setSource(mappingRule.getSource());
+      mappingEntity.setDateCreated(mappingRule.getDateCreated());
+      mappingEntity.setDateUpdated(mappingRule.getDateUpdated());
+      return mappingEntity;
+    }
+
+    private List<MappingValue> getMappingValuesFromMap(
+        Map<String, String> map, MappingEntity mappingEntity, EntityType entityType) {
+      Map<String, MappingKey> keys = keysByEntityType.getOrDefault(entityType.getId(), Map.of());
+      List<MappingValue> mappingValues = new ArrayList<>();
+      for (String key : map.keySet()) {
+        MappingKey mappingKey = keys.get(key.toLowerCase());
+        if (mappingKey == null) {
+          throw new IllegalArgumentException(
+              "Unknown key " + key + " for entity type " + entityType.getName());
+        }
+        MappingValue mappingValue = new MappingValue();
+        mappingValue.setMappingEntity(mappingEntity);
+        mappingValue.setMappingKey(mappingKey);
+        mappingValue.setValue(map.get(key));
+        mappingValues.add(mappingValue);
+      }
+      return mappingValues;
+    }
   }
 
 }
@@ -0,0 +1,9 @@
+package org.cancermodels.mappings;
+
+/**
+ * Published when a new Lucene index with rules and ontologies has been created.
+ * @param indexPath Path of the index.
+ * @param generation Generation assigned to the index by {@link IndexGenerationService}.
+ */
+public record IndexCreatedEvent(String indexPath, String generation) {
+}
@@ -0,0 +1,63 @@
+package org.cancermodels.mappings;
+
+import java.util.Optional;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.cancermodels.pdcm_admin.types.ProcessReportModules;
+import org.cancermodels.process_report.ProcessReportService;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps track of the generation of the Lucene index, an id that changes every time the index is
+ * built.
+ * <p>
+ * The generation is stored as an {@link ProcessReportModules#INDEXER} process report, so it survives
+ * restarts. Stored suggestions are stamped with the generation they were calculated with, which
+ * tells whether they are outdated after a new index is built.
+ * </p>
+ */
+@Component
+@Slf4j
+public class IndexGenerationService {
+
+  static final String GENERATION_ATTRIBUTE = "Index generation";
+
+  private final ProcessReportService processReportService;
+
+  private volatile boolean loaded;
+  private volatile String currentGeneration;
+
+  public IndexGenerationService(ProcessReportService processReportService) {
+    this.processReportService = processReportService;
+  }
+
+  /**
+   * @return The generation of the current index, or empty if no index has been built since
+   * generations are tracked.
+   */
+  public Optional<String> getCurrentGeneration() {
+    if (!loaded) {
+      synchronized (this) {
+        if (!loaded) {
+          currentGeneration =
+              processReportService.getLatestValue(ProcessReportModules.INDEXER, GENERATION_ATTRIBUTE).orElse(null);
+          loaded = true;
+        }
+      }
+    }
+    return Optional.ofNullable(currentGeneration);
+  }
+
+  /**
+   * Registers a new generation. To be called when a new index has been built.
+   * @return The id of the new generation.
+   */
+  public synchronized String startNewGeneration() {
+    String generation = UUID.randomUUID().toString();
+    processReportService.register(ProcessReportModules.INDEXER, GENERATION_ATTRIBUTE, generation);
+    currentGeneration = generation;
+    loaded = true;
+    log.info("New index generation: {}", generation);
+    return generation;
+  }
+}
@@ -3,11 +3,13 @@ package org.cancermodels.mappings;
 import lombok.extern.slf4j.Slf4j;
 import org.cancer_models.entity2ontology.index.model.IndexingResponse;
 import org.cancer_models.entity2ontology.index.service.IndexingRequestService;
+import org.cancermodels.mappings.suggestions.ThreadSafeSearcher;
 import org.cancermodels.pdcm_admin.types.ProcessReportModules;
 import org.cancermodels.process_report.ProcessReportService;
 import org.cancermodels.process_report.ProcessResponse;
 import org.cancermodels.util.FileManager;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
@@ -34,23 +36,40 @@ public class IndexRequestHandler {
 
     private final IndexingRequestService indexingRequestService;
     private final ProcessReportService processReportService;
-
-    public IndexRequestHandler(IndexingRequestService indexingRequestService, ProcessReportService processReportService) {
+    private final IndexGenerationService indexGenerationService;
+    private final ThreadSafeSearcher searcher;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public IndexRequestHandler(
+        IndexingRequestService indexingRequestService,
+        ProcessReportService processReportService,
+        IndexGenerationService indexGenerationService,
+        ThreadSafeSearcher searcher,
+        ApplicationEventPublisher eventPublisher) {
         this.indexingRequestService = indexingRequestService;
         this.processReportService = processReportService;
+        this.indexGenerationService = indexGenerationService;
+        this.searcher = searcher;
+        this.eventPublisher = eventPublisher;
     }
 
     public ProcessResponse index() throws IOException {
         String indexRequestConfFilePath = writeIndexingRequestFile();
         IndexingResponse response = indexingRequestService.processRequest(indexRequestConfFilePath);
-        ProcessResponse processResponse = formatProcessResponse(response);
+        // Searches must read the new index from now on, and suggestions calculated with the old one
+        // become outdated
+        searcher.invalidateAll();
+        String generation = indexGenerationService.startNewGeneration();
+        ProcessResponse processResponse = formatProcessResponse(response, generation);
         processReportService.register(ProcessReportModules.INDEXER, "Index created", response.end().toString());
+        eventPublisher.publishEvent(new IndexCreatedEvent(response.indexPath(), generation));
         return processResponse;
     }
 
-    private ProcessResponse formatProcessResponse(IndexingResponse response) {
+    private ProcessResponse formatProcessResponse(IndexingResponse response, String generation) {
         Map<String, String> result = new LinkedHashMap<>();
         result.put("Index created at", response.indexPath());
+        result.put("Generation", generation);
         result.put("Start", response.start().toString());
         result.put("End", response.end().toString());
         response.indexedElementsPerTarget().forEach((k, v) -> result.put(k, v.toString()));
@@ -0,0 +1,24 @@
+package org.cancermodels.mappings;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Published when mapping entities are created, updated or deleted, so the components that keep
+ * information about them in memory can refresh it.
+ * @param ids Ids of the entities that changed, or null if any entity could have changed.
+ */
+public record MappingEntitiesChangedEvent(Set<Integer> ids) {
+
+  public static MappingEntitiesChangedEvent of(Collection<Integer> ids) {
+    return new MappingEntitiesChangedEvent(Set.copyOf(ids));
+  }
+
+  public static MappingEntitiesChangedEvent all() {
+    return new MappingEntitiesChangedEvent(null);
+  }
+
+  public boolean isAll() {
+    return ids == null;
+  }
+}
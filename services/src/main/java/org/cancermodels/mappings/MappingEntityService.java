@@ -1,28 +1,43 @@
 package org.cancermodels.mappings;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.cancermodels.pdcm_admin.CompactMappingKey;
 import org.cancermodels.pdcm_admin.types.MappingType;
 import org.cancermodels.pdcm_admin.persistance.EntityType;
 import org.cancermodels.pdcm_admin.persistance.MappingEntity;
 import org.cancermodels.pdcm_admin.persistance.MappingEntityRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 @Service
 public class MappingEntityService {
 
+  // Keeps the number of parameters of the "in" clause under the limits of the database
+  private static final int RELOAD_CHUNK_SIZE = 1000;
+
   private final MappingEntityRepository mappingEntityRepository;
   private final EntityTypeService entityTypeService;
   private final MappingEntityUpdater mappingEntityUpdater;
+  private final ApplicationEventPublisher eventPublisher;
 
   public MappingEntityService(MappingEntityRepository mappingEntityRepository,
       EntityTypeService entityTypeService,
-      MappingEntityUpdater mappingEntityUpdater) {
+      MappingEntityUpdater mappingEntityUpdater,
+      ApplicationEventPublisher eventPublisher) {
     this.mappingEntityRepository = mappingEntityRepository;
     this.entityTypeService = entityTypeService;
     this.mappingEntityUpdater = mappingEntityUpdater;
+    this.eventPublisher = eventPublisher;
   }
 
   /**
@@ -35,11 +50,15 @@ public class MappingEntityService {
   }
 
   /**
-   * Find a {@link MappingEntity} using its key.
+   * Find a {@link MappingEntity} using its key. Keys in hex form are looked up by their binary form
+   * (see {@link CompactMappingKey}).
    * @param key key of the mapping entity.
    * @return Optional with the Mapping entity if found.
    */
   public Optional<MappingEntity> findByKey(String key) {
+    if (CompactMappingKey.isHex(key)) {
+      return mappingEntityRepository.findByMappingKeyBytes(CompactMappingKey.fromHex(key).toBytes());
+    }
     return mappingEntityRepository.findByMappingKey(key);
   }
 
@@ -80,6 +99,22 @@ public class MappingEntityService {
         entityTypeName, status);
   }
 
+  /**
+   * Same as {@link #getAllByTypeNameAndStatus(String, String)}, but reading the entities as a
+   * stream. Must be called inside a transaction, and the stream must be closed.
+   */
+  public Stream<MappingEntity> streamAllByTypeNameAndStatus(String entityTypeName, String status) {
+    return mappingEntityRepository.streamAllByEntityTypeNameAndStatus(entityTypeName, status);
+  }
+
+  /**
+   * Reads the fields of all the entities that are part of a mapping rule, one row per mapping value.
+   * See {@link MappingEntityRepository#findAllRuleRows()}.
+   */
+  public List<Object[]> getAllRuleRows() {
+    return mappingEntityRepository.findAllRuleRows();
+  }
+
   /**
    * Get all the {@link MappingEntity} objects by status.
    * @param status Status to use as a filter.
@@ -91,10 +126,37 @@ public class MappingEntityService {
 
   public void deleteAll() {
     mappingEntityRepository.deleteAll();
+    eventPublisher.publishEvent(MappingEntitiesChangedEvent.all());
   }
 
   public void savAll(List<MappingEntity> mappingEntities) {
     mappingEntityRepository.saveAll(mappingEntities);
+    eventPublisher.publishEvent(
+        MappingEntitiesChangedEvent.of(mappingEntities.stream().map(MappingEntity::getId).toList()));
+  }
+
+  /**
+   * Reads again the entities that changed, in chunks of ids, so the caches that keep them in memory
+   * ({@link MappingEntitiesChangedEvent} listeners) can update them.
+   * @param ids Ids of the entities that changed.
+   * @param query Reads the rows of a chunk of ids.
+   * @param idOf Gets the id of a row.
+   * @param chunkConsumer Receives the rows of each chunk and the ids of the chunk without a row
+   * (entities deleted, or no longer matching the query).
+   */
+  public static <T> void reloadInChunks(
+      Collection<Integer> ids,
+      Function<List<Integer>, List<T>> query,
+      Function<T, Integer> idOf,
+      BiConsumer<List<T>, Set<Integer>> chunkConsumer) {
+    List<Integer> idList = new ArrayList<>(ids);
+    for (int i = 0; i < idList.size(); i += RELOAD_CHUNK_SIZE) {
+      List<Integer> chunk = idList.subList(i, Math.min(i + RELOAD_CHUNK_SIZE, idList.size()));
+      List<T> rows = query.apply(chunk);
+      Set<Integer> notFound = new HashSet<>(chunk);
+      rows.forEach(x -> notFound.remove(idOf.apply(x)));
+      chunkConsumer.accept(rows, notFound);
+    }
   }
 
 }
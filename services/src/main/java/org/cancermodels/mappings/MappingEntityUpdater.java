@@ -1,10 +1,12 @@
 package org.cancermodels.mappings;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import org.cancermodels.pdcm_admin.types.MappingType;
 import org.cancermodels.pdcm_admin.types.Status;
 import org.cancermodels.pdcm_admin.persistance.MappingEntity;
 import org.cancermodels.pdcm_admin.persistance.MappingEntityRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
 /**
@@ -14,9 +16,12 @@ import org.springframework.stereotype.Component;
 public class MappingEntityUpdater {
 
   private final MappingEntityRepository mappingEntityRepository;
+  private final ApplicationEventPublisher eventPublisher;
 
-  public MappingEntityUpdater(MappingEntityRepository mappingEntityRepository) {
+  public MappingEntityUpdater(
+      MappingEntityRepository mappingEntityRepository, ApplicationEventPublisher eventPublisher) {
     this.mappingEntityRepository = mappingEntityRepository;
+    this.eventPublisher = eventPublisher;
   }
 
   /**
@@ -35,6 +40,7 @@ public class MappingEntityUpdater {
     if (mappedTermChanged || statusChanged) {
       original.setDateUpdated(LocalDateTime.now());
       mappingEntityRepository.save(original);
+      eventPublisher.publishEvent(MappingEntitiesChangedEvent.of(List.of(original.getId())));
     }
 
     return original;
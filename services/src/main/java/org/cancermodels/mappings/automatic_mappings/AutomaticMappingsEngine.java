@@ -0,0 +1,119 @@
+package org.cancermodels.mappings.automatic_mappings;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import lombok.extern.slf4j.Slf4j;
+import org.cancer_models.entity2ontology.exceptions.MalformedMappingConfigurationException;
+import org.cancer_models.entity2ontology.exceptions.MappingException;
+import org.cancermodels.jobs.JobFutures;
+import org.cancermodels.jobs.JobProgress;
+import org.cancermodels.pdcm_admin.persistance.MappingEntity;
+import org.cancermodels.pdcm_admin.persistance.Suggestion;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Calculates the best suggestion for a (potentially big) list of mapping entities.
+ * <p>
+ * The entities are split in chunks of {@code automatic_mappings_chunk_size} elements. Each chunk is
+ * sent to Entity2Ontology as a single mapping request and the chunks are processed by a pool of
+ * {@code automatic_mappings_workers} threads. Suggestions for an entity don't depend on the rest of
+ * the entities, so the result is the same as calling
+ * {@link AutomaticMappingsFinder#findBestSuggestion(MappingEntity)} for every entity in order.
+ * </p>
+ */
+@Component
+@Slf4j
+public class AutomaticMappingsEngine {
+
+    private final AutomaticMappingsFinder automaticMappingsFinder;
+    private final int chunkSize;
+    private final int workers;
+
+    public AutomaticMappingsEngine(
+        AutomaticMappingsFinder automaticMappingsFinder,
+        @Value("${automatic_mappings_chunk_size:100}") int chunkSize,
+        @Value("${automatic_mappings_workers:4}") int workers) {
+        if (chunkSize < 1 || workers < 1) {
+            throw new IllegalArgumentException(
+                "automatic_mappings_chunk_size and automatic_mappings_workers must be greater than 0");
+        }
+        this.automaticMappingsFinder = automaticMappingsFinder;
+        this.chunkSize = chunkSize;
+        this.workers = workers;
+    }
+
+    /**
+     * Finds the best suggestion for each one of the given mapping entities.
+     * @param mappingEntities List of {@link MappingEntity} to analyze
+     * @return A list with the best suggestion (if any) for each entity, in the same order as
+     * {@code mappingEntities}
+     * @throws MalformedMappingConfigurationException if there is an error in the mapping configuration file
+     * @throws MappingException if there is an error when mapping the entities
+     */
+    public List<Optional<Suggestion>> findBestSuggestions(List<MappingEntity> mappingEntities)
+        throws MalformedMappingConfigurationException, MappingException {
+        return findBestSuggestions(mappingEntities, JobProgress.NONE);
+    }
+
+    /**
+     * Finds the best suggestion for each one of the given mapping entities, reporting the progress
+     * after each chunk.
+     * @param mappingEntities List of {@link MappingEntity} to analyze
+     * @param progress {@link JobProgress} to report the progress and check for cancellation
+     * @return A list with the best suggestion (if any) for each entity, in the same order as
+     * {@code mappingEntities}
+     * @throws MalformedMappingConfigurationException if there is an error in the mapping configuration file
+     * @throws MappingException if there is an error when mapping the entities
+     */
+    public List<Optional<Suggestion>> findBestSuggestions(
+        List<MappingEntity> mappingEntities, JobProgress progress)
+        throws MalformedMappingConfigurationException, MappingException {
+
+        List<List<MappingEntity>> chunks = splitInChunks(mappingEntities);
+        List<Optional<Suggestion>> bestSuggestions = new ArrayList<>(mappingEntities.size());
+        if (chunks.isEmpty()) {
+            return bestSuggestions;
+        }
+        log.info("Processing {} entities in {} chunks with {} workers",
+            mappingEntities.size(), chunks.size(), Math.min(workers, chunks.size()));
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(Math.min(workers, chunks.size()))) {
+            List<Future<Map<Integer, Optional<Suggestion>>>> futures = new ArrayList<>(chunks.size());
+            for (List<MappingEntity> chunk : chunks) {
+                futures.add(executor.submit(() -> {
+                    progress.checkCancelled();
+                    return automaticMappingsFinder.findBestSuggestions(chunk);
+                }));
+            }
+
+            int processed = 0;
+            for (int i = 0; i < chunks.size(); i++) {
+                Map<Integer, Optional<Suggestion>> chunkResult = JobFutures.await(
+                    futures.get(i), futures, "Calculation of automatic mappings cancelled",
+                    MalformedMappingConfigurationException.class, MappingException.class);
+                for (MappingEntity mappingEntity : chunks.get(i)) {
+                    bestSuggestions.add(chunkResult.getOrDefault(mappingEntity.getId(), Optional.empty()));
+                }
+                processed += chunks.get(i).size();
+                progress.update(processed, mappingEntities.size());
+                log.info("Processed {} from {}", processed, mappingEntities.size());
+            }
+        }
+        return bestSuggestions;
+    }
+
+    private List<List<MappingEntity>> splitInChunks(List<MappingEntity> mappingEntities) {
+        List<List<MappingEntity>> chunks = new ArrayList<>();
+        for (int i = 0; i < mappingEntities.size(); i += chunkSize) {
+            chunks.add(mappingEntities.subList(i, Math.min(i + chunkSize, mappingEntities.size())));
+        }
+        return chunks;
+    }
+}
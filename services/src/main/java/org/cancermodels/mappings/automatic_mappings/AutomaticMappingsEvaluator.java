@@ -0,0 +1,190 @@
+package org.cancermodels.mappings.automatic_mappings;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.cancer_models.entity2ontology.exceptions.MalformedMappingConfigurationException;
+import org.cancer_models.entity2ontology.exceptions.MappingException;
+import org.cancermodels.jobs.JobFutures;
+import org.cancermodels.mappings.MappingEntityService;
+import org.cancermodels.pdcm_admin.persistance.MappingEntity;
+import org.cancermodels.pdcm_admin.persistance.Suggestion;
+import org.cancermodels.pdcm_admin.types.Status;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Evaluates how good the automatic mapping process is, by calculating the best suggestion of the
+ * mapped entities and comparing it with their current mapping (see
+ * {@link AutomaticMappingsService#evaluateAutomaticMappingsInMappedEntities()}).
+ * <p>
+ * The entities are read as a stream and sent to Entity2Ontology in chunks of
+ * {@code automatic_mappings_chunk_size} elements, processed by {@code automatic_mappings_workers}
+ * threads. Only a few chunks per worker are read ahead, and the entities that don't agree are written
+ * as soon as their chunk is done, so the memory used doesn't depend on the number of entities.
+ * </p>
+ * <p>
+ * Nothing is written to the database: the ontology terms of the suggestions are not saved.
+ * </p>
+ */
+@Component
+@Slf4j
+public class AutomaticMappingsEvaluator {
+
+    public static final String EVALUATED = "evaluated";
+    public static final String MATCHING = "matching";
+
+    // Chunks read ahead per worker, so the workers don't wait for the stream or the client
+    private static final int CHUNKS_PER_WORKER = 2;
+
+    @PersistenceContext(unitName = "pdcmAdmin")
+    private EntityManager entityManager;
+
+    private final MappingEntityService mappingEntityService;
+    private final AutomaticMappingsFinder automaticMappingsFinder;
+    private final int chunkSize;
+    private final int workers;
+
+    public AutomaticMappingsEvaluator(
+        MappingEntityService mappingEntityService,
+        AutomaticMappingsFinder automaticMappingsFinder,
+        @Value("${automatic_mappings_chunk_size:100}") int chunkSize,
+        @Value("${automatic_mappings_workers:4}") int workers) {
+        if (chunkSize < 1 || workers < 1) {
+            throw new IllegalArgumentException(
+                "automatic_mappings_chunk_size and automatic_mappings_workers must be greater than 0");
+        }
+        this.mappingEntityService = mappingEntityService;
+        this.automaticMappingsFinder = automaticMappingsFinder;
+        this.chunkSize = chunkSize;
+        this.workers = workers;
+    }
+
+    /**
+     * Evaluates the mapped entities selected by a filter, writing a row for each entity whose best
+     * suggestion has another term ({@code not_matching}) or that has no suggestion good enough
+     * ({@code not_suggestion}).
+     * @param filter Entities to evaluate.
+     * @param writer Where to write the rows. The counts are passed to it at the end.
+     * @return Number of entities evaluated and of each outcome.
+     * @throws IOException if the rows could not be written. The evaluation is stopped.
+     * @throws MalformedMappingConfigurationException if there is an error in the mapping configuration file
+     * @throws MappingException if there is an error when mapping the entities
+     */
+    @Transactional(value = "pdcmAdminTransactionManager", readOnly = true)
+    public Map<String, Integer> evaluate(EvaluationFilter filter, EvaluationRowWriter writer)
+        throws IOException, MalformedMappingConfigurationException, MappingException {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        counts.put(EVALUATED, 0);
+        counts.put(MATCHING, 0);
+        counts.put(EvaluationRow.NOT_MATCHING, 0);
+        counts.put(EvaluationRow.NOT_SUGGESTION, 0);
+
+        Deque<Chunk> pending = new ArrayDeque<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(workers)) {
+            try {
+                int selected = 0;
+                List<MappingEntity> chunk = new ArrayList<>(chunkSize);
+                for (String entityTypeName : filter.getEntityTypeNames()) {
+                    try (Stream<MappingEntity> mappingEntities = mappingEntityService.streamAllByTypeNameAndStatus(
+                        entityTypeName, Status.MAPPED.getLabel())) {
+                        Iterator<MappingEntity> iterator = mappingEntities.iterator();
+                        while (iterator.hasNext() && (filter.limit() == 0 || selected < filter.limit())) {
+                            MappingEntity mappingEntity = iterator.next();
+                            entityManager.detach(mappingEntity);
+                            if (!filter.accepts(mappingEntity)) {
+                                continue;
+                            }
+                            selected++;
+                            chunk.add(mappingEntity);
+                            if (chunk.size() == chunkSize) {
+                                pending.add(submit(executor, chunk));
+                                chunk = new ArrayList<>(chunkSize);
+                                while (pending.size() >= workers * CHUNKS_PER_WORKER) {
+                                    writeResults(pending.poll(), writer, counts);
+                                }
+                            }
+                        }
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    pending.add(submit(executor, chunk));
+                }
+                while (!pending.isEmpty()) {
+                    writeResults(pending.poll(), writer, counts);
+                }
+            } finally {
+                // Nothing left if it finished, otherwise there is no point in evaluating the rest
+                pending.forEach(x -> x.future().cancel(true));
+            }
+        }
+        writer.finish(counts);
+        log.info("Evaluation of automatic mappings finished: {}", counts);
+        return counts;
+    }
+
+    private Chunk submit(ExecutorService executor, List<MappingEntity> mappingEntities) {
+        return new Chunk(mappingEntities,
+            executor.submit(() -> automaticMappingsFinder.findBestSuggestions(mappingEntities, false)));
+    }
+
+    private void writeResults(Chunk chunk, EvaluationRowWriter writer, Map<String, Integer> counts)
+        throws IOException, MalformedMappingConfigurationException, MappingException {
+        // The pending chunks are cancelled by evaluate
+        Map<Integer, Optional<Suggestion>> bestSuggestions = JobFutures.await(
+            chunk.future(), List.of(), "Evaluation of automatic mappings cancelled",
+            MalformedMappingConfigurationException.class, MappingException.class);
+        for (MappingEntity mappingEntity : chunk.mappingEntities()) {
+            Optional<Suggestion> bestSuggestion =
+                bestSuggestions.getOrDefault(mappingEntity.getId(), Optional.empty());
+            String outcome = getOutcome(mappingEntity, bestSuggestion);
+            counts.merge(outcome, 1, Integer::sum);
+            if (!MATCHING.equals(outcome)) {
+                writer.write(toRow(outcome, mappingEntity, bestSuggestion.orElse(null)));
+            }
+        }
+        counts.merge(EVALUATED, chunk.mappingEntities().size(), Integer::sum);
+        writer.flush();
+        log.info("Evaluated {} entities", counts.get(EVALUATED));
+    }
+
+    private String getOutcome(MappingEntity mappingEntity, Optional<Suggestion> bestSuggestion) {
+        if (bestSuggestion.isEmpty()) {
+            return EvaluationRow.NOT_SUGGESTION;
+        }
+        return bestSuggestion.get().getSuggestedTermUrl().equalsIgnoreCase(mappingEntity.getMappedTermUrl())
+            ? MATCHING
+            : EvaluationRow.NOT_MATCHING;
+    }
+
+    private EvaluationRow toRow(String outcome, MappingEntity mappingEntity, Suggestion suggestion) {
+        return new EvaluationRow(
+            outcome,
+            mappingEntity.getId(),
+            mappingEntity.getEntityType().getName(),
+            mappingEntity.getMappedTermLabel(),
+            mappingEntity.getMappedTermUrl(),
+            suggestion == null ? null : suggestion.getSuggestedTermLabel(),
+            suggestion == null ? null : suggestion.getSuggestedTermUrl(),
+            suggestion == null ? null : suggestion.getRelativeScore(),
+            mappingEntity.getValuesAsMap());
+    }
+
+    private record Chunk(
+        List<MappingEntity> mappingEntities, Future<Map<Integer, Optional<Suggestion>>> future) {
+    }
+}
@@ -36,9 +36,45 @@ public class AutomaticMappingsFinder {
    * to {@code mappingEntity} that it could be used to automatically do the mapping of the entity.
    */
   public Optional<Suggestion> findBestSuggestion(MappingEntity mappingEntity) throws MalformedMappingConfigurationException, MappingException {
+    return selectBestSuggestion(suggestionService.findSuggestions(mappingEntity));
+  }
+
+  /**
+   * Find the best {@link Suggestion} for several mapping entities. The suggestions for all the
+   * entities are calculated in a single call to Entity2Ontology and then the same criteria as in
+   * {@link #findBestSuggestion(MappingEntity)} are applied to each entity.
+   * @param mappingEntities List of {@link MappingEntity} to analyze
+   * @return Map with the id of each mapping entity as key and its best suggestion (if any) as value
+   */
+  public Map<Integer, Optional<Suggestion>> findBestSuggestions(List<MappingEntity> mappingEntities)
+      throws MalformedMappingConfigurationException, MappingException {
+    return findBestSuggestions(mappingEntities, true);
+  }
+
+  /**
+   * Same as {@link #findBestSuggestions(List)}, optionally without writing to the database.
+   * @param mappingEntities List of {@link MappingEntity} to analyze
+   * @param saveOntologyTerms If false, the ontology terms referenced by the suggestions are neither
+   *                          created nor updated in the database.
+   * @return Map with the id of each mapping entity as key and its best suggestion (if any) as value
+   */
+  public Map<Integer, Optional<Suggestion>> findBestSuggestions(
+      List<MappingEntity> mappingEntities, boolean saveOntologyTerms)
+      throws MalformedMappingConfigurationException, MappingException {
+    Map<Integer, Optional<Suggestion>> bestSuggestions = new LinkedHashMap<>();
+    Map<Integer, List<Suggestion>> suggestionsByEntityId =
+        suggestionService.findSuggestions(mappingEntities, saveOntologyTerms);
+    for (MappingEntity mappingEntity : mappingEntities) {
+      List<Suggestion> suggestions =
+          suggestionsByEntityId.getOrDefault(mappingEntity.getId(), Collections.emptyList());
+      bestSuggestions.put(mappingEntity.getId(), selectBestSuggestion(suggestions));
+    }
+    return bestSuggestions;
+  }
+
+  private Optional<Suggestion> selectBestSuggestion(List<Suggestion> suggestions) {
 
     Optional<Suggestion> answer;
-    List<Suggestion> suggestions = suggestionService.findSuggestions(mappingEntity);
     List<Suggestion> processedSuggestions = filterOnlyAcceptableSuggestions(suggestions);
     processedSuggestions = sortDescByRelativeScore(processedSuggestions);
 
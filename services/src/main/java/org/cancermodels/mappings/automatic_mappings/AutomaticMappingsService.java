@@ -1,8 +1,8 @@
 package org.cancermodels.mappings.automatic_mappings;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -12,6 +12,7 @@ import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.cancer_models.entity2ontology.exceptions.MalformedMappingConfigurationException;
 import org.cancer_models.entity2ontology.exceptions.MappingException;
+import org.cancermodels.jobs.JobProgress;
 import org.cancermodels.mappings.suggestions.SimilarityConfigurationReader;
 import org.cancermodels.pdcm_admin.EntityTypeName;
 import org.cancermodels.mappings.MappingEntityService;
@@ -20,7 +21,6 @@ import org.cancermodels.pdcm_admin.persistance.Suggestion;
 import org.cancermodels.process_report.ProcessResponse;
 import org.cancermodels.pdcm_admin.types.MappingType;
 import org.cancermodels.pdcm_admin.types.Status;
-import org.cancermodels.util.Utilities;
 import org.springframework.stereotype.Service;
 
 /**
@@ -31,16 +31,19 @@ import org.springframework.stereotype.Service;
 public class AutomaticMappingsService {
 
     private final MappingEntityService mappingEntityService;
-    private final AutomaticMappingsFinder automaticMappingsFinder;
+    private final AutomaticMappingsEngine automaticMappingsEngine;
+    private final AutomaticMappingsEvaluator automaticMappingsEvaluator;
 
     private final SimilarityConfigurationReader similarityConfigurationReader;
 
     public AutomaticMappingsService(
         MappingEntityService mappingEntityService,
-        AutomaticMappingsFinder automaticMappingsFinder,
+        AutomaticMappingsEngine automaticMappingsEngine,
+        AutomaticMappingsEvaluator automaticMappingsEvaluator,
         SimilarityConfigurationReader similarityConfigurationReader) {
         this.mappingEntityService = mappingEntityService;
-        this.automaticMappingsFinder = automaticMappingsFinder;
+        this.automaticMappingsEngine = automaticMappingsEngine;
+        this.automaticMappingsEvaluator = automaticMappingsEvaluator;
         this.similarityConfigurationReader = similarityConfigurationReader;
     }
 
@@ -56,79 +59,16 @@ public class AutomaticMappingsService {
      * 3) There is not a suggestion.
      * This is another scenario to check, as it indicates that a probably successful mapping was
      * done in the past, but it cannot be replicated with the current logic.
+     * Only the number of entities in each scenario is returned. See {@link AutomaticMappingsEvaluator}
+     * to get the details of the entities.
      */
     public Map<String, Integer> evaluateAutomaticMappingsInMappedEntities()
         throws MalformedMappingConfigurationException, MappingException {
-        Map<String, Integer> report = new HashMap<>();
-        report.put("matching", 0);
-        report.put("not_matching", 0);
-        report.put("not_suggestion", 0);
-        List<List<String>> notMatchingDetails = new ArrayList<>();
-        List<List<String>> notSuggestionsDetails = new ArrayList<>();
-        List<MappingEntity> mappingEntities =
-            mappingEntityService.getAllByStatus(Status.MAPPED.getLabel());
-
-        int counter = 0;
-
-
-        // Temporal filter to make things faster
-//    mappingEntities = mappingEntities.stream().filter(x -> x.getEntityType().getName().equalsIgnoreCase(
-//        EntityTypeName.Diagnosis.getLabel())).collect(Collectors.toList());
-//    mappingEntities = mappingEntities.subList(0, Math.min(mappingEntities.size(), 500));
-
-        int total = mappingEntities.size();
-
-        for (MappingEntity mappingEntity : mappingEntities) {
-            counter++;
-            Optional<Suggestion> optionalSuggestion =
-                automaticMappingsFinder.findBestSuggestion(mappingEntity);
-
-            if (optionalSuggestion.isPresent()) {
-                Suggestion suggestion = optionalSuggestion.get();
-                if (suggestion.getSuggestedTermUrl().equalsIgnoreCase(mappingEntity.getMappedTermUrl())) {
-                    report.compute("matching", (key, val) -> (val == null) ? 1 : val + 1);
-                } else {
-                    report.compute("not_matching", (key, val) -> (val == null) ? 1 : val + 1);
-                    List<String> details = Arrays.asList(
-                        mappingEntity.getId().toString(),
-                        suggestion.getSuggestedTermLabel(),
-                        Utilities.urlToNCIt(suggestion.getSuggestedTermUrl()),
-                        mappingEntity.getMappedTermLabel(),
-                        Utilities.urlToNCIt(mappingEntity.getMappedTermUrl()),
-                        mappingEntity.getValuesAsMap().toString());
-                    notMatchingDetails.add(details);
-                }
-            } else {
-                report.compute("not_suggestion", (key, val) -> (val == null) ? 1 : val + 1);
-                List<String> details = Arrays.asList(
-                    mappingEntity.getId().toString(),
-                    mappingEntity.getMappedTermLabel(),
-                    Utilities.urlToNCIt(mappingEntity.getMappedTermUrl()),
-                    mappingEntity.getValuesAsMap().toString());
-                notSuggestionsDetails.add(details);
-            }
-            if (counter % 100 == 0 || counter < 100 || total - counter < 100) {
-                System.out.println("Processed " + counter + " from " + mappingEntities.size());
-            }
-        }
-        printReportNotMatching(notMatchingDetails);
-        printReportNotSuggestion(notSuggestionsDetails);
-        return report;
-    }
-
-    private void printReportNotMatching(List<List<String>> details) {
-        System.out.println("NOT MATCHING ELEMENTS");
-        System.out.println("Id|Suggested url|Suggested label|Current url|Current label|data");
-        for (List<String> element : details) {
-            System.out.println(String.join("|", element));
-        }
-    }
-
-    private void printReportNotSuggestion(List<List<String>> details) {
-        System.out.println("NO SUGGESTIONS FOUND");
-        System.out.println("Id|Current url|Current label|data");
-        for (List<String> element : details) {
-            System.out.println(String.join("|", element));
+        try {
+            return automaticMappingsEvaluator.evaluate(EvaluationFilter.all(), EvaluationRowWriter.NONE);
+        } catch (IOException e) {
+            // Nothing is written, so this cannot happen
+            throw new UncheckedIOException(e);
         }
     }
 
@@ -139,6 +79,17 @@ public class AutomaticMappingsService {
      * @return {@link ProcessResponse} object with the count of elements that were mapped by type
      */
     public ProcessResponse assignAutomaticMappings() throws MalformedMappingConfigurationException, MappingException {
+        return assignAutomaticMappings(JobProgress.NONE);
+    }
+
+    /**
+     * Same as {@link #assignAutomaticMappings()} but reporting the progress of the process.
+     *
+     * @param progress {@link JobProgress} to report the progress and check for cancellation
+     * @return {@link ProcessResponse} object with the count of elements that were mapped by type
+     */
+    public ProcessResponse assignAutomaticMappings(JobProgress progress)
+        throws MalformedMappingConfigurationException, MappingException {
         log.info("Init assign Automatic Mappings process");
         Map<String, String> response = new HashMap<>();
         int totalUnmappedTreatment;
@@ -164,9 +115,13 @@ public class AutomaticMappingsService {
         log.info("Unmapped diagnosis. Count: {}", unmappedEntities.size());
 
         log.info("Starts automatic assignation diagnosis");
-        totalAutomaticMappedDiagnosis = assignAutomaticMappingsByType(diagnosisEntities);
+        int total = diagnosisEntities.size() + treatmentEntities.size();
+        totalAutomaticMappedDiagnosis =
+            assignAutomaticMappingsByType(diagnosisEntities, progress.withOffset(0, total));
         log.info("Starts automatic assignation treatments");
-        totalAutomaticMappedTreatments = assignAutomaticMappingsByType(treatmentEntities);
+        totalAutomaticMappedTreatments = assignAutomaticMappingsByType(
+            treatmentEntities, progress.withOffset(diagnosisEntities.size(), total));
+        progress.checkCancelled();
 
         // Save in db
         log.info("Saving into db");
@@ -183,19 +138,28 @@ public class AutomaticMappingsService {
     }
 
     public int assignAutomaticMappingsByType(List<MappingEntity> mappingEntities) throws MalformedMappingConfigurationException, MappingException {
+        return assignAutomaticMappingsByType(mappingEntities, JobProgress.NONE);
+    }
+
+    private int assignAutomaticMappingsByType(List<MappingEntity> mappingEntities, JobProgress progress)
+        throws MalformedMappingConfigurationException, MappingException {
         int automaticDirectThreshold = similarityConfigurationReader.getAutomaticDirectThreshold();
 
+        // Suggestions are calculated in parallel but the mappings are assigned in the original order
+        List<Optional<Suggestion>> bestSuggestions = automaticMappingsEngine.findBestSuggestions(mappingEntities, progress);
+
         int automaticMappingsCount = 0;
-        for (MappingEntity unmapped : mappingEntities) {
-            Optional<Suggestion> optionalSuggestion = automaticMappingsFinder.findBestSuggestion(unmapped);
+        for (int i = 0; i < mappingEntities.size(); i++) {
+            MappingEntity unmapped = mappingEntities.get(i);
+            Optional<Suggestion> optionalSuggestion = bestSuggestions.get(i);
             // Check if a suitable suggestion was found
             if (optionalSuggestion.isPresent()) {
                 Suggestion suggestion = optionalSuggestion.get();
                 assignMapping(unmapped, suggestion, automaticDirectThreshold);
                 automaticMappingsCount++;
-                log.info("automatic mapped count: {}", automaticMappingsCount);
             }
         }
+        log.info("automatic mapped count: {}", automaticMappingsCount);
         return automaticMappingsCount;
     }
 
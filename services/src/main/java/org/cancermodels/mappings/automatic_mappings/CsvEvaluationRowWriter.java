@@ -0,0 +1,86 @@
+package org.cancermodels.mappings.automatic_mappings;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Writes the rows of an evaluation as CSV (RFC 4180), with a header. The values of the entity are a
+ * single column with {@code key: value} pairs separated by {@code ; }.
+ */
+class CsvEvaluationRowWriter implements EvaluationRowWriter {
+
+  private static final String HEADER = "outcome,id,entity_type,mapped_term_label,mapped_term_url,"
+      + "suggested_term_label,suggested_term_url,relative_score,values";
+
+  private final Writer writer;
+
+  CsvEvaluationRowWriter(OutputStream outputStream) throws IOException {
+    writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+    writer.write(HEADER);
+    writer.write("\r\n");
+  }
+
+  @Override
+  public void write(EvaluationRow row) throws IOException {
+    writeField(row.outcome());
+    writer.write(',');
+    writeField(row.id());
+    writer.write(',');
+    writeField(row.entityType());
+    writer.write(',');
+    writeField(row.mappedTermLabel());
+    writer.write(',');
+    writeField(row.mappedTermUrl());
+    writer.write(',');
+    writeField(row.suggestedTermLabel());
+    writer.write(',');
+    writeField(row.suggestedTermUrl());
+    writer.write(',');
+    writeField(row.relativeScore());
+    writer.write(',');
+    writeField(formatValues(row.values()));
+    writer.write("\r\n");
+  }
+
+  @Override
+  public void flush() throws IOException {
+    writer.flush();
+  }
+
+  @Override
+  public void finish(Map<String, Integer> counts) throws IOException {
+    // The counts are not part of the CSV, so it can be read as a plain table
+    writer.flush();
+  }
+
+  private String formatValues(Map<String, String> values) {
+    if (values == null) {
+      return null;
+    }
+    return new TreeMap<>(values).entrySet().stream()
+        .map(x -> x.getKey() + ": " + x.getValue())
+        .collect(Collectors.joining("; "));
+  }
+
+  private void writeField(Object value) throws IOException {
+    if (value == null) {
+      return;
+    }
+    String text = value.toString();
+    if (text.indexOf(',') < 0 && text.indexOf('"') < 0
+        && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+      writer.write(text);
+      return;
+    }
+    writer.write('"');
+    writer.write(text.replace("\"", "\"\""));
+    writer.write('"');
+  }
+}
@@ -0,0 +1,68 @@
+package org.cancermodels.mappings.automatic_mappings;
+
+import java.util.Arrays;
+import java.util.List;
+import org.cancermodels.pdcm_admin.EntityTypeName;
+import org.cancermodels.pdcm_admin.persistance.MappingEntity;
+import org.cancermodels.pdcm_admin.types.MappingKeyName;
+
+/**
+ * Selects the mapped entities used in an evaluation of the automatic mappings (see
+ * {@link AutomaticMappingsEvaluator}).
+ * <p>
+ * The sample is decided by the id of each entity and the seed, so the same filter selects the same
+ * entities in every run (as long as they are still mapped).
+ * </p>
+ * @param entityType Only entities of this type (Treatment or Diagnosis). Null for all of them.
+ * @param dataSource Only entities of this provider (case insensitive). Null for all of them.
+ * @param sampleRate Fraction of the entities to evaluate, greater than 0 and up to 1.
+ * @param seed Seed of the sample.
+ * @param limit Maximum number of entities to evaluate. 0 for no limit.
+ */
+public record EvaluationFilter(
+    String entityType, String dataSource, double sampleRate, long seed, int limit) {
+
+  public EvaluationFilter {
+    if (entityType != null && Arrays.stream(EntityTypeName.values())
+        .noneMatch(x -> x.getLabel().equalsIgnoreCase(entityType))) {
+      throw new IllegalArgumentException("Entity type " + entityType + " does not exist.");
+    }
+    if (!(sampleRate > 0 && sampleRate <= 1)) {
+      throw new IllegalArgumentException("The sample rate must be greater than 0 and up to 1");
+    }
+    if (limit < 0) {
+      throw new IllegalArgumentException("The limit cannot be negative");
+    }
+  }
+
+  /**
+   * Filter that selects all the mapped entities.
+   */
+  public static EvaluationFilter all() {
+    return new EvaluationFilter(null, null, 1, 0, 0);
+  }
+
+  List<String> getEntityTypeNames() {
+    return Arrays.stream(EntityTypeName.values())
+        .map(EntityTypeName::getLabel)
+        .filter(x -> entityType == null || x.equalsIgnoreCase(entityType))
+        .toList();
+  }
+
+  boolean accepts(MappingEntity mappingEntity) {
+    if (dataSource != null
+        && !dataSource.equalsIgnoreCase(mappingEntity.getValues().get(MappingKeyName.DATASOURCE))) {
+      return false;
+    }
+    return sampleRate >= 1 || sampleValue(mappingEntity.getId()) < sampleRate;
+  }
+
+  // Uniform value in [0, 1) for an id: the SplitMix64 mix of the id and the seed
+  private double sampleValue(int id) {
+    long z = (id + seed) * 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    z = z ^ (z >>> 31);
+    return (z >>> 11) * 0x1.0p-53;
+  }
+}
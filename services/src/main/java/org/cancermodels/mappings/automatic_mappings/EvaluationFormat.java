@@ -0,0 +1,38 @@
+package org.cancermodels.mappings.automatic_mappings;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import lombok.Getter;
+
+/**
+ * Formats in which the rows of an evaluation of the automatic mappings can be written.
+ */
+@Getter
+public enum EvaluationFormat {
+  CSV("text/csv", "csv"),
+  NDJSON("application/x-ndjson", "ndjson");
+
+  private final String contentType;
+  private final String extension;
+
+  EvaluationFormat(String contentType, String extension) {
+    this.contentType = contentType;
+    this.extension = extension;
+  }
+
+  public static EvaluationFormat fromName(String name) {
+    for (EvaluationFormat format : values()) {
+      if (format.name().equalsIgnoreCase(name)) {
+        return format;
+      }
+    }
+    throw new IllegalArgumentException("Format " + name + " does not exist.");
+  }
+
+  public EvaluationRowWriter createWriter(OutputStream outputStream) throws IOException {
+    return switch (this) {
+      case CSV -> new CsvEvaluationRowWriter(outputStream);
+      case NDJSON -> new NdjsonEvaluationRowWriter(outputStream);
+    };
+  }
+}
@@ -0,0 +1,31 @@
+package org.cancermodels.mappings.automatic_mappings;
+
+import java.util.Map;
+
+/**
+ * A mapped entity for which the automatic mapping process doesn't agree with the current mapping.
+ * @param outcome {@code not_matching} if the best suggestion has another term, {@code not_suggestion}
+ *                if there is no suggestion good enough.
+ * @param id Id of the mapping entity.
+ * @param entityType Treatment or Diagnosis.
+ * @param mappedTermLabel Label of the term the entity is mapped to.
+ * @param mappedTermUrl Url of the term the entity is mapped to.
+ * @param suggestedTermLabel Label of the term of the best suggestion. Null if there is none.
+ * @param suggestedTermUrl Url of the term of the best suggestion. Null if there is none.
+ * @param relativeScore Relative score of the best suggestion. Null if there is none.
+ * @param values Values of the entity, by key.
+ */
+public record EvaluationRow(
+    String outcome,
+    Integer id,
+    String entityType,
+    String mappedTermLabel,
+    String mappedTermUrl,
+    String suggestedTermLabel,
+    String suggestedTermUrl,
+    Double relativeScore,
+    Map<String, String> values) {
+
+  public static final String NOT_MATCHING = "not_matching";
+  public static final String NOT_SUGGESTION = "not_suggestion";
+}
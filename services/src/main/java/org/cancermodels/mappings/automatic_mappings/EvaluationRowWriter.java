@@ -0,0 +1,38 @@
+package org.cancermodels.mappings.automatic_mappings;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Writes the rows of an evaluation of the automatic mappings as they are found. The underlying
+ * stream is not closed. Evaluations that only need the counts receive {@link #NONE}.
+ */
+public interface EvaluationRowWriter {
+
+  EvaluationRowWriter NONE = new EvaluationRowWriter() {
+    @Override
+    public void write(EvaluationRow row) {
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void finish(Map<String, Integer> counts) {
+    }
+  };
+
+  void write(EvaluationRow row) throws IOException;
+
+  /**
+   * Sends the rows written so far, so the client gets them while the evaluation goes on.
+   */
+  void flush() throws IOException;
+
+  /**
+   * Ends the output once all the entities were evaluated.
+   * @param counts Number of entities evaluated and of each outcome.
+   */
+  void finish(Map<String, Integer> counts) throws IOException;
+}
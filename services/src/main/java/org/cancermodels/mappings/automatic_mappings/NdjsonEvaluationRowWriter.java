@@ -0,0 +1,44 @@
+package org.cancermodels.mappings.automatic_mappings;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * Writes the rows of an evaluation as newline delimited JSON: an object per row and, at the end, an
+ * object with the counts ({@code {"summary": {...}}}).
+ */
+class NdjsonEvaluationRowWriter implements EvaluationRowWriter {
+
+  // Not the mapper in JSONHelper, as it indents the output and each object must be a single line
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private final JsonGenerator generator;
+
+  NdjsonEvaluationRowWriter(OutputStream outputStream) throws IOException {
+    generator = OBJECT_MAPPER.createGenerator(outputStream);
+    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    // Each object ends with a new line instead of the default separator (a space) between them
+    generator.setRootValueSeparator(null);
+  }
+
+  @Override
+  public void write(EvaluationRow row) throws IOException {
+    generator.writeObject(row);
+    generator.writeRaw('\n');
+  }
+
+  @Override
+  public void flush() throws IOException {
+    generator.flush();
+  }
+
+  @Override
+  public void finish(Map<String, Integer> counts) throws IOException {
+    generator.writeObject(Map.of("summary", counts));
+    generator.writeRaw('\n');
+    generator.flush();
+  }
+}
@@ -0,0 +1,90 @@
+package org.cancermodels.mappings.discovery;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.codec.digest.MessageDigestAlgorithms;
+import org.cancermodels.pdcm_admin.types.ProcessReportModules;
+import org.cancermodels.process_report.ProcessReportService;
+import org.cancermodels.util.FileManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps a hash of the data files of each provider that were used the last time unmapped terms were
+ * detected, so providers whose data has not changed since then don't need to be read again.
+ * <p>
+ * Hashes are stored as {@link ProcessReportModules#DISCOVERY} process reports, with the name of the
+ * provider folder as attribute.
+ * </p>
+ */
+@Component
+public class ProviderDataHashes {
+
+  // Files read by the discovery process
+  static final List<String> FILE_KEYWORDS = List.of("metadata-patient_sample", "drug", "treatment");
+
+  private final ProcessReportService processReportService;
+
+  public ProviderDataHashes(ProcessReportService processReportService) {
+    this.processReportService = processReportService;
+  }
+
+  /**
+   * Calculates a hash over the names and content of the files of a provider that are used to detect
+   * unmapped terms.
+   * @param providerDir Folder with the data of the provider.
+   * @return Hex SHA-256 hash.
+   */
+  public String calculateHash(Path providerDir) {
+    MessageDigest digest = DigestUtils.getDigest(MessageDigestAlgorithms.SHA_256);
+    List<Path> files = FileManager.getTsvFilesWithKeyWordsRecursive(providerDir.toFile(), FILE_KEYWORDS)
+        .stream()
+        .map(File::toPath)
+        .distinct()
+        .sorted(Comparator.comparing(x -> providerDir.relativize(x).toString()))
+        .toList();
+    for (Path file : files) {
+      digest.update(providerDir.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+      try (InputStream inputStream = Files.newInputStream(file)) {
+        DigestUtils.updateDigest(digest, inputStream);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    return Hex.encodeHexString(digest.digest());
+  }
+
+  /**
+   * @return The hash stored for each provider, by provider folder name.
+   */
+  public Map<String, String> getStoredHashes() {
+    return new HashMap<>(processReportService.getLatestReportByModule(ProcessReportModules.DISCOVERY));
+  }
+
+  public void store(String provider, String hash) {
+    processReportService.register(ProcessReportModules.DISCOVERY, provider, hash);
+  }
+
+  public void remove(String provider) {
+    processReportService.deleteByAttribute(ProcessReportModules.DISCOVERY, provider);
+  }
+
+  /**
+   * Forgets all the hashes, so the next detection reads the data of all the providers again. Needed
+   * when unmapped terms are deleted by other processes.
+   */
+  public void removeAll() {
+    processReportService.deleteByModule(ProcessReportModules.DISCOVERY);
+  }
+}
@@ -0,0 +1,11 @@
+package org.cancermodels.mappings.discovery;
+
+import java.util.Map;
+
+/**
+ * Published when the detection of new unmapped terms has finished. When the detection runs in a
+ * transaction, listeners should wait for it to be committed.
+ * @param counts The counts returned by the detection process.
+ */
+public record UnmappedTermsDetectedEvent(Map<String, Integer> counts) {
+}
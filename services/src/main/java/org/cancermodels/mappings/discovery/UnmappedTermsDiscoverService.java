@@ -1,23 +1,34 @@
 package org.cancermodels.mappings.discovery;
 
+import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
+import org.cancermodels.jobs.JobFutures;
+import org.cancermodels.jobs.JobProgress;
+import org.cancermodels.pdcm_admin.CompactMappingKey;
 import org.cancermodels.pdcm_admin.EntityTypeName;
 import org.cancermodels.pdcm_admin.MappingEntityKeyBuilder;
+import org.cancermodels.mappings.MappingEntitiesChangedEvent;
 import org.cancermodels.mappings.MappingEntityCreator;
 import org.cancermodels.pdcm_admin.persistance.MappingEntity;
 import org.cancermodels.pdcm_admin.persistance.MappingEntityRepository;
+import org.cancermodels.pdcm_admin.types.MappingKeyName;
 import org.cancermodels.pdcm_admin.types.Status;
 import org.cancermodels.reader.DataReader;
+import org.cancermodels.reader.TsvColumnReader;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
-import tech.tablesaw.api.Row;
-import tech.tablesaw.api.Table;
 
 /**
  * When new data from the providers is obtained, there are potentially several new terms
@@ -31,56 +42,216 @@ public class UnmappedTermsDiscoverService {
   @Value("${data-dir}")
   private String rootDir;
 
+  private static final List<String> DIAGNOSIS_COLUMNS = List.of("diagnosis", "primary_site", "tumour_type");
+  private static final List<String> TREATMENT_COLUMNS = List.of("treatment_name");
+
   private final MappingEntityRepository mappingEntityRepository;
   private final MappingEntityCreator mappingEntityCreator;
-
-  // This is to keep the keys of the entities in the system (that are NOT unmapped).
-  // The value in the map is not likely to be used, so we will just store the id of
-  // the entity to save some space.
-  private final Map<String, Integer> existingMappingKeys = new HashMap<>();
-
-  // New mappings that need to be saved at the end of the process.
-  private Set<MappingEntity> newMappingEntities;
+  private final ProviderDataHashes providerDataHashes;
+  private final ApplicationEventPublisher eventPublisher;
+  private final int workers;
 
   public UnmappedTermsDiscoverService(
       MappingEntityRepository mappingEntityRepository,
-      MappingEntityCreator mappingEntityCreator) {
+      MappingEntityCreator mappingEntityCreator,
+      ProviderDataHashes providerDataHashes,
+      ApplicationEventPublisher eventPublisher,
+      @Value("${discovery_workers:4}") int workers) {
+    if (workers < 1) {
+      throw new IllegalArgumentException("discovery_workers must be greater than 0");
+    }
     this.mappingEntityRepository = mappingEntityRepository;
     this.mappingEntityCreator = mappingEntityCreator;
+    this.providerDataHashes = providerDataHashes;
+    this.eventPublisher = eventPublisher;
+    this.workers = workers;
   }
 
-  private void loadExistingMappingKeys() {
-    mappingEntityRepository.findAll()
-        .forEach(x -> existingMappingKeys.put(x.getMappingKey(), x.getId()));
+  /**
+   * State of a single execution of the discovery process. It is shared by the threads processing
+   * the providers, so it only uses concurrent structures.
+   */
+  private static class DiscoveryRun {
+    // Keys of the entities in the system, plus the keys of the new terms detected so far. Adding a
+    // key is what decides which thread records a new term. Keys are kept in their binary form, as
+    // there is one for each entity.
+    private final Set<CompactMappingKey> knownMappingKeys = ConcurrentHashMap.newKeySet();
+
+    // Keys of all the terms found in the providers read in this run, new or not.
+    private final Set<CompactMappingKey> foundMappingKeys = ConcurrentHashMap.newKeySet();
+
+    // New terms that need to be saved at the end of the process, by mapping key.
+    private final Map<CompactMappingKey, DiscoveredTerm> newTerms = new ConcurrentHashMap<>();
+
+    // Hash of the data of the providers that were read, by provider folder name.
+    private final Map<String, String> readProviders = new ConcurrentHashMap<>();
+
+    // Providers with files that could not be read, so their results are incomplete.
+    private final Set<String> failedProviders = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger processedProviders = new AtomicInteger();
+
+    DiscoveryRun(Collection<String> existingMappingKeys) {
+      for (String existingMappingKey : existingMappingKeys) {
+        // Keys that are not a hash can't be equal to the key of a term read from the data
+        if (CompactMappingKey.isHex(existingMappingKey)) {
+          knownMappingKeys.add(CompactMappingKey.fromHex(existingMappingKey));
+        }
+      }
+    }
+
+    void addIfNew(String key, DiscoveredTerm term) {
+      CompactMappingKey compactKey = CompactMappingKey.fromHex(key);
+      foundMappingKeys.add(compactKey);
+      // Only create the mapping if it doesn't already exist
+      if (knownMappingKeys.add(compactKey)) {
+        newTerms.put(compactKey, term);
+      }
+    }
+
+    boolean wasFound(String key) {
+      return CompactMappingKey.isHex(key) && foundMappingKeys.contains(CompactMappingKey.fromHex(key));
+    }
+  }
+
+  /**
+   * A new term found in the data of a provider. The mapping entity is created once all the
+   * providers have been processed, in the thread that saves it.
+   */
+  private sealed interface DiscoveredTerm {
+    MappingEntity create(MappingEntityCreator mappingEntityCreator);
+  }
+
+  private record DiscoveredDiagnosis(
+      String diagnosis, String primarySite, String tumorType, String dataSource) implements DiscoveredTerm {
+    @Override
+    public MappingEntity create(MappingEntityCreator mappingEntityCreator) {
+      return mappingEntityCreator.createDiagnosisMappingEntity(diagnosis, primarySite, tumorType, dataSource);
+    }
+  }
+
+  private record DiscoveredTreatment(String treatmentName, String dataSource) implements DiscoveredTerm {
+    @Override
+    public MappingEntity create(MappingEntityCreator mappingEntityCreator) {
+      return mappingEntityCreator.createTreatmentMappingEntity(treatmentName, dataSource);
+    }
   }
 
   /**
    * Reads treatment and diagnosis data and detects terms that are unmapped, creating the
    * corresponding mapping entities (unmapped) so the curator can map them later.
+   * <p>
+   * Only the providers whose data files changed since the last detection are read. For them, new
+   * terms are added and unmapped terms that are no longer in the data are deleted. Unmapped terms
+   * of providers whose folder was removed are deleted too. The rest of the unmapped terms (and
+   * their suggestions) are kept.
+   * </p>
    * @return a map with the counts of the new detected terms.
    */
   @Transactional("pdcmAdminTransactionManager")
   public Map<String, Integer> detectNewUnmappedTerms() {
-    // We need to delete Unmapped terms first, so we don't end up with orphan values.
-    mappingEntityRepository.deleteAllByStatus(Status.UNMAPPED.getLabel());
+    return detectNewUnmappedTerms(false, JobProgress.NONE);
+  }
 
-    newMappingEntities = new HashSet<>();
+  /**
+   * Same as {@link #detectNewUnmappedTerms()} but reporting the progress (number of providers
+   * processed). A cancellation rolls back the whole process.
+   * @param progress {@link JobProgress} to report the progress and check for cancellation.
+   * @return a map with the counts of the new detected terms.
+   */
+  @Transactional("pdcmAdminTransactionManager")
+  public Map<String, Integer> detectNewUnmappedTerms(JobProgress progress) {
+    return detectNewUnmappedTerms(false, progress);
+  }
+
+  /**
+   * Same as {@link #detectNewUnmappedTerms(JobProgress)}, optionally reading all the providers.
+   * @param fullScan If true, all the providers are read even if their data did not change, and
+   *                 any unmapped term not found in the data is deleted.
+   * @param progress {@link JobProgress} to report the progress and check for cancellation.
+   * @return a map with the counts of the new detected terms.
+   */
+  @Transactional("pdcmAdminTransactionManager")
+  public Map<String, Integer> detectNewUnmappedTerms(boolean fullScan, JobProgress progress) {
+    List<Path> folders = getProviderDirs();
+    Map<String, String> storedHashes = providerDataHashes.getStoredHashes();
 
     // Load the keys of the mapping entities to use it later as a way to check if a read
-    // record from tsv already exists.
-    loadExistingMappingKeys();
+    // record from tsv already exists. Only the keys are needed, so the entities are not loaded.
+    DiscoveryRun run = new DiscoveryRun(mappingEntityRepository.findAllMappingKeys());
+
+    generateMissingMappings(run, folders, fullScan ? Map.of() : storedHashes, progress);
+
+    List<MappingEntity> obsolete = findObsoleteUnmappedEntities(run, folders, storedHashes, fullScan);
+    log.info("Deleting {} unmapped terms no longer in the data", obsolete.size());
+    mappingEntityRepository.deleteAll(obsolete);
 
-    generateMissingMappings();
+    List<MappingEntity> newMappingEntities = run.newTerms.values().stream()
+        .map(x -> x.create(mappingEntityCreator))
+        .toList();
 
     log.info("Read {} new mappings", newMappingEntities.size());
 
     mappingEntityRepository.saveAll(newMappingEntities);
 
-    return getCountsByType(newMappingEntities);
+    updateStoredHashes(run, folders, storedHashes);
+
+    Map<String, Integer> counts = getCountsByType(newMappingEntities);
+    counts.put("removed", obsolete.size());
+    counts.put("providers read", run.readProviders.size());
+    List<Integer> changedIds = new ArrayList<>();
+    obsolete.forEach(x -> changedIds.add(x.getId()));
+    newMappingEntities.forEach(x -> changedIds.add(x.getId()));
+    eventPublisher.publishEvent(MappingEntitiesChangedEvent.of(changedIds));
+    eventPublisher.publishEvent(new UnmappedTermsDetectedEvent(counts));
+    return counts;
+
+  }
+
+  private List<MappingEntity> findObsoleteUnmappedEntities(
+      DiscoveryRun run, List<Path> folders, Map<String, String> storedHashes, boolean fullScan) {
+    String unmapped = Status.UNMAPPED.getLabel();
+    List<MappingEntity> candidates = new ArrayList<>();
+    if (fullScan) {
+      candidates.addAll(mappingEntityRepository.findAllByStatusIgnoreCase(unmapped));
+    } else {
+      run.readProviders.keySet().forEach(provider ->
+          candidates.addAll(mappingEntityRepository.findAllByStatusAndDataSource(unmapped, provider)));
+      getRemovedProviders(folders, storedHashes).forEach(provider ->
+          candidates.addAll(mappingEntityRepository.findAllByStatusAndDataSource(unmapped, provider)));
+    }
+
+    Set<String> failedDataSources = run.failedProviders.stream()
+        .map(String::toLowerCase).collect(Collectors.toSet());
+    return candidates.stream()
+        .filter(x -> !run.wasFound(x.getMappingKey()))
+        // Terms of a provider that could not be read completely are not deleted
+        .filter(x -> !failedDataSources.contains(getDataSource(x)))
+        .toList();
+  }
+
+  private String getDataSource(MappingEntity mappingEntity) {
+    String dataSource = mappingEntity.getValues().get(MappingKeyName.DATASOURCE);
+    return dataSource == null ? "" : dataSource.toLowerCase();
+  }
 
+  private Set<String> getRemovedProviders(List<Path> folders, Map<String, String> storedHashes) {
+    Set<String> removed = new HashSet<>(storedHashes.keySet());
+    folders.forEach(x -> removed.remove(x.getFileName().toString()));
+    return removed;
   }
 
-  private Map<String, Integer> getCountsByType(Set<MappingEntity> mappingEntities) {
+  private void updateStoredHashes(DiscoveryRun run, List<Path> folders, Map<String, String> storedHashes) {
+    run.readProviders.forEach((provider, hash) -> {
+      // Providers that failed are read again next time
+      if (!run.failedProviders.contains(provider) && !hash.equals(storedHashes.get(provider))) {
+        providerDataHashes.store(provider, hash);
+      }
+    });
+    getRemovedProviders(folders, storedHashes).forEach(providerDataHashes::remove);
+  }
+
+  private Map<String, Integer> getCountsByType(List<MappingEntity> mappingEntities) {
     Map<String, Integer> countsByType = new HashMap<>();
     countsByType.put(EntityTypeName.Diagnosis.getLabel().toLowerCase(), 0);
     countsByType.put(EntityTypeName.Treatment.getLabel().toLowerCase(), 0);
@@ -92,44 +263,66 @@ public class UnmappedTermsDiscoverService {
     return countsByType;
   }
 
-  private void generateMissingMappings() {
+  private void generateMissingMappings(
+      DiscoveryRun run, List<Path> folders, Map<String, String> storedHashes, JobProgress progress) {
 
-    List<Path> folders = getProviderDirs();
-    for (Path path : folders) {
-      generateDiagnosisEntities(path);
-      generateTreatmentEntities(path);
+    if (folders.isEmpty()) {
+      return;
+    }
+    int poolSize = Math.min(workers, folders.size());
+    log.info("Processing {} providers with {} workers", folders.size(), poolSize);
+
+    try (ExecutorService executor = Executors.newFixedThreadPool(poolSize)) {
+      List<Future<?>> futures = new ArrayList<>(folders.size());
+      for (Path path : folders) {
+        futures.add(executor.submit(() -> {
+          progress.checkCancelled();
+          String provider = path.getFileName().toString();
+          String hash = providerDataHashes.calculateHash(path);
+          if (hash.equals(storedHashes.get(provider))) {
+            log.info("Data of {} has not changed. Skipping it", provider);
+          } else {
+            run.readProviders.put(provider, hash);
+            generateDiagnosisEntities(run, path);
+            generateTreatmentEntities(run, path);
+          }
+          progress.update(run.processedProviders.incrementAndGet(), folders.size());
+        }));
+      }
+      for (Future<?> future : futures) {
+        JobFutures.await(future, futures, "Detection of new unmapped terms cancelled");
+      }
     }
   }
 
-  private void generateDiagnosisEntities(Path path) {
+  private void generateDiagnosisEntities(DiscoveryRun run, Path path) {
     log.info("\nSearching diagnosis for " + path.toString());
     String dataSource = path.getFileName().toString();
     log.info("DataSource: " + dataSource);
     var diagnosisKeywords = List.of("metadata-patient_sample");
-    Map<String, Table> metaDataTemplate = DataReader.getTableByFile(path, diagnosisKeywords);
-    readDiagnosisAttributesFromTemplate(metaDataTemplate, dataSource);
+    Map<String, File> metaDataFiles = DataReader.getFileByName(path, diagnosisKeywords);
+    readDiagnosisAttributesFromTemplate(run, metaDataFiles.get("metadata-patient_sample.tsv"), dataSource);
   }
 
-  private void generateTreatmentEntities(Path path) {
+  private void generateTreatmentEntities(DiscoveryRun run, Path path) {
     log.info("\nSearching treatments for " + path.toString());
     String dataSource = path.getFileName().toString();
     log.info("DataSource: " + dataSource);
     var treatmentKeywords = List.of("drug", "treatment");
-    Map<String, Table> drugDataTemplate = DataReader.getTableByFile(path, treatmentKeywords);
-    readTreatmentAttributesFromTemplate(drugDataTemplate, dataSource);
+    Map<String, File> drugDataFiles = DataReader.getFileByName(path, treatmentKeywords);
+    getTreatmentAttributesFromTemplate(run, drugDataFiles.get("drugdosing-Sheet1.tsv"), dataSource);
+    getTreatmentAttributesFromTemplate(run, drugDataFiles.get("patienttreatment-Sheet1.tsv"), dataSource);
   }
 
-  private void readDiagnosisAttributesFromTemplate(Map<String, Table> tables, String dataSource) {
+  private void readDiagnosisAttributesFromTemplate(DiscoveryRun run, File sampleFile, String dataSource) {
+    String lowerCaseDataSource = dataSource.toLowerCase();
     try {
-      Table sampleTable = tables.get("metadata-patient_sample.tsv");
-
-      for (Row row : sampleTable) {
+      TsvColumnReader.readColumns(sampleFile, DIAGNOSIS_COLUMNS, row -> {
 
         // Attributes are expected to be lowercase
-        String primarySiteName = row.getString("primary_site").toLowerCase();
-        String diagnosis = row.getString("diagnosis").toLowerCase();
-        String tumorTypeName = row.getString("tumour_type").toLowerCase();
-        dataSource = dataSource.toLowerCase();
+        String primarySiteName = row.get("primary_site").toLowerCase();
+        String diagnosis = row.get("diagnosis").toLowerCase();
+        String tumorTypeName = row.get("tumour_type").toLowerCase();
 
         // Convert `Not Collected`, 'Not Provided' to `Unknown` as for the mapping process both terms mean
         // there is no data.
@@ -141,40 +334,29 @@ public class UnmappedTermsDiscoverService {
         }
 
         String key = MappingEntityKeyBuilder.buildKeyDiagnosisMapping(
-            diagnosis, tumorTypeName, primarySiteName, dataSource);
+            diagnosis, tumorTypeName, primarySiteName, lowerCaseDataSource);
 
-        // Only create the mapping if it doesn't already exist
-        if (!existingMappingKeys.containsKey(key)) {
-          MappingEntity mappingEntity = mappingEntityCreator.createDiagnosisMappingEntity(
-              diagnosis, primarySiteName, tumorTypeName, dataSource);
-          newMappingEntities.add(mappingEntity);
-        }
-      }
+        run.addIfNew(key, new DiscoveredDiagnosis(diagnosis, primarySiteName, tumorTypeName, lowerCaseDataSource));
+      });
     }
     catch (Exception e) {
+      run.failedProviders.add(dataSource);
       var error_message = String.format("Exception while getting diagnosis data from provider: %s", dataSource);
       log.error(error_message);
       log.error("details: " + e.getMessage());
     }
   }
 
-  private void readTreatmentAttributesFromTemplate(Map<String, Table> tables, String abbrev){
-
-    Table drugTable = tables.get("drugdosing-Sheet1.tsv");
-    Table treatmentTable = tables.get("patienttreatment-Sheet1.tsv");
-    getTreatmentAttributesFromTemplate(drugTable, abbrev);
-    getTreatmentAttributesFromTemplate(treatmentTable, abbrev);
-  }
-
-  private void getTreatmentAttributesFromTemplate(Table table, String dataSource){
+  private void getTreatmentAttributesFromTemplate(DiscoveryRun run, File file, String dataSource){
 
+    String lowerCaseDataSource = dataSource.toLowerCase();
     try {
-      if (table == null) {
+      if (file == null) {
         return;
       }
-      for (Row row : table) {
+      TsvColumnReader.readColumns(file, TREATMENT_COLUMNS, row -> {
 
-        String treatmentName = row.getString("treatment_name");
+        String treatmentName = row.get("treatment_name");
         String[] drugArray = treatmentName.split("\\+");
 
         for(String drug : drugArray) {
@@ -186,20 +368,15 @@ public class UnmappedTermsDiscoverService {
           if (drugValue.equals("not collected") || drugValue.equals("not provided")) {
             drugValue = "unknown";
           }
-          dataSource = dataSource.toLowerCase();
 
-          String key = MappingEntityKeyBuilder.buildKeyTreatmentMapping(drugValue, dataSource);
+          String key = MappingEntityKeyBuilder.buildKeyTreatmentMapping(drugValue, lowerCaseDataSource);
 
-          // Only create the mapping if it doesn't already exist
-          if (!existingMappingKeys.containsKey(key)) {
-            MappingEntity mappingEntity =
-                mappingEntityCreator.createTreatmentMappingEntity(drugValue, dataSource);
-            newMappingEntities.add(mappingEntity);
-          }
+          run.addIfNew(key, new DiscoveredTreatment(drugValue, lowerCaseDataSource));
         }
-      }
+      });
     }
     catch (Exception e){
+      run.failedProviders.add(dataSource);
       log.error("Exception while getting treatment data from provider");
       log.error("details: " + e.getMessage());
     }
@@ -4,7 +4,7 @@ import java.util.List;
 import lombok.Data;
 
 /**
- * Class with information about the number of mapped and unmapped terms by entity type and provider
+ * Class with information about the number of terms in each status by entity type and provider
  */
 @Data
 public class MappingSummaryByTypeAndProvider {
@@ -16,6 +16,8 @@ public class MappingSummaryByTypeAndProvider {
     private String dataSource;
     private int mapped;
     private int unmapped;
+    private int review;
+    private int request;
     private int totalTerms;
     private double progress;
   }
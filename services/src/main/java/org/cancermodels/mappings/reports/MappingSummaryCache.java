@@ -0,0 +1,139 @@
+package org.cancermodels.mappings.reports;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import lombok.extern.slf4j.Slf4j;
+import org.cancermodels.mappings.MappingEntitiesChangedEvent;
+import org.cancermodels.mappings.MappingEntityService;
+import org.cancermodels.pdcm_admin.persistance.MappingEntityRepository;
+import org.cancermodels.pdcm_admin.types.Status;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Keeps in memory the number of mapping entities by entity type, data source and status, so the
+ * summary reports don't need to query the database.
+ * <p>
+ * The counters are built with a single query the first time they are needed. When a
+ * {@link MappingEntitiesChangedEvent} is published, only the entities in the event are read again
+ * and moved from their previous counter to the new one. An event for all the entities makes the
+ * counters be built again on the next read.
+ * </p>
+ */
+@Component
+@Slf4j
+public class MappingSummaryCache {
+
+  private final MappingEntityRepository mappingEntityRepository;
+
+  // Lower case entity type -> lower case data source -> status -> count. Null when not built.
+  private Map<String, Map<String, Map<String, Integer>>> counts;
+  // Counter where each entity is counted, to move it when it changes
+  private Map<Integer, SummaryKey> keysById;
+
+  private record SummaryKey(String entityType, String dataSource, String status) {
+  }
+
+  public MappingSummaryCache(MappingEntityRepository mappingEntityRepository) {
+    this.mappingEntityRepository = mappingEntityRepository;
+  }
+
+  /**
+   * Gets the counts of an entity type.
+   * @param entityTypeName Name of the entity type (case-insensitive).
+   * @return Map with the data source (lower case) as key, sorted, and the count of each status as
+   * value. Every {@link Status} is included, even if its count is 0.
+   */
+  public synchronized Map<String, Map<String, Integer>> getCountsByDataSource(String entityTypeName) {
+    if (counts == null) {
+      build();
+    }
+    Map<String, Map<String, Integer>> result = new TreeMap<>();
+    counts.getOrDefault(entityTypeName.toLowerCase(), Map.of()).forEach((dataSource, statusCounts) -> {
+      Map<String, Integer> copy = new HashMap<>();
+      for (Status status : Status.values()) {
+        copy.put(status.getLabel(), 0);
+      }
+      copy.putAll(statusCounts);
+      result.put(dataSource, copy);
+    });
+    return result;
+  }
+
+  /**
+   * Reads some entities again and updates the counters.
+   * @param ids Ids of the entities that changed.
+   */
+  public synchronized void refresh(Collection<Integer> ids) {
+    if (counts == null) {
+      // Not built yet. It will read the entities when it is built.
+      return;
+    }
+    MappingEntityService.reloadInChunks(
+        ids, mappingEntityRepository::findSummaryRowsByIdIn, row -> (Integer) row[0], (rows, notFound) -> {
+          for (Object[] row : rows) {
+            Integer id = (Integer) row[0];
+            decrement(keysById.remove(id));
+            add(id, row);
+          }
+          // Deleted, or without data source anymore
+          notFound.forEach(x -> decrement(keysById.remove(x)));
+        });
+  }
+
+  /**
+   * Discards the counters. They are built again the next time they are needed.
+   */
+  public synchronized void invalidate() {
+    counts = null;
+    keysById = null;
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onMappingEntitiesChanged(MappingEntitiesChangedEvent event) {
+    if (event.isAll()) {
+      invalidate();
+      return;
+    }
+    try {
+      refresh(event.ids());
+    } catch (RuntimeException e) {
+      log.error("Could not refresh the mapping summary. It will be built again on the next read", e);
+      invalidate();
+    }
+  }
+
+  private void build() {
+    counts = new HashMap<>();
+    keysById = new HashMap<>();
+    for (Object[] row : mappingEntityRepository.findSummaryRows()) {
+      add((Integer) row[0], row);
+    }
+    log.info("Mapping summary built with {} entities", keysById.size());
+  }
+
+  private void add(Integer id, Object[] row) {
+    SummaryKey key = new SummaryKey(
+        row[1].toString().toLowerCase(), row[2].toString().toLowerCase(), Status.normalise((String) row[3]));
+    keysById.put(id, key);
+    counts.computeIfAbsent(key.entityType(), k -> new HashMap<>())
+        .computeIfAbsent(key.dataSource(), k -> new HashMap<>())
+        .merge(key.status(), 1, Integer::sum);
+  }
+
+  private void decrement(SummaryKey key) {
+    if (key == null) {
+      return;
+    }
+    Map<String, Map<String, Integer>> byDataSource = counts.get(key.entityType());
+    Map<String, Integer> byStatus = byDataSource.get(key.dataSource());
+    if (byStatus.merge(key.status(), -1, Integer::sum) == 0) {
+      byStatus.remove(key.status());
+      if (byStatus.isEmpty()) {
+        byDataSource.remove(key.dataSource());
+      }
+    }
+  }
+}
@@ -1,57 +1,44 @@
 package org.cancermodels.mappings.reports;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.cancermodels.pdcm_admin.types.Status;
 import org.cancermodels.mappings.reports.MappingSummaryByTypeAndProvider.SummaryEntry;
-import org.cancermodels.pdcm_admin.persistance.MappingEntityRepository;
 import org.springframework.stereotype.Service;
 
 @Service
 public class ReportsService {
 
-  private final MappingEntityRepository mappingEntityRepository;
+  private final MappingSummaryCache mappingSummaryCache;
 
-  public ReportsService(
-      MappingEntityRepository mappingEntityRepository) {
-    this.mappingEntityRepository = mappingEntityRepository;
+  public ReportsService(MappingSummaryCache mappingSummaryCache) {
+    this.mappingSummaryCache = mappingSummaryCache;
   }
 
+  /**
+   * Gets the number of terms of an entity type in each status, by provider. The counts are read from
+   * the {@link MappingSummaryCache}.
+   * @param entityTypeName Name of the entity type.
+   * @return The summary, with an entry per provider.
+   */
   public MappingSummaryByTypeAndProvider getSummaryByTypeAndProvider(String entityTypeName) {
     MappingSummaryByTypeAndProvider mappingSummaryByTypeAndProvider = new MappingSummaryByTypeAndProvider();
     List<SummaryEntry> summaryEntries = new ArrayList<>();
     mappingSummaryByTypeAndProvider.setEntityTypeName(entityTypeName);
 
-    Map<String, Map<String, Integer>> data = new HashMap<>();
-
-    String mappedKey = Status.MAPPED.getLabel();
-    String unmappedKey = Status.UNMAPPED.getLabel();
-
-    List<Object[]> list = mappingEntityRepository.countEntityTypeStatusByProvider(entityTypeName);
-    for (Object[] row : list) {
-      String dataSource = row[0].toString();
-      String status  = row[1].toString();
-      int count = Integer.parseInt(row[2].toString());
-      if (!data.containsKey(dataSource)) {
-        data.put(dataSource, new HashMap<>());
-      }
-      data.get(dataSource).put(status, count);
-    }
+    Map<String, Map<String, Integer>> data = mappingSummaryCache.getCountsByDataSource(entityTypeName);
 
     for (String dataSource : data.keySet()) {
       SummaryEntry summaryEntry = new SummaryEntry();
       summaryEntry.setDataSource(dataSource);
       Map<String, Integer> countByDataSource = data.get(dataSource);
 
-      if (countByDataSource.containsKey(mappedKey)) {
-        summaryEntry.setMapped(countByDataSource.get(mappedKey));
-      }
-      if (countByDataSource.containsKey(unmappedKey)) {
-        summaryEntry.setUnmapped(countByDataSource.get(unmappedKey));
-      }
-      int totalTerms = summaryEntry.getMapped() + summaryEntry.getUnmapped();
+      summaryEntry.setMapped(countByDataSource.get(Status.MAPPED.getLabel()));
+      summaryEntry.setUnmapped(countByDataSource.get(Status.UNMAPPED.getLabel()));
+      summaryEntry.setReview(countByDataSource.get(Status.REVIEW.getLabel()));
+      summaryEntry.setRequest(countByDataSource.get(Status.REQUEST.getLabel()));
+      int totalTerms = countByDataSource.values().stream().mapToInt(Integer::intValue).sum();
       summaryEntry.setTotalTerms(totalTerms);
       summaryEntry.setProgress(summaryEntry.getMapped()*1.0 / totalTerms );
       summaryEntries.add(summaryEntry);
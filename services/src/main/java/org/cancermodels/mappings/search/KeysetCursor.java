@@ -0,0 +1,80 @@
+package org.cancermodels.mappings.search;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import org.cancermodels.pdcm_admin.persistance.MappingEntity;
+
+/**
+ * Position of the last entity of a page when paging with a {@link KeysetSort}. The next page starts
+ * right after it. Clients see it as an opaque string ({@link #encode()}).
+ * @param sort Order of the pages.
+ * @param id Id of the last entity.
+ * @param value Value of the sort column of the last entity, as a string. Can be null.
+ */
+public record KeysetCursor(KeysetSort sort, int id, String value) {
+
+  private static final String SEPARATOR = ":";
+  private static final String NULL_VALUE = "-";
+  private static final String NOT_NULL_VALUE = "+";
+
+  /**
+   * Creates the cursor that points to the given entity.
+   * @param sort Order of the pages.
+   * @param mappingEntity Last entity of the page.
+   * @return The cursor.
+   */
+  public static KeysetCursor of(KeysetSort sort, MappingEntity mappingEntity) {
+    String value = switch (sort) {
+      case MAPPING_KEY -> mappingEntity.getMappingKey();
+      case DATE_UPDATED ->
+          mappingEntity.getDateUpdated() == null ? null : mappingEntity.getDateUpdated().toString();
+    };
+    return new KeysetCursor(sort, mappingEntity.getId(), value);
+  }
+
+  /**
+   * @return The value of the sort column as a date. Only valid for {@link KeysetSort#DATE_UPDATED}.
+   */
+  public LocalDateTime dateValue() {
+    return value == null ? null : LocalDateTime.parse(value);
+  }
+
+  public String encode() {
+    String plain = sort.getName() + SEPARATOR + id + SEPARATOR
+        + (value == null ? NULL_VALUE : NOT_NULL_VALUE + value);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(plain.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Reads a cursor returned by {@link #encode()}.
+   * @param cursor The encoded cursor.
+   * @param expectedSort Order requested with the cursor. It must be the one the cursor was created
+   *                     with.
+   * @return The cursor.
+   * @throws IllegalArgumentException if the cursor is not valid.
+   */
+  public static KeysetCursor decode(String cursor, KeysetSort expectedSort) {
+    try {
+      String plain = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      String[] parts = plain.split(SEPARATOR, 3);
+      KeysetSort sort = KeysetSort.getByName(parts[0]);
+      if (sort != expectedSort) {
+        throw new IllegalArgumentException("The cursor was created for another sort: " + sort.getName());
+      }
+      int id = Integer.parseInt(parts[1]);
+      String value = parts[2].startsWith(NOT_NULL_VALUE) ? parts[2].substring(1) : null;
+      KeysetCursor keysetCursor = new KeysetCursor(sort, id, value);
+      if (sort == KeysetSort.DATE_UPDATED) {
+        keysetCursor.dateValue();
+      }
+      return keysetCursor;
+    } catch (ArrayIndexOutOfBoundsException | DateTimeParseException e) {
+      throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+    } catch (IllegalArgumentException e) {
+      // Also covers invalid Base64 and numbers
+      throw new IllegalArgumentException("Invalid cursor: " + cursor + ". " + e.getMessage(), e);
+    }
+  }
+}
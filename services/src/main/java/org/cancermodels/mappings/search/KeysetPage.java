@@ -0,0 +1,18 @@
+package org.cancermodels.mappings.search;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A page of search results obtained with a cursor.
+ * @param content Elements in the page.
+ * @param nextCursor Cursor to request the next page, or null if this is the last one.
+ * @param total Total number of elements that match the search, or null if it was not requested.
+ * @param <T> Type of the elements.
+ */
+public record KeysetPage<T>(List<T> content, String nextCursor, Long total) {
+
+  public <R> KeysetPage<R> map(Function<T, R> converter) {
+    return new KeysetPage<>(content.stream().map(converter).toList(), nextCursor, total);
+  }
+}
@@ -0,0 +1,45 @@
+package org.cancermodels.mappings.search;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Order;
+
+/**
+ * Orders that can be used to page through the search results with a cursor. Each one sorts by a
+ * column and then by id, so the position of every entity is unique and stable between pages.
+ */
+public enum KeysetSort {
+  /**
+   * By mapping key, ascending.
+   */
+  MAPPING_KEY("mappingKey", Sort.by(Order.asc("mappingKey"), Order.asc("id"))),
+  /**
+   * By update date, most recent first. Entities never updated go first, as PostgreSQL places null
+   * values first in descending order.
+   */
+  DATE_UPDATED("dateUpdated", Sort.by(Order.desc("dateUpdated"), Order.desc("id")));
+
+  private final String name;
+  private final Sort sort;
+
+  KeysetSort(String name, Sort sort) {
+    this.name = name;
+    this.sort = sort;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public Sort getSort() {
+    return sort;
+  }
+
+  public static KeysetSort getByName(String name) {
+    for (KeysetSort keysetSort : values()) {
+      if (keysetSort.getName().equalsIgnoreCase(name)) {
+        return keysetSort;
+      }
+    }
+    throw new IllegalArgumentException("Invalid sort " + name + ". Valid values: mappingKey, dateUpdated");
+  }
+}
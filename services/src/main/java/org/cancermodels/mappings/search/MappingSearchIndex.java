@@ -0,0 +1,548 @@
+package org.cancermodels.mappings.search;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.cancermodels.mappings.MappingEntitiesChangedEvent;
+import org.cancermodels.mappings.MappingEntityService;
+import org.cancermodels.pdcm_admin.persistance.MappingEntity;
+import org.cancermodels.pdcm_admin.persistance.MappingEntityRepository;
+import org.cancermodels.pdcm_admin.persistance.MappingValue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.NullHandling;
+import org.springframework.data.domain.Sort.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * In-memory inverted index of the mapping entities, used to answer searches without the
+ * {@code like} and {@code in (subquery)} conditions of {@link MappingsSpecs}, which cannot use
+ * indexes in the database.
+ * <p>
+ * Each entity gets an ordinal, and every status, mapping type, entity type and (per key) mapping
+ * value points to the set of ordinals that have it. A {@link MappingsFilter} is answered by
+ * intersecting those sets, and only the entities in the requested page are read from the database.
+ * The label filter, a {@code like} pattern, is evaluated once per distinct value instead of once per
+ * entity.
+ * </p>
+ * <p>
+ * It is used when {@code search_backend} is {@code memory}. The index is built with a single query
+ * when the application starts and refreshed when a {@link MappingEntitiesChangedEvent} is published.
+ * If it cannot be built, or the results are sorted by a text property whose order depends on the
+ * collation of the database, searches go to the database.
+ * </p>
+ */
+@Component
+@Slf4j
+public class MappingSearchIndex {
+
+  // Keys whose values are compared with the label filter, as in MappingsSpecs.withLabel
+  private static final List<String> LABEL_KEYS = List.of("samplediagnosis", "treatmentname");
+
+  // Only the orders that don't depend on the collation of the database: the mapping keys are lower
+  // case hex hashes. Text properties such as mappedTermLabel are sorted by the database.
+  private static final Map<String, Function<IndexedEntity, Comparable<?>>> SORTABLE_PROPERTIES = Map.of(
+      "id", IndexedEntity::id,
+      "mappingKey", IndexedEntity::mappingKey,
+      "dateCreated", IndexedEntity::dateCreated,
+      "dateUpdated", IndexedEntity::dateUpdated);
+
+  private final MappingEntityRepository mappingEntityRepository;
+  private final boolean enabled;
+
+  // Readers (searches) and writers (refreshes) of the current data
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private volatile IndexData data;
+
+  /**
+   * Ids of the entities in a page of results.
+   * @param ids Ids of the entities in the page, in order.
+   * @param total Number of entities that match the search.
+   */
+  public record SearchIds(List<Integer> ids, long total) {
+  }
+
+  public MappingSearchIndex(
+      MappingEntityRepository mappingEntityRepository,
+      @Value("${search_backend:database}") String searchBackend) {
+    this.mappingEntityRepository = mappingEntityRepository;
+    this.enabled = SearchBackend.getByName(searchBackend) == SearchBackend.MEMORY;
+  }
+
+  /**
+   * Finds a page of the entities that match a filter.
+   * @param filter Filters to apply.
+   * @param sort Order of the results.
+   * @param offset Number of results to skip.
+   * @param limit Maximum number of results, or a negative number for no limit.
+   * @return The ids in the page, or empty if the search must be done in the database (the index is
+   * disabled or not available, or the order is not supported).
+   */
+  public Optional<SearchIds> search(MappingsFilter filter, Sort sort, long offset, int limit) {
+    if (!supports(sort)) {
+      return Optional.empty();
+    }
+    IndexData current = getData();
+    if (current == null) {
+      return Optional.empty();
+    }
+    lock.readLock().lock();
+    try {
+      BitSet matches = current.evaluate(filter);
+      int[] ordering = current.getOrdering(sort);
+      return Optional.of(new SearchIds(current.collect(ordering, 0, matches, offset, limit), matches.cardinality()));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Finds the entities that match a filter and go after a cursor in the order of a
+   * {@link KeysetSort}.
+   * @param filter Filters to apply.
+   * @param sort Order of the results.
+   * @param cursor Position of the last entity of the previous page. Can be null (first page).
+   * @param limit Maximum number of results.
+   * @return The ids, or empty if the search must be done in the database.
+   */
+  public Optional<SearchIds> searchAfter(MappingsFilter filter, KeysetSort sort, KeysetCursor cursor, int limit) {
+    IndexData current = getData();
+    if (current == null) {
+      return Optional.empty();
+    }
+    lock.readLock().lock();
+    try {
+      BitSet matches = current.evaluate(filter);
+      int[] ordering = current.getOrdering(sort.getSort());
+      int start = cursor == null ? 0 : current.positionAfter(ordering, sort.getSort(), toProbe(cursor));
+      return Optional.of(new SearchIds(current.collect(ordering, start, matches, 0, limit), matches.cardinality()));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Reads all the entities from the database and replaces the content of the index.
+   */
+  public synchronized void rebuild() {
+    long start = System.currentTimeMillis();
+    IndexData newData = new IndexData();
+    Object currentId = null;
+    IndexedEntityBuilder builder = null;
+    for (Object[] row : mappingEntityRepository.findAllSearchRows()) {
+      if (!row[0].equals(currentId)) {
+        if (builder != null) {
+          newData.add(builder.build());
+        }
+        currentId = row[0];
+        builder = new IndexedEntityBuilder(row);
+      }
+      builder.addValue((String) row[8], (String) row[9]);
+    }
+    if (builder != null) {
+      newData.add(builder.build());
+    }
+    lock.writeLock().lock();
+    try {
+      data = newData;
+    } finally {
+      lock.writeLock().unlock();
+    }
+    log.info("Search index built with {} entities in {} ms",
+        newData.ordinalsById.size(), System.currentTimeMillis() - start);
+  }
+
+  /**
+   * Reads again some entities from the database and updates them in the index. Entities that no
+   * longer exist are removed from it.
+   * @param ids Ids of the entities.
+   */
+  public synchronized void refresh(Collection<Integer> ids) {
+    IndexData current = data;
+    if (current == null) {
+      // Not built yet. It will read the entities when it is built.
+      return;
+    }
+    MappingEntityService.reloadInChunks(
+        ids,
+        chunk -> mappingEntityRepository.findAllWithValuesByIdIn(chunk).stream()
+            .map(this::toIndexedEntity)
+            .toList(),
+        IndexedEntity::id,
+        (found, removed) -> {
+          lock.writeLock().lock();
+          try {
+            found.forEach(current::add);
+            removed.forEach(current::remove);
+          } finally {
+            lock.writeLock().unlock();
+          }
+        });
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    if (enabled) {
+      getData();
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onMappingEntitiesChanged(MappingEntitiesChangedEvent event) {
+    if (!enabled) {
+      return;
+    }
+    try {
+      if (event.isAll()) {
+        rebuild();
+      } else {
+        refresh(event.ids());
+      }
+    } catch (RuntimeException e) {
+      // Better to search in the database than to return outdated results
+      log.error("Could not refresh the search index. It will be built again on the next search", e);
+      data = null;
+    }
+  }
+
+  private IndexData getData() {
+    if (!enabled) {
+      return null;
+    }
+    IndexData current = data;
+    if (current == null) {
+      synchronized (this) {
+        if (data == null) {
+          try {
+            rebuild();
+          } catch (RuntimeException e) {
+            log.error("Could not build the search index. Searching in the database", e);
+          }
+        }
+        current = data;
+      }
+    }
+    return current;
+  }
+
+  private boolean supports(Sort sort) {
+    for (Order order : sort) {
+      if (!SORTABLE_PROPERTIES.containsKey(order.getProperty())
+          || order.isIgnoreCase()
+          || order.getNullHandling() != NullHandling.NATIVE) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private IndexedEntity toIndexedEntity(MappingEntity mappingEntity) {
+    Map<String, String> values = new HashMap<>();
+    for (MappingValue mappingValue : mappingEntity.getMappingValues()) {
+      values.put(mappingValue.getMappingKey().getKey(), mappingValue.getValue());
+    }
+    return new IndexedEntity(
+        mappingEntity.getId(),
+        mappingEntity.getMappingKey(),
+        mappingEntity.getStatus(),
+        mappingEntity.getMappingType(),
+        mappingEntity.getEntityType() == null ? null : mappingEntity.getEntityType().getName(),
+        mappingEntity.getMappedTermLabel(),
+        mappingEntity.getDateCreated(),
+        mappingEntity.getDateUpdated(),
+        values);
+  }
+
+  // An entity with only the values of the cursor, to compare it with the ones in the index
+  private IndexedEntity toProbe(KeysetCursor cursor) {
+    return switch (cursor.sort()) {
+      case MAPPING_KEY -> new IndexedEntity(
+          cursor.id(), cursor.value(), null, null, null, null, null, null, Map.of());
+      case DATE_UPDATED -> new IndexedEntity(
+          cursor.id(), null, null, null, null, null, null, cursor.dateValue(), Map.of());
+    };
+  }
+
+  /**
+   * The information of an entity needed to filter and sort it.
+   */
+  private record IndexedEntity(
+      int id,
+      String mappingKey,
+      String status,
+      String mappingType,
+      String entityType,
+      String mappedTermLabel,
+      LocalDateTime dateCreated,
+      LocalDateTime dateUpdated,
+      Map<String, String> values) {
+  }
+
+  // Groups the rows of findAllSearchRows (one per mapping value) into entities
+  private static class IndexedEntityBuilder {
+    private final Object[] row;
+    private final Map<String, String> values = new HashMap<>();
+
+    IndexedEntityBuilder(Object[] row) {
+      this.row = row;
+    }
+
+    void addValue(String key, String value) {
+      if (key != null) {
+        values.put(key, value);
+      }
+    }
+
+    IndexedEntity build() {
+      return new IndexedEntity(
+          (Integer) row[0],
+          (String) row[1],
+          (String) row[2],
+          (String) row[3],
+          (String) row[4],
+          (String) row[5],
+          (LocalDateTime) row[6],
+          (LocalDateTime) row[7],
+          values);
+    }
+  }
+
+  /**
+   * Content of the index. Must be read with the read lock and modified with the write lock.
+   */
+  private static class IndexData {
+    // Null in the ordinals of removed entities, until they are given to new ones
+    private final List<IndexedEntity> entities = new ArrayList<>();
+    private final Map<Integer, Integer> ordinalsById = new HashMap<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final BitSet live = new BitSet();
+    private final Map<String, BitSet> byStatus = new HashMap<>();
+    private final Map<String, BitSet> byMappingType = new HashMap<>();
+    private final Map<String, BitSet> byEntityType = new HashMap<>();
+    // Lower case key -> lower case value -> ordinals
+    private final Map<String, Map<String, BitSet>> byKeyValue = new HashMap<>();
+    // Ordinals of the live entities sorted by each order already requested. Computed by readers.
+    private final Map<Sort, int[]> orderings = new ConcurrentHashMap<>();
+
+    // Adds an entity, or replaces it if it is already in the index (keeping its ordinal)
+    void add(IndexedEntity indexedEntity) {
+      Integer ordinal = ordinalsById.get(indexedEntity.id());
+      if (ordinal != null) {
+        unindex(ordinal);
+        entities.set(ordinal, indexedEntity);
+      } else if (!freeOrdinals.isEmpty()) {
+        ordinal = freeOrdinals.poll();
+        entities.set(ordinal, indexedEntity);
+      } else {
+        ordinal = entities.size();
+        entities.add(indexedEntity);
+      }
+      ordinalsById.put(indexedEntity.id(), ordinal);
+      live.set(ordinal);
+      addToPostings(byStatus, indexedEntity.status(), ordinal);
+      addToPostings(byMappingType, indexedEntity.mappingType(), ordinal);
+      addToPostings(byEntityType, indexedEntity.entityType(), ordinal);
+      for (Map.Entry<String, String> value : indexedEntity.values().entrySet()) {
+        addToPostings(
+            byKeyValue.computeIfAbsent(value.getKey().toLowerCase(), k -> new HashMap<>()),
+            value.getValue(),
+            ordinal);
+      }
+      orderings.clear();
+    }
+
+    // Nothing of the entity is kept, and its ordinal is given to the next new entity, so deleted
+    // entities don't use memory or slow down the label matching
+    void remove(int id) {
+      Integer ordinal = ordinalsById.remove(id);
+      if (ordinal == null) {
+        return;
+      }
+      unindex(ordinal);
+      entities.set(ordinal, null);
+      live.clear(ordinal);
+      freeOrdinals.add(ordinal);
+      orderings.clear();
+    }
+
+    // Removes the ordinal from all the postings of the entity that has it
+    private void unindex(int ordinal) {
+      IndexedEntity indexedEntity = entities.get(ordinal);
+      removeFromPostings(byStatus, indexedEntity.status(), ordinal);
+      removeFromPostings(byMappingType, indexedEntity.mappingType(), ordinal);
+      removeFromPostings(byEntityType, indexedEntity.entityType(), ordinal);
+      for (Map.Entry<String, String> value : indexedEntity.values().entrySet()) {
+        String key = value.getKey().toLowerCase();
+        Map<String, BitSet> postings = byKeyValue.get(key);
+        removeFromPostings(postings, value.getValue(), ordinal);
+        if (postings != null && postings.isEmpty()) {
+          byKeyValue.remove(key);
+        }
+      }
+    }
+
+    BitSet evaluate(MappingsFilter filter) {
+      BitSet result = (BitSet) live.clone();
+      if (filter.getStatus() != null) {
+        result.and(union(byStatus, filter.getStatus()));
+      }
+      if (filter.getMappingTypes() != null) {
+        result.and(union(byMappingType, filter.getMappingTypes()));
+      }
+      if (filter.getEntityTypeNames() != null) {
+        result.and(union(byEntityType, filter.getEntityTypeNames()));
+      }
+      if (filter.getLabels() != null) {
+        result.and(matchLabels(filter.getLabels()));
+      }
+      for (Map.Entry<String, List<String>> query : filter.getMappingQuery().entrySet()) {
+        result.and(union(byKeyValue.getOrDefault(query.getKey().toLowerCase(), Map.of()), query.getValue()));
+      }
+      return result;
+    }
+
+    int[] getOrdering(Sort sort) {
+      return orderings.computeIfAbsent(sort, x -> live.stream()
+          .boxed()
+          .sorted(Comparator.comparing(entities::get, comparator(x)))
+          .mapToInt(Integer::intValue)
+          .toArray());
+    }
+
+    // Position of the first entity of the ordering that goes after the probe
+    int positionAfter(int[] ordering, Sort sort, IndexedEntity probe) {
+      Comparator<IndexedEntity> comparator = comparator(sort);
+      int low = 0;
+      int high = ordering.length;
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        if (comparator.compare(entities.get(ordering[middle]), probe) <= 0) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      return low;
+    }
+
+    List<Integer> collect(int[] ordering, int start, BitSet matches, long offset, int limit) {
+      List<Integer> ids = new ArrayList<>();
+      long skipped = 0;
+      for (int i = start; i < ordering.length && (limit < 0 || ids.size() < limit); i++) {
+        if (matches.get(ordering[i])) {
+          if (skipped < offset) {
+            skipped++;
+          } else {
+            ids.add(entities.get(ordering[i]).id());
+          }
+        }
+      }
+      return ids;
+    }
+
+    // The label filter is a "like" pattern, so it is compared with every distinct value
+    private BitSet matchLabels(List<String> labels) {
+      List<Pattern> patterns = labels.stream().map(IndexData::likeToPattern).toList();
+      BitSet result = new BitSet();
+      for (String key : LABEL_KEYS) {
+        for (Map.Entry<String, BitSet> value : byKeyValue.getOrDefault(key, Map.of()).entrySet()) {
+          if (patterns.stream().anyMatch(x -> x.matcher(value.getKey()).matches())) {
+            result.or(value.getValue());
+          }
+        }
+      }
+      return result;
+    }
+
+    private static BitSet union(Map<String, BitSet> postings, List<String> values) {
+      BitSet result = new BitSet();
+      for (String value : values) {
+        BitSet ordinals = postings.get(value.toLowerCase());
+        if (ordinals != null) {
+          result.or(ordinals);
+        }
+      }
+      return result;
+    }
+
+    private static void addToPostings(Map<String, BitSet> postings, String value, int ordinal) {
+      if (value != null) {
+        postings.computeIfAbsent(value.toLowerCase(), k -> new BitSet()).set(ordinal);
+      }
+    }
+
+    private static void removeFromPostings(Map<String, BitSet> postings, String value, int ordinal) {
+      if (postings != null && value != null) {
+        String lowerCaseValue = value.toLowerCase();
+        BitSet ordinals = postings.get(lowerCaseValue);
+        if (ordinals != null) {
+          ordinals.clear(ordinal);
+          // Distinct values without entities would still be compared by the label filter
+          if (ordinals.isEmpty()) {
+            postings.remove(lowerCaseValue);
+          }
+        }
+      }
+    }
+
+    // Same semantics as lower(value) like lower(pattern), without escape character
+    private static Pattern likeToPattern(String like) {
+      StringBuilder regex = new StringBuilder();
+      StringBuilder literal = new StringBuilder();
+      for (char c : like.toLowerCase().toCharArray()) {
+        if (c == '%' || c == '_') {
+          if (!literal.isEmpty()) {
+            regex.append(Pattern.quote(literal.toString()));
+            literal.setLength(0);
+          }
+          regex.append(c == '%' ? ".*" : ".");
+        } else {
+          literal.append(c);
+        }
+      }
+      if (!literal.isEmpty()) {
+        regex.append(Pattern.quote(literal.toString()));
+      }
+      return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    // Nulls go last in ascending order and first in descending order, as in PostgreSQL. Ties are
+    // broken by id so the order is stable.
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparator<IndexedEntity> comparator(Sort sort) {
+      Comparator<IndexedEntity> comparator = (a, b) -> 0;
+      boolean sortedById = false;
+      for (Order order : sort) {
+        Function<IndexedEntity, Comparable<?>> property = SORTABLE_PROPERTIES.get(order.getProperty());
+        Comparator<Comparable> values = order.isAscending()
+            ? Comparator.nullsLast(Comparator.<Comparable>naturalOrder())
+            : Comparator.nullsFirst(Comparator.<Comparable>reverseOrder());
+        comparator = comparator.thenComparing(x -> (Comparable) property.apply(x), values);
+        sortedById |= "id".equals(order.getProperty());
+      }
+      if (!sortedById) {
+        comparator = comparator.thenComparingInt(IndexedEntity::id);
+      }
+      return comparator;
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package org.cancermodels.mappings.search;
 
 
+import java.time.LocalDateTime;
 import java.util.*;
 
 import jakarta.persistence.criteria.*;
@@ -176,4 +177,59 @@ public class MappingsSpecs {
     }
     return specification;
   }
+
+  /**
+   * Creates the conditions in the WHERE to get only the entities with the given ids.
+   * @param ids Ids of the entities. Can be null (no filter).
+   * @return Specification with the predicate: MappingEntity_.id in (ids)
+   */
+  public static Specification<MappingEntity> withIds(Collection<Integer> ids) {
+    Specification<MappingEntity> specification = Specification.where(null);
+    if (ids != null) {
+      specification = (root, query, criteriaBuilder) -> ids.isEmpty()
+          ? criteriaBuilder.disjunction()
+          : root.get(MappingEntity_.id).in(ids);
+    }
+    return specification;
+  }
+
+  /**
+   * Creates the conditions in the WHERE to get only the entities that go after the position of a
+   * cursor in the order of its {@link KeysetSort}.
+   * @param cursor Position of the last entity of the previous page. Can be null (first page).
+   * @return Specification with the predicate. For example, for {@link KeysetSort#MAPPING_KEY}:
+   * mappingKey > cursor.value or (mappingKey = cursor.value and id > cursor.id)
+   */
+  public static Specification<MappingEntity> afterKeysetCursor(KeysetCursor cursor) {
+    Specification<MappingEntity> specification = Specification.where(null);
+    if (cursor != null) {
+      specification = (root, query, criteriaBuilder) -> {
+        Path<Integer> idPath = root.get(MappingEntity_.id);
+        if (cursor.sort() == KeysetSort.MAPPING_KEY) {
+          Path<String> mappingKeyPath = root.get(MappingEntity_.mappingKey);
+          return criteriaBuilder.or(
+              criteriaBuilder.greaterThan(mappingKeyPath, cursor.value()),
+              criteriaBuilder.and(
+                  criteriaBuilder.equal(mappingKeyPath, cursor.value()),
+                  criteriaBuilder.greaterThan(idPath, cursor.id())));
+        }
+        // Descending order, with null dates first
+        Path<LocalDateTime> dateUpdatedPath = root.get(MappingEntity_.dateUpdated);
+        LocalDateTime dateUpdated = cursor.dateValue();
+        if (dateUpdated == null) {
+          return criteriaBuilder.or(
+              criteriaBuilder.isNotNull(dateUpdatedPath),
+              criteriaBuilder.and(
+                  criteriaBuilder.isNull(dateUpdatedPath),
+                  criteriaBuilder.lessThan(idPath, cursor.id())));
+        }
+        return criteriaBuilder.or(
+            criteriaBuilder.lessThan(dateUpdatedPath, dateUpdated),
+            criteriaBuilder.and(
+                criteriaBuilder.equal(dateUpdatedPath, dateUpdated),
+                criteriaBuilder.lessThan(idPath, cursor.id())));
+      };
+    }
+    return specification;
+  }
 }
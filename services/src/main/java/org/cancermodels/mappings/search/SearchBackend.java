@@ -0,0 +1,42 @@
+package org.cancermodels.mappings.search;
+
+/**
+ * Ways of resolving the filters of a mappings search, selected with the {@code search_backend}
+ * property.
+ */
+public enum SearchBackend {
+  /**
+   * All the filters are JPA Specifications ({@link MappingsSpecs}) evaluated by the database.
+   */
+  DATABASE("database"),
+  /**
+   * The filters are evaluated by the {@link MappingSearchIndex} kept in memory.
+   */
+  MEMORY("memory"),
+  /**
+   * The label filter is evaluated with the PostgreSQL {@code pg_trgm} index on the mapping values
+   * ({@link TrigramLabelSearch}), which also allows fuzzy matches ranked by similarity. The rest of
+   * the filters are evaluated as in {@link #DATABASE}.
+   */
+  TRIGRAM("trigram");
+
+  private final String name;
+
+  SearchBackend(String name) {
+    this.name = name;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public static SearchBackend getByName(String name) {
+    for (SearchBackend searchBackend : values()) {
+      if (searchBackend.getName().equalsIgnoreCase(name)) {
+        return searchBackend;
+      }
+    }
+    throw new IllegalArgumentException(
+        "Invalid search_backend " + name + ". Valid values: database, memory, trigram");
+  }
+}
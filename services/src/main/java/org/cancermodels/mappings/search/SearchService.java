@@ -4,32 +4,126 @@ import java.util.*;
 
 import org.cancermodels.pdcm_admin.types.Status;
 import org.cancermodels.pdcm_admin.persistance.MappingEntity;
+import org.cancermodels.pdcm_admin.persistance.MappingEntityFacetCount;
 import org.cancermodels.pdcm_admin.persistance.MappingEntityRepository;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 
 /** Provides the logic to search Mapping Entities in the system. */
 @Service
 public class SearchService {
 
+  public static final String STATUS_FACET = "status";
+  public static final String ENTITY_TYPE_FACET = "entityType";
+  public static final String MAPPING_TYPE_FACET = "mappingType";
+  public static final String DATA_SOURCE_FACET = "dataSource";
+
   private final MappingEntityRepository mappingEntityRepository;
+  private final MappingSearchIndex mappingSearchIndex;
+  private final TrigramLabelSearch trigramLabelSearch;
 
-  public SearchService(MappingEntityRepository mappingEntityRepository) {
+  public SearchService(
+      MappingEntityRepository mappingEntityRepository,
+      MappingSearchIndex mappingSearchIndex,
+      TrigramLabelSearch trigramLabelSearch) {
     this.mappingEntityRepository = mappingEntityRepository;
+    this.mappingSearchIndex = mappingSearchIndex;
+    this.trigramLabelSearch = trigramLabelSearch;
   }
 
   /**
    * Search {@code Mapping Entities} using filters.
+   * <p>
+   * The page is read in two steps: first the ids of the entities in the page and then the entities
+   * with their type, values and keys. This keeps the number of queries fixed (ids, entities and, if
+   * needed, the total count) instead of loading the values of each entity separately. When the
+   * {@link MappingSearchIndex} is enabled, the ids and the total come from it and only the entities
+   * are read from the database. When the {@link TrigramLabelSearch} is enabled and no order is
+   * requested, the results of a label search are sorted by similarity with the label.
+   * </p>
    * @param pageable Request page information.
    * @param mappingsFilter Filters to apply in the search.
    * @return A list of {@link MappingEntity}, paginated.
    */
   public Page<MappingEntity> search(Pageable pageable, MappingsFilter mappingsFilter) {
 
+    long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+    int limit = pageable.isPaged() ? pageable.getPageSize() : -1;
+    Optional<MappingSearchIndex.SearchIds> fromIndex =
+        mappingSearchIndex.search(mappingsFilter, pageable.getSort(), offset, limit);
+    if (fromIndex.isPresent()) {
+      return new PageImpl<>(loadWithValues(fromIndex.get().ids()), pageable, fromIndex.get().total());
+    }
+
+    Optional<List<Integer>> labelMatches = trigramLabelSearch.findEntityIds(mappingsFilter.getLabels());
+    Specification<MappingEntity> specs = buildSpecifications(mappingsFilter, labelMatches);
+    if (labelMatches.isPresent() && pageable.getSort().isUnsorted()) {
+      return searchRanked(pageable, specs, labelMatches.get());
+    }
+    List<Integer> ids = pageable.isPaged()
+        ? mappingEntityRepository.findIds(specs, pageable.getSort(), pageable.getOffset(), pageable.getPageSize())
+        : mappingEntityRepository.findIds(specs, pageable.getSort(), 0, -1);
+    return PageableExecutionUtils.getPage(
+        loadWithValues(ids), pageable, () -> mappingEntityRepository.count(specs));
+  }
+
+  // The label matches are already sorted by similarity, so only the ones that pass the rest of the
+  // filters are kept, in the same order
+  private Page<MappingEntity> searchRanked(
+      Pageable pageable, Specification<MappingEntity> specs, List<Integer> rankedIds) {
+    Set<Integer> matching = new HashSet<>(mappingEntityRepository.findIds(specs, Sort.unsorted(), 0, -1));
+    List<Integer> ids = rankedIds.stream().filter(matching::contains).toList();
+    List<Integer> pageIds = pageable.isPaged()
+        ? ids.subList((int) Math.min(pageable.getOffset(), ids.size()),
+            (int) Math.min(pageable.getOffset() + pageable.getPageSize(), ids.size()))
+        : ids;
+    return new PageImpl<>(loadWithValues(pageIds), pageable, ids.size());
+  }
+
+  /**
+   * Search {@code Mapping Entities} using filters, a page at a time, with a cursor instead of an
+   * offset. Each page is read starting right after the last entity of the previous one, so every
+   * page costs the same regardless of how deep it is.
+   * @param mappingsFilter Filters to apply in the search.
+   * @param sort Order of the results.
+   * @param cursor Cursor returned with the previous page, or null to get the first page.
+   * @param size Maximum number of elements in the page.
+   * @param includeTotal Whether to count all the elements that match the filters. It needs an extra
+   *                     query.
+   * @return The page, with the cursor to get the next one.
+   */
+  public KeysetPage<MappingEntity> searchWithCursor(
+      MappingsFilter mappingsFilter, KeysetSort sort, String cursor, int size, boolean includeTotal) {
+    if (size < 1) {
+      throw new IllegalArgumentException("The size of the page must be greater than 0");
+    }
     Specification<MappingEntity> specs = buildSpecifications(mappingsFilter);
-    return mappingEntityRepository.findAll(specs, pageable);
+    KeysetCursor position = cursor == null || cursor.isBlank() ? null : KeysetCursor.decode(cursor, sort);
+
+    // One more element than needed tells whether there is a next page
+    Optional<MappingSearchIndex.SearchIds> fromIndex =
+        mappingSearchIndex.searchAfter(mappingsFilter, sort, position, size + 1);
+    List<Integer> ids = fromIndex.isPresent()
+        ? fromIndex.get().ids()
+        : mappingEntityRepository.findIds(
+            specs.and(MappingsSpecs.afterKeysetCursor(position)), sort.getSort(), 0, size + 1);
+    List<MappingEntity> mappingEntities = loadWithValues(ids);
+
+    String nextCursor = null;
+    if (mappingEntities.size() > size) {
+      mappingEntities = mappingEntities.subList(0, size);
+      nextCursor = KeysetCursor.of(sort, mappingEntities.get(size - 1)).encode();
+    }
+    Long total = null;
+    if (includeTotal) {
+      total = fromIndex.isPresent() ? fromIndex.get().total() : mappingEntityRepository.count(specs);
+    }
+    return new KeysetPage<>(mappingEntities, nextCursor, total);
   }
 
   /**
@@ -38,32 +132,97 @@ public class SearchService {
    * @return Map with the name of the status as key and the count as value.
    */
   public Map<String, Long> countStatusWithFilter(MappingsFilter filter) {
-    Map<String, Long> counts = new HashMap<>();
-    Specification<MappingEntity> specs = buildSpecifications(filter);
+    return countFacets(filter).get(STATUS_FACET);
+  }
 
+  /**
+   * Counts the elements that match the filters, grouped by status, entity type, mapping type and
+   * data source. All the counts are calculated with a single query.
+   * @param filter Filter to apply in the query.
+   * @return Map with the name of the facet ({@code status}, {@code entityType}, {@code mappingType}
+   * and {@code dataSource}) as key and, as value, a map with the count of each value of the facet.
+   * All the statuses are included, even if their count is 0.
+   */
+  public Map<String, Map<String, Long>> countFacets(MappingsFilter filter) {
+    Map<String, Long> statusCounts = new LinkedHashMap<>();
     for (Status status : Status.values()) {
-      counts.put(status.getLabel(), getCountByStatus(status.getLabel(), specs));
+      statusCounts.put(status.getLabel(), 0L);
+    }
+    Map<String, Long> entityTypeCounts = new TreeMap<>();
+    Map<String, Long> mappingTypeCounts = new TreeMap<>();
+    Map<String, Long> dataSourceCounts = new TreeMap<>();
+
+    for (MappingEntityFacetCount facetCount : mappingEntityRepository.countFacets(buildSpecifications(filter))) {
+      // The status filter is case-insensitive, so the counts of a status are added up the same way
+      statusCounts.merge(Status.normalise(facetCount.status()), facetCount.count(), Long::sum);
+      addCount(entityTypeCounts, facetCount.entityType(), facetCount.count());
+      addCount(mappingTypeCounts, facetCount.mappingType(), facetCount.count());
+      addCount(dataSourceCounts, facetCount.dataSource(), facetCount.count());
     }
-    return counts;
+
+    Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+    facets.put(STATUS_FACET, statusCounts);
+    facets.put(ENTITY_TYPE_FACET, entityTypeCounts);
+    facets.put(MAPPING_TYPE_FACET, mappingTypeCounts);
+    facets.put(DATA_SOURCE_FACET, dataSourceCounts);
+    return facets;
   }
 
-  private long getCountByStatus(String status, Specification<MappingEntity> specs) {
-    Specification<MappingEntity> specsByStatus= specs.and(MappingsSpecs.withStatus(
-        Collections.singletonList(status)));
-    return mappingEntityRepository.count(specsByStatus);
+  private void addCount(Map<String, Long> counts, String value, long count) {
+    if (value != null) {
+      counts.merge(value, count, Long::sum);
+    }
+  }
 
+  // Loads the entities with a single query and returns them in the same order as the ids
+  private List<MappingEntity> loadWithValues(List<Integer> ids) {
+    if (ids.isEmpty()) {
+      return new ArrayList<>();
+    }
+    Map<Integer, MappingEntity> entitiesById = new HashMap<>();
+    mappingEntityRepository.findAllWithValuesByIdIn(ids).forEach(x -> entitiesById.put(x.getId(), x));
+    List<MappingEntity> mappingEntities = new ArrayList<>(ids.size());
+    for (Integer id : ids) {
+      MappingEntity mappingEntity = entitiesById.get(id);
+      // It could have been deleted between the two queries
+      if (mappingEntity != null) {
+        mappingEntities.add(mappingEntity);
+      }
+    }
+    return mappingEntities;
   }
 
   public List<String> getAllTreatmentsAndDiagnosis() {
     return mappingEntityRepository.getAllTreatmentsAndDiagnosis();
   }
 
+  /**
+   * Finds the diagnosis and treatment values that contain a text or are similar to it. Needs the
+   * {@code trigram} search backend.
+   * @param text Text to search.
+   * @param limit Maximum number of values.
+   * @return The values, the most similar first.
+   */
+  public List<String> suggestLabels(String text, int limit) {
+    return trigramLabelSearch.suggestLabels(text, limit);
+  }
+
 
   private Specification<MappingEntity> buildSpecifications(MappingsFilter mappingsFilter) {
+    return buildSpecifications(
+        mappingsFilter, trigramLabelSearch.findEntityIds(mappingsFilter.getLabels()));
+  }
+
+  // The label filter is a list of ids when it was already evaluated with the trigram index
+  private Specification<MappingEntity> buildSpecifications(
+      MappingsFilter mappingsFilter, Optional<List<Integer>> labelMatches) {
+    Specification<MappingEntity> labelSpecification = labelMatches
+        .map(MappingsSpecs::withIds)
+        .orElseGet(() -> MappingsSpecs.withLabel(mappingsFilter.getLabels()));
     return Specification.where(
         MappingsSpecs.withStatus(mappingsFilter.getStatus())
             .and(MappingsSpecs.withMappingType(mappingsFilter.getMappingTypes()))
-            .and(MappingsSpecs.withLabel(mappingsFilter.getLabels()))
+            .and(labelSpecification)
             .and(MappingsSpecs.withMappingQuery(mappingsFilter.getMappingQuery())
             .and(MappingsSpecs.withEntityTypeNames(mappingsFilter.getEntityTypeNames())))
         );
@@ -0,0 +1,103 @@
+package org.cancermodels.mappings.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.cancermodels.pdcm_admin.persistance.MappingEntityRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evaluates the label filter of the searches with the PostgreSQL {@code pg_trgm} index on the
+ * mapping values, when {@code search_backend} is {@code trigram}.
+ * <p>
+ * A label matches the diagnosis or treatment values that satisfy its {@code like} pattern, as in
+ * {@link MappingsSpecs#withLabel(List)}, and also the values similar to it (the pattern without
+ * wildcards), so small typos still find results. The matching entities are ranked by the similarity
+ * of their values.
+ * </p>
+ * <p>
+ * The matches are passed to the rest of the filters as a list of ids. When a label matches more than
+ * {@code trigram_search_max_matches} entities, the label filter is evaluated as in the database
+ * backend instead, which also uses the trigram index for the {@code like} conditions.
+ * </p>
+ */
+@Component
+@Slf4j
+public class TrigramLabelSearch {
+
+  private final MappingEntityRepository mappingEntityRepository;
+  private final boolean enabled;
+  private final int maxMatches;
+
+  public TrigramLabelSearch(
+      MappingEntityRepository mappingEntityRepository,
+      @Value("${search_backend:database}") String searchBackend,
+      @Value("${trigram_search_max_matches:10000}") int maxMatches) {
+    if (maxMatches < 1) {
+      throw new IllegalArgumentException("trigram_search_max_matches must be greater than 0");
+    }
+    this.mappingEntityRepository = mappingEntityRepository;
+    this.enabled = SearchBackend.getByName(searchBackend) == SearchBackend.TRIGRAM;
+    this.maxMatches = maxMatches;
+  }
+
+  /**
+   * Finds the entities that match any of the labels.
+   * @param labels Labels of the filter ({@code like} patterns). Can be null.
+   * @return The ids of the matching entities, the most similar first, or empty if the label filter
+   * must be evaluated with {@link MappingsSpecs#withLabel(List)} (the backend is not enabled, there
+   * are no labels or there are too many matches).
+   */
+  public Optional<List<Integer>> findEntityIds(List<String> labels) {
+    if (!enabled || labels == null || labels.isEmpty()) {
+      return Optional.empty();
+    }
+    Map<Integer, Double> scores = new HashMap<>();
+    for (String label : labels) {
+      String pattern = label.toLowerCase();
+      for (Object[] row : mappingEntityRepository.findIdsByLabelSimilarity(pattern, toText(pattern))) {
+        scores.merge(((Number) row[0]).intValue(), ((Number) row[1]).doubleValue(), Math::max);
+      }
+      if (scores.size() > maxMatches) {
+        log.debug("Label {} matches more than {} entities. Using the like filter", label, maxMatches);
+        return Optional.empty();
+      }
+    }
+    List<Integer> ids = new ArrayList<>(scores.keySet());
+    ids.sort(Comparator.comparing((Integer x) -> scores.get(x)).reversed().thenComparing(x -> x));
+    return Optional.of(ids);
+  }
+
+  /**
+   * Finds the diagnosis and treatment values that contain a text or are similar to it.
+   * @param text Text to search.
+   * @param limit Maximum number of values.
+   * @return The values, the most similar first.
+   */
+  public List<String> suggestLabels(String text, int limit) {
+    if (!enabled) {
+      throw new IllegalArgumentException("Fuzzy label search needs search_backend=trigram");
+    }
+    if (limit < 1) {
+      throw new IllegalArgumentException("The limit must be greater than 0");
+    }
+    String lowerText = text.toLowerCase();
+    return mappingEntityRepository.findLabelsBySimilarity(
+        "%" + escapeLike(lowerText) + "%", toText(lowerText), limit);
+  }
+
+  // The text compared by similarity is the pattern without its wildcards
+  private String toText(String pattern) {
+    return pattern.replaceAll("[%_]+", " ").trim();
+  }
+
+  // The repository query has no escape character, and backslash is the default one in PostgreSQL
+  private String escapeLike(String text) {
+    return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+  }
+}
@@ -6,9 +6,14 @@ import org.cancermodels.pdcm_admin.persistance.*;
 import org.cancermodels.pdcm_admin.types.Source;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Component
 public class E2oSuggestionMapper {
@@ -21,31 +26,152 @@ public class E2oSuggestionMapper {
         this.ontologyTermRepository = ontologyTermRepository;
     }
 
-    Suggestion e2oSuggestionToSuggestion(org.cancer_models.entity2ontology.map.model.Suggestion e2oSuggestion) {
-        Suggestion suggestion = new Suggestion();
-        String targetEntityType = e2oSuggestion.getTargetEntity().targetType().getValue().toLowerCase();
-        String sourceType = targetEntityType.equals("rule") ? Source.RULE.getLabel() : Source.ONTOLOGY.getLabel();
-        suggestion.setSourceType(sourceType);
-        suggestion.setScore(e2oSuggestion.getRawScore());
-        suggestion.setRelativeScore(e2oSuggestion.getScore());
-        suggestion.setSuggestedTermUrl(e2oSuggestion.getTermUrl());
-        suggestion.setSuggestedTermLabel(e2oSuggestion.getTermLabel());
-
-        // If the suggestion represents a rule, we need to attach the mapping entity it represents
-        if (e2oSuggestion.getTargetEntity().targetType().getValue().equalsIgnoreCase(Source.RULE.getLabel())) {
-            String mappingEntityKey = e2oSuggestion.getTargetEntity().id();
-            Optional<MappingEntity> optSuggestedMappingEntity = mappingEntityRepository.findByMappingKey(mappingEntityKey);
-            optSuggestedMappingEntity.ifPresent(suggestion::setMappingEntity);
-        } else {
-            // We need to extract the ontology term information
-            String ontologyTermKey = e2oSuggestion.getTargetEntity().id();
-            OntologyTerm ontologyTerm;
-            Optional<OntologyTerm> optionalOntologyTerm = ontologyTermRepository.findByKey(ontologyTermKey);
-            ontologyTerm = optionalOntologyTerm.orElseGet(() -> createOntologyTerm(e2oSuggestion));
-            ontologyTermRepository.save(ontologyTerm);
-            suggestion.setOntologyTerm(ontologyTerm);
+    /**
+     * Converts a list of e2o suggestions (which can belong to several mapping entities) into
+     * {@link Suggestion} objects.
+     * <p>
+     * Instead of querying the database for each suggestion, the mapping entities of all the rule
+     * suggestions are fetched with a single query, and so are the ontology terms of all the ontology
+     * suggestions. Only the ontology terms that don't exist yet, or whose data has changed, are saved.
+     * </p>
+     * @param e2oSuggestions Suggestions calculated by Entity2Ontology
+     * @return List of {@link Suggestion}, in the same order as {@code e2oSuggestions}
+     */
+    List<Suggestion> e2oSuggestionsToSuggestions(
+        List<org.cancer_models.entity2ontology.map.model.Suggestion> e2oSuggestions) {
+        return e2oSuggestionsToSuggestions(e2oSuggestions, true);
+    }
+
+    /**
+     * Same as {@link #e2oSuggestionsToSuggestions(List)}, optionally without writing to the database.
+     * @param e2oSuggestions Suggestions calculated by Entity2Ontology
+     * @param saveOntologyTerms If false, the ontology terms that don't exist yet are not saved (the
+     *                          suggestions reference unsaved terms) and the existing ones are not
+     *                          updated.
+     * @return List of {@link Suggestion}, in the same order as {@code e2oSuggestions}
+     */
+    List<Suggestion> e2oSuggestionsToSuggestions(
+        List<org.cancer_models.entity2ontology.map.model.Suggestion> e2oSuggestions, boolean saveOntologyTerms) {
+
+        Set<String> ruleKeys = new HashSet<>();
+        List<org.cancer_models.entity2ontology.map.model.Suggestion> ontologySuggestions = new ArrayList<>();
+        for (org.cancer_models.entity2ontology.map.model.Suggestion e2oSuggestion : e2oSuggestions) {
+            if (isRule(e2oSuggestion)) {
+                ruleKeys.add(e2oSuggestion.getTargetEntity().id());
+            } else {
+                ontologySuggestions.add(e2oSuggestion);
+            }
+        }
+
+        Map<String, MappingEntity> mappingEntitiesByKey = findMappingEntitiesByKey(ruleKeys);
+        Map<String, OntologyTerm> ontologyTermsByKey = saveOntologyTerms
+            ? findOrCreateOntologyTerms(ontologySuggestions)
+            : findOntologyTerms(ontologySuggestions);
+
+        List<Suggestion> suggestions = new ArrayList<>(e2oSuggestions.size());
+        for (org.cancer_models.entity2ontology.map.model.Suggestion e2oSuggestion : e2oSuggestions) {
+            Suggestion suggestion = new Suggestion();
+            String sourceType = isRule(e2oSuggestion) ? Source.RULE.getLabel() : Source.ONTOLOGY.getLabel();
+            suggestion.setSourceType(sourceType);
+            suggestion.setScore(e2oSuggestion.getRawScore());
+            suggestion.setRelativeScore(e2oSuggestion.getScore());
+            suggestion.setSuggestedTermUrl(e2oSuggestion.getTermUrl());
+            suggestion.setSuggestedTermLabel(e2oSuggestion.getTermLabel());
+
+            String key = e2oSuggestion.getTargetEntity().id();
+            // If the suggestion represents a rule, we need to attach the mapping entity it represents
+            if (isRule(e2oSuggestion)) {
+                suggestion.setMappingEntity(mappingEntitiesByKey.get(key));
+            } else {
+                suggestion.setOntologyTerm(ontologyTermsByKey.get(key));
+            }
+            suggestions.add(suggestion);
+        }
+        return suggestions;
+    }
+
+    private boolean isRule(org.cancer_models.entity2ontology.map.model.Suggestion e2oSuggestion) {
+        return e2oSuggestion.getTargetEntity().targetType().getValue().equalsIgnoreCase(Source.RULE.getLabel());
+    }
+
+    private Map<String, MappingEntity> findMappingEntitiesByKey(Set<String> mappingKeys) {
+        Map<String, MappingEntity> mappingEntitiesByKey = new HashMap<>();
+        if (!mappingKeys.isEmpty()) {
+            mappingEntityRepository.findAllByMappingKeyIn(mappingKeys)
+                .forEach(x -> mappingEntitiesByKey.putIfAbsent(x.getMappingKey(), x));
+        }
+        return mappingEntitiesByKey;
+    }
+
+    // Existing terms as they are in the database, and new ones without saving them
+    private Map<String, OntologyTerm> findOntologyTerms(
+        List<org.cancer_models.entity2ontology.map.model.Suggestion> ontologySuggestions) {
+
+        Map<String, OntologyTerm> ontologyTermsByKey = new HashMap<>();
+        if (ontologySuggestions.isEmpty()) {
+            return ontologyTermsByKey;
+        }
+        Map<String, org.cancer_models.entity2ontology.map.model.Suggestion> suggestionsByKey = new LinkedHashMap<>();
+        ontologySuggestions.forEach(x -> suggestionsByKey.putIfAbsent(x.getTargetEntity().id(), x));
+        ontologyTermRepository.findAllByKeyIn(suggestionsByKey.keySet())
+            .forEach(x -> ontologyTermsByKey.putIfAbsent(x.getKey(), x));
+        suggestionsByKey.forEach((key, e2oSuggestion) ->
+            ontologyTermsByKey.computeIfAbsent(key, k -> createOntologyTerm(e2oSuggestion)));
+        return ontologyTermsByKey;
+    }
+
+    // Suggestions can be calculated by several threads at once. The lookup and the insertion need to
+    // happen together so the same ontology term is not stored twice.
+    private synchronized Map<String, OntologyTerm> findOrCreateOntologyTerms(
+        List<org.cancer_models.entity2ontology.map.model.Suggestion> ontologySuggestions) {
+
+        Map<String, OntologyTerm> ontologyTermsByKey = new HashMap<>();
+        if (ontologySuggestions.isEmpty()) {
+            return ontologyTermsByKey;
+        }
+
+        // Several entities can get the same term as a suggestion
+        Map<String, OntologyTerm> termsFromSuggestions = new LinkedHashMap<>();
+        for (org.cancer_models.entity2ontology.map.model.Suggestion e2oSuggestion : ontologySuggestions) {
+            termsFromSuggestions.computeIfAbsent(
+                e2oSuggestion.getTargetEntity().id(), k -> createOntologyTerm(e2oSuggestion));
+        }
+
+        ontologyTermRepository.findAllByKeyIn(termsFromSuggestions.keySet())
+            .forEach(x -> ontologyTermsByKey.putIfAbsent(x.getKey(), x));
+
+        List<OntologyTerm> toSave = new ArrayList<>();
+        termsFromSuggestions.forEach((key, termFromSuggestion) -> {
+            OntologyTerm existing = ontologyTermsByKey.get(key);
+            if (existing == null) {
+                ontologyTermsByKey.put(key, termFromSuggestion);
+                toSave.add(termFromSuggestion);
+            } else if (updateOntologyTerm(existing, termFromSuggestion)) {
+                toSave.add(existing);
+            }
+        });
+        if (!toSave.isEmpty()) {
+            // saveAll assigns the ids to the same instances, which are the ones referenced by the suggestions
+            ontologyTermRepository.saveAll(toSave);
+        }
+        return ontologyTermsByKey;
+    }
+
+    /**
+     * Copies into an existing ontology term the data from the index, if it changed.
+     * @return true if the term was modified and needs to be saved
+     */
+    private boolean updateOntologyTerm(OntologyTerm existing, OntologyTerm termFromSuggestion) {
+        if (Objects.equals(existing.getLabel(), termFromSuggestion.getLabel())
+            && Objects.equals(existing.getUrl(), termFromSuggestion.getUrl())
+            && Objects.equals(existing.getDescription(), termFromSuggestion.getDescription())) {
+            return false;
         }
-        return suggestion;
+        existing.setLabel(termFromSuggestion.getLabel());
+        existing.setUrl(termFromSuggestion.getUrl());
+        existing.setDescription(termFromSuggestion.getDescription());
+        existing.setSynonyms(termFromSuggestion.getSynonyms());
+        return true;
     }
 
     private OntologyTerm createOntologyTerm(org.cancer_models.entity2ontology.map.model.Suggestion e2oSuggestion) {
@@ -0,0 +1,160 @@
+package org.cancermodels.mappings.suggestions;
+
+import lombok.extern.slf4j.Slf4j;
+import org.cancer_models.entity2ontology.exceptions.MappingException;
+import org.cancer_models.entity2ontology.map.model.MappingConfiguration;
+import org.cancer_models.entity2ontology.map.service.MappingIO;
+import org.cancermodels.util.FileManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+
+/**
+ * Keeps in memory the Entity2Ontology {@link MappingConfiguration} used to calculate suggestions.
+ * <p>
+ * The configuration is read from the file set in {@code mapping_configuration_file} or, if that
+ * property is empty, from the {@code pdcmMappingConfiguration.json} resource. It is parsed only once
+ * and parsed again when the file changes (resources inside a jar cannot change, so they are read only
+ * once) or when {@link #reload()} is called. If the new version of the file cannot be parsed, the
+ * previous configuration is kept.
+ * </p>
+ */
+@Component
+@Slf4j
+public class MappingConfigurationRegistry {
+
+    private static final String MAPPING_CONFIG_FILE = "pdcmMappingConfiguration.json";
+
+    private final String configurationFile;
+
+    private volatile LoadedConfiguration current;
+
+    /**
+     * Information about the configuration currently in use.
+     * @param configuration The parsed configuration.
+     * @param filePath Path of the file the configuration was read from.
+     * @param watched Whether the file is checked for changes.
+     * @param lastModified Modification time of the file when it was read.
+     * @param loadedAt When the configuration was read.
+     */
+    public record LoadedConfiguration(
+        MappingConfiguration configuration,
+        String filePath,
+        boolean watched,
+        long lastModified,
+        LocalDateTime loadedAt) {
+    }
+
+    public MappingConfigurationRegistry(@Value("${mapping_configuration_file:}") String configurationFile) {
+        this.configurationFile = configurationFile;
+    }
+
+    /**
+     * @return The parsed mapping configuration.
+     * @throws MappingException if the configuration could not be read.
+     */
+    public MappingConfiguration getConfiguration() throws MappingException {
+        return getLoadedConfiguration().configuration();
+    }
+
+    /**
+     * @return The path of a file with the mapping configuration, for the Entity2Ontology calls that
+     * need a file instead of the parsed configuration.
+     * @throws MappingException if the configuration could not be read.
+     */
+    public String getConfigurationFilePath() throws MappingException {
+        return getLoadedConfiguration().filePath();
+    }
+
+    /**
+     * Reads the configuration again, even if the file has not changed.
+     * @return Information about the new configuration.
+     * @throws MappingException if the configuration could not be read. The previous configuration is
+     * kept in that case.
+     */
+    public synchronized LoadedConfiguration reload() throws MappingException {
+        current = load();
+        log.info("Mapping configuration reloaded from {}", current.filePath());
+        return current;
+    }
+
+    private LoadedConfiguration getLoadedConfiguration() throws MappingException {
+        LoadedConfiguration loaded = current;
+        if (loaded == null || hasChanged(loaded)) {
+            synchronized (this) {
+                loaded = current;
+                if (loaded == null) {
+                    loaded = load();
+                    current = loaded;
+                } else if (hasChanged(loaded)) {
+                    loaded = loadKeepingPreviousOnError(loaded);
+                    current = loaded;
+                }
+            }
+        }
+        return loaded;
+    }
+
+    private LoadedConfiguration loadKeepingPreviousOnError(LoadedConfiguration previous) {
+        try {
+            LoadedConfiguration loaded = load();
+            log.info("Mapping configuration file {} changed. Configuration reloaded", loaded.filePath());
+            return loaded;
+        } catch (MappingException e) {
+            log.error("Could not reload the mapping configuration. The previous one is kept", e);
+            // Don't try again until the file changes again
+            return new LoadedConfiguration(previous.configuration(), previous.filePath(), true,
+                lastModified(Paths.get(previous.filePath())), previous.loadedAt());
+        }
+    }
+
+    private boolean hasChanged(LoadedConfiguration loaded) {
+        return loaded.watched() && lastModified(Paths.get(loaded.filePath())) != loaded.lastModified();
+    }
+
+    private LoadedConfiguration load() throws MappingException {
+        try {
+            Path watchedFile = getWatchableFile();
+            String filePath = watchedFile != null
+                ? watchedFile.toString()
+                : FileManager.getSharedTmpPathForResource(MAPPING_CONFIG_FILE);
+            long lastModified = watchedFile != null ? lastModified(watchedFile) : 0;
+            MappingConfiguration configuration = MappingIO.readMappingConfiguration(filePath);
+            return new LoadedConfiguration(
+                configuration, filePath, watchedFile != null, lastModified, LocalDateTime.now());
+        } catch (IOException | RuntimeException e) {
+            throw new MappingException("Could not read the mapping configuration", e);
+        }
+    }
+
+    // The configured file or, when running from an exploded classpath, the resource file itself
+    private Path getWatchableFile() {
+        if (configurationFile != null && !configurationFile.isBlank()) {
+            return Paths.get(configurationFile).toAbsolutePath();
+        }
+        URL resource = getClass().getClassLoader().getResource(MAPPING_CONFIG_FILE);
+        if (resource != null && "file".equals(resource.getProtocol())) {
+            try {
+                return Paths.get(resource.toURI());
+            } catch (URISyntaxException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+}
@@ -1,22 +1,17 @@
 package org.cancermodels.mappings.suggestions;
 
-import org.apache.commons.io.FileUtils;
 import org.cancer_models.entity2ontology.exceptions.MappingException;
 import org.cancer_models.entity2ontology.map.model.MappingConfiguration;
 import org.cancer_models.entity2ontology.map.model.SourceEntity;
-import org.cancer_models.entity2ontology.map.service.MappingIO;
 import org.cancer_models.entity2ontology.map.service.SuggestionsFinder;
 import org.cancermodels.pdcm_admin.persistance.Suggestion;
-import org.cancermodels.util.FileManager;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Service class that acts as a bridge to the search functionality in Entity2Ontology.
@@ -30,18 +25,20 @@ public class OntologySuggestionsService {
     @Value("${lucene_index_dir}")
     private String luceneIndexDir;
 
-    private static final String MAPPING_CONFIG_FILE = "pdcmMappingConfiguration.json";
-
     private final E2oSuggestionMapper e2oSuggestionMapper;
 
     private final SuggestionsFinder suggestionsFinder;
 
+    private final MappingConfigurationRegistry mappingConfigurationRegistry;
+
 
     public OntologySuggestionsService(
         E2oSuggestionMapper e2oSuggestionMapper,
-        @Qualifier("ontologySuggestionsFinder") SuggestionsFinder suggestionsFinder) {
+        @Qualifier("ontologySuggestionsFinder") SuggestionsFinder suggestionsFinder,
+        MappingConfigurationRegistry mappingConfigurationRegistry) {
         this.e2oSuggestionMapper = e2oSuggestionMapper;
         this.suggestionsFinder = suggestionsFinder;
+        this.mappingConfigurationRegistry = mappingConfigurationRegistry;
     }
 
     /**
@@ -51,17 +48,14 @@ public class OntologySuggestionsService {
      * @throws MappingException if there is an error when mapping the entity
      */
     public List<Suggestion> findOntologySuggestions(String input, String entityType)
-        throws MappingException, IOException {
+        throws MappingException {
         SourceEntity sourceEntity = createSourceEntity(input, entityType);
-        // This assures we have the correct path even in environments like kubernetes
-        String mappingConfFilePath = FileManager.getTmpPathForResource(MAPPING_CONFIG_FILE);
-        MappingConfiguration mappingConfiguration = MappingIO.readMappingConfiguration(mappingConfFilePath);
+        MappingConfiguration mappingConfiguration = mappingConfigurationRegistry.getConfiguration();
 
         List<org.cancer_models.entity2ontology.map.model.Suggestion> e2oSuggestions
             = suggestionsFinder.findSuggestions(sourceEntity, luceneIndexDir, 50, mappingConfiguration);
 
-        return e2oSuggestions.stream()
-            .map(e2oSuggestionMapper::e2oSuggestionToSuggestion).collect(Collectors.toList());
+        return e2oSuggestionMapper.e2oSuggestionsToSuggestions(e2oSuggestions);
     }
 
     private SourceEntity createSourceEntity(String input, String entityType) {
@@ -3,19 +3,20 @@ package org.cancermodels.mappings.suggestions;
 import lombok.extern.slf4j.Slf4j;
 import org.cancer_models.entity2ontology.exceptions.MalformedMappingConfigurationException;
 import org.cancer_models.entity2ontology.exceptions.MappingException;
-import org.cancer_models.entity2ontology.map.model.MappingRequest;
-import org.cancer_models.entity2ontology.map.model.MappingResponse;
-import org.cancer_models.entity2ontology.map.model.MappingResponseEntry;
+import org.cancer_models.entity2ontology.map.model.MappingConfiguration;
 import org.cancer_models.entity2ontology.map.model.SourceEntity;
-import org.cancer_models.entity2ontology.map.service.MappingRequestService;
+import org.cancer_models.entity2ontology.map.service.MappingService;
+import org.cancermodels.mappings.IndexGenerationService;
 import org.cancermodels.pdcm_admin.persistance.*;
-import org.cancermodels.util.FileManager;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -34,21 +35,25 @@ public class SuggestionService {
     @Value("${number_of_suggested_mappings}")
     private String numberOfSuggestedMappings;
 
-    private static final String MAPPING_CONFIG_FILE = "pdcmMappingConfiguration.json";
-
-    private final MappingRequestService mappingRequestService;
+    private final MappingService mappingService;
+    private final MappingConfigurationRegistry mappingConfigurationRegistry;
     private final MappingEntityRepository mappingEntityRepository;
     private final E2oSuggestionMapper e2oSuggestionMapper;
+    private final IndexGenerationService indexGenerationService;
 
     public SuggestionService(
-        MappingRequestService mappingRequestService,
+        MappingService mappingService,
+        MappingConfigurationRegistry mappingConfigurationRegistry,
         MappingEntityRepository mappingEntityRepository,
         SuggestionRepository suggestionRepository,
-        E2oSuggestionMapper e2oSuggestionMapper) {
-        this.mappingRequestService = mappingRequestService;
+        E2oSuggestionMapper e2oSuggestionMapper,
+        IndexGenerationService indexGenerationService) {
+        this.mappingService = mappingService;
+        this.mappingConfigurationRegistry = mappingConfigurationRegistry;
         this.mappingEntityRepository = mappingEntityRepository;
         this.suggestionRepository = suggestionRepository;
         this.e2oSuggestionMapper = e2oSuggestionMapper;
+        this.indexGenerationService = indexGenerationService;
     }
 
     /**
@@ -60,59 +65,89 @@ public class SuggestionService {
      */
     public List<Suggestion> findSuggestions(MappingEntity mappingEntity)
         throws MalformedMappingConfigurationException, MappingException {
-
-        // This assures we have the correct path even in environments like kubernetes
-        String mappingConfFilePath = null;
-        try {
-            mappingConfFilePath = FileManager.getTmpPathForResource(MAPPING_CONFIG_FILE);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-
-        MappingRequest mappingRequest = new MappingRequest(
-            Integer.parseInt(numberOfSuggestedMappings),
-            luceneIndexDir,
-            mappingConfFilePath,
-            List.of(mappingEntityToSourceEntity(mappingEntity))
-        );
-        MappingResponse response = mappingRequestService.processMappingRequest(mappingRequest);
-
-        return extractSuggestionsFromResponse(mappingEntity, response);
+        return findSuggestions(List.of(mappingEntity)).get(mappingEntity.getId());
     }
 
     /**
-     * Extracts a list of suggestions from a mapping response.
+     * Finds the suggestions for several mapping entities.
      * <p>
-     * The mapping response should contain a list of {@code MappingResponseEntry} with one and only one
-     * element, which corresponds to the entity as a key, and the list of suggestions as a value.
+     * All the entities are mapped with the same (in memory) mapping configuration. As Entity2Ontology
+     * does when processing a mapping request, an entity that fails to be mapped is logged and gets an
+     * empty list of suggestions instead of stopping the whole process.
      * </p>
-     * @param mappingEntity The {@code MappingEntity} for which the suggestions were calculated.
-     * @param mappingResponse The {@code MappingResponse} with the response to process.
-     * @return A list of suggestions
+     * @param mappingEntities Mapping entities for which the suggestions will be calculated
+     * @return Map with the id of each mapping entity as key and its list of {@link Suggestion} as value,
+     * in the same order as {@code mappingEntities}
+     * @throws MalformedMappingConfigurationException if there is an error in the mapping configuration file
+     * @throws MappingException if the mapping configuration cannot be read
+     */
+    public Map<Integer, List<Suggestion>> findSuggestions(List<MappingEntity> mappingEntities)
+        throws MalformedMappingConfigurationException, MappingException {
+        return findSuggestions(mappingEntities, true);
+    }
+
+    /**
+     * Same as {@link #findSuggestions(List)}, optionally without writing to the database.
+     * @param mappingEntities Mapping entities for which the suggestions will be calculated
+     * @param saveOntologyTerms If false, the ontology terms referenced by the suggestions are neither
+     *                          created nor updated in the database.
+     * @return Map with the id of each mapping entity as key and its list of {@link Suggestion} as value,
+     * in the same order as {@code mappingEntities}
+     * @throws MalformedMappingConfigurationException if there is an error in the mapping configuration file
+     * @throws MappingException if the mapping configuration cannot be read
      */
-    private List<Suggestion> extractSuggestionsFromResponse(MappingEntity mappingEntity, MappingResponse mappingResponse)
-    {
-        List<MappingResponseEntry> responseEntries = mappingResponse.getMappingsResults();
-
-        if (responseEntries.size() != 1) {
-            log.error("Error when extracting suggestions from e2o call. " +
-                "There should be exactly one suggestion in the response");
-            log.error("Mapping entity: {}", mappingEntity);
-            // Returning empty to avoid stopping all the process because of an atypical case
-            return new ArrayList<>();
+    public Map<Integer, List<Suggestion>> findSuggestions(
+        List<MappingEntity> mappingEntities, boolean saveOntologyTerms)
+        throws MalformedMappingConfigurationException, MappingException {
+
+        Map<Integer, List<Suggestion>> suggestionsByEntityId = new LinkedHashMap<>();
+        if (mappingEntities.isEmpty()) {
+            return suggestionsByEntityId;
         }
 
-        return responseEntries.getFirst().getSuggestions().stream()
+        MappingConfiguration mappingConfiguration = mappingConfigurationRegistry.getConfiguration();
+        int maxSuggestions = Integer.parseInt(numberOfSuggestedMappings);
+
+        // The e2o suggestions of all the entities are converted together so the ontology terms and
+        // rules they reference are resolved with a few queries instead of a few per suggestion
+        List<org.cancer_models.entity2ontology.map.model.Suggestion> allE2oSuggestions = new ArrayList<>();
+        List<Integer> suggestionsPerEntity = new ArrayList<>(mappingEntities.size());
+        for (MappingEntity mappingEntity : mappingEntities) {
+            List<org.cancer_models.entity2ontology.map.model.Suggestion> e2oSuggestions = new ArrayList<>();
+            try {
+                e2oSuggestions = excludeOwnRule(mappingEntity, mappingService.mapEntity(
+                    mappingEntityToSourceEntity(mappingEntity), luceneIndexDir, maxSuggestions, mappingConfiguration));
+            } catch (MappingException e) {
+                log.error("Mapping error in entity {}: {}", mappingEntity.getId(), e.getMessage());
+            }
+            allE2oSuggestions.addAll(e2oSuggestions);
+            suggestionsPerEntity.add(e2oSuggestions.size());
+        }
+
+        List<Suggestion> allSuggestions = e2oSuggestionMapper.e2oSuggestionsToSuggestions(allE2oSuggestions, saveOntologyTerms);
+        int from = 0;
+        for (int i = 0; i < mappingEntities.size(); i++) {
+            int to = from + suggestionsPerEntity.get(i);
+            suggestionsByEntityId.put(mappingEntities.get(i).getId(), new ArrayList<>(allSuggestions.subList(from, to)));
+            from = to;
+        }
+        return suggestionsByEntityId;
+    }
+
+    // A rule never suggests itself, so the entry for the entity's own rule is discarded
+    private List<org.cancer_models.entity2ontology.map.model.Suggestion> excludeOwnRule(
+        MappingEntity mappingEntity, List<org.cancer_models.entity2ontology.map.model.Suggestion> e2oSuggestions) {
+        return e2oSuggestions.stream()
             .filter(x -> !x.getTargetEntity().id().equals(mappingEntity.getMappingKey()))
-            .map(e2oSuggestionMapper::e2oSuggestionToSuggestion).collect(Collectors.toList());
+            .collect(Collectors.toList());
     }
 
     /**
      * Retrieves a list of mapping suggestions for a given mapping entity.
      * <p>
-     * If the mapping entity already has precomputed suggestions, they are returned directly.
-     * Otherwise, the suggestion calculation process is triggered to generate new suggestions,
-     * which are then returned. The results are sorted in descending order based on their
+     * If the mapping entity already has precomputed suggestions calculated with the current index,
+     * they are returned directly. Otherwise, the suggestion calculation process is triggered to
+     * generate new suggestions, which are then returned. The results are sorted in descending order based on their
      * relative score.
      * </p>
      *
@@ -124,7 +159,7 @@ public class SuggestionService {
     public List<Suggestion> retrieveOrComputeMappingSuggestions(MappingEntity mappingEntity)
         throws MalformedMappingConfigurationException, MappingException {
         List<Suggestion> suggestions = mappingEntity.getSuggestions();
-        if (suggestions.isEmpty()) {
+        if (needsSuggestions(mappingEntity, indexGenerationService.getCurrentGeneration().orElse(null))) {
             suggestions = regenerateSuggestions(mappingEntity);
         }
         return suggestions;
@@ -142,8 +177,43 @@ public class SuggestionService {
      */
     public List<Suggestion> regenerateSuggestions(MappingEntity mappingEntity)
         throws MalformedMappingConfigurationException, MappingException {
+        // Read before calculating, so suggestions calculated while a new index is being built are
+        // stamped with the old generation and recalculated later
+        String generation = indexGenerationService.getCurrentGeneration().orElse(null);
         deleteSuggestions(mappingEntity);
-        return findAndStoreNewSuggestions(mappingEntity);
+        return findAndStoreNewSuggestions(mappingEntity, generation);
+    }
+
+    /**
+     * Stores suggestions calculated in advance for several mapping entities, replacing their outdated
+     * suggestions. Entities that got up-to-date suggestions in the meantime (for instance because a
+     * curator opened them) are left untouched.
+     * @param suggestionsByEntityId Suggestions to store, by mapping entity id
+     * @param generation Generation of the index used to calculate the suggestions. Can be null.
+     * @return Number of suggestions stored
+     */
+    @Transactional("pdcmAdminTransactionManager")
+    public int storeSuggestions(Map<Integer, List<Suggestion>> suggestionsByEntityId, String generation) {
+        List<Suggestion> toSave = new ArrayList<>();
+        for (MappingEntity mappingEntity : mappingEntityRepository.findAllById(suggestionsByEntityId.keySet())) {
+            if (needsSuggestions(mappingEntity, generation)) {
+                List<Suggestion> suggestions = suggestionsByEntityId.get(mappingEntity.getId());
+                mappingEntity.getSuggestions().clear();
+                mappingEntity.getSuggestions().addAll(suggestions);
+                mappingEntity.setSuggestionsIndexGeneration(generation);
+                toSave.addAll(suggestions);
+            }
+        }
+        suggestionRepository.saveAll(toSave);
+        return toSave.size();
+    }
+
+    // Without a known generation, only entities that never got suggestions need them
+    private boolean needsSuggestions(MappingEntity mappingEntity, String generation) {
+        if (generation == null) {
+            return mappingEntity.getSuggestions().isEmpty();
+        }
+        return !generation.equals(mappingEntity.getSuggestionsIndexGeneration());
     }
 
     private void deleteSuggestions(MappingEntity mappingEntity) {
@@ -151,11 +221,13 @@ public class SuggestionService {
         mappingEntityRepository.save(mappingEntity);
     }
 
-    private List<Suggestion> findAndStoreNewSuggestions(MappingEntity mappingEntity)
+    private List<Suggestion> findAndStoreNewSuggestions(MappingEntity mappingEntity, String generation)
         throws MalformedMappingConfigurationException, MappingException {
         List<Suggestion> suggestions = findSuggestions(mappingEntity);
         mappingEntity.getSuggestions().addAll(suggestions);
+        mappingEntity.setSuggestionsIndexGeneration(generation);
         suggestionRepository.saveAll(suggestions);
+        mappingEntityRepository.save(mappingEntity);
         return suggestions;
     }
 
@@ -163,7 +235,8 @@ public class SuggestionService {
         SourceEntity sourceEntity = new SourceEntity();
         sourceEntity.setId(mappingEntity.getId().toString());
         sourceEntity.setType(mappingEntity.getEntityType().getName());
-        sourceEntity.setData(mappingEntity.getValuesAsMap());
+        // A copy, as the mapper cleans the data of the source entity in place
+        sourceEntity.setData(new HashMap<>(mappingEntity.getValues().asMap()));
         return sourceEntity;
     }
 
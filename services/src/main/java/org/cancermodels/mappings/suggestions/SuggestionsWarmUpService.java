@@ -0,0 +1,128 @@
+package org.cancermodels.mappings.suggestions;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import lombok.extern.slf4j.Slf4j;
+import org.cancer_models.entity2ontology.exceptions.MalformedMappingConfigurationException;
+import org.cancer_models.entity2ontology.exceptions.MappingException;
+import org.cancermodels.jobs.JobFutures;
+import org.cancermodels.jobs.JobProgress;
+import org.cancermodels.mappings.IndexGenerationService;
+import org.cancermodels.pdcm_admin.persistance.MappingEntity;
+import org.cancermodels.pdcm_admin.persistance.MappingEntityRepository;
+import org.cancermodels.pdcm_admin.persistance.Suggestion;
+import org.cancermodels.pdcm_admin.types.Status;
+import org.cancermodels.process_report.ProcessResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Calculates and stores in advance the suggestions of the entities a curator is likely to open
+ * (the ones in status Unmapped or Review), so
+ * {@link SuggestionService#retrieveOrComputeMappingSuggestions(MappingEntity)} only needs to read
+ * them.
+ * <p>
+ * Entities without suggestions, or with suggestions calculated with a previous generation of the
+ * index, are processed in chunks of {@code suggestions_warm_up_chunk_size}
+ * by a pool of {@code suggestions_warm_up_workers} threads. Each chunk is stored in its own
+ * transaction, so the work done is kept if the process is cancelled.
+ * </p>
+ */
+@Service
+@Slf4j
+public class SuggestionsWarmUpService {
+
+  private static final List<String> STATUSES = List.of(Status.UNMAPPED.getLabel(), Status.REVIEW.getLabel());
+
+  private final MappingEntityRepository mappingEntityRepository;
+  private final SuggestionService suggestionService;
+  private final IndexGenerationService indexGenerationService;
+  private final int chunkSize;
+  private final int workers;
+
+  public SuggestionsWarmUpService(
+      MappingEntityRepository mappingEntityRepository,
+      SuggestionService suggestionService,
+      IndexGenerationService indexGenerationService,
+      @Value("${suggestions_warm_up_chunk_size:100}") int chunkSize,
+      @Value("${suggestions_warm_up_workers:4}") int workers) {
+    if (chunkSize < 1 || workers < 1) {
+      throw new IllegalArgumentException(
+          "suggestions_warm_up_chunk_size and suggestions_warm_up_workers must be greater than 0");
+    }
+    this.mappingEntityRepository = mappingEntityRepository;
+    this.suggestionService = suggestionService;
+    this.indexGenerationService = indexGenerationService;
+    this.chunkSize = chunkSize;
+    this.workers = workers;
+  }
+
+  /**
+   * Calculates and stores the suggestions of all the Unmapped and Review entities that don't have
+   * suggestions yet or whose suggestions are outdated.
+   * @param progress {@link JobProgress} to report the number of entities processed and check for
+   *                 cancellation.
+   * @return a {@link ProcessResponse} with the number of entities processed and the throughput.
+   */
+  public ProcessResponse warmUp(JobProgress progress)
+      throws MalformedMappingConfigurationException, MappingException {
+    long start = System.currentTimeMillis();
+    String generation = indexGenerationService.getCurrentGeneration().orElse(null);
+    List<Integer> ids = generation == null
+        ? mappingEntityRepository.findIdsWithoutSuggestions(STATUSES)
+        : mappingEntityRepository.findIdsWithOutdatedSuggestions(STATUSES, generation);
+    List<List<Integer>> chunks = new ArrayList<>();
+    for (int i = 0; i < ids.size(); i += chunkSize) {
+      chunks.add(ids.subList(i, Math.min(i + chunkSize, ids.size())));
+    }
+    log.info("Calculating suggestions for {} entities in {} chunks", ids.size(), chunks.size());
+
+    int storedSuggestions = 0;
+    if (!chunks.isEmpty()) {
+      try (ExecutorService executor = Executors.newFixedThreadPool(Math.min(workers, chunks.size()))) {
+        List<Future<Integer>> futures = new ArrayList<>(chunks.size());
+        for (List<Integer> chunk : chunks) {
+          futures.add(executor.submit(() -> {
+            progress.checkCancelled();
+            return processChunk(chunk, generation);
+          }));
+        }
+
+        int processed = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+          storedSuggestions += JobFutures.await(
+              futures.get(i), futures, "Calculation of suggestions cancelled",
+              MalformedMappingConfigurationException.class, MappingException.class);
+          processed += chunks.get(i).size();
+          progress.update(processed, ids.size());
+          log.info("Suggestions calculated for {} from {} entities ({} entities/s)",
+              processed, ids.size(), String.format("%.1f", perSecond(processed, start)));
+        }
+      }
+    }
+
+    Map<String, String> response = new LinkedHashMap<>();
+    response.put("Entities processed", String.valueOf(ids.size()));
+    response.put("Suggestions stored", String.valueOf(storedSuggestions));
+    response.put("Seconds", String.valueOf((System.currentTimeMillis() - start) / 1000));
+    response.put("Entities per second", String.format("%.1f", perSecond(ids.size(), start)));
+    return new ProcessResponse(response);
+  }
+
+  // The suggestions are calculated outside a transaction. Only storing them is transactional.
+  private int processChunk(List<Integer> ids, String generation) throws MalformedMappingConfigurationException, MappingException {
+    List<MappingEntity> mappingEntities = mappingEntityRepository.findAllById(ids);
+    Map<Integer, List<Suggestion>> suggestions = suggestionService.findSuggestions(mappingEntities);
+    return suggestionService.storeSuggestions(suggestions, generation);
+  }
+
+  private double perSecond(int count, long start) {
+    long elapsed = Math.max(System.currentTimeMillis() - start, 1);
+    return count * 1000.0 / elapsed;
+  }
+}
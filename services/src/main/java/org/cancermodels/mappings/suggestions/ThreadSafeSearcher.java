@@ -0,0 +1,117 @@
+package org.cancermodels.mappings.suggestions;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.FSDirectory;
+import org.cancer_models.entity2ontology.index.service.AnalyzerProvider;
+import org.cancer_models.entity2ontology.map.service.Searcher;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Replacement for the Entity2Ontology {@link Searcher} that can be used by several threads at the
+ * same time.
+ * <p>
+ * The original implementation shares a single {@link QueryParser} and keeps the index searchers in a
+ * plain map, so concurrent mapping requests can corrupt the parser state. This version keeps one
+ * parser per thread and the searchers in a concurrent map. {@code getIndexSearcher} returns the
+ * searcher that the calling thread used in its last search, so the document ids in the
+ * {@link TopDocs} always belong to the reader that is used to read the documents.
+ * </p>
+ * <p>
+ * Searchers are kept open until {@link #invalidateAll()} is called after the index is rebuilt. The
+ * readers of the replaced searchers are not closed right away because a search in progress may still
+ * be reading documents from them. They are closed on the next invalidation instead.
+ * </p>
+ */
+@Primary
+@Component
+@Slf4j
+public class ThreadSafeSearcher extends Searcher {
+
+    private static final int NUM_RESULTS = 50;
+
+    private final Map<String, IndexSearcher> searchers = new ConcurrentHashMap<>();
+    private final ThreadLocal<QueryParser> queryParser;
+    private final ThreadLocal<Map.Entry<String, IndexSearcher>> lastUsedSearcher = new ThreadLocal<>();
+    private final List<IndexSearcher> retiredSearchers = new ArrayList<>();
+
+    public ThreadSafeSearcher(AnalyzerProvider analyzerProvider) {
+        super(analyzerProvider);
+        queryParser = ThreadLocal.withInitial(() -> new QueryParser("", analyzerProvider.getAnalyzer()));
+    }
+
+    @Override
+    public TopDocs search(Query query, String indexPath) throws IOException {
+        Query parsedQuery;
+        try {
+            parsedQuery = queryParser.get().parse(query.toString());
+        } catch (ParseException e) {
+            throw new IllegalArgumentException(e);
+        }
+        IndexSearcher indexSearcher = getOrCreateIndexSearcher(indexPath);
+        lastUsedSearcher.set(Map.entry(indexPath, indexSearcher));
+        return indexSearcher.search(parsedQuery, NUM_RESULTS);
+    }
+
+    @Override
+    public IndexSearcher getIndexSearcher(String indexPath) {
+        Map.Entry<String, IndexSearcher> lastUsed = lastUsedSearcher.get();
+        if (lastUsed != null && lastUsed.getKey().equals(indexPath)) {
+            return lastUsed.getValue();
+        }
+        return searchers.get(indexPath);
+    }
+
+    /**
+     * Discards the open searchers, so the next searches open the indexes again and see their latest
+     * version.
+     */
+    public synchronized void invalidateAll() {
+        for (IndexSearcher retired : retiredSearchers) {
+            try {
+                retired.getIndexReader().close();
+            } catch (IOException e) {
+                log.warn("Could not close index reader: {}", e.getMessage());
+            }
+        }
+        retiredSearchers.clear();
+        for (String indexPath : List.copyOf(searchers.keySet())) {
+            IndexSearcher removed = searchers.remove(indexPath);
+            if (removed != null) {
+                retiredSearchers.add(removed);
+            }
+        }
+        log.info("Index searchers invalidated");
+    }
+
+    private IndexSearcher getOrCreateIndexSearcher(String indexPath) throws IOException {
+        try {
+            return searchers.computeIfAbsent(indexPath, this::createSearcher);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private IndexSearcher createSearcher(String indexPath) {
+        log.info("Creating searcher for index at {}", indexPath);
+        try {
+            return new IndexSearcher(DirectoryReader.open(FSDirectory.open(Paths.get(indexPath))));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -4,10 +4,12 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import org.cancermodels.pdcm_admin.persistance.ProcessReport;
 import org.cancermodels.pdcm_admin.persistance.ProcessReportRepository;
 import org.cancermodels.pdcm_admin.types.ProcessReportModules;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class ProcessReportService {
@@ -35,6 +37,18 @@ public class ProcessReportService {
     processReportRepository.save(processReport);
   }
 
+  /**
+   * Gets the value of the last entry for a specific attribute in a module.
+   * @param module Module of the event (Input data, Ontologies, etc).
+   * @param attribute Attribute of the event.
+   * @return Optional with the value if there is an entry for the attribute.
+   */
+  public Optional<String> getLatestValue(ProcessReportModules module, String attribute) {
+    ProcessReport processReport =
+        processReportRepository.findTopByModuleAndAttributeOrderByDateDesc(module.getLabel(), attribute);
+    return Optional.ofNullable(processReport).map(ProcessReport::getValue);
+  }
+
   /**
    * Gets the last entry fot a specific attribute in a module
    * @param module  Module of the event (Input data, Ontologies, etc).
@@ -47,4 +61,23 @@ public class ProcessReportService {
     processReports.forEach(x -> result.put(x.getAttribute(), x.getValue()));
     return result;
   }
+
+  /**
+   * Deletes all the entries of a module.
+   * @param module Module of the events.
+   */
+  @Transactional("pdcmAdminTransactionManager")
+  public void deleteByModule(ProcessReportModules module) {
+    processReportRepository.deleteAllByModule(module.getLabel());
+  }
+
+  /**
+   * Deletes all the entries for a specific attribute in a module.
+   * @param module Module of the events.
+   * @param attribute Attribute of the events.
+   */
+  @Transactional("pdcmAdminTransactionManager")
+  public void deleteByAttribute(ProcessReportModules module, String attribute) {
+    processReportRepository.deleteAllByModuleAndAttribute(module.getLabel(), attribute);
+  }
 }
@@ -8,7 +8,7 @@ import lombok.Data;
 
 @Data
 public class ProcessResponse {
-  @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy hh:mm:ss")
+  @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy HH:mm:ss")
   private LocalDateTime timestamp;
   private Map<String, String> response;
 
@@ -25,6 +25,21 @@ public class DataReader {
     return tableByFile;
   }
 
+  /**
+   * Finds the tsv files in a directory without reading them, so they can be processed with
+   * {@link TsvColumnReader}.
+   * @param targetDirectory Directory to search (recursively).
+   * @param keywords Only files whose name contains any of these keywords are returned.
+   * @return Map with the name of the file (without the provider name) as key and the file as value.
+   */
+  public static Map<String, File> getFileByName(Path targetDirectory, List<String> keywords) {
+    Map<String, File> fileByName = new HashMap<>();
+    List<File> files = FileManager.getTsvFilesWithKeyWordsRecursive(targetDirectory.toFile(), keywords);
+    files.forEach(file -> fileByName.put(
+        TableSetUtilities.substringAfterIfContainsSeparator(file.getName(), "_"), file));
+    return fileByName;
+  }
+
   private static Map<String, Table> readAllTsvFilesIn(Path targetDirectory, List<String> keywords) {
     HashMap<String, Table> tables = new HashMap<>();
     List<File> files =  FileManager.getTsvFilesWithKeyWordsRecursive(
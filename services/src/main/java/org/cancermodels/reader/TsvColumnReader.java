@@ -0,0 +1,94 @@
+package org.cancermodels.reader;
+
+import com.univocity.parsers.csv.CsvParser;
+import com.univocity.parsers.csv.CsvParserSettings;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reads some columns of a provider TSV file row by row, without loading the whole file in memory.
+ * <p>
+ * The file is parsed with the same settings {@link TableUtilities#readTsv(File)} uses (tab separated,
+ * quoted values, lines starting with {@code #} are comments and the first row is the header), so the
+ * rows obtained are the same ones a {@link tech.tablesaw.api.Table} would contain. Rows whose number
+ * of columns doesn't match the header are skipped. The values tablesaw reads as missing ({@code NA},
+ * {@code N/A}, {@code null}, etc.) are returned as an empty string, as in its string columns.
+ * </p>
+ */
+@Slf4j
+public final class TsvColumnReader {
+
+  // Missing value indicators of tablesaw (TypeUtils.MISSING_INDICATORS). Compared case-sensitively
+  private static final Set<String> MISSING_VALUES = Set.of("NaN", "*", "NA", "null", "N/A");
+
+  private TsvColumnReader() { throw new IllegalStateException("Utility class"); }
+
+  /**
+   * Reads the given columns of a TSV file.
+   * @param file TSV file to read.
+   * @param columns Names of the columns to read.
+   * @param rowConsumer Receives, for each row, a map with the column names as keys and the values
+   *                    of the row (empty string if missing or a missing value indicator) as values.
+   * @throws IllegalArgumentException if the file does not contain some of the columns.
+   */
+  public static void readColumns(File file, List<String> columns, Consumer<Map<String, String>> rowConsumer) {
+    log.info("Reading columns {} from tsv file {}", columns, file);
+    CsvParser parser = new CsvParser(createSettings());
+    parser.beginParsing(file, StandardCharsets.UTF_8);
+    try {
+      String[] header = parser.parseNext();
+      if (header == null) {
+        return;
+      }
+      Map<String, Integer> indexes = getColumnIndexes(header, columns, file);
+
+      String[] row;
+      while ((row = parser.parseNext()) != null) {
+        if (row.length != header.length) {
+          continue;
+        }
+        Map<String, String> values = new HashMap<>();
+        for (Map.Entry<String, Integer> column : indexes.entrySet()) {
+          String value = row[column.getValue()];
+          values.put(column.getKey(), value == null || MISSING_VALUES.contains(value) ? "" : value);
+        }
+        rowConsumer.accept(values);
+      }
+    } finally {
+      parser.stopParsing();
+    }
+    log.info("Finished reading tsv file {}", file);
+  }
+
+  private static Map<String, Integer> getColumnIndexes(String[] header, List<String> columns, File file) {
+    Map<String, Integer> indexes = new HashMap<>();
+    for (String column : columns) {
+      for (int i = 0; i < header.length; i++) {
+        if (column.equals(header[i])) {
+          indexes.put(column, i);
+          break;
+        }
+      }
+      if (!indexes.containsKey(column)) {
+        throw new IllegalArgumentException("Column " + column + " not found in " + file);
+      }
+    }
+    return indexes;
+  }
+
+  private static CsvParserSettings createSettings() {
+    CsvParserSettings settings = new CsvParserSettings();
+    settings.setLineSeparatorDetectionEnabled(true);
+    settings.getFormat().setDelimiter('\t');
+    settings.getFormat().setQuote('"');
+    settings.getFormat().setQuoteEscape('"');
+    settings.setMaxCharsPerColumn(-1);
+    return settings;
+  }
+}
@@ -4,6 +4,7 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -11,6 +12,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
 import org.apache.commons.io.FileUtils;
@@ -20,6 +22,9 @@ import org.slf4j.LoggerFactory;
 public class FileManager {
   private static final Logger LOG = LoggerFactory.getLogger(FileManager.class);
 
+  // Temp copies of resource files that are shared for the whole life of the application
+  private static final Map<String, Path> SHARED_RESOURCE_COPIES = new ConcurrentHashMap<>();
+
   public static String getStringFromFile(String path) {
     StringBuilder sb = new StringBuilder();
 
@@ -89,4 +94,29 @@ public class FileManager {
       return tempFile.toAbsolutePath().toString(); // return usable path
     }
   }
+
+  /**
+   * Same as {@link #getTmpPathForResource(String)}, but the resource is copied only once and the
+   * same temp file is returned in later calls (unless it was deleted in the meantime). Callers must
+   * not modify the returned file.
+   * @param resourcePath Path to the resource file
+   * @return the path of the shared copy of the resource file
+   */
+  public static String getSharedTmpPathForResource(String resourcePath) throws IOException {
+    try {
+      Path path = SHARED_RESOURCE_COPIES.compute(resourcePath, (resource, existing) -> {
+        if (existing != null && Files.exists(existing)) {
+          return existing;
+        }
+        try {
+          return Paths.get(getTmpPathForResource(resource));
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+      return path.toString();
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
 }
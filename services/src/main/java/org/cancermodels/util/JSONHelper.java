@@ -1,5 +1,7 @@
 package org.cancermodels.util;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
@@ -8,6 +10,7 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.HashMap;
@@ -77,6 +80,26 @@ public class JSONHelper {
     return objectMapper.writeValueAsString(object);
   }
 
+  /**
+   * Creates a parser that reads JSON with the same configuration as {@link #fromJson(String, Class)},
+   * to read big documents token by token.
+   */
+  public static JsonParser createParser(InputStream inputStream) throws IOException
+  {
+    return objectMapper.createParser(inputStream);
+  }
+
+  /**
+   * Creates a generator that writes JSON with the same configuration as {@link #toJson(Object)}, to
+   * write big documents element by element. Closing the generator does not close the stream.
+   */
+  public static JsonGenerator createGenerator(OutputStream outputStream) throws IOException
+  {
+    JsonGenerator generator = objectMapper.createGenerator(outputStream);
+    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    return generator;
+  }
+
   public static Object getJsonStringAsObject(String jsonString) throws JsonProcessingException
   {
     return objectMapper.readTree(jsonString);
@@ -35,6 +35,11 @@ public class MappingEntityBuilder {
     return mappingEntity;
   }
 
+  public MappingEntityBuilder setId(int id) {
+    this.id = id;
+    return this;
+  }
+
   public MappingEntityBuilder setEntityType(EntityTypeName entityTypeName) {
     if (entityTypeName.equals(EntityTypeName.Treatment)) {
       entityType = treatmentType;
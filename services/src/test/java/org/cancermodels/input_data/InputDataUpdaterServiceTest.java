@@ -0,0 +1,146 @@
+package org.cancermodels.input_data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.cancermodels.mappings.EntityTypeService;
+import org.cancermodels.pdcm_admin.persistance.EntityType;
+import org.cancermodels.process_report.ProcessReportService;
+import org.cancermodels.process_report.ProcessResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class InputDataUpdaterServiceTest {
+
+  @Mock
+  private EntityTypeService entityTypeService;
+  @Mock
+  private ProcessReportService processReportService;
+
+  @TempDir
+  private Path dataDir;
+
+  private final InMemoryRepository repository = new InMemoryRepository();
+
+  private InputDataUpdaterService instance;
+
+  @BeforeEach
+  void setup() {
+    EntityType treatment = new EntityType();
+    treatment.setName("Treatment");
+    treatment.setMappingRulesFileName("treatment_mappings.json");
+    when(entityTypeService.getAll()).thenReturn(List.of(treatment));
+
+    InputFilesFinder inputFilesFinder = new InputFilesFinder(repository, entityTypeService, 2);
+    ReflectionTestUtils.setField(inputFilesFinder, "providersRootFolderPath", "data/UPDOG");
+    ReflectionTestUtils.setField(inputFilesFinder, "mappingPath", "mapping");
+    instance = new InputDataUpdaterService(inputFilesFinder, repository, processReportService, 2);
+    ReflectionTestUtils.setField(instance, "dataDir", dataDir.toString());
+    ReflectionTestUtils.setField(instance, "providersRootFolderPath", "data/UPDOG");
+    ReflectionTestUtils.setField(instance, "mappingPath", "mapping");
+
+    repository.putFile("mapping/treatment_mappings.json", "[]");
+    repository.putFile("data/UPDOG/TRACE/TRACE_metadata-patient_sample.tsv", "sample v1");
+    repository.putFile("data/UPDOG/TRACE/treatment/TRACE_patienttreatment-treatment.tsv", "treatment v1");
+    repository.putFile("data/UPDOG/TRACE/TRACE_molecular_metadata-sample.tsv", "not needed");
+  }
+
+  @Test
+  void updateInputData_FirstSync_NeededFilesDownloaded() throws IOException {
+    ProcessResponse response = instance.updateInputData();
+
+    assertEquals("3", response.getResponse().get("Files downloaded"));
+    assertEquals("sample v1",
+        Files.readString(dataDir.resolve("data/UPDOG/TRACE/TRACE_metadata-patient_sample.tsv")));
+    assertFalse(Files.exists(dataDir.resolve("data/UPDOG/TRACE/TRACE_molecular_metadata-sample.tsv")));
+  }
+
+  @Test
+  void updateInputData_OneFileChangedAndOneRemoved_OnlyChangesApplied() throws IOException {
+    instance.updateInputData();
+    repository.putFile("data/UPDOG/TRACE/TRACE_metadata-patient_sample.tsv", "sample v2");
+    repository.removeFile("data/UPDOG/TRACE/treatment/TRACE_patienttreatment-treatment.tsv");
+    repository.downloads.clear();
+
+    ProcessResponse response = instance.updateInputData();
+
+    assertEquals("1", response.getResponse().get("Files downloaded"));
+    assertEquals("1", response.getResponse().get("Files unchanged"));
+    assertEquals("1", response.getResponse().get("Files deleted"));
+    assertEquals(List.of("data/UPDOG/TRACE/TRACE_metadata-patient_sample.tsv"), repository.downloads);
+    assertEquals("sample v2",
+        Files.readString(dataDir.resolve("data/UPDOG/TRACE/TRACE_metadata-patient_sample.tsv")));
+    assertFalse(Files.exists(
+        dataDir.resolve("data/UPDOG/TRACE/treatment/TRACE_patienttreatment-treatment.tsv")));
+  }
+
+  @Test
+  void updateInputData_LocalFileMissing_DownloadedAgain() throws IOException {
+    instance.updateInputData();
+    Files.delete(dataDir.resolve("mapping/treatment_mappings.json"));
+    repository.downloads.clear();
+
+    instance.updateInputData();
+
+    assertEquals(List.of("mapping/treatment_mappings.json"), repository.downloads);
+  }
+
+  /**
+   * Stand-in for the data repository, with the files in memory. The SHA of a file is derived from its
+   * content.
+   */
+  private static class InMemoryRepository implements DataRepositoryClient {
+    private final Map<String, String> files = new ConcurrentHashMap<>();
+    private final List<String> downloads = new ArrayList<>();
+
+    void putFile(String path, String content) {
+      files.put(path, content);
+    }
+
+    void removeFile(String path) {
+      files.remove(path);
+    }
+
+    @Override
+    public List<Entry> listFolder(String path) {
+      String prefix = path + "/";
+      return files.keySet().stream()
+          .filter(x -> x.startsWith(prefix))
+          .map(x -> {
+            int end = x.indexOf('/', prefix.length());
+            return end < 0
+                ? new Entry(x, Integer.toHexString(files.get(x).hashCode()), false)
+                : new Entry(x.substring(0, end), "tree", true);
+          })
+          .distinct()
+          .toList();
+    }
+
+    @Override
+    public synchronized InputStream openFile(String path) throws IOException {
+      String content = files.get(path);
+      if (content == null) {
+        throw new IOException("File not found " + path);
+      }
+      downloads.add(path);
+      return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package org.cancermodels.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import org.cancermodels.jobs.exceptions.JobCancelledException;
+import org.junit.jupiter.api.Test;
+
+class JobFuturesTest {
+
+  @Test
+  void await_FinishedTask_ReturnsResult() throws IOException {
+    assertEquals(1, JobFutures.await(CompletableFuture.completedFuture(1), List.of(), "cancelled", IOException.class));
+  }
+
+  @Test
+  void await_FailedTask_ThrowsItsExceptionAndCancelsTheRest() {
+    IOException failure = new IOException("failed");
+    CompletableFuture<Integer> other = new CompletableFuture<>();
+
+    IOException thrown = assertThrows(IOException.class, () -> JobFutures.await(
+        CompletableFuture.failedFuture(failure), List.of(other), "cancelled", IOException.class));
+
+    assertSame(failure, thrown);
+    assertTrue(other.isCancelled());
+  }
+
+  @Test
+  void await_CheckedExceptionNotDeclared_ThrowsIllegalStateException() {
+    assertThrows(IllegalStateException.class, () -> JobFutures.await(
+        CompletableFuture.failedFuture(new IOException("failed")), List.of(), "cancelled"));
+  }
+
+  @Test
+  void await_CancelledTask_ThrowsJobCancelledException() {
+    CompletableFuture<Integer> future = new CompletableFuture<>();
+    future.cancel(true);
+
+    JobCancelledException thrown = assertThrows(JobCancelledException.class,
+        () -> JobFutures.await(future, List.of(future), "Sync cancelled"));
+
+    assertEquals("Sync cancelled", thrown.getMessage());
+  }
+
+  @Test
+  void await_Interrupted_RestoresTheInterruptFlagAndCancelsTheRest() {
+    Future<Integer> future = new CompletableFuture<>();
+    CompletableFuture<Integer> other = new CompletableFuture<>();
+    Thread.currentThread().interrupt();
+    try {
+      assertThrows(JobCancelledException.class,
+          () -> JobFutures.await(future, List.of(other), "cancelled"));
+
+      assertTrue(Thread.currentThread().isInterrupted());
+      assertTrue(other.isCancelled());
+    } finally {
+      Thread.interrupted();
+    }
+  }
+}
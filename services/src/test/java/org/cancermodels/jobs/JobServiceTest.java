@@ -0,0 +1,135 @@
+package org.cancermodels.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.cancermodels.jobs.exceptions.JobAlreadyRunningException;
+import org.cancermodels.pdcm_admin.types.ProcessReportModules;
+import org.cancermodels.process_report.ProcessReportService;
+import org.cancermodels.process_report.ProcessResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class JobServiceTest {
+
+  @Mock
+  private ProcessReportService processReportService;
+
+  private JobService instance;
+
+  @BeforeEach
+  public void setup() {
+    instance = new JobService(processReportService, 2, 10);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    instance.shutdown();
+  }
+
+  @Test
+  void submit_TaskCompletes_ResultPersisted() throws Exception {
+    Job job = instance.submit(JobType.INDEX, progress -> {
+      progress.update(5, 5);
+      return new ProcessResponse("key", "value");
+    });
+
+    ArgumentCaptor<String> json = ArgumentCaptor.forClass(String.class);
+    verify(processReportService, timeout(5000))
+        .register(eq(ProcessReportModules.JOBS), eq(job.getId()), json.capture());
+
+    assertEquals(JobStatus.COMPLETED, job.getStatus());
+    assertEquals(100, job.getProgress());
+    assertEquals("value", job.getResult().getResponse().get("key"));
+    assertTrue(json.getValue().contains("COMPLETED"));
+  }
+
+  @Test
+  void submit_TaskFails_StatusFailedWithError() {
+    Job job = instance.submit(JobType.INDEX, progress -> {
+      throw new IllegalArgumentException("wrong index");
+    });
+
+    verify(processReportService, timeout(5000))
+        .register(eq(ProcessReportModules.JOBS), eq(job.getId()), anyString());
+
+    assertEquals(JobStatus.FAILED, job.getStatus());
+    assertEquals("wrong index", job.getError());
+  }
+
+  @Test
+  void submit_SameTypeInProgress_Rejected() throws InterruptedException {
+    CountDownLatch release = new CountDownLatch(1);
+    Job job = instance.submit(JobType.INDEX, progress -> {
+      release.await(5, TimeUnit.SECONDS);
+      return new ProcessResponse("done");
+    });
+
+    assertThrows(JobAlreadyRunningException.class,
+        () -> instance.submit(JobType.INDEX, progress -> new ProcessResponse("done")));
+
+    release.countDown();
+    verify(processReportService, timeout(5000))
+        .register(eq(ProcessReportModules.JOBS), eq(job.getId()), anyString());
+  }
+
+  @Test
+  void cancel_RunningJob_StatusCancelled() {
+    CountDownLatch started = new CountDownLatch(1);
+    Job job = instance.submit(JobType.AUTO_ASSIGN_MAPPINGS, progress -> {
+      started.countDown();
+      while (true) {
+        progress.checkCancelled();
+        Thread.onSpinWait();
+      }
+    });
+
+    assertDoesNotTimeOut(started);
+    instance.cancel(job.getId());
+
+    verify(processReportService, timeout(5000))
+        .register(eq(ProcessReportModules.JOBS), eq(job.getId()), anyString());
+    assertEquals(JobStatus.CANCELLED, job.getStatus());
+  }
+
+  @Test
+  void getJob_NotInMemory_ReadFromProcessReport() throws Exception {
+    Job job = instance.submit(JobType.REPOSITORY_SYNC, progress -> new ProcessResponse("Input data updated."));
+    ArgumentCaptor<String> json = ArgumentCaptor.forClass(String.class);
+    verify(processReportService, timeout(5000))
+        .register(eq(ProcessReportModules.JOBS), eq(job.getId()), json.capture());
+
+    when(processReportService.getLatestValue(ProcessReportModules.JOBS, "other-id"))
+        .thenReturn(Optional.of(json.getValue()));
+
+    Job persisted = instance.getJob("other-id").orElseThrow();
+
+    assertEquals(job.getId(), persisted.getId());
+    assertEquals(JobType.REPOSITORY_SYNC, persisted.getType());
+    assertEquals(JobStatus.COMPLETED, persisted.getStatus());
+    assertEquals("Input data updated.", persisted.getResult().getResponse().get("message"));
+  }
+
+  private void assertDoesNotTimeOut(CountDownLatch latch) {
+    try {
+      assertTrue(latch.await(5, TimeUnit.SECONDS));
+    } catch (InterruptedException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,225 @@
+package org.cancermodels.mapping_rules;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import jakarta.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import org.cancermodels.general.MappingEntityBuilder;
+import org.cancermodels.mappings.EntityTypeService;
+import org.cancermodels.mappings.MappingEntitiesChangedEvent;
+import org.cancermodels.mappings.MappingEntityService;
+import org.cancermodels.mappings.MappingKeyService;
+import org.cancermodels.mappings.discovery.ProviderDataHashes;
+import org.cancermodels.pdcm_admin.EntityTypeName;
+import org.cancermodels.pdcm_admin.persistance.EntityType;
+import org.cancermodels.pdcm_admin.persistance.MappingEntity;
+import org.cancermodels.pdcm_admin.persistance.MappingKey;
+import org.cancermodels.pdcm_admin.types.Status;
+import org.cancermodels.process_report.ProcessResponse;
+import org.cancermodels.util.JSONHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class MappingRulesServiceTest {
+
+  @Mock
+  private MappingEntityService mappingEntityService;
+  @Mock
+  private EntityTypeService entityTypeService;
+  @Mock
+  private MappingKeyService mappingKeyService;
+  @Mock
+  private ProviderDataHashes providerDataHashes;
+  @Mock
+  private MappingRulesBatchWriter batchWriter;
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+  @Mock
+  private EntityManager entityManager;
+
+  private MappingRulesService instance;
+
+  @BeforeEach
+  void setup() {
+    instance = new MappingRulesService(mappingEntityService, entityTypeService, mappingKeyService,
+        providerDataHashes, batchWriter, eventPublisher, 2);
+    ReflectionTestUtils.setField(instance, "entityManager", entityManager);
+  }
+
+  @Test
+  void writeMappingRulesJson_MappedEntities_WrittenOneByOneAndDetached() throws Exception {
+    MappingEntity aspirin = buildEntity(1, "Aspirin");
+    MappingEntity ibuprofen = buildEntity(2, "Ibuprofen");
+    AtomicBoolean closed = new AtomicBoolean();
+    when(mappingEntityService.streamAllByTypeNameAndStatus("treatment", Status.MAPPED.getLabel()))
+        .thenReturn(Stream.of(aspirin, ibuprofen).onClose(() -> closed.set(true)));
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+    instance.writeMappingRulesJson("treatment", outputStream);
+
+    String json = outputStream.toString(StandardCharsets.UTF_8);
+    List<MappingRule> rules = JSONHelper.fromJson(json, new TypeReference<>() {});
+    assertEquals(2, rules.size());
+    assertEquals("Aspirin", rules.get(0).getMappingValues().get("TreatmentName"));
+    assertEquals("Ibuprofen", rules.get(1).getMappingValues().get("TreatmentName"));
+    // Same document as serialising the whole list at once
+    assertEquals(JSONHelper.toJson(rules), json);
+    assertTrue(closed.get());
+    verify(entityManager, times(2)).detach(any(MappingEntity.class));
+  }
+
+  @Test
+  void restoreMappedMappingEntitiesFromJsons_MalformedRules_SkippedAndRestSavedInBatches(@TempDir Path rootDir)
+      throws Exception {
+    ReflectionTestUtils.setField(instance, "rootDir", rootDir.toString());
+    EntityType treatment = new EntityType();
+    treatment.setId(1);
+    treatment.setName("Treatment");
+    treatment.setMappingRulesFileName("treatment_mappings.json");
+    MappingKey dataSource = new MappingKey();
+    dataSource.setKey("DataSource");
+    dataSource.setEntityType(treatment);
+    when(entityTypeService.getAll()).thenReturn(List.of(treatment));
+    when(mappingKeyService.getAll()).thenReturn(List.of(dataSource));
+    when(batchWriter.save(any())).thenReturn(List.of(1, 2), List.of(3));
+    Files.createDirectories(rootDir.resolve("mapping"));
+    Files.writeString(rootDir.resolve("mapping/treatment_mappings.json"), """
+        [
+          {"mappingKey": "a", "entityType": "treatment", "mappingValues": {"DataSource": "trace"}},
+          {"mappingKey": "b", "entityType": "treatment", "mappingValues": {"Unknown": "x"}},
+          {"mappingKey": "c", "entityType": "treatment", "mappingValues": "not an object"},
+          {"mappingKey": "d", "entityType": "treatment", "mappingValues": {"datasource": "jax"}},
+          {"mappingKey": "e", "entityType": "treatment", "mappingValues": {"DataSource": "jax"}}
+        ]
+        """);
+
+    ProcessResponse response = instance.restoreMappedMappingEntitiesFromJsons();
+
+    assertEquals("3", response.getResponse().get("Treatment inserted"));
+    assertEquals("2", response.getResponse().get("Treatment skipped"));
+    ArgumentCaptor<List<MappingEntity>> batches = ArgumentCaptor.forClass(List.class);
+    verify(batchWriter, times(2)).save(batches.capture());
+    assertEquals(List.of("a", "d"), batches.getAllValues().get(0).stream().map(MappingEntity::getMappingKey).toList());
+    assertEquals(List.of("e"), batches.getAllValues().get(1).stream().map(MappingEntity::getMappingKey).toList());
+    assertEquals(dataSource, batches.getAllValues().get(0).get(1).getMappingValues().get(0).getMappingKey());
+    verify(mappingEntityService, never()).deleteAll();
+    verify(eventPublisher).publishEvent(MappingEntitiesChangedEvent.of(Set.of(1, 2, 3)));
+  }
+
+  @Test
+  void restoreMappedMappingEntitiesFromJsons_ExistingEntities_OnlyChangesWritten(@TempDir Path rootDir)
+      throws Exception {
+    ReflectionTestUtils.setField(instance, "rootDir", rootDir.toString());
+    EntityType treatment = new EntityType();
+    treatment.setId(1);
+    treatment.setName("Treatment");
+    treatment.setMappingRulesFileName("treatment_mappings.json");
+    MappingKey dataSource = new MappingKey();
+    dataSource.setKey("DataSource");
+    dataSource.setEntityType(treatment);
+    when(entityTypeService.getAll()).thenReturn(List.of(treatment));
+    when(mappingKeyService.getAll()).thenReturn(List.of(dataSource));
+    when(mappingEntityService.getAllRuleRows()).thenReturn(List.of(
+        ruleRow(10, "a", "trace"), ruleRow(11, "d", "trace"), ruleRow(12, "z", "trace")));
+    when(batchWriter.save(any())).thenReturn(List.of(13));
+    Files.createDirectories(rootDir.resolve("mapping"));
+    Files.writeString(rootDir.resolve("mapping/treatment_mappings.json"), """
+        [
+          {"mappingKey": "a", "entityType": "treatment", "mappingValues": {"datasource": "trace"}},
+          {"mappingKey": "d", "entityType": "treatment", "mappingValues": {"DataSource": "jax"}},
+          {"mappingKey": "e", "entityType": "treatment", "mappingValues": {"DataSource": "jax"}},
+          {"mappingKey": "e", "entityType": "treatment", "mappingValues": {"DataSource": "jax"}}
+        ]
+        """);
+
+    ProcessResponse response = instance.restoreMappedMappingEntitiesFromJsons();
+
+    assertEquals("1", response.getResponse().get("Treatment inserted"));
+    assertEquals("1", response.getResponse().get("Treatment updated"));
+    assertEquals("1", response.getResponse().get("Treatment unchanged"));
+    assertEquals("1", response.getResponse().get("Treatment skipped"));
+    assertEquals("1", response.getResponse().get("Treatment deleted"));
+    ArgumentCaptor<Map<Integer, MappingEntity>> updates = ArgumentCaptor.forClass(Map.class);
+    verify(batchWriter).update(updates.capture());
+    assertEquals(Set.of(11), updates.getValue().keySet());
+    assertEquals("jax", updates.getValue().get(11).getMappingValues().get(0).getValue());
+    verify(batchWriter).delete(List.of(12));
+    verify(providerDataHashes).removeAll();
+    verify(eventPublisher).publishEvent(MappingEntitiesChangedEvent.of(Set.of(11, 12, 13)));
+  }
+
+  @Test
+  void restoreMappedMappingEntitiesFromJsons_MalformedRuleOfExistingEntity_EntityKept(@TempDir Path rootDir)
+      throws Exception {
+    ReflectionTestUtils.setField(instance, "rootDir", rootDir.toString());
+    EntityType treatment = new EntityType();
+    treatment.setId(1);
+    treatment.setName("Treatment");
+    treatment.setMappingRulesFileName("treatment_mappings.json");
+    MappingKey dataSource = new MappingKey();
+    dataSource.setKey("DataSource");
+    dataSource.setEntityType(treatment);
+    when(entityTypeService.getAll()).thenReturn(List.of(treatment));
+    when(mappingKeyService.getAll()).thenReturn(List.of(dataSource));
+    when(mappingEntityService.getAllRuleRows()).thenReturn(List.of(
+        ruleRow(10, "a", "trace"), ruleRow(11, "b", "trace"), ruleRow(12, "c", "trace")));
+    Files.createDirectories(rootDir.resolve("mapping"));
+    Files.writeString(rootDir.resolve("mapping/treatment_mappings.json"), """
+        [
+          {"mappingKey": "a", "entityType": "treatment", "mappingValues": {"DataSource": "trace"}},
+          {"mappingKey": "b", "entityType": "treatment", "mappingValues": {"Unknown": "x"}},
+          {"mappingKey": "c", "entityType": "treatment", "mappingValues": "not an object"}
+        ]
+        """);
+
+    ProcessResponse response = instance.restoreMappedMappingEntitiesFromJsons();
+
+    assertEquals("1", response.getResponse().get("Treatment unchanged"));
+    assertEquals("2", response.getResponse().get("Treatment skipped"));
+    assertEquals("0", response.getResponse().get("Treatment deleted"));
+    verify(batchWriter, never()).delete(any());
+    verify(batchWriter, never()).update(any());
+    verify(providerDataHashes, never()).removeAll();
+  }
+
+  // Row of MappingEntityService#getAllRuleRows for an entity with only a data source
+  private Object[] ruleRow(int id, String mappingKey, String dataSource) {
+    return new Object[] {
+        id, mappingKey, "Treatment", null, null, null, null, null, null, null, "DataSource", dataSource};
+  }
+
+  private MappingEntity buildEntity(int id, String treatmentName) {
+    MappingEntity mappingEntity = new MappingEntityBuilder()
+        .setId(id)
+        .setEntityType(EntityTypeName.Treatment)
+        .setValues(MappingEntityBuilder.createTreatmentValues("TRACE", treatmentName))
+        .setStatus(Status.MAPPED)
+        .build();
+    mappingEntity.setMappedTermLabel(treatmentName);
+    mappingEntity.setMappedTermUrl("http://purl.obolibrary.org/obo/NCIT_" + id);
+    return mappingEntity;
+  }
+}
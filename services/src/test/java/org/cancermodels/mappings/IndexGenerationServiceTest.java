@@ -0,0 +1,50 @@
+package org.cancermodels.mappings;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+import org.cancermodels.pdcm_admin.types.ProcessReportModules;
+import org.cancermodels.process_report.ProcessReportService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class IndexGenerationServiceTest {
+
+  @Mock
+  private ProcessReportService processReportService;
+
+  @Test
+  void getCurrentGeneration_StoredGeneration_ReadOnlyOnce() {
+    IndexGenerationService instance = new IndexGenerationService(processReportService);
+    when(processReportService.getLatestValue(
+        ProcessReportModules.INDEXER, IndexGenerationService.GENERATION_ATTRIBUTE)).thenReturn(Optional.of("gen-1"));
+
+    assertEquals(Optional.of("gen-1"), instance.getCurrentGeneration());
+    assertEquals(Optional.of("gen-1"), instance.getCurrentGeneration());
+
+    verify(processReportService, times(1))
+        .getLatestValue(ProcessReportModules.INDEXER, IndexGenerationService.GENERATION_ATTRIBUTE);
+  }
+
+  @Test
+  void startNewGeneration_PreviousGeneration_NewGenerationRegisteredAndCurrent() {
+    IndexGenerationService instance = new IndexGenerationService(processReportService);
+    when(processReportService.getLatestValue(
+        ProcessReportModules.INDEXER, IndexGenerationService.GENERATION_ATTRIBUTE)).thenReturn(Optional.of("gen-1"));
+    instance.getCurrentGeneration();
+
+    String generation = instance.startNewGeneration();
+
+    assertNotEquals("gen-1", generation);
+    assertEquals(Optional.of(generation), instance.getCurrentGeneration());
+    verify(processReportService)
+        .register(ProcessReportModules.INDEXER, IndexGenerationService.GENERATION_ATTRIBUTE, generation);
+  }
+}
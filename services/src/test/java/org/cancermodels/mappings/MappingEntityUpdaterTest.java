@@ -9,6 +9,7 @@ import org.cancermodels.pdcm_admin.types.Status;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.context.ApplicationEventPublisher;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import java.time.LocalDateTime;
@@ -23,6 +24,9 @@ class MappingEntityUpdaterTest {
 
     @Mock
     private MappingEntityRepository mappingEntityRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     private MappingEntityUpdater instance;
 
     private final MappingEntityBuilder mappingEntityBuilder = new MappingEntityBuilder();
@@ -30,7 +34,7 @@ class MappingEntityUpdaterTest {
     @BeforeEach
     public void setup()
     {
-        instance = new MappingEntityUpdater(mappingEntityRepository);
+        instance = new MappingEntityUpdater(mappingEntityRepository, eventPublisher);
     }
 
     @Test
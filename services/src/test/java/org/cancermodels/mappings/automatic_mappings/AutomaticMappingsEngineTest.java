@@ -0,0 +1,115 @@
+package org.cancermodels.mappings.automatic_mappings;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.cancer_models.entity2ontology.exceptions.MalformedMappingConfigurationException;
+import org.cancer_models.entity2ontology.exceptions.MappingException;
+import org.cancermodels.general.MappingEntityBuilder;
+import org.cancermodels.general.SuggestionBuilder;
+import org.cancermodels.pdcm_admin.EntityTypeName;
+import org.cancermodels.pdcm_admin.persistance.MappingEntity;
+import org.cancermodels.pdcm_admin.persistance.Suggestion;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class AutomaticMappingsEngineTest {
+
+  @Mock
+  private AutomaticMappingsFinder automaticMappingsFinder;
+
+  private final SuggestionBuilder suggestionBuilder = new SuggestionBuilder();
+
+  @Test
+  void findBestSuggestions_SeveralChunks_SameOrderAsInput() throws MalformedMappingConfigurationException, MappingException {
+    AutomaticMappingsEngine instance = new AutomaticMappingsEngine(automaticMappingsFinder, 3, 4);
+    List<MappingEntity> mappingEntities = createMappingEntities(10);
+
+    // Even ids get a suggestion whose url is built from the id, odd ids get nothing
+    when(automaticMappingsFinder.findBestSuggestions(anyList())).thenAnswer(invocation -> {
+      List<MappingEntity> chunk = invocation.getArgument(0);
+      Map<Integer, Optional<Suggestion>> result = new LinkedHashMap<>();
+      for (MappingEntity mappingEntity : chunk) {
+        result.put(mappingEntity.getId(), mappingEntity.getId() % 2 == 0
+            ? Optional.of(new SuggestionBuilder().setSuggestedTermUrl("url" + mappingEntity.getId()).build())
+            : Optional.empty());
+      }
+      return result;
+    });
+
+    List<Optional<Suggestion>> bestSuggestions = instance.findBestSuggestions(mappingEntities);
+
+    verify(automaticMappingsFinder, times(4)).findBestSuggestions(anyList());
+    assertEquals(10, bestSuggestions.size());
+    for (int i = 0; i < mappingEntities.size(); i++) {
+      int id = mappingEntities.get(i).getId();
+      if (id % 2 == 0) {
+        assertEquals("url" + id, bestSuggestions.get(i).orElseThrow().getSuggestedTermUrl());
+      } else {
+        assertTrue(bestSuggestions.get(i).isEmpty());
+      }
+    }
+  }
+
+  @Test
+  void findBestSuggestions_EntityMissingInChunkResult_Empty() throws MalformedMappingConfigurationException, MappingException {
+    AutomaticMappingsEngine instance = new AutomaticMappingsEngine(automaticMappingsFinder, 5, 2);
+    List<MappingEntity> mappingEntities = createMappingEntities(2);
+    Suggestion suggestion = suggestionBuilder.setSuggestedTermUrl("url1").build();
+
+    when(automaticMappingsFinder.findBestSuggestions(anyList()))
+        .thenReturn(Map.of(mappingEntities.get(0).getId(), Optional.of(suggestion)));
+
+    List<Optional<Suggestion>> bestSuggestions = instance.findBestSuggestions(mappingEntities);
+
+    assertEquals(Optional.of(suggestion), bestSuggestions.get(0));
+    assertEquals(Optional.empty(), bestSuggestions.get(1));
+  }
+
+  @Test
+  void findBestSuggestions_EmptyList_NoCallsToFinder() throws MalformedMappingConfigurationException, MappingException {
+    AutomaticMappingsEngine instance = new AutomaticMappingsEngine(automaticMappingsFinder, 5, 2);
+
+    List<Optional<Suggestion>> bestSuggestions = instance.findBestSuggestions(new ArrayList<>());
+
+    assertTrue(bestSuggestions.isEmpty());
+    verify(automaticMappingsFinder, times(0)).findBestSuggestions(anyList());
+  }
+
+  @Test
+  void findBestSuggestions_ChunkFails_ExceptionPropagated() throws MalformedMappingConfigurationException, MappingException {
+    AutomaticMappingsEngine instance = new AutomaticMappingsEngine(automaticMappingsFinder, 1, 2);
+    List<MappingEntity> mappingEntities = createMappingEntities(3);
+
+    when(automaticMappingsFinder.findBestSuggestions(anyList())).thenThrow(new MappingException("error"));
+
+    assertThrows(MappingException.class, () -> instance.findBestSuggestions(mappingEntities));
+  }
+
+  private List<MappingEntity> createMappingEntities(int count) {
+    List<MappingEntity> mappingEntities = new ArrayList<>();
+    for (int i = 1; i <= count; i++) {
+      mappingEntities.add(new MappingEntityBuilder()
+          .setId(i)
+          .setEntityType(EntityTypeName.Treatment)
+          .setMappingKey("key" + i)
+          .setValues(MappingEntityBuilder.createTreatmentValues("TRACE", "treatment" + i))
+          .build());
+    }
+    return mappingEntities;
+  }
+}
@@ -0,0 +1,129 @@
+package org.cancermodels.mappings.automatic_mappings;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import jakarta.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.cancermodels.general.MappingEntityBuilder;
+import org.cancermodels.general.SuggestionBuilder;
+import org.cancermodels.mappings.MappingEntityService;
+import org.cancermodels.pdcm_admin.EntityTypeName;
+import org.cancermodels.pdcm_admin.persistance.MappingEntity;
+import org.cancermodels.pdcm_admin.persistance.Suggestion;
+import org.cancermodels.pdcm_admin.types.Status;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class AutomaticMappingsEvaluatorTest {
+
+  private AutomaticMappingsEvaluator instance;
+
+  @Mock
+  private MappingEntityService mappingEntityService;
+
+  @Mock
+  private AutomaticMappingsFinder automaticMappingsFinder;
+
+  @Mock
+  private EntityManager entityManager;
+
+  @BeforeEach
+  void setup() {
+    // Chunks of 2 entities, so the results of several chunks are combined
+    instance = new AutomaticMappingsEvaluator(mappingEntityService, automaticMappingsFinder, 2, 2);
+    ReflectionTestUtils.setField(instance, "entityManager", entityManager);
+  }
+
+  private void mockSuggestions() throws Exception {
+    // Entity 1 agrees, 2 has another term, 3 has no suggestion
+    Map<Integer, Suggestion> suggestions = Map.of(
+        1, new SuggestionBuilder().setSuggestedTermUrl("url1").build(),
+        2, new SuggestionBuilder().setSuggestedTermUrl("other").setRelativeScore(80).build());
+    when(automaticMappingsFinder.findBestSuggestions(any(), eq(false))).thenAnswer(invocation -> {
+      List<MappingEntity> chunk = invocation.getArgument(0);
+      Map<Integer, Optional<Suggestion>> result = new LinkedHashMap<>();
+      chunk.forEach(x -> result.put(x.getId(), Optional.ofNullable(suggestions.get(x.getId()))));
+      return result;
+    });
+  }
+
+  @Test
+  void evaluate_csv_writesOnlyEntitiesThatDontAgree() throws Exception {
+    mockSuggestions();
+    when(mappingEntityService.streamAllByTypeNameAndStatus(
+        EntityTypeName.Treatment.getLabel(), Status.MAPPED.getLabel()))
+        .thenReturn(Stream.of(treatment(1, "TRACE", "url1"), treatment(2, "TRACE", "url2"), treatment(3, "JAX", "url3")));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    Map<String, Integer> counts = instance.evaluate(
+        EvaluationFilter.all(), EvaluationFormat.CSV.createWriter(out));
+
+    assertEquals(Map.of("evaluated", 3, "matching", 1, "not_matching", 1, "not_suggestion", 1), counts);
+    String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+    assertEquals(3, lines.length);
+    assertTrue(lines[0].startsWith("outcome,id,entity_type,"));
+    assertEquals("not_matching,2,Treatment,,url2,,other,80.0,DataSource: TRACE; TreatmentName: Drug 2", lines[1]);
+    assertEquals("not_suggestion,3,Treatment,,url3,,,,DataSource: JAX; TreatmentName: Drug 3", lines[2]);
+  }
+
+  @Test
+  void evaluate_ndjson_filtersByProviderAndEndsWithSummary() throws Exception {
+    mockSuggestions();
+    when(mappingEntityService.streamAllByTypeNameAndStatus(
+        EntityTypeName.Treatment.getLabel(), Status.MAPPED.getLabel()))
+        .thenReturn(Stream.of(treatment(1, "TRACE", "url1"), treatment(2, "TRACE", "url2"), treatment(3, "JAX", "url3")));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    Map<String, Integer> counts = instance.evaluate(
+        new EvaluationFilter("treatment", "trace", 1, 0, 0), EvaluationFormat.NDJSON.createWriter(out));
+
+    assertEquals(2, counts.get("evaluated"));
+    String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(2, lines.length);
+    assertTrue(lines[0].startsWith("{\"outcome\":\"not_matching\",\"id\":2,"));
+    assertTrue(lines[1].startsWith("{\"summary\":{\"evaluated\":2,"));
+  }
+
+  @Test
+  void filter_sampleIsRepeatableAndRoughlyTheRate() {
+    EvaluationFilter filter = new EvaluationFilter(null, null, 0.25, 42, 0);
+    int accepted = 0;
+    for (int id = 1; id <= 4000; id++) {
+      MappingEntity mappingEntity = treatment(id, "TRACE", "url");
+      boolean accepts = filter.accepts(mappingEntity);
+      assertEquals(accepts, filter.accepts(mappingEntity));
+      accepted += accepts ? 1 : 0;
+    }
+    assertTrue(accepted > 900 && accepted < 1100, "Accepted " + accepted);
+  }
+
+  @Test
+  void filter_invalidValues_throwsIllegalArgumentException() {
+    assertThrows(IllegalArgumentException.class, () -> new EvaluationFilter("Model", null, 1, 0, 0));
+    assertThrows(IllegalArgumentException.class, () -> new EvaluationFilter(null, null, 0, 0, 0));
+    assertThrows(IllegalArgumentException.class, () -> new EvaluationFilter(null, null, 1, 0, -1));
+  }
+
+  private MappingEntity treatment(int id, String dataSource, String mappedTermUrl) {
+    return new MappingEntityBuilder()
+        .setId(id)
+        .setEntityType(EntityTypeName.Treatment)
+        .setValues(MappingEntityBuilder.createTreatmentValues(dataSource, "Drug " + id))
+        .setMappedTermUrl(mappedTermUrl)
+        .build();
+  }
+}
@@ -1,9 +1,13 @@
 package org.cancermodels.mappings.automatic_mappings;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
+import jakarta.persistence.EntityManager;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -23,6 +27,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 @ExtendWith(MockitoExtension.class)
 class AutomaticMappingsServiceTest {
@@ -35,16 +40,42 @@ class AutomaticMappingsServiceTest {
   @Mock
   private AutomaticMappingsFinder automaticMappingsFinder;
 
+  @Mock
+  private AutomaticMappingsEngine automaticMappingsEngine;
+
   @Mock
   private SimilarityConfigurationReader similarityConfigurationReader;
 
+  @Mock
+  private EntityManager entityManager;
+
   private final MappingEntityBuilder mappingEntityBuilder = new MappingEntityBuilder();
   private final SuggestionBuilder suggestionBuilder = new SuggestionBuilder();
 
   @BeforeEach
   public void setup()
   {
-    instance = new AutomaticMappingsService(mappingEntityService, automaticMappingsFinder, similarityConfigurationReader);
+    AutomaticMappingsEvaluator automaticMappingsEvaluator =
+        new AutomaticMappingsEvaluator(mappingEntityService, automaticMappingsFinder, 100, 1);
+    ReflectionTestUtils.setField(automaticMappingsEvaluator, "entityManager", entityManager);
+    instance = new AutomaticMappingsService(
+        mappingEntityService, automaticMappingsEngine, automaticMappingsEvaluator, similarityConfigurationReader);
+  }
+
+  private void mockMappedEntities(List<MappingEntity> mappingEntities) {
+    when(mappingEntityService.streamAllByTypeNameAndStatus(
+        EntityTypeName.Treatment.getLabel(), Status.MAPPED.getLabel()))
+        .thenReturn(mappingEntities.stream());
+  }
+
+  private void mockBestSuggestions(Map<MappingEntity, Optional<Suggestion>> bestSuggestions)
+      throws MalformedMappingConfigurationException, MappingException {
+    when(automaticMappingsFinder.findBestSuggestions(any(), eq(false))).thenAnswer(invocation -> {
+      List<MappingEntity> chunk = invocation.getArgument(0);
+      Map<Integer, Optional<Suggestion>> result = new LinkedHashMap<>();
+      chunk.forEach(x -> result.put(x.getId(), bestSuggestions.get(x)));
+      return result;
+    });
   }
 
   @Test
@@ -59,11 +90,11 @@ class AutomaticMappingsServiceTest {
     List<MappingEntity> mappingEntities = new ArrayList<>();
     mappingEntities.add(mappingEntity);
 
-    when(mappingEntityService.getAllByStatus(Status.MAPPED.getLabel())).thenReturn(mappingEntities);
+    mockMappedEntities(mappingEntities);
 
     Suggestion suggestion = suggestionBuilder.setId(1).setSuggestedTermUrl("url1").build();
 
-    when(automaticMappingsFinder.findBestSuggestion(mappingEntity)).thenReturn(Optional.of(suggestion));
+    mockBestSuggestions(Map.of(mappingEntity, Optional.of(suggestion)));
 
     Map<String, Integer> findings = instance.evaluateAutomaticMappingsInMappedEntities();
 
@@ -85,11 +116,11 @@ class AutomaticMappingsServiceTest {
     List<MappingEntity> mappingEntities = new ArrayList<>();
     mappingEntities.add(mappingEntity);
 
-    when(mappingEntityService.getAllByStatus(Status.MAPPED.getLabel())).thenReturn(mappingEntities);
+    mockMappedEntities(mappingEntities);
 
     Suggestion suggestion = suggestionBuilder.setId(1).setSuggestedTermUrl("url2").build();
 
-    when(automaticMappingsFinder.findBestSuggestion(mappingEntity)).thenReturn(Optional.of(suggestion));
+    mockBestSuggestions(Map.of(mappingEntity, Optional.of(suggestion)));
 
     Map<String, Integer> findings = instance.evaluateAutomaticMappingsInMappedEntities();
 
@@ -111,9 +142,9 @@ class AutomaticMappingsServiceTest {
     List<MappingEntity> mappingEntities = new ArrayList<>();
     mappingEntities.add(mappingEntity);
 
-    when(mappingEntityService.getAllByStatus(Status.MAPPED.getLabel())).thenReturn(mappingEntities);
+    mockMappedEntities(mappingEntities);
 
-    when(automaticMappingsFinder.findBestSuggestion(mappingEntity)).thenReturn(Optional.empty());
+    mockBestSuggestions(Map.of(mappingEntity, Optional.empty()));
 
     Map<String, Integer> findings = instance.evaluateAutomaticMappingsInMappedEntities();
 
@@ -127,6 +158,7 @@ class AutomaticMappingsServiceTest {
   void evaluateAutomaticMappingsInMappedEntities_OneEachOne_MapWith1CounterForEachEntry() throws MalformedMappingConfigurationException, MappingException {
 
     MappingEntity mappingEntity1 = mappingEntityBuilder
+        .setId(1)
         .setEntityType(EntityTypeName.Treatment)
         .setMappingKey("key1")
         .setValues(MappingEntityBuilder.createTreatmentValues("TRACE", "treatment1"))
@@ -134,6 +166,7 @@ class AutomaticMappingsServiceTest {
         .build();
 
     MappingEntity mappingEntity2 = mappingEntityBuilder
+        .setId(2)
         .setEntityType(EntityTypeName.Treatment)
         .setMappingKey("key2")
         .setValues(MappingEntityBuilder.createTreatmentValues("TRACE", "treatment2"))
@@ -141,6 +174,7 @@ class AutomaticMappingsServiceTest {
         .build();
 
     MappingEntity mappingEntity3 = mappingEntityBuilder
+        .setId(3)
         .setEntityType(EntityTypeName.Treatment)
         .setMappingKey("key3")
         .setValues(MappingEntityBuilder.createTreatmentValues("TRACE", "treatment3"))
@@ -152,14 +186,15 @@ class AutomaticMappingsServiceTest {
     mappingEntities.add(mappingEntity2);
     mappingEntities.add(mappingEntity3);
 
-    when(mappingEntityService.getAllByStatus(Status.MAPPED.getLabel())).thenReturn(mappingEntities);
+    mockMappedEntities(mappingEntities);
 
     Suggestion suggestion1 = suggestionBuilder.setId(1).setSuggestedTermUrl("url1").build();
     Suggestion suggestion2 = suggestionBuilder.setId(1).setSuggestedTermUrl("urlx").build();
 
-    when(automaticMappingsFinder.findBestSuggestion(mappingEntity1)).thenReturn(Optional.of(suggestion1));
-    when(automaticMappingsFinder.findBestSuggestion(mappingEntity2)).thenReturn(Optional.of(suggestion2));
-    when(automaticMappingsFinder.findBestSuggestion(mappingEntity3)).thenReturn(Optional.empty());
+    mockBestSuggestions(Map.of(
+        mappingEntity1, Optional.of(suggestion1),
+        mappingEntity2, Optional.of(suggestion2),
+        mappingEntity3, Optional.empty()));
 
     Map<String, Integer> findings = instance.evaluateAutomaticMappingsInMappedEntities();
 
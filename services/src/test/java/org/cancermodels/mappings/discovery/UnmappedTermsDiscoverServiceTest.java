@@ -0,0 +1,111 @@
+package org.cancermodels.mappings.discovery;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.io.FileUtils;
+import org.cancermodels.general.MappingEntityBuilder;
+import org.cancermodels.jobs.JobProgress;
+import org.cancermodels.mappings.MappingEntityCreator;
+import org.cancermodels.pdcm_admin.EntityTypeName;
+import org.cancermodels.pdcm_admin.persistance.MappingEntity;
+import org.cancermodels.pdcm_admin.persistance.MappingEntityRepository;
+import org.cancermodels.pdcm_admin.types.ProcessReportModules;
+import org.cancermodels.pdcm_admin.types.Status;
+import org.cancermodels.process_report.ProcessReportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class UnmappedTermsDiscoverServiceTest {
+
+  private static final String PROVIDER = "PROVIDER-A";
+
+  @Mock
+  private MappingEntityRepository mappingEntityRepository;
+
+  @Mock
+  private MappingEntityCreator mappingEntityCreator;
+
+  @Mock
+  private ProcessReportService processReportService;
+
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
+  @TempDir
+  Path rootDir;
+
+  private ProviderDataHashes providerDataHashes;
+
+  private UnmappedTermsDiscoverService instance;
+
+  @BeforeEach
+  void setup() throws IOException {
+    FileUtils.copyDirectory(
+        Path.of("src/test/testdata/dataset2", PROVIDER).toFile(),
+        rootDir.resolve("data/UPDOG").resolve(PROVIDER).toFile());
+    providerDataHashes = new ProviderDataHashes(processReportService);
+    instance = new UnmappedTermsDiscoverService(
+        mappingEntityRepository, mappingEntityCreator, providerDataHashes, eventPublisher, 2);
+    ReflectionTestUtils.setField(instance, "rootDir", rootDir.toString());
+  }
+
+  @Test
+  void shouldNotReadProvidersWhoseDataDidNotChange() {
+    String hash = providerDataHashes.calculateHash(rootDir.resolve("data/UPDOG").resolve(PROVIDER));
+    when(processReportService.getLatestReportByModule(ProcessReportModules.DISCOVERY))
+        .thenReturn(Map.of(PROVIDER, hash));
+
+    Map<String, Integer> counts = instance.detectNewUnmappedTerms(JobProgress.NONE);
+
+    assertEquals(0, counts.get("providers read"));
+    assertEquals(0, counts.get("removed"));
+    verify(mappingEntityCreator, never()).createDiagnosisMappingEntity(any(), any(), any(), any());
+    verify(mappingEntityRepository, never()).findAllByStatusAndDataSource(any(), any());
+    verify(processReportService, never()).register(any(), any(), any());
+  }
+
+  @Test
+  void shouldAddNewTermsAndDeleteObsoleteOnesWhenDataChanged() {
+    when(processReportService.getLatestReportByModule(ProcessReportModules.DISCOVERY))
+        .thenReturn(Map.of(PROVIDER, "old hash"));
+    MappingEntity obsolete = new MappingEntityBuilder()
+        .setEntityType(EntityTypeName.Treatment).setMappingKey("obsolete").build();
+    when(mappingEntityRepository.findAllByStatusAndDataSource(Status.UNMAPPED.getLabel(), PROVIDER))
+        .thenReturn(List.of(obsolete));
+    when(mappingEntityCreator.createDiagnosisMappingEntity(anyString(), anyString(), anyString(), anyString()))
+        .thenAnswer(x -> new MappingEntityBuilder().setEntityType(EntityTypeName.Diagnosis).build());
+    when(mappingEntityCreator.createTreatmentMappingEntity(anyString(), anyString()))
+        .thenAnswer(x -> new MappingEntityBuilder().setEntityType(EntityTypeName.Treatment).build());
+
+    Map<String, Integer> counts = instance.detectNewUnmappedTerms(JobProgress.NONE);
+
+    assertEquals(1, counts.get("providers read"));
+    assertEquals(1, counts.get("removed"));
+    // 10 samples with 8 different diagnosis
+    assertEquals(8, counts.get("diagnosis"));
+    verify(mappingEntityRepository).deleteAll(List.of(obsolete));
+    ArgumentCaptor<Collection<MappingEntity>> savedCaptor = ArgumentCaptor.captor();
+    verify(mappingEntityRepository).saveAll(savedCaptor.capture());
+    assertEquals(counts.get("diagnosis") + counts.get("treatment"), savedCaptor.getValue().size());
+    verify(processReportService).register(eq(ProcessReportModules.DISCOVERY), eq(PROVIDER), anyString());
+  }
+}
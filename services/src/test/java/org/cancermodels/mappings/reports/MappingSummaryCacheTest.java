@@ -0,0 +1,72 @@
+package org.cancermodels.mappings.reports;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import org.cancermodels.mappings.MappingEntitiesChangedEvent;
+import org.cancermodels.pdcm_admin.persistance.MappingEntityRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class MappingSummaryCacheTest {
+
+  @Mock
+  private MappingEntityRepository mappingEntityRepository;
+
+  private MappingSummaryCache instance;
+
+  @BeforeEach
+  void setup() {
+    instance = new MappingSummaryCache(mappingEntityRepository);
+    when(mappingEntityRepository.findSummaryRows()).thenReturn(List.of(
+        new Object[] {1, "Diagnosis", "TRACE", "Unmapped"},
+        new Object[] {2, "diagnosis", "trace", "mapped"},
+        new Object[] {3, "diagnosis", "JAX", "Review"},
+        new Object[] {4, "treatment", "JAX", "Request"}));
+  }
+
+  @Test
+  void getCountsByDataSource_AllStatusesReported() {
+    Map<String, Map<String, Integer>> counts = instance.getCountsByDataSource("DIAGNOSIS");
+
+    assertEquals(Map.of("Unmapped", 1, "Mapped", 1, "Review", 0, "Request", 0), counts.get("trace"));
+    assertEquals(Map.of("Unmapped", 0, "Mapped", 0, "Review", 1, "Request", 0), counts.get("jax"));
+  }
+
+  @Test
+  void onMappingEntitiesChanged_StatusChangedAndEntityDeleted_CountersAdjusted() {
+    instance.getCountsByDataSource("diagnosis");
+    when(mappingEntityRepository.findSummaryRowsByIdIn(List.of(1, 3))).thenReturn(List.<Object[]>of(
+        new Object[] {1, "diagnosis", "trace", "Mapped"}));
+
+    instance.onMappingEntitiesChanged(new MappingEntitiesChangedEvent(new LinkedHashSet<>(List.of(1, 3))));
+
+    Map<String, Map<String, Integer>> counts = instance.getCountsByDataSource("diagnosis");
+    assertEquals(Map.of("Unmapped", 0, "Mapped", 2, "Review", 0, "Request", 0), counts.get("trace"));
+    assertEquals(1, counts.size());
+    // Read only once, then adjusted in place
+    verify(mappingEntityRepository, times(1)).findSummaryRows();
+  }
+
+  @Test
+  void getSummaryByTypeAndProvider_ProgressOverAllStatuses() {
+    ReportsService reportsService = new ReportsService(instance);
+
+    MappingSummaryByTypeAndProvider summary = reportsService.getSummaryByTypeAndProvider("diagnosis");
+
+    MappingSummaryByTypeAndProvider.SummaryEntry trace = summary.getSummaryEntries().get(1);
+    assertEquals("trace", trace.getDataSource());
+    assertEquals(2, trace.getTotalTerms());
+    assertEquals(0.5, trace.getProgress());
+    assertEquals(1, summary.getSummaryEntries().get(0).getReview());
+  }
+}
@@ -0,0 +1,61 @@
+package org.cancermodels.mappings.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDateTime;
+import org.cancermodels.pdcm_admin.persistance.MappingEntity;
+import org.junit.jupiter.api.Test;
+
+class KeysetCursorTest {
+
+  @Test
+  void decode_EncodedMappingKeyCursor_SameCursor() {
+    MappingEntity mappingEntity = new MappingEntity();
+    mappingEntity.setId(15);
+    mappingEntity.setMappingKey("diagnosis|trace|some:value");
+    KeysetCursor cursor = KeysetCursor.of(KeysetSort.MAPPING_KEY, mappingEntity);
+
+    KeysetCursor decoded = KeysetCursor.decode(cursor.encode(), KeysetSort.MAPPING_KEY);
+
+    assertEquals(cursor, decoded);
+    assertEquals("diagnosis|trace|some:value", decoded.value());
+  }
+
+  @Test
+  void decode_EncodedDateCursor_SameDate() {
+    MappingEntity mappingEntity = new MappingEntity();
+    mappingEntity.setId(3);
+    mappingEntity.setDateUpdated(LocalDateTime.of(2024, 5, 1, 10, 30, 15));
+    KeysetCursor cursor = KeysetCursor.of(KeysetSort.DATE_UPDATED, mappingEntity);
+
+    KeysetCursor decoded = KeysetCursor.decode(cursor.encode(), KeysetSort.DATE_UPDATED);
+
+    assertEquals(LocalDateTime.of(2024, 5, 1, 10, 30, 15), decoded.dateValue());
+  }
+
+  @Test
+  void decode_NullDate_NullValue() {
+    MappingEntity mappingEntity = new MappingEntity();
+    mappingEntity.setId(3);
+    KeysetCursor cursor = KeysetCursor.of(KeysetSort.DATE_UPDATED, mappingEntity);
+
+    KeysetCursor decoded = KeysetCursor.decode(cursor.encode(), KeysetSort.DATE_UPDATED);
+
+    assertNull(decoded.value());
+    assertEquals(3, decoded.id());
+  }
+
+  @Test
+  void decode_CursorOfAnotherSort_Exception() {
+    String cursor = new KeysetCursor(KeysetSort.MAPPING_KEY, 1, "key").encode();
+
+    assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(cursor, KeysetSort.DATE_UPDATED));
+  }
+
+  @Test
+  void decode_InvalidCursor_Exception() {
+    assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not a cursor", KeysetSort.MAPPING_KEY));
+  }
+}
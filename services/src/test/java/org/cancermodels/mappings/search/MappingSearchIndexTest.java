@@ -0,0 +1,151 @@
+package org.cancermodels.mappings.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.cancermodels.pdcm_admin.persistance.MappingEntity;
+import org.cancermodels.pdcm_admin.persistance.MappingEntityRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+
+@ExtendWith(MockitoExtension.class)
+class MappingSearchIndexTest {
+
+  private static final LocalDateTime DATE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+  @Mock
+  private MappingEntityRepository mappingEntityRepository;
+
+  @Test
+  void search_FiltersByStatusLabelAndMappingQuery_IntersectsPostings() {
+    when(mappingEntityRepository.findAllSearchRows()).thenReturn(rows());
+    MappingSearchIndex instance = new MappingSearchIndex(mappingEntityRepository, "memory");
+
+    MappingsFilter filter = MappingsFilterBuilder.getInstance()
+        .withStatus(List.of("unmapped"))
+        .withLabel(List.of("%carcinoma%"))
+        .withMappingQuery(List.of("datasource:trace"))
+        .build();
+
+    MappingSearchIndex.SearchIds result = instance.search(filter, Sort.by("mappingKey"), 0, 10).orElseThrow();
+
+    assertEquals(List.of(3, 1), result.ids());
+    assertEquals(2, result.total());
+  }
+
+  @Test
+  void search_OffsetAndLimit_ReturnsOnlyThePageAndTheTotal() {
+    when(mappingEntityRepository.findAllSearchRows()).thenReturn(rows());
+    MappingSearchIndex instance = new MappingSearchIndex(mappingEntityRepository, "memory");
+
+    MappingSearchIndex.SearchIds result = instance.search(
+        MappingsFilterBuilder.getInstance().build(), Sort.by(Sort.Direction.DESC, "id"), 1, 2).orElseThrow();
+
+    assertEquals(List.of(3, 2), result.ids());
+    assertEquals(4, result.total());
+    verify(mappingEntityRepository, times(1)).findAllSearchRows();
+  }
+
+  @Test
+  void searchAfter_WithCursor_StartsAfterTheCursor() {
+    when(mappingEntityRepository.findAllSearchRows()).thenReturn(rows());
+    MappingSearchIndex instance = new MappingSearchIndex(mappingEntityRepository, "memory");
+    KeysetCursor cursor = new KeysetCursor(KeysetSort.MAPPING_KEY, 3, "a-key");
+
+    MappingSearchIndex.SearchIds result = instance.searchAfter(
+        MappingsFilterBuilder.getInstance().build(), KeysetSort.MAPPING_KEY, cursor, 2).orElseThrow();
+
+    assertEquals(List.of(1, 2), result.ids());
+  }
+
+  @Test
+  void refresh_ChangedAndDeletedEntities_IndexUpdated() {
+    when(mappingEntityRepository.findAllSearchRows()).thenReturn(rows());
+    MappingSearchIndex instance = new MappingSearchIndex(mappingEntityRepository, "memory");
+    instance.rebuild();
+
+    MappingEntity changed = new MappingEntity();
+    changed.setId(1);
+    changed.setMappingKey("b-key");
+    changed.setStatus("Mapped");
+    when(mappingEntityRepository.findAllWithValuesByIdIn(List.of(1, 3))).thenReturn(List.of(changed));
+
+    instance.refresh(List.of(1, 3));
+
+    MappingsFilter unmapped = MappingsFilterBuilder.getInstance().withStatus(List.of("Unmapped")).build();
+    MappingsFilter mapped = MappingsFilterBuilder.getInstance().withStatus(List.of("Mapped")).build();
+    assertEquals(List.of(2, 4), instance.search(unmapped, Sort.unsorted(), 0, -1).orElseThrow().ids());
+    assertEquals(List.of(1), instance.search(mapped, Sort.unsorted(), 0, -1).orElseThrow().ids());
+  }
+
+  @Test
+  void refresh_DeletedAndNewEntities_NewEntitiesReuseTheIndexOfTheDeletedOnes() {
+    when(mappingEntityRepository.findAllSearchRows()).thenReturn(rows());
+    MappingSearchIndex instance = new MappingSearchIndex(mappingEntityRepository, "memory");
+    instance.rebuild();
+
+    MappingEntity added = new MappingEntity();
+    added.setId(5);
+    added.setMappingKey("e-key");
+    added.setStatus("Unmapped");
+    when(mappingEntityRepository.findAllWithValuesByIdIn(List.of(2, 3))).thenReturn(List.of());
+    when(mappingEntityRepository.findAllWithValuesByIdIn(List.of(5))).thenReturn(List.of(added));
+
+    instance.refresh(List.of(2, 3));
+    instance.refresh(List.of(5));
+
+    MappingsFilter all = MappingsFilterBuilder.getInstance().build();
+    MappingsFilter carcinoma = MappingsFilterBuilder.getInstance().withLabel(List.of("%carcinoma%")).build();
+    assertEquals(List.of(1, 4, 5), instance.search(all, Sort.by("id"), 0, -1).orElseThrow().ids());
+    assertEquals(List.of(1, 4), instance.search(carcinoma, Sort.by("id"), 0, -1).orElseThrow().ids());
+  }
+
+  @Test
+  void search_SortedByText_NotAnswered() {
+    MappingSearchIndex instance = new MappingSearchIndex(mappingEntityRepository, "memory");
+
+    // The order of text depends on the collation of the database
+    assertTrue(instance.search(
+        MappingsFilterBuilder.getInstance().build(), Sort.by("mappedTermLabel"), 0, 10).isEmpty());
+    assertTrue(instance.search(
+        MappingsFilterBuilder.getInstance().build(), Sort.by("status"), 0, 10).isEmpty());
+    verify(mappingEntityRepository, never()).findAllSearchRows();
+  }
+
+  @Test
+  void search_DatabaseBackend_NotAnswered() {
+    MappingSearchIndex instance = new MappingSearchIndex(mappingEntityRepository, "database");
+
+    assertTrue(instance.search(MappingsFilterBuilder.getInstance().build(), Sort.unsorted(), 0, 10).isEmpty());
+    verify(mappingEntityRepository, never()).findAllSearchRows();
+  }
+
+  // Rows as returned by findAllSearchRows: one per mapping value, sorted by id
+  private List<Object[]> rows() {
+    List<Object[]> rows = new ArrayList<>();
+    rows.add(row(1, "b-key", "Unmapped", "SampleDiagnosis", "Lung Carcinoma", "trace"));
+    rows.add(row(2, "c-key", "Unmapped", "SampleDiagnosis", "Melanoma", "trace"));
+    rows.add(row(3, "a-key", "Unmapped", "SampleDiagnosis", "Breast carcinoma", "TRACE"));
+    rows.add(row(4, "d-key", "Unmapped", "SampleDiagnosis", "Colon carcinoma", "jax"));
+    List<Object[]> result = new ArrayList<>();
+    for (Object[] row : rows) {
+      result.add(new Object[] {row[0], row[1], row[2], null, "diagnosis", null, DATE, DATE, row[3], row[4]});
+      result.add(new Object[] {row[0], row[1], row[2], null, "diagnosis", null, DATE, DATE, "DataSource", row[5]});
+    }
+    return result;
+  }
+
+  private Object[] row(int id, String mappingKey, String status, String key, String value, String dataSource) {
+    return new Object[] {id, mappingKey, status, key, value, dataSource};
+  }
+}
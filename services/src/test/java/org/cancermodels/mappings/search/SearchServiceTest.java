@@ -0,0 +1,143 @@
+package org.cancermodels.mappings.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.cancermodels.pdcm_admin.persistance.MappingEntity;
+import org.cancermodels.pdcm_admin.persistance.MappingEntityFacetCount;
+import org.cancermodels.pdcm_admin.persistance.MappingEntityRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+@ExtendWith(MockitoExtension.class)
+class SearchServiceTest {
+
+  @Mock
+  private MappingEntityRepository mappingEntityRepository;
+
+  @Mock
+  private MappingSearchIndex mappingSearchIndex;
+
+  @Mock
+  private TrigramLabelSearch trigramLabelSearch;
+
+  @InjectMocks
+  private SearchService instance;
+
+  @Test
+  void countFacets_SeveralGroups_CountsAddedUpPerFacet() {
+    when(mappingEntityRepository.countFacets(any())).thenReturn(List.of(
+        new MappingEntityFacetCount("Mapped", "diagnosis", "Automatic", "TRACE", 3),
+        new MappingEntityFacetCount("mapped", "treatment", "Manual", "TRACE", 2),
+        new MappingEntityFacetCount("Unmapped", "diagnosis", null, "JAX", 4)));
+
+    Map<String, Map<String, Long>> facets = instance.countFacets(MappingsFilter.getInstance());
+
+    verify(mappingEntityRepository, times(1)).countFacets(any());
+    assertEquals(
+        Map.of("Unmapped", 4L, "Mapped", 5L, "Review", 0L, "Request", 0L),
+        facets.get(SearchService.STATUS_FACET));
+    assertEquals(Map.of("diagnosis", 7L, "treatment", 2L), facets.get(SearchService.ENTITY_TYPE_FACET));
+    assertEquals(Map.of("Automatic", 3L, "Manual", 2L), facets.get(SearchService.MAPPING_TYPE_FACET));
+    assertEquals(Map.of("TRACE", 5L, "JAX", 4L), facets.get(SearchService.DATA_SOURCE_FACET));
+  }
+
+  @Test
+  void countStatusWithFilter_NoEntities_AllStatusesWithZero() {
+    when(mappingEntityRepository.countFacets(any())).thenReturn(List.of());
+
+    Map<String, Long> counts = instance.countStatusWithFilter(MappingsFilter.getInstance());
+
+    assertEquals(Map.of("Unmapped", 0L, "Mapped", 0L, "Review", 0L, "Request", 0L), counts);
+  }
+
+  @Test
+  void searchWithCursor_MoreElementsThanSize_CursorOfLastElementInPage() {
+    when(mappingEntityRepository.findIds(any(), eq(KeysetSort.MAPPING_KEY.getSort()), eq(0L), eq(3)))
+        .thenReturn(List.of(1, 2, 3));
+    when(mappingEntityRepository.findAllWithValuesByIdIn(List.of(1, 2, 3))).thenReturn(List.of(
+        createMappingEntity(3, "c"), createMappingEntity(1, "a"), createMappingEntity(2, "b")));
+
+    KeysetPage<MappingEntity> page =
+        instance.searchWithCursor(MappingsFilter.getInstance(), KeysetSort.MAPPING_KEY, null, 2, false);
+
+    assertEquals(List.of(1, 2), page.content().stream().map(MappingEntity::getId).toList());
+    assertEquals(new KeysetCursor(KeysetSort.MAPPING_KEY, 2, "b"),
+        KeysetCursor.decode(page.nextCursor(), KeysetSort.MAPPING_KEY));
+    assertNull(page.total());
+    verify(mappingEntityRepository, never()).count(any(Specification.class));
+  }
+
+  @Test
+  void searchWithCursor_LastPageWithTotal_NoCursorAndTotal() {
+    when(mappingEntityRepository.findIds(any(), any(), anyLong(), anyInt())).thenReturn(List.of(1));
+    when(mappingEntityRepository.findAllWithValuesByIdIn(List.of(1))).thenReturn(List.of(createMappingEntity(1, "a")));
+    when(mappingEntityRepository.count(any(Specification.class))).thenReturn(11L);
+
+    KeysetPage<MappingEntity> page =
+        instance.searchWithCursor(MappingsFilter.getInstance(), KeysetSort.MAPPING_KEY, null, 10, true);
+
+    assertNull(page.nextCursor());
+    assertEquals(11L, page.total());
+  }
+
+  // The entities of a page, with their values, are read with one repository call whatever their
+  // number. Only the calls to the repository are checked here, not the SQL statements they run.
+  @Test
+  void search_FullPage_OneRepositoryCallForIdsAndOneForEntities() {
+    List<Integer> ids = IntStream.rangeClosed(1, 100).boxed().toList();
+    Pageable pageable = PageRequest.of(2, 100, Sort.by("mappingKey"));
+    when(mappingEntityRepository.findIds(any(), eq(pageable.getSort()), eq(200L), eq(100))).thenReturn(ids);
+    when(mappingEntityRepository.findAllWithValuesByIdIn(ids))
+        .thenReturn(ids.stream().map(x -> createMappingEntity(x, "key" + x)).toList());
+    when(mappingEntityRepository.count(any(Specification.class))).thenReturn(1000L);
+
+    Page<MappingEntity> page = instance.search(pageable, MappingsFilter.getInstance());
+
+    assertEquals(ids, page.getContent().stream().map(MappingEntity::getId).toList());
+    assertEquals(1000L, page.getTotalElements());
+    verify(mappingEntityRepository, times(1)).findIds(any(), any(), anyLong(), anyInt());
+    verify(mappingEntityRepository, times(1)).findAllWithValuesByIdIn(any());
+    verify(mappingEntityRepository, times(1)).count(any(Specification.class));
+    verifyNoMoreInteractions(mappingEntityRepository);
+  }
+
+  @Test
+  void search_LastPage_NoCountQuery() {
+    Pageable pageable = PageRequest.of(0, 10);
+    when(mappingEntityRepository.findIds(any(), any(), anyLong(), anyInt())).thenReturn(List.of(1));
+    when(mappingEntityRepository.findAllWithValuesByIdIn(List.of(1))).thenReturn(List.of(createMappingEntity(1, "a")));
+
+    Page<MappingEntity> page = instance.search(pageable, MappingsFilter.getInstance());
+
+    assertEquals(1, page.getTotalElements());
+    verify(mappingEntityRepository, never()).count(any(Specification.class));
+  }
+
+  private MappingEntity createMappingEntity(int id, String mappingKey) {
+    MappingEntity mappingEntity = new MappingEntity();
+    mappingEntity.setId(id);
+    mappingEntity.setMappingKey(mappingKey);
+    return mappingEntity;
+  }
+}
@@ -0,0 +1,69 @@
+package org.cancermodels.mappings.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import org.cancermodels.pdcm_admin.persistance.MappingEntityRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class TrigramLabelSearchTest {
+
+  @Mock
+  private MappingEntityRepository mappingEntityRepository;
+
+  @Test
+  void findEntityIds_SeveralLabels_RankedByBestSimilarity() {
+    TrigramLabelSearch instance = new TrigramLabelSearch(mappingEntityRepository, "trigram", 100);
+    when(mappingEntityRepository.findIdsByLabelSimilarity("%lung%", "lung")).thenReturn(List.of(
+        new Object[] {1, 0.4f}, new Object[] {2, 0.9f}));
+    when(mappingEntityRepository.findIdsByLabelSimilarity("melanom_", "melanom")).thenReturn(List.of(
+        new Object[] {3, 0.6f}, new Object[] {1, 0.7f}));
+
+    Optional<List<Integer>> ids = instance.findEntityIds(List.of("%Lung%", "Melanom_"));
+
+    assertEquals(Optional.of(List.of(2, 1, 3)), ids);
+  }
+
+  @Test
+  void findEntityIds_TooManyMatches_LikeFilterUsedInstead() {
+    TrigramLabelSearch instance = new TrigramLabelSearch(mappingEntityRepository, "trigram", 1);
+    when(mappingEntityRepository.findIdsByLabelSimilarity(any(), any())).thenReturn(List.of(
+        new Object[] {1, 0.4f}, new Object[] {2, 0.9f}));
+
+    assertTrue(instance.findEntityIds(List.of("%carcinoma%")).isEmpty());
+  }
+
+  @Test
+  void findEntityIds_DatabaseBackend_LikeFilterUsed() {
+    TrigramLabelSearch instance = new TrigramLabelSearch(mappingEntityRepository, "database", 100);
+
+    assertTrue(instance.findEntityIds(List.of("%carcinoma%")).isEmpty());
+    verify(mappingEntityRepository, never()).findIdsByLabelSimilarity(any(), any());
+  }
+
+  @Test
+  void suggestLabels_WildcardsInText_EscapedInPattern() {
+    TrigramLabelSearch instance = new TrigramLabelSearch(mappingEntityRepository, "trigram", 100);
+    when(mappingEntityRepository.findLabelsBySimilarity("%100\\%%", "100", 5)).thenReturn(List.of("100%"));
+
+    assertEquals(List.of("100%"), instance.suggestLabels("100%", 5));
+  }
+
+  @Test
+  void suggestLabels_DatabaseBackend_Rejected() {
+    TrigramLabelSearch instance = new TrigramLabelSearch(mappingEntityRepository, "database", 100);
+
+    assertThrows(IllegalArgumentException.class, () -> instance.suggestLabels("lung", 5));
+  }
+}
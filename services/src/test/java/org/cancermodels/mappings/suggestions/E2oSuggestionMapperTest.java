@@ -0,0 +1,145 @@
+package org.cancermodels.mappings.suggestions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import org.cancer_models.entity2ontology.common.model.TargetEntity;
+import org.cancer_models.entity2ontology.common.model.TargetEntityDataFields;
+import org.cancer_models.entity2ontology.common.model.TargetEntityType;
+import org.cancermodels.general.MappingEntityBuilder;
+import org.cancermodels.pdcm_admin.persistance.MappingEntity;
+import org.cancermodels.pdcm_admin.persistance.MappingEntityRepository;
+import org.cancermodels.pdcm_admin.persistance.OntologyTerm;
+import org.cancermodels.pdcm_admin.persistance.OntologyTermRepository;
+import org.cancermodels.pdcm_admin.persistance.Suggestion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class E2oSuggestionMapperTest {
+
+  @Mock
+  private MappingEntityRepository mappingEntityRepository;
+
+  @Mock
+  private OntologyTermRepository ontologyTermRepository;
+
+  private E2oSuggestionMapper instance;
+
+  @BeforeEach
+  void setup() {
+    instance = new E2oSuggestionMapper(mappingEntityRepository, ontologyTermRepository);
+  }
+
+  @Test
+  void shouldResolveAllKeysWithOneQueryPerTypeAndSaveOnlyMissingTerms() {
+    OntologyTerm existingTerm = createOntologyTerm("NCIT_1", "label 1", "description 1");
+    MappingEntity rule = new MappingEntityBuilder().setId(1).setMappingKey("rule_1").build();
+    when(ontologyTermRepository.findAllByKeyIn(Set.of("NCIT_1", "NCIT_2"))).thenReturn(List.of(existingTerm));
+    when(mappingEntityRepository.findAllByMappingKeyIn(Set.of("rule_1"))).thenReturn(List.of(rule));
+
+    List<Suggestion> suggestions = instance.e2oSuggestionsToSuggestions(List.of(
+        createOntologySuggestion("NCIT_1", "label 1", "description 1"),
+        createRuleSuggestion("rule_1"),
+        createOntologySuggestion("NCIT_2", "label 2", "description 2"),
+        createOntologySuggestion("NCIT_2", "label 2", "description 2")));
+
+    assertEquals(4, suggestions.size());
+    assertSame(existingTerm, suggestions.get(0).getOntologyTerm());
+    assertSame(rule, suggestions.get(1).getMappingEntity());
+    assertNull(suggestions.get(1).getOntologyTerm());
+    assertEquals("NCIT_2", suggestions.get(2).getOntologyTerm().getKey());
+    // The same term suggested twice is stored only once
+    assertSame(suggestions.get(2).getOntologyTerm(), suggestions.get(3).getOntologyTerm());
+
+    ArgumentCaptor<Collection<OntologyTerm>> savedCaptor = ArgumentCaptor.captor();
+    verify(ontologyTermRepository, times(1)).saveAll(savedCaptor.capture());
+    assertEquals(List.of(suggestions.get(2).getOntologyTerm()), List.copyOf(savedCaptor.getValue()));
+    verify(ontologyTermRepository, never()).findByKey(any());
+    verify(mappingEntityRepository, never()).findByMappingKey(any());
+  }
+
+  @Test
+  void shouldNotSaveAnythingWhenTermsExistAndHaveNotChanged() {
+    OntologyTerm existingTerm = createOntologyTerm("NCIT_1", "label 1", "description 1");
+    when(ontologyTermRepository.findAllByKeyIn(Set.of("NCIT_1"))).thenReturn(List.of(existingTerm));
+
+    instance.e2oSuggestionsToSuggestions(
+        List.of(createOntologySuggestion("NCIT_1", "label 1", "description 1")));
+
+    verify(ontologyTermRepository, never()).saveAll(any());
+    verify(mappingEntityRepository, never()).findAllByMappingKeyIn(any());
+  }
+
+  @Test
+  void shouldSaveExistingTermWhenItChanged() {
+    OntologyTerm existingTerm = createOntologyTerm("NCIT_1", "old label", "description 1");
+    when(ontologyTermRepository.findAllByKeyIn(Set.of("NCIT_1"))).thenReturn(List.of(existingTerm));
+
+    List<Suggestion> suggestions = instance.e2oSuggestionsToSuggestions(
+        List.of(createOntologySuggestion("NCIT_1", "new label", "description 1")));
+
+    assertSame(existingTerm, suggestions.getFirst().getOntologyTerm());
+    assertEquals("new label", existingTerm.getLabel());
+    verify(ontologyTermRepository).saveAll(List.of(existingTerm));
+  }
+
+  @Test
+  void shouldNotSaveNewOrChangedTermsWhenSavingIsDisabled() {
+    OntologyTerm existingTerm = createOntologyTerm("NCIT_1", "old label", "description 1");
+    when(ontologyTermRepository.findAllByKeyIn(Set.of("NCIT_1", "NCIT_2"))).thenReturn(List.of(existingTerm));
+
+    List<Suggestion> suggestions = instance.e2oSuggestionsToSuggestions(List.of(
+        createOntologySuggestion("NCIT_1", "new label", "description 1"),
+        createOntologySuggestion("NCIT_2", "label 2", "description 2")), false);
+
+    assertSame(existingTerm, suggestions.get(0).getOntologyTerm());
+    assertEquals("old label", existingTerm.getLabel());
+    assertEquals("NCIT_2", suggestions.get(1).getOntologyTerm().getKey());
+    verify(ontologyTermRepository, never()).saveAll(any());
+  }
+
+  private OntologyTerm createOntologyTerm(String key, String label, String description) {
+    OntologyTerm ontologyTerm = new OntologyTerm();
+    ontologyTerm.setKey(key);
+    ontologyTerm.setType("ontology");
+    ontologyTerm.setUrl("http://purl.obolibrary.org/obo/" + key);
+    ontologyTerm.setLabel(label);
+    ontologyTerm.setDescription(description);
+    return ontologyTerm;
+  }
+
+  private org.cancer_models.entity2ontology.map.model.Suggestion createOntologySuggestion(
+      String key, String label, String description) {
+    TargetEntityDataFields dataFields = new TargetEntityDataFields();
+    dataFields.addStringField("label", label);
+    dataFields.addStringField("description", description);
+    String url = "http://purl.obolibrary.org/obo/" + key;
+    TargetEntity targetEntity = new TargetEntity(
+        key, "diagnosis", TargetEntityType.ONTOLOGY, dataFields, label, url);
+    org.cancer_models.entity2ontology.map.model.Suggestion suggestion =
+        new org.cancer_models.entity2ontology.map.model.Suggestion(targetEntity);
+    suggestion.setTermLabel(label);
+    suggestion.setTermUrl(url);
+    return suggestion;
+  }
+
+  private org.cancer_models.entity2ontology.map.model.Suggestion createRuleSuggestion(String key) {
+    TargetEntity targetEntity = new TargetEntity(
+        key, "diagnosis", TargetEntityType.RULE, new TargetEntityDataFields(), "label", "url");
+    return new org.cancer_models.entity2ontology.map.model.Suggestion(targetEntity);
+  }
+}
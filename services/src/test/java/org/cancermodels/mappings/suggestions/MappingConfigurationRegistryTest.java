@@ -0,0 +1,69 @@
+package org.cancermodels.mappings.suggestions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import org.cancer_models.entity2ontology.exceptions.MappingException;
+import org.cancer_models.entity2ontology.map.model.MappingConfiguration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappingConfigurationRegistryTest {
+
+  private static final String CONFIGURATION =
+      "{\"name\": \"%s\", \"configurations\": [{\"entityType\": \"treatment\", "
+          + "\"fields\": [{\"name\": \"TreatmentName\", \"weight\": 1}], "
+          + "\"ontologyTemplates\": [\"${TreatmentName}\"]}]}";
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void shouldParseTheConfigurationOnlyOnceWhenFileDoesNotChange() throws Exception {
+    Path file = writeConfiguration("first");
+    MappingConfigurationRegistry registry = new MappingConfigurationRegistry(file.toString());
+
+    MappingConfiguration configuration = registry.getConfiguration();
+
+    assertEquals("first", configuration.getName());
+    assertSame(configuration, registry.getConfiguration());
+  }
+
+  @Test
+  void shouldReloadTheConfigurationWhenFileChanges() throws Exception {
+    Path file = writeConfiguration("first");
+    MappingConfigurationRegistry registry = new MappingConfigurationRegistry(file.toString());
+    MappingConfiguration first = registry.getConfiguration();
+
+    writeConfiguration("second");
+    Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 1000));
+
+    MappingConfiguration second = registry.getConfiguration();
+    assertNotSame(first, second);
+    assertEquals("second", second.getName());
+  }
+
+  @Test
+  void shouldKeepPreviousConfigurationWhenNewFileIsInvalid() throws Exception {
+    Path file = writeConfiguration("first");
+    MappingConfigurationRegistry registry = new MappingConfigurationRegistry(file.toString());
+    MappingConfiguration first = registry.getConfiguration();
+
+    Files.writeString(file, "{ not json");
+    Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 1000));
+
+    assertSame(first, registry.getConfiguration());
+    assertThrows(MappingException.class, registry::reload);
+    assertSame(first, registry.getConfiguration());
+  }
+
+  private Path writeConfiguration(String name) throws IOException {
+    return Files.writeString(tempDir.resolve("configuration.json"), String.format(CONFIGURATION, name));
+  }
+}
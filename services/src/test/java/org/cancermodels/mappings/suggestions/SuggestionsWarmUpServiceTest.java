@@ -0,0 +1,110 @@
+package org.cancermodels.mappings.suggestions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.cancer_models.entity2ontology.exceptions.MalformedMappingConfigurationException;
+import org.cancer_models.entity2ontology.exceptions.MappingException;
+import org.cancermodels.general.MappingEntityBuilder;
+import org.cancermodels.general.SuggestionBuilder;
+import org.cancermodels.jobs.JobProgress;
+import org.cancermodels.mappings.IndexGenerationService;
+import org.cancermodels.pdcm_admin.EntityTypeName;
+import org.cancermodels.pdcm_admin.persistance.MappingEntity;
+import org.cancermodels.pdcm_admin.persistance.MappingEntityRepository;
+import org.cancermodels.pdcm_admin.persistance.Suggestion;
+import org.cancermodels.process_report.ProcessResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class SuggestionsWarmUpServiceTest {
+
+  @Mock
+  private MappingEntityRepository mappingEntityRepository;
+
+  @Mock
+  private SuggestionService suggestionService;
+
+  @Mock
+  private IndexGenerationService indexGenerationService;
+
+  @Test
+  void warmUp_SeveralChunks_AllEntitiesProcessed() throws MalformedMappingConfigurationException, MappingException {
+    SuggestionsWarmUpService instance = new SuggestionsWarmUpService(mappingEntityRepository, suggestionService, indexGenerationService, 2, 3);
+    List<Integer> ids = List.of(1, 2, 3, 4, 5);
+    List<long[]> progressUpdates = new ArrayList<>();
+    JobProgress progress = new JobProgress() {
+      @Override
+      public void update(long processed, long total) {
+        progressUpdates.add(new long[]{processed, total});
+      }
+
+      @Override
+      public boolean isCancelled() {
+        return false;
+      }
+    };
+
+    when(indexGenerationService.getCurrentGeneration()).thenReturn(Optional.of("gen-2"));
+    when(mappingEntityRepository.findIdsWithOutdatedSuggestions(anyCollection(), eq("gen-2"))).thenReturn(ids);
+    when(mappingEntityRepository.findAllById(anyList())).thenAnswer(invocation -> {
+      List<Integer> chunk = invocation.getArgument(0);
+      return chunk.stream().map(this::createMappingEntity).toList();
+    });
+    when(suggestionService.findSuggestions(anyList())).thenAnswer(invocation -> {
+      List<MappingEntity> chunk = invocation.getArgument(0);
+      Map<Integer, List<Suggestion>> result = new LinkedHashMap<>();
+      chunk.forEach(x -> result.put(x.getId(), List.of(new SuggestionBuilder().build())));
+      return result;
+    });
+    when(suggestionService.storeSuggestions(anyMap(), eq("gen-2")))
+        .thenAnswer(invocation -> ((Map<?, ?>) invocation.getArgument(0)).size());
+
+    ProcessResponse response = instance.warmUp(progress);
+
+    verify(suggestionService, times(3)).findSuggestions(anyList());
+    assertEquals("5", response.getResponse().get("Entities processed"));
+    assertEquals("5", response.getResponse().get("Suggestions stored"));
+    assertEquals(3, progressUpdates.size());
+    assertEquals(5, progressUpdates.get(2)[0]);
+    assertEquals(5, progressUpdates.get(2)[1]);
+  }
+
+  @Test
+  void warmUp_NoEntitiesWithoutSuggestions_NothingCalculated() throws MalformedMappingConfigurationException, MappingException {
+    SuggestionsWarmUpService instance = new SuggestionsWarmUpService(mappingEntityRepository, suggestionService, indexGenerationService, 2, 3);
+    when(indexGenerationService.getCurrentGeneration()).thenReturn(Optional.empty());
+    when(mappingEntityRepository.findIdsWithoutSuggestions(anyCollection())).thenReturn(List.of());
+
+    ProcessResponse response = instance.warmUp(JobProgress.NONE);
+
+    verify(suggestionService, never()).findSuggestions(anyList());
+    assertEquals("0", response.getResponse().get("Entities processed"));
+  }
+
+  @Test
+  void constructor_InvalidChunkSize_Exception() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new SuggestionsWarmUpService(mappingEntityRepository, suggestionService, indexGenerationService, 0, 1));
+  }
+
+  private MappingEntity createMappingEntity(int id) {
+    return new MappingEntityBuilder().setId(id).setEntityType(EntityTypeName.Diagnosis).build();
+  }
+}
@@ -0,0 +1,81 @@
+package org.cancermodels.reader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import tech.tablesaw.api.Row;
+import tech.tablesaw.api.Table;
+
+class TsvColumnReaderTest {
+    private static final String testDataDir = "src/test/testdata/";
+
+    @Test
+    void readColumns_DiagnosisData_SameRowsAsTable() {
+        assertSameRowsAsTable(
+            "dataset2/PROVIDER-A/PROVIDER-A_metadata-patient_sample.tsv",
+            List.of("diagnosis", "tumour_type", "primary_site"));
+        assertSameRowsAsTable(
+            "dataset1/PDMR/PDMR_metadata-patient_sample.tsv",
+            List.of("diagnosis", "tumour_type", "primary_site"));
+    }
+
+    @Test
+    void readColumns_TreatmentData_SameRowsAsTable() {
+        assertSameRowsAsTable(
+            "dataset2/PROVIDER-A/treatment/PROVIDER-A_patienttreatment-Sheet1.tsv",
+            List.of("treatment_name"));
+        assertSameRowsAsTable(
+            "dataset2/PROVIDER-A/drug/PROVIDER-A_drugdosing-Sheet1.tsv",
+            List.of("treatment_name"));
+    }
+
+    @Test
+    void readColumns_MissingValueIndicators_SameRowsAsTable() {
+        assertSameRowsAsTable(
+            "missing_values/missing_values.tsv",
+            List.of("diagnosis", "tumour_type", "primary_site", "treatment_name"));
+    }
+
+    @Test
+    void readColumns_MissingValueIndicators_ReadAsEmpty() {
+        File file = new File(testDataDir + "missing_values/missing_values.tsv");
+        List<Map<String, String>> obtained = new ArrayList<>();
+
+        TsvColumnReader.readColumns(file, List.of("diagnosis", "tumour_type", "primary_site"), obtained::add);
+
+        assertThat(obtained.get(1)).containsOnly(
+            Map.entry("diagnosis", ""), Map.entry("tumour_type", ""), Map.entry("primary_site", ""));
+        // Only the exact indicators are missing values
+        assertThat(obtained.get(4)).containsOnly(
+            Map.entry("diagnosis", "na"), Map.entry("tumour_type", "n/a"), Map.entry("primary_site", "NULL"));
+    }
+
+    @Test
+    void readColumns_UnknownColumn_ThrowsException() {
+        File file = new File(testDataDir + "dataset2/PROVIDER-A/PROVIDER-A_metadata-patient_sample.tsv");
+
+        assertThrows(IllegalArgumentException.class,
+            () -> TsvColumnReader.readColumns(file, List.of("unknown_column"), x -> {}));
+    }
+
+    private void assertSameRowsAsTable(String path, List<String> columns) {
+        File file = new File(testDataDir + path);
+        List<List<String>> expected = new ArrayList<>();
+        Table table = TableUtilities.readTsv(file);
+        for (Row row : table) {
+            expected.add(columns.stream().map(row::getString).toList());
+        }
+
+        List<List<String>> obtained = new ArrayList<>();
+        TsvColumnReader.readColumns(file, columns, (Map<String, String> values) ->
+            obtained.add(columns.stream().map(values::get).toList()));
+
+        assertThat(obtained).isNotEmpty();
+        assertThat(obtained).containsExactlyElementsOf(expected);
+    }
+}